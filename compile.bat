@@ -8,7 +8,7 @@ if not exist "bin" mkdir bin
 
 REM Compile all Java files
 echo Compiling source files...
-javac -d bin -cp "lib/*" src/models/*.java src/database/*.java src/interfaces/*.java src/utils/*.java src/gui/*.java src/MainApplication.java
+javac -d bin -cp "lib/*" src/models/*.java src/database/*.java src/interfaces/*.java src/utils/*.java src/gui/*.java src/benchmark/*.java src/MainApplication.java
 
 if %errorlevel% equ 0 (
     echo.
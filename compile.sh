@@ -9,7 +9,7 @@ mkdir -p bin
 
 # Compile all Java files
 echo "Compiling source files..."
-javac -d bin -cp "lib/*" src/models/*.java src/database/*.java src/interfaces/*.java src/utils/*.java src/gui/*.java src/MainApplication.java
+javac -d bin -cp "lib/*" src/models/*.java src/database/*.java src/interfaces/*.java src/utils/*.java src/gui/*.java src/benchmark/*.java src/MainApplication.java
 
 if [ $? -eq 0 ]; then
     echo ""
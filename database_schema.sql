@@ -1,4 +1,6 @@
 -- Blood and Organ Donation Management System Database Schema
+-- Full schema for a new installation. The application also creates the
+-- tables itself from db/migrations if the database is empty.
 
 CREATE DATABASE IF NOT EXISTS blood_organ_donation;
 USE blood_organ_donation;
@@ -24,7 +26,13 @@ CREATE TABLE donor (
     contact VARCHAR(15) NOT NULL,
     location VARCHAR(100) NOT NULL,
     registration_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (user_id) REFERENCES user(user_id) ON DELETE CASCADE
+    latitude DOUBLE NULL,
+    longitude DOUBLE NULL,
+    FOREIGN KEY (user_id) REFERENCES user(user_id) ON DELETE CASCADE,
+    INDEX idx_donor_blood_group (blood_group, registration_date, donor_id),
+    INDEX idx_donor_registration (registration_date, donor_id),
+    INDEX idx_donor_coordinates (latitude, longitude),
+    INDEX idx_donor_age (age, registration_date, donor_id)
 );
 
 -- Charity request table
@@ -37,7 +45,9 @@ CREATE TABLE charity_request (
     goal_amount DECIMAL(10,2) NOT NULL,
     raised_amount DECIMAL(10,2) DEFAULT 0,
     created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    status VARCHAR(20) DEFAULT 'ACTIVE'
+    status VARCHAR(20) DEFAULT 'ACTIVE',
+    INDEX idx_charity_status_created (status, created_date),
+    INDEX idx_charity_created (created_date)
 );
 
 -- Donation table
@@ -48,7 +58,10 @@ CREATE TABLE donation (
     amount DECIMAL(10,2) NOT NULL,
     donation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     payment_method VARCHAR(50),
-    FOREIGN KEY (request_id) REFERENCES charity_request(request_id) ON DELETE CASCADE
+    transaction_id VARCHAR(64),
+    FOREIGN KEY (request_id) REFERENCES charity_request(request_id) ON DELETE CASCADE,
+    INDEX idx_donation_request_amount (request_id, donation_date, donation_id, amount),
+    UNIQUE INDEX uq_donation_gateway_transaction (payment_method, transaction_id)
 );
 
 -- Recipient table
@@ -65,7 +78,52 @@ CREATE TABLE recipient (
     urgency_level VARCHAR(20) DEFAULT 'NORMAL',
     medical_condition TEXT,
     registration_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (user_id) REFERENCES user(user_id) ON DELETE CASCADE
+    latitude DOUBLE NULL,
+    longitude DOUBLE NULL,
+    FOREIGN KEY (user_id) REFERENCES user(user_id) ON DELETE CASCADE,
+    INDEX idx_recipient_registration (registration_date, recipient_id)
+);
+
+-- Donor match table (filled by the batch matchmaking job)
+CREATE TABLE donor_match (
+    recipient_id INT NOT NULL,
+    match_rank INT NOT NULL,
+    donor_id INT NOT NULL,
+    priority INT NOT NULL,
+    distance_km DOUBLE NULL,
+    matched_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (recipient_id, match_rank),
+    FOREIGN KEY (recipient_id) REFERENCES recipient(recipient_id) ON DELETE CASCADE,
+    FOREIGN KEY (donor_id) REFERENCES donor(donor_id) ON DELETE CASCADE,
+    INDEX idx_match_priority (priority, distance_km)
+);
+
+-- Striped raised-amount counters (charity.raisedSlots); folded into
+-- charity_request.raised_amount by the background compactor
+CREATE TABLE charity_raised_slot (
+    request_id INT NOT NULL,
+    slot SMALLINT NOT NULL,
+    amount DECIMAL(12,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (request_id, slot),
+    FOREIGN KEY (request_id) REFERENCES charity_request(request_id) ON DELETE CASCADE
+);
+
+-- Donation totals per request, day, payment method and requester type,
+-- updated with every donation for the dashboards
+CREATE TABLE donation_rollup (
+    dimension VARCHAR(10) NOT NULL,
+    dim_key VARCHAR(100) NOT NULL,
+    slot SMALLINT NOT NULL DEFAULT 0,
+    donation_count INT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (dimension, dim_key, slot)
+);
+
+-- Position up to which each local donation journal has been recorded
+CREATE TABLE donation_journal (
+    journal_id VARCHAR(36) PRIMARY KEY,
+    applied_seq BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
 
 -- Insert default receptionist user
@@ -77,3 +135,10 @@ VALUES
 ('Children Vaccine Drive', 'Help provide vaccines to underprivileged children in rural areas', 'Hope Foundation', 'Medical', 50000.00, 15000.00),
 ('Emergency Medical Fund', 'Support for patients requiring urgent medical treatment', 'City Hospital', 'Medical', 100000.00, 25000.00),
 ('Blood Donation Camp', 'Organize blood donation camps across the city', 'Red Cross Society', 'Event', 30000.00, 10000.00);
+
+-- Later schema changes ship as migration scripts in db/migrations and are
+-- applied automatically when the application starts (see MigrationRunner).
+-- Databases created from this file already have the V002 indexes, the
+-- V003 coordinate columns, the V004 index, the V005 donor_match table, the
+-- V006 charity_raised_slot table, the V007 donation_rollup table, the
+-- V008 donation_journal table and the V009 donation transaction_id column.
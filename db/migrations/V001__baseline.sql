@@ -0,0 +1,84 @@
+-- V001: baseline schema
+-- The original tables and seed data. Every statement is a no-op on a
+-- database that was created from database_schema.sql, so existing
+-- installations can adopt migrations without changes.
+
+-- User table for authentication
+CREATE TABLE IF NOT EXISTS user (
+    user_id INT PRIMARY KEY AUTO_INCREMENT,
+    username VARCHAR(50) UNIQUE NOT NULL,
+    password VARCHAR(100) NOT NULL,
+    role VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Donor table
+CREATE TABLE IF NOT EXISTS donor (
+    donor_id INT PRIMARY KEY AUTO_INCREMENT,
+    user_id INT,
+    name VARCHAR(100) NOT NULL,
+    age INT NOT NULL,
+    gender VARCHAR(10) NOT NULL,
+    blood_group VARCHAR(5) NOT NULL,
+    organ VARCHAR(50),
+    contact VARCHAR(15) NOT NULL,
+    location VARCHAR(100) NOT NULL,
+    registration_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES user(user_id) ON DELETE CASCADE
+);
+
+-- Charity request table
+CREATE TABLE IF NOT EXISTS charity_request (
+    request_id INT PRIMARY KEY AUTO_INCREMENT,
+    title VARCHAR(200) NOT NULL,
+    description TEXT,
+    requester_name VARCHAR(100) NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    goal_amount DECIMAL(10,2) NOT NULL,
+    raised_amount DECIMAL(10,2) DEFAULT 0,
+    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    status VARCHAR(20) DEFAULT 'ACTIVE'
+);
+
+-- Donation table
+CREATE TABLE IF NOT EXISTS donation (
+    donation_id INT PRIMARY KEY AUTO_INCREMENT,
+    donor_name VARCHAR(100) NOT NULL,
+    request_id INT,
+    amount DECIMAL(10,2) NOT NULL,
+    donation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    payment_method VARCHAR(50),
+    FOREIGN KEY (request_id) REFERENCES charity_request(request_id) ON DELETE CASCADE
+);
+
+-- Recipient table
+CREATE TABLE IF NOT EXISTS recipient (
+    recipient_id INT PRIMARY KEY AUTO_INCREMENT,
+    user_id INT,
+    name VARCHAR(100) NOT NULL,
+    age INT NOT NULL,
+    gender VARCHAR(10) NOT NULL,
+    blood_group_needed VARCHAR(5) NOT NULL,
+    organ_needed VARCHAR(50),
+    contact VARCHAR(15) NOT NULL,
+    location VARCHAR(100) NOT NULL,
+    urgency_level VARCHAR(20) DEFAULT 'NORMAL',
+    medical_condition TEXT,
+    registration_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES user(user_id) ON DELETE CASCADE
+);
+
+-- Insert default receptionist user
+INSERT IGNORE INTO user (username, password, role) VALUES ('admin', 'admin123', 'RECEPTIONIST');
+
+-- Insert sample charity requests
+-- (only into an empty table, so databases created from database_schema.sql are left as they are)
+INSERT INTO charity_request (title, description, requester_name, type, goal_amount, raised_amount)
+SELECT * FROM (
+    SELECT 'Children Vaccine Drive', 'Help provide vaccines to underprivileged children in rural areas', 'Hope Foundation', 'Medical', 50000.00, 15000.00
+    UNION ALL
+    SELECT 'Emergency Medical Fund', 'Support for patients requiring urgent medical treatment', 'City Hospital', 'Medical', 100000.00, 25000.00
+    UNION ALL
+    SELECT 'Blood Donation Camp', 'Organize blood donation camps across the city', 'Red Cross Society', 'Event', 30000.00, 10000.00
+) AS seed
+WHERE NOT EXISTS (SELECT 1 FROM charity_request);
@@ -0,0 +1,29 @@
+-- V002: indexes for the DAO queries
+-- Each index leads with the WHERE equality columns and continues with
+-- the ORDER BY columns, so the query reads rows in order from the index
+-- and stops at its LIMIT instead of sorting the whole table.
+--
+-- donor.user_id and recipient.user_id lookups already use the indexes
+-- InnoDB creates for their foreign keys. LIKE '%text%' searches on organ
+-- and location cannot use a B-tree index.
+
+-- DonorDAO.searchByBloodGroup: WHERE blood_group = ? ORDER BY registration_date DESC
+CREATE INDEX idx_donor_blood_group ON donor (blood_group, registration_date, donor_id);
+
+-- DonorDAO.getAllDonors / getDonorsPage: ORDER BY registration_date DESC, donor_id DESC
+CREATE INDEX idx_donor_registration ON donor (registration_date, donor_id);
+
+-- RecipientDAO.getAllRecipients / getRecipientsPage: ORDER BY registration_date DESC, recipient_id DESC
+CREATE INDEX idx_recipient_registration ON recipient (registration_date, recipient_id);
+
+-- CharityDAO.getDonationsByRequestId / getDonationsPage / getDonationWindow:
+-- WHERE request_id = ? ORDER BY donation_date DESC, donation_id DESC
+-- With amount in the index, the window's running totals are summed from
+-- the index alone, without a row lookup per donation.
+CREATE INDEX idx_donation_request_amount ON donation (request_id, donation_date, donation_id, amount);
+
+-- CharityDAO.getActiveCharityRequests: WHERE status = 'ACTIVE' ORDER BY created_date DESC
+CREATE INDEX idx_charity_status_created ON charity_request (status, created_date);
+
+-- CharityDAO.getAllCharityRequests: ORDER BY created_date DESC
+CREATE INDEX idx_charity_created ON charity_request (created_date);
@@ -0,0 +1,14 @@
+-- V003: coordinates for donor and recipient locations
+-- Resolved from the free-text location through the offline gazetteer
+-- (data/gazetteer.csv) whenever a row is written; NULL when the location
+-- names no known place. Rows written before this migration get their
+-- coordinates on their next update (the in-memory search index resolves
+-- them itself when it loads).
+
+ALTER TABLE donor ADD COLUMN latitude DOUBLE NULL;
+ALTER TABLE donor ADD COLUMN longitude DOUBLE NULL;
+ALTER TABLE recipient ADD COLUMN latitude DOUBLE NULL;
+ALTER TABLE recipient ADD COLUMN longitude DOUBLE NULL;
+
+-- DonorDAO.searchNearestDonors: latitude BETWEEN ? AND ? AND longitude BETWEEN ? AND ?
+CREATE INDEX idx_donor_coordinates ON donor (latitude, longitude);
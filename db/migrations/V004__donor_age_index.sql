@@ -0,0 +1,8 @@
+-- V004: index for the age range condition of DonorDAO.searchDonors
+-- Blood group, location and organ conditions already have idx_donor_blood_group,
+-- idx_donor_coordinates or no usable B-tree index (LIKE '%text%'); gender has
+-- too few values to be worth indexing. MySQL picks between these indexes
+-- from their statistics when several conditions are combined.
+
+-- DonorDAO.searchDonors: WHERE age >= ? AND age <= ? ORDER BY registration_date DESC
+CREATE INDEX idx_donor_age ON donor (age, registration_date, donor_id);
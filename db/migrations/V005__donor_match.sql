@@ -0,0 +1,18 @@
+-- V005: results of the batch matchmaking job (MatchmakingJob)
+-- Each run replaces the whole table. A recipient's rows are numbered by
+-- match_rank (nearest donor first, then the younger donor); priority is the
+-- recipient's urgency (0 = CRITICAL, 1 = URGENT, 2 = NORMAL) so the most
+-- urgent matches can be listed first across all recipients.
+
+CREATE TABLE IF NOT EXISTS donor_match (
+    recipient_id INT NOT NULL,
+    match_rank INT NOT NULL,
+    donor_id INT NOT NULL,
+    priority INT NOT NULL,
+    distance_km DOUBLE NULL,
+    matched_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (recipient_id, match_rank),
+    FOREIGN KEY (recipient_id) REFERENCES recipient(recipient_id) ON DELETE CASCADE,
+    FOREIGN KEY (donor_id) REFERENCES donor(donor_id) ON DELETE CASCADE,
+    INDEX idx_match_priority (priority, distance_km)
+);
@@ -0,0 +1,14 @@
+-- V006: striped raised-amount counters for busy charity requests
+-- With charity.raisedSlots > 0, a donation adds its amount to one of that
+-- many slot rows for its request (picked at random) instead of updating
+-- charity_request.raised_amount, so concurrent donations to one request
+-- lock different rows. Reads add the slots to raised_amount, and a
+-- background compactor periodically folds them back into it.
+
+CREATE TABLE IF NOT EXISTS charity_raised_slot (
+    request_id INT NOT NULL,
+    slot SMALLINT NOT NULL,
+    amount DECIMAL(12,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (request_id, slot),
+    FOREIGN KEY (request_id) REFERENCES charity_request(request_id) ON DELETE CASCADE
+);
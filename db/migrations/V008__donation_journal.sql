@@ -0,0 +1,11 @@
+-- V008: recorded position of each donation journal
+-- Confirmed donations are first appended to a local journal (DonationJournal)
+-- and then recorded here in batches. Each batch updates its journal's
+-- applied_seq in the same transaction, so after a crash the journal resumes
+-- after the last recorded donation and records none twice.
+
+CREATE TABLE IF NOT EXISTS donation_journal (
+    journal_id VARCHAR(36) PRIMARY KEY,
+    applied_seq BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
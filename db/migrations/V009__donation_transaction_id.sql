@@ -0,0 +1,13 @@
+-- V009: payment gateway transaction ID of each donation
+-- The unique index makes recording a donation idempotent: a donation
+-- submitted again with the same transaction ID through the same gateway
+-- (a retry, a journal replay) is rejected, and CharityDAO skips it instead
+-- of adding to raised_amount twice. Each gateway issues its own IDs, so
+-- the index covers the payment method (the gateway name) as well.
+-- Donations recorded before this migration have no transaction ID; NULLs
+-- do not conflict.
+
+ALTER TABLE donation ADD COLUMN transaction_id VARCHAR(64) NULL;
+
+-- CharityDAO.addDonations
+CREATE UNIQUE INDEX uq_donation_gateway_transaction ON donation (payment_method, transaction_id);
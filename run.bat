@@ -14,6 +14,6 @@ if not exist "bin" (
 )
 
 REM Run the application
-java -cp "bin;lib/*" MainApplication
+java -cp "bin;lib/*" MainApplication %*
 
 pause
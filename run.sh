@@ -14,4 +14,4 @@ if [ ! -d "bin" ]; then
 fi
 
 # Run the application
-java -cp "bin:lib/*" MainApplication
+java -cp "bin:lib/*" MainApplication "$@"
@@ -1,7 +1,14 @@
 import gui.LoginFrame;
+import database.DAOFactory;
 import database.DatabaseConnection;
+import database.MatchmakingJob;
+import database.MigrationRunner;
+import utils.CsvExporter;
+import utils.CsvImporter;
 
 import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
 
 /**
  * Main Application Entry Point
@@ -16,15 +23,45 @@ import javax.swing.*;
 public class MainApplication {
     
     public static void main(String[] args) {
+        // Command line modes: --import-donors/--import-recipients <file>, --export-donors/--export-recipients <file>,
+        // --match, --rebuild-rollups
+        if (args.length > 0 && args[0].startsWith("--")) {
+            System.exit(runCommand(args));
+        }
+        
         // Test database connection
         System.out.println("===========================================");
         System.out.println("Blood & Organ Donation Management System");
         System.out.println("===========================================");
-        System.out.println("Testing database connection...");
+        boolean ready;
+        if (DAOFactory.isMySqlBackend()) {
+            System.out.println("Testing database connection...");
+            ready = DatabaseConnection.testConnection();
+            if (ready) {
+                System.out.println("✓ Database connection successful!");
+                
+                // Bring the schema up to date before anything queries it
+                if (!MigrationRunner.migrate()) {
+                    JOptionPane.showMessageDialog(null,
+                        "Database schema migration failed!\n\n" +
+                        "See the console output for the failing script.",
+                        "Database Error",
+                        JOptionPane.ERROR_MESSAGE);
+                    System.exit(1);
+                }
+            }
+        } else {
+            System.out.println("Using in-memory storage backend (data is not persisted)");
+            ready = true;
+        }
         
-        if (DatabaseConnection.testConnection()) {
-            System.out.println("✓ Database connection successful!");
+        if (ready) {
             System.out.println("Starting application...\n");
+            DAOFactory.startSearchIndex();
+            DAOFactory.startAllocation();
+            DAOFactory.startRaisedCompactor();
+            DAOFactory.startDonationJournal();
+            DAOFactory.startMatchSchedule();
             
             // Set Look and Feel
             try {
@@ -44,7 +81,7 @@ public class MainApplication {
             System.err.println("\nPlease ensure:");
             System.err.println("1. MySQL server is running");
             System.err.println("2. Database 'blood_organ_donation' exists");
-            System.err.println("3. Database credentials in DatabaseConnection.java are correct");
+            System.err.println("3. Database credentials in db.properties are correct");
             System.err.println("4. MySQL JDBC driver is in the classpath");
             
             JOptionPane.showMessageDialog(null, 
@@ -52,7 +89,7 @@ public class MainApplication {
                 "Please check:\n" +
                 "1. MySQL server is running\n" +
                 "2. Database exists (run database_schema.sql)\n" +
-                "3. Credentials in DatabaseConnection.java are correct\n" +
+                "3. Credentials in db.properties are correct\n" +
                 "4. MySQL JDBC driver is available",
                 "Database Error",
                 JOptionPane.ERROR_MESSAGE);
@@ -60,4 +97,87 @@ public class MainApplication {
             System.exit(1);
         }
     }
+    
+    /**
+     * Import or export CSV files, run matchmaking or rebuild the donation
+     * rollups, without starting the GUI
+     * @return Process exit code
+     */
+    private static int runCommand(String[] args) {
+        String command = args[0];
+        boolean known = command.equals("--import-donors") || command.equals("--import-recipients") ||
+                        command.equals("--export-donors") || command.equals("--export-recipients");
+        boolean match = command.equals("--match") && args.length == 1;
+        boolean rebuild = command.equals("--rebuild-rollups") && args.length == 1;
+        if (!match && !rebuild && (args.length != 2 || !known)) {
+            System.err.println("Usage: MainApplication --import-donors <file.csv>");
+            System.err.println("       MainApplication --import-recipients <file.csv>");
+            System.err.println("       MainApplication --export-donors <file.csv>");
+            System.err.println("       MainApplication --export-recipients <file.csv>");
+            System.err.println("       MainApplication --match");
+            System.err.println("       MainApplication --rebuild-rollups");
+            return 2;
+        }
+        
+        if (DAOFactory.isMySqlBackend() && !MigrationRunner.migrate()) {
+            return 1;
+        }
+        
+        if (match) {
+            try {
+                System.out.println("Matching all recipients ...");
+                MatchmakingJob.Result result = MatchmakingJob.create().run();
+                System.out.println(result);
+                return result.isStored() ? 0 : 1;
+            } catch (IllegalStateException e) {
+                System.err.println("✗ Matching failed: " + e.getMessage());
+                return 1;
+            } finally {
+                DatabaseConnection.closeConnection();
+            }
+        }
+        
+        if (rebuild) {
+            try {
+                System.out.println("Rebuilding donation rollups ...");
+                long start = System.currentTimeMillis();
+                int donations = DAOFactory.getDonationRepository().rebuildDonationTotals();
+                if (donations < 0) {
+                    System.err.println("✗ Rebuild failed");
+                    return 1;
+                }
+                System.out.println(donations + " donations counted in " +
+                                   (System.currentTimeMillis() - start) + " ms");
+                return 0;
+            } finally {
+                DatabaseConnection.closeConnection();
+            }
+        }
+        
+        File csv = new File(args[1]);
+        try {
+            if (command.startsWith("--export-")) {
+                System.out.println("Exporting to " + csv + " ...");
+                int count = command.equals("--export-donors")
+                    ? CsvExporter.exportDonors(DAOFactory.getDonorRepository(), csv)
+                    : CsvExporter.exportRecipients(DAOFactory.getRecipientRepository(), csv);
+                System.out.println(count + " rows exported");
+                return 0;
+            }
+            
+            System.out.println("Importing " + csv + " ...");
+            CsvImporter importer = new CsvImporter(DAOFactory.getBulkImportRepository());
+            CsvImporter.Result result = command.equals("--import-donors")
+                ? importer.importDonors(csv)
+                : importer.importRecipients(csv);
+            System.out.println(result);
+            return result.getRejected() == 0 ? 0 : 1;
+        } catch (IOException e) {
+            System.err.println("✗ " + (command.startsWith("--export-") ? "Export" : "Import") +
+                               " failed: " + e.getMessage());
+            return 1;
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
 }
@@ -0,0 +1,172 @@
+package benchmark;
+
+import database.DAOFactory;
+import database.DonorRepository;
+import database.DonorSearchIndex;
+import database.InMemoryDatabase;
+import database.InMemoryDonorRepository;
+import models.Donor;
+import utils.BloodCompatibility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Compares the ways of finding donors for a recipient who needs an organ
+ *
+ * Usage: java -Xmx2g -cp "bin:lib/*" benchmark.DonorMatchBenchmark [donors] [--mysql]
+ *
+ * By default an in-memory database is filled with the given number of
+ * random donors (1,000,000 if omitted). With --mysql the configured
+ * database is queried as it is and nothing is generated.
+ */
+public class DonorMatchBenchmark {
+    private static final String[] ORGANS = {"Kidney", "Liver", "Heart", "Cornea", "Lung", "Bone Marrow", null};
+    private static final String[] LOCATIONS = {"Mumbai", "Delhi", "Chennai", "Kolkata", "Bengaluru", "Hyderabad", "Pune"};
+
+    // Approximate population frequencies, in BloodCompatibility.GROUPS order
+    private static final int[] GROUP_WEIGHTS = {30, 2, 32, 2, 8, 1, 23, 2};
+
+    private static final String ORGAN = "Kidney";
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int ROUNDS = 5;
+
+    // List.retainAll is O(n*m); beyond this many donors it would run for hours
+    private static final int RETAIN_ALL_LIMIT = 50_000;
+
+    public static void main(String[] args) {
+        int count = 1_000_000;
+        boolean mysql = false;
+        for (String arg : args) {
+            if (arg.equals("--mysql")) {
+                mysql = true;
+            } else {
+                count = Integer.parseInt(arg.replace("_", ""));
+            }
+        }
+
+        DonorRepository repository;
+        if (mysql) {
+            repository = DAOFactory.getDonorRepository();
+            count = repository.getDonorCount();
+            System.out.println("Using MySQL with " + count + " donors");
+        } else {
+            long start = System.currentTimeMillis();
+            repository = new InMemoryDonorRepository(new InMemoryDatabase());
+            generate(repository, count);
+            System.out.println("Generated " + count + " donors in " + (System.currentTimeMillis() - start) + " ms");
+        }
+
+        DonorSearchIndex index = new DonorSearchIndex();
+        long start = System.currentTimeMillis();
+        repository.forEachDonor(index::put);
+        System.out.println("Built search index in " + (System.currentTimeMillis() - start) + " ms");
+        System.out.println();
+
+        final DonorRepository repo = repository;
+        if (count <= RETAIN_ALL_LIMIT) {
+            run("Two queries + List.retainAll", () -> twoQueriesListRetain(repo));
+        } else {
+            System.out.printf("%-32s skipped above %,d donors (O(n*m))%n", "Two queries + List.retainAll",
+                              RETAIN_ALL_LIMIT);
+        }
+        run("Two queries + HashSet", () -> twoQueriesHashSet(repo));
+        run("Single-pass match query", () -> singlePass(repo));
+        run("Search index hash join", () -> indexed(index));
+    }
+
+    private static void generate(DonorRepository repository, int count) {
+        Random random = new Random(42);
+        int totalWeight = Arrays.stream(GROUP_WEIGHTS).sum();
+        for (int i = 1; i <= count; i++) {
+            Donor donor = new Donor();
+            donor.setName("Donor " + i);
+            donor.setAge(18 + random.nextInt(48));
+            donor.setGender(random.nextBoolean() ? "Male" : "Female");
+            donor.setBloodGroup(pickGroup(random.nextInt(totalWeight)));
+            donor.setOrgan(ORGANS[random.nextInt(ORGANS.length)]);
+            donor.setContact(String.format("9%09d", i));
+            donor.setLocation(LOCATIONS[random.nextInt(LOCATIONS.length)]);
+            repository.registerDonor(donor, i);
+        }
+    }
+
+    private static String pickGroup(int roll) {
+        for (int i = 0; i < GROUP_WEIGHTS.length; i++) {
+            roll -= GROUP_WEIGHTS[i];
+            if (roll < 0) {
+                return BloodCompatibility.GROUPS[i];
+            }
+        }
+        return BloodCompatibility.GROUPS[0];
+    }
+
+    /**
+     * The original dashboard logic, with compatible groups instead of one group
+     */
+    private static int twoQueriesListRetain(DonorRepository repository) {
+        int total = 0;
+        for (String group : BloodCompatibility.GROUPS) {
+            List<Donor> matches = repository.searchCompatibleDonors(group);
+            matches.retainAll(repository.searchByOrgan(ORGAN));
+            total += matches.size();
+        }
+        return total;
+    }
+
+    private static int twoQueriesHashSet(DonorRepository repository) {
+        int total = 0;
+        for (String group : BloodCompatibility.GROUPS) {
+            List<Donor> matches = repository.searchCompatibleDonors(group);
+            Set<Donor> organDonors = new HashSet<>(repository.searchByOrgan(ORGAN));
+            List<Donor> both = new ArrayList<>();
+            for (Donor donor : matches) {
+                if (organDonors.contains(donor)) {
+                    both.add(donor);
+                }
+            }
+            total += both.size();
+        }
+        return total;
+    }
+
+    private static int singlePass(DonorRepository repository) {
+        int total = 0;
+        for (String group : BloodCompatibility.GROUPS) {
+            total += repository.searchMatchingDonors(group, ORGAN).size();
+        }
+        return total;
+    }
+
+    private static int indexed(DonorSearchIndex index) {
+        int total = 0;
+        for (String group : BloodCompatibility.GROUPS) {
+            total += index.searchMatching(group, ORGAN).size();
+        }
+        return total;
+    }
+
+    /**
+     * Time one strategy over all eight recipient groups and print the median
+     */
+    private static void run(String name, Supplier<Integer> strategy) {
+        int matches = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            matches = strategy.get();
+        }
+        long[] times = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            matches = strategy.get();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        System.out.printf("%-32s %,10.1f ms for 8 recipient groups (%,d matches)%n",
+                          name, times[ROUNDS / 2] / 1_000_000.0, matches);
+    }
+}
@@ -0,0 +1,120 @@
+package benchmark;
+
+import database.CharityDAO;
+import database.CharityRequestRepository;
+import database.DonationRepository;
+import database.InMemoryCharityRepository;
+import database.InMemoryDatabase;
+import models.CharityRequest;
+import models.Donation;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares single-row and striped raised_amount updates under contention
+ *
+ * Usage: java -cp "bin:lib/*" benchmark.RaisedAmountBenchmark [threads] [donations per thread] [slots] [--mysql]
+ *
+ * Every thread donates to the same charity request as fast as it can,
+ * first with raised_amount updated in place, then with the amount spread
+ * over the given number of slots (16 if omitted). Donations go straight to
+ * the repository, without group commit, so each one contends for the
+ * request. By default the in-memory repository is used (one lock versus a
+ * DoubleAdder); with --mysql the configured database is written to: each
+ * run creates a "Raised amount benchmark" request and closes it afterwards.
+ */
+public class RaisedAmountBenchmark {
+    private static final double AMOUNT = 10.0;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = 32;
+        int perThread = 1000;
+        int slots = 16;
+        boolean mysql = false;
+        int position = 0;
+        for (String arg : args) {
+            if (arg.equals("--mysql")) {
+                mysql = true;
+            } else if (position == 0) {
+                threads = Integer.parseInt(arg);
+                position++;
+            } else if (position == 1) {
+                perThread = Integer.parseInt(arg.replace("_", ""));
+                position++;
+            } else {
+                slots = Integer.parseInt(arg);
+            }
+        }
+        System.out.printf("%d threads x %,d donations to one request (%s)%n%n",
+                          threads, perThread, mysql ? "MySQL" : "in-memory");
+
+        for (int raisedSlots : new int[] {0, slots}) {
+            Object repository = mysql ? new CharityDAO(raisedSlots)
+                                      : new InMemoryCharityRepository(new InMemoryDatabase(), raisedSlots);
+            String name = raisedSlots == 0 ? "Single-row update" : "Striped, " + raisedSlots + " slots";
+            run(name, (CharityRequestRepository) repository, (DonationRepository) repository, threads, perThread, mysql);
+        }
+    }
+
+    private static void run(String name, CharityRequestRepository requests, DonationRepository donations,
+                            int threads, int perThread, boolean mysql) throws InterruptedException {
+        int requestId = requests.createCharityRequest(
+            new CharityRequest("Raised amount benchmark", "Contention test", "benchmark", "Benchmark", 1e7));
+        if (requestId < 0) {
+            System.err.println("Could not create the benchmark request");
+            return;
+        }
+
+        long[] latencies = new long[threads * perThread];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    long begin = System.nanoTime();
+                    if (!donations.addDonation(new Donation("Benchmark donor", requestId, AMOUNT, "Benchmark"))) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[offset + i] = System.nanoTime() - begin;
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        long elapsedNs = System.nanoTime() - begin;
+
+        long compactStart = System.nanoTime();
+        requests.compactRaisedAmounts();
+        long compactMs = (System.nanoTime() - compactStart) / 1_000_000;
+        double raised = requests.getCharityRequestById(requestId).getRaisedAmount();
+        double expected = AMOUNT * (latencies.length - failures.get());
+        if (mysql) {
+            requests.updateCharityRequestStatus(requestId, "CLOSED");
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("%-24s %,10.0f donations/s  p50 %,8.3f ms  p99 %,8.3f ms  compaction %,d ms  %s%n",
+                          name, latencies.length / (elapsedNs / 1e9),
+                          latencies[latencies.length / 2] / 1e6, latencies[latencies.length * 99 / 100] / 1e6,
+                          compactMs,
+                          Math.abs(raised - expected) < 0.005 ? "total OK" : "TOTAL WRONG: " + raised + " != " + expected);
+        if (failures.get() > 0) {
+            System.out.println("  " + failures.get() + " donations failed");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the JDBC statements open on each leased pool connection
+ * Lets a caller that gives up on a query (for example a superseded
+ * search) cancel it on the server so the pooled connection is freed
+ * instead of staying busy until the query finishes. Statements are
+ * registered under the lease (the pool's proxy for one borrow) they were
+ * created on, together with the thread that borrowed it. A lease may hold
+ * several statements at once (a transaction preparing its next statement
+ * while a result set is still open); all of them are tracked. Returning
+ * the connection to the pool drops its lease, with any statement left
+ * unclosed or closed on another thread, so a later query on the same
+ * physical connection is never cancelled in its place.
+ */
+public class ActiveStatements {
+    private static final ConcurrentHashMap<Connection, Lease> open = new ConcurrentHashMap<>();
+
+    /**
+     * One borrow of a pooled connection and the statements open on it
+     */
+    private static class Lease {
+        final Thread borrower;
+        final Set<Statement> statements = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        Lease(Thread borrower) {
+            this.borrower = borrower;
+        }
+    }
+
+    // Private constructor to prevent instantiation
+    private ActiveStatements() {
+    }
+
+    /**
+     * Record that the current thread borrowed a connection
+     * @param lease Connection proxy handed to the borrower
+     */
+    static void leased(Connection lease) {
+        open.put(lease, new Lease(Thread.currentThread()));
+    }
+
+    /**
+     * Forget a connection returned to the pool and every statement still registered on it
+     */
+    static void returned(Connection lease) {
+        open.remove(lease);
+    }
+
+    /**
+     * Record that a statement was opened on a leased connection
+     */
+    static void opened(Connection lease, Statement statement) {
+        Lease current = open.get(lease);
+        if (current != null) {
+            current.statements.add(statement);
+        }
+    }
+
+    /**
+     * Record that a statement of a leased connection was closed, on whichever thread
+     */
+    static void closed(Connection lease, Statement statement) {
+        Lease current = open.get(lease);
+        if (current != null) {
+            current.statements.remove(statement);
+        }
+    }
+
+    /**
+     * Cancel every statement open on the connections a thread has borrowed, if any
+     * @param thread Thread running the query
+     * @return true if at least one statement was cancelled
+     */
+    public static boolean cancel(Thread thread) {
+        List<Statement> snapshot = new ArrayList<>();
+        for (Lease lease : open.values()) {
+            if (lease.borrower == thread) {
+                snapshot.addAll(lease.statements);
+            }
+        }
+
+        boolean cancelled = false;
+        for (Statement statement : snapshot) {
+            try {
+                statement.cancel();
+                cancelled = true;
+            } catch (SQLException e) {
+                System.err.println("Error cancelling statement: " + e.getMessage());
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * Wrap a statement that is not managed by the StatementCache so it is tracked until closed
+     * @param statement Physical statement
+     * @param owner Connection proxy reported by getConnection()
+     * @return Tracking proxy implementing the same JDBC interface
+     */
+    static Statement track(Statement statement, Connection owner) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                      : statement instanceof PreparedStatement ? PreparedStatement.class
+                      : Statement.class;
+        opened(owner, statement);
+        return (Statement) Proxy.newProxyInstance(
+            Statement.class.getClassLoader(),
+            new Class<?>[] { type },
+            new TrackedStatementHandler(statement, owner));
+    }
+
+    /**
+     * Proxy handler that unregisters a statement when it is closed
+     */
+    private static class TrackedStatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final Connection owner;
+
+        TrackedStatementHandler(Statement statement, Connection owner) {
+            this.statement = statement;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+
+            if ("close".equals(methodName)) {
+                closed(owner, statement);
+            } else if ("getConnection".equals(methodName)) {
+                return owner;
+            } else if ("equals".equals(methodName)) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(methodName)) {
+                return System.identityHashCode(proxy);
+            }
+
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
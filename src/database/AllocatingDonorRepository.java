@@ -0,0 +1,128 @@
+package database;
+
+import models.Donor;
+import models.Recipient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * DonorRepository decorator that offers each newly registered donor to the
+ * waiting recipients chosen by the AllocationService
+ * Offers are logged and kept in AllocationService.getRecentOffers().
+ */
+public class AllocatingDonorRepository implements DonorRepository {
+    private final DonorRepository delegate;
+    private final AllocationService allocation;
+
+    public AllocatingDonorRepository(DonorRepository delegate, AllocationService allocation) {
+        this.delegate = delegate;
+        this.allocation = allocation;
+    }
+
+    @Override
+    public boolean registerDonor(Donor donor, int userId) {
+        if (!delegate.registerDonor(donor, userId)) {
+            return false;
+        }
+        // The delegate set the generated ID
+        List<Recipient> offered = allocation.offer(donor);
+        if (!offered.isEmpty()) {
+            String recipients = offered.stream()
+                .map(r -> "recipient #" + r.getRecipientId() + " (" + r.getUrgencyLevel() + ")")
+                .collect(Collectors.joining(", "));
+            System.out.println("Allocation offer: donor #" + donor.getDonorId() + " (" + donor.getBloodGroup() +
+                               (donor.getOrgan() != null ? " " + donor.getOrgan() : "") + ") -> " + recipients);
+        }
+        return true;
+    }
+
+    @Override
+    public Donor getDonorByUserId(int userId) {
+        return delegate.getDonorByUserId(userId);
+    }
+
+    @Override
+    public List<Donor> getAllDonors() {
+        return delegate.getAllDonors();
+    }
+
+    @Override
+    public int forEachDonor(Consumer<? super Donor> action) {
+        return delegate.forEachDonor(action);
+    }
+
+    @Override
+    public Stream<Donor> streamAllDonors() {
+        return delegate.streamAllDonors();
+    }
+
+    @Override
+    public Page<Donor> getDonorsPage(String pageToken, int pageSize) {
+        return delegate.getDonorsPage(pageToken, pageSize);
+    }
+
+    @Override
+    public List<Donor> searchByBloodGroup(String bloodGroup) {
+        return delegate.searchByBloodGroup(bloodGroup);
+    }
+
+    @Override
+    public List<Donor> searchCompatibleDonors(String recipientBloodGroup) {
+        return delegate.searchCompatibleDonors(recipientBloodGroup);
+    }
+
+    @Override
+    public List<Donor> searchMatchingDonors(String recipientBloodGroup, String organ) {
+        return delegate.searchMatchingDonors(recipientBloodGroup, organ);
+    }
+
+    @Override
+    public List<Donor> searchNearestDonors(String recipientBloodGroup, String organ, double latitude, double longitude,
+                                           double radiusKm, int limit) {
+        return delegate.searchNearestDonors(recipientBloodGroup, organ, latitude, longitude, radiusKm, limit);
+    }
+
+    @Override
+    public List<Donor> searchDonors(DonorCriteria criteria) {
+        return delegate.searchDonors(criteria);
+    }
+
+    @Override
+    public List<Donor> searchByOrgan(String organ) {
+        return delegate.searchByOrgan(organ);
+    }
+
+    @Override
+    public List<Donor> searchByLocation(String location) {
+        return delegate.searchByLocation(location);
+    }
+
+    @Override
+    public int countDonors(DonorFilter filter) {
+        return delegate.countDonors(filter);
+    }
+
+    @Override
+    public Map<String, Integer> countDonorsByFacet(DonorFilter filter, String attribute) {
+        return delegate.countDonorsByFacet(filter, attribute);
+    }
+
+    @Override
+    public List<Donor> filterDonors(DonorFilter filter) {
+        return delegate.filterDonors(filter);
+    }
+
+    @Override
+    public boolean updateDonor(Donor donor) {
+        return delegate.updateDonor(donor);
+    }
+
+    @Override
+    public int getDonorCount() {
+        return delegate.getDonorCount();
+    }
+}
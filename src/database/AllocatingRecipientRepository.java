@@ -0,0 +1,74 @@
+package database;
+
+import models.Recipient;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * RecipientRepository decorator that keeps the AllocationService heaps
+ * current after each successful registerRecipient/updateRecipient
+ */
+public class AllocatingRecipientRepository implements RecipientRepository {
+    private final RecipientRepository delegate;
+    private final AllocationService allocation;
+
+    public AllocatingRecipientRepository(RecipientRepository delegate, AllocationService allocation) {
+        this.delegate = delegate;
+        this.allocation = allocation;
+    }
+
+    @Override
+    public boolean registerRecipient(Recipient recipient) {
+        if (!delegate.registerRecipient(recipient)) {
+            return false;
+        }
+        // The delegate set the generated ID and registration date
+        allocation.put(recipient);
+        return true;
+    }
+
+    @Override
+    public boolean updateRecipient(Recipient recipient) {
+        if (!delegate.updateRecipient(recipient)) {
+            return false;
+        }
+        // The update does not carry the registration date the heaps order by
+        Recipient stored = delegate.getRecipientById(recipient.getRecipientId());
+        if (stored != null) {
+            allocation.put(stored);
+        }
+        return true;
+    }
+
+    @Override
+    public Recipient getRecipientByUserId(int userId) {
+        return delegate.getRecipientByUserId(userId);
+    }
+
+    @Override
+    public Recipient getRecipientById(int recipientId) {
+        return delegate.getRecipientById(recipientId);
+    }
+
+    @Override
+    public List<Recipient> getAllRecipients() {
+        return delegate.getAllRecipients();
+    }
+
+    @Override
+    public int forEachRecipient(Consumer<? super Recipient> action) {
+        return delegate.forEachRecipient(action);
+    }
+
+    @Override
+    public Stream<Recipient> streamAllRecipients() {
+        return delegate.streamAllRecipients();
+    }
+
+    @Override
+    public Page<Recipient> getRecipientsPage(String pageToken, int pageSize) {
+        return delegate.getRecipientsPage(pageToken, pageSize);
+    }
+}
@@ -0,0 +1,222 @@
+package database;
+
+import models.Donor;
+import models.Recipient;
+import utils.BloodCompatibility;
+
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Decides which waiting recipients a newly registered donor is offered to
+ * Recipients wait in one IndexedHeap per (organ needed, blood group needed),
+ * most urgent first, then longest waiting. When a donor registers, only the
+ * heaps the donor can serve are consulted: the blood-only heaps and the
+ * heaps of organs the donor offers, for each blood group the donor is
+ * compatible with. Their heads are merged by urgency, wait time and then
+ * blood group preference (an exact match before a universal donor), so an
+ * offer costs O(log n) in the number of waiting recipients instead of a
+ * scan over all of them.
+ *
+ * The heaps are rebuilt from the recipient repository at startup and kept
+ * current by AllocatingRecipientRepository. Recipients added by a CSV
+ * import join the heaps at the next rebuild.
+ */
+public class AllocationService {
+    /**
+     * Most urgent first, then longest waiting, then lowest ID
+     */
+    static final Comparator<Recipient> MOST_URGENT_FIRST =
+        Comparator.comparingInt((Recipient r) -> MatchmakingJob.priority(r.getUrgencyLevel()))
+                  .thenComparingLong(AllocationService::waitingSince)
+                  .thenComparingInt(Recipient::getRecipientId);
+
+    private final int offersPerDonor;
+    private final int recentOfferLimit;
+
+    // Guarded by this
+    private Heaps heaps = new Heaps();
+    private List<Recipient> pendingUpdates;
+    private final Deque<Offer> recentOffers = new ArrayDeque<>();
+
+    /**
+     * Recipients proposed for one donor, best first
+     */
+    public static class Offer {
+        private final Donor donor;
+        private final List<Recipient> recipients;
+        private final Timestamp offeredAt;
+
+        Offer(Donor donor, List<Recipient> recipients, Timestamp offeredAt) {
+            this.donor = donor;
+            this.recipients = recipients;
+            this.offeredAt = offeredAt;
+        }
+
+        public Donor getDonor() {
+            return donor;
+        }
+
+        public List<Recipient> getRecipients() {
+            return recipients;
+        }
+
+        public Timestamp getOfferedAt() {
+            return offeredAt;
+        }
+    }
+
+    /**
+     * The heaps and the heap each recipient is in
+     */
+    private static class Heaps {
+        // Organ needed ("" for blood only) -> one heap per BloodCompatibility.GROUPS index
+        final Map<String, List<IndexedHeap<Recipient>>> byOrgan = new HashMap<>();
+        final Map<Integer, IndexedHeap<Recipient>> byRecipient = new HashMap<>();
+        int size;
+
+        void put(Recipient recipient) {
+            IndexedHeap<Recipient> previous = byRecipient.remove(recipient.getRecipientId());
+            if (previous != null) {
+                previous.remove(recipient.getRecipientId());
+                size--;
+            }
+            int group = BloodCompatibility.indexOf(recipient.getBloodGroupNeeded());
+            if (group < 0) {
+                return; // No donor is known to be compatible
+            }
+            IndexedHeap<Recipient> heap = byOrgan.computeIfAbsent(organKey(recipient.getOrganNeeded()), k -> {
+                List<IndexedHeap<Recipient>> groups = new ArrayList<>();
+                for (int i = 0; i < BloodCompatibility.GROUPS.length; i++) {
+                    groups.add(new IndexedHeap<>(MOST_URGENT_FIRST, Recipient::getRecipientId));
+                }
+                return groups;
+            }).get(group);
+            heap.put(recipient);
+            byRecipient.put(recipient.getRecipientId(), heap);
+            size++;
+        }
+    }
+
+    public AllocationService() {
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        this.offersPerDonor = Math.max(1, config.getInt("allocation.offersPerDonor", 3));
+        this.recentOfferLimit = Math.max(1, config.getInt("allocation.recentOffers", 100));
+    }
+
+    /**
+     * Rebuild the heaps from the recipient repository
+     * @return true if the new heaps were installed
+     */
+    public boolean rebuild(RecipientRepository recipients) {
+        synchronized (this) {
+            pendingUpdates = new ArrayList<>();
+        }
+
+        long start = System.currentTimeMillis();
+        Heaps fresh = new Heaps();
+        int count = recipients.forEachRecipient(fresh::put);
+
+        synchronized (this) {
+            List<Recipient> updates = pendingUpdates;
+            pendingUpdates = null;
+            if (count < 0) {
+                System.err.println("Allocation heaps rebuild failed; keeping the previous heaps");
+                return false;
+            }
+            for (Recipient recipient : updates) {
+                fresh.put(recipient);
+            }
+            heaps = fresh;
+        }
+        System.out.println("Allocation heaps built: " + count + " recipients in " +
+                           (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    /**
+     * Add a recipient, or move it after its urgency, blood group or organ changed
+     */
+    public synchronized void put(Recipient recipient) {
+        heaps.put(recipient);
+        if (pendingUpdates != null) {
+            pendingUpdates.add(recipient);
+        }
+    }
+
+    /**
+     * Number of recipients waiting in the heaps
+     */
+    public synchronized int size() {
+        return heaps.size;
+    }
+
+    /**
+     * Offer a donor to the best compatible waiting recipients
+     * @param donor Stored donor
+     * @return Up to allocation.offersPerDonor recipients, best first (empty if none is compatible)
+     */
+    public List<Recipient> offer(Donor donor) {
+        int donorGroup = BloodCompatibility.indexOf(donor.getBloodGroup());
+        if (donorGroup < 0) {
+            return Collections.emptyList();
+        }
+        Comparator<Recipient> order =
+            Comparator.comparingInt((Recipient r) -> MatchmakingJob.priority(r.getUrgencyLevel()))
+                      .thenComparingLong(AllocationService::waitingSince)
+                      .thenComparingInt(r -> BloodCompatibility.preferenceRank(donor.getBloodGroup(),
+                                                                               r.getBloodGroupNeeded()))
+                      .thenComparingInt(Recipient::getRecipientId);
+
+        List<Recipient> offered;
+        synchronized (this) {
+            List<Recipient> candidates = new ArrayList<>();
+            for (Map.Entry<String, List<IndexedHeap<Recipient>>> entry : heaps.byOrgan.entrySet()) {
+                String organ = entry.getKey();
+                if (!organ.isEmpty() && !InMemoryDatabase.containsIgnoreCase(donor.getOrgan(), organ)) {
+                    continue;
+                }
+                for (int group = 0; group < BloodCompatibility.GROUPS.length; group++) {
+                    if (BloodCompatibility.isCompatible(donor.getBloodGroup(), BloodCompatibility.GROUPS[group])) {
+                        candidates.addAll(entry.getValue().get(group).top(offersPerDonor));
+                    }
+                }
+            }
+            candidates.sort(order);
+            offered = new ArrayList<>(candidates.subList(0, Math.min(offersPerDonor, candidates.size())));
+
+            if (!offered.isEmpty()) {
+                recentOffers.addFirst(new Offer(donor, offered, InMemoryDatabase.now()));
+                if (recentOffers.size() > recentOfferLimit) {
+                    recentOffers.removeLast();
+                }
+            }
+        }
+        return offered;
+    }
+
+    /**
+     * Offers made since startup, newest first
+     */
+    public synchronized List<Offer> getRecentOffers() {
+        return new ArrayList<>(recentOffers);
+    }
+
+    private static long waitingSince(Recipient recipient) {
+        // Not yet read back from the database: treat as just registered
+        Timestamp registered = recipient.getRegistrationDate();
+        return registered != null ? registered.getTime() : Long.MAX_VALUE;
+    }
+
+    private static String organKey(String organ) {
+        return organ == null ? "" : organ.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,81 @@
+package database;
+
+import models.CharityRequest;
+import models.Donation;
+import models.DonationTotal;
+import models.DonationWindow;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous variants of the CharityRequestRepository and DonationRepository methods
+ */
+public class AsyncCharityRepository {
+    private final CharityRequestRepository requests;
+    private final DonationRepository donations;
+    private final DAOExecutor executor;
+
+    public AsyncCharityRepository(CharityRequestRepository requests, DonationRepository donations,
+                                  DAOExecutor executor) {
+        this.requests = requests;
+        this.donations = donations;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Integer> createCharityRequest(CharityRequest request) {
+        return executor.submit(() -> requests.createCharityRequest(request));
+    }
+
+    public CompletableFuture<List<CharityRequest>> getActiveCharityRequests() {
+        return executor.submit(requests::getActiveCharityRequests);
+    }
+
+    public CompletableFuture<List<CharityRequest>> getAllCharityRequests() {
+        return executor.submit(requests::getAllCharityRequests);
+    }
+
+    public CompletableFuture<CharityRequest> getCharityRequestById(int requestId) {
+        return executor.submit(() -> requests.getCharityRequestById(requestId));
+    }
+
+    public CompletableFuture<Boolean> updateCharityRequestStatus(int requestId, String status) {
+        return executor.submit(() -> requests.updateCharityRequestStatus(requestId, status));
+    }
+
+    /**
+     * Record a donation; with group commit the future completes when its
+     * batch commits, without holding an executor thread meanwhile
+     */
+    public CompletableFuture<Boolean> addDonation(Donation donation) {
+        if (donations instanceof BatchingDonationRepository) {
+            return ((BatchingDonationRepository) donations).submit(donation);
+        }
+        return executor.submit(() -> donations.addDonation(donation));
+    }
+
+    public CompletableFuture<List<Donation>> getDonationsByRequestId(int requestId) {
+        return executor.submit(() -> donations.getDonationsByRequestId(requestId));
+    }
+
+    public CompletableFuture<Page<Donation>> getDonationsPage(int requestId, String pageToken, int pageSize) {
+        return executor.submit(() -> donations.getDonationsPage(requestId, pageToken, pageSize));
+    }
+
+    public CompletableFuture<DonationWindow> getDonationWindow(int requestId, String windowToken,
+                                                              int offset, int limit) {
+        return executor.submit(() -> donations.getDonationWindow(requestId, windowToken, offset, limit));
+    }
+
+    public CompletableFuture<Double> getTotalDonationsAmount() {
+        return executor.submit(donations::getTotalDonationsAmount);
+    }
+
+    public CompletableFuture<List<DonationTotal>> getDonationTotals(String dimension) {
+        return executor.submit(() -> donations.getDonationTotals(dimension));
+    }
+
+    public CompletableFuture<Integer> rebuildDonationTotals() {
+        return executor.submit(donations::rebuildDonationTotals);
+    }
+}
@@ -0,0 +1,98 @@
+package database;
+
+import models.Donor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous variants of the DonorRepository methods
+ * Each call runs on the backend's DAOExecutor; cancel the returned
+ * future to abandon a query that is no longer needed.
+ */
+public class AsyncDonorRepository {
+    private final DonorRepository repository;
+    private final DAOExecutor executor;
+
+    public AsyncDonorRepository(DonorRepository repository, DAOExecutor executor) {
+        this.repository = repository;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Boolean> registerDonor(Donor donor, int userId) {
+        return executor.submit(() -> repository.registerDonor(donor, userId));
+    }
+
+    public CompletableFuture<Donor> getDonorByUserId(int userId) {
+        return executor.submit(() -> repository.getDonorByUserId(userId));
+    }
+
+    public CompletableFuture<List<Donor>> getAllDonors() {
+        return executor.submit(repository::getAllDonors);
+    }
+
+    /**
+     * Stream every donor to an action on the executor thread
+     * Cancelling the future stops the cursor.
+     */
+    public CompletableFuture<Integer> forEachDonor(Consumer<? super Donor> action) {
+        return executor.submit(() -> repository.forEachDonor(action));
+    }
+
+    public CompletableFuture<Page<Donor>> getDonorsPage(String pageToken, int pageSize) {
+        return executor.submit(() -> repository.getDonorsPage(pageToken, pageSize));
+    }
+
+    public CompletableFuture<List<Donor>> searchByBloodGroup(String bloodGroup) {
+        return executor.submit(() -> repository.searchByBloodGroup(bloodGroup));
+    }
+
+    public CompletableFuture<List<Donor>> searchCompatibleDonors(String recipientBloodGroup) {
+        return executor.submit(() -> repository.searchCompatibleDonors(recipientBloodGroup));
+    }
+
+    public CompletableFuture<List<Donor>> searchMatchingDonors(String recipientBloodGroup, String organ) {
+        return executor.submit(() -> repository.searchMatchingDonors(recipientBloodGroup, organ));
+    }
+
+    public CompletableFuture<List<Donor>> searchNearestDonors(String recipientBloodGroup, String organ,
+                                                              double latitude, double longitude,
+                                                              double radiusKm, int limit) {
+        return executor.submit(() -> repository.searchNearestDonors(recipientBloodGroup, organ, latitude, longitude,
+                                                                    radiusKm, limit));
+    }
+
+    public CompletableFuture<List<Donor>> searchDonors(DonorCriteria criteria) {
+        return executor.submit(() -> repository.searchDonors(criteria));
+    }
+
+    public CompletableFuture<List<Donor>> searchByOrgan(String organ) {
+        return executor.submit(() -> repository.searchByOrgan(organ));
+    }
+
+    public CompletableFuture<List<Donor>> searchByLocation(String location) {
+        return executor.submit(() -> repository.searchByLocation(location));
+    }
+
+    public CompletableFuture<Integer> countDonors(DonorFilter filter) {
+        return executor.submit(() -> repository.countDonors(filter));
+    }
+
+    public CompletableFuture<Map<String, Integer>> countDonorsByFacet(DonorFilter filter, String attribute) {
+        return executor.submit(() -> repository.countDonorsByFacet(filter, attribute));
+    }
+
+    public CompletableFuture<List<Donor>> filterDonors(DonorFilter filter) {
+        return executor.submit(() -> repository.filterDonors(filter));
+    }
+
+    public CompletableFuture<Boolean> updateDonor(Donor donor) {
+        return executor.submit(() -> repository.updateDonor(donor));
+    }
+
+    public CompletableFuture<Integer> getDonorCount() {
+        return executor.submit(repository::getDonorCount);
+    }
+}
@@ -0,0 +1,52 @@
+package database;
+
+import models.Recipient;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous variants of the RecipientRepository methods
+ */
+public class AsyncRecipientRepository {
+    private final RecipientRepository repository;
+    private final DAOExecutor executor;
+
+    public AsyncRecipientRepository(RecipientRepository repository, DAOExecutor executor) {
+        this.repository = repository;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Boolean> registerRecipient(Recipient recipient) {
+        return executor.submit(() -> repository.registerRecipient(recipient));
+    }
+
+    public CompletableFuture<Recipient> getRecipientByUserId(int userId) {
+        return executor.submit(() -> repository.getRecipientByUserId(userId));
+    }
+
+    public CompletableFuture<Recipient> getRecipientById(int recipientId) {
+        return executor.submit(() -> repository.getRecipientById(recipientId));
+    }
+
+    public CompletableFuture<Boolean> updateRecipient(Recipient recipient) {
+        return executor.submit(() -> repository.updateRecipient(recipient));
+    }
+
+    public CompletableFuture<List<Recipient>> getAllRecipients() {
+        return executor.submit(repository::getAllRecipients);
+    }
+
+    public CompletableFuture<Page<Recipient>> getRecipientsPage(String pageToken, int pageSize) {
+        return executor.submit(() -> repository.getRecipientsPage(pageToken, pageSize));
+    }
+
+    /**
+     * Stream every recipient to an action on the executor thread
+     * Cancelling the future stops the cursor.
+     */
+    public CompletableFuture<Integer> forEachRecipient(Consumer<? super Recipient> action) {
+        return executor.submit(() -> repository.forEachRecipient(action));
+    }
+}
@@ -0,0 +1,34 @@
+package database;
+
+import models.User;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous variants of the UserRepository methods
+ */
+public class AsyncUserRepository {
+    private final UserRepository repository;
+    private final DAOExecutor executor;
+
+    public AsyncUserRepository(UserRepository repository, DAOExecutor executor) {
+        this.repository = repository;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<User> authenticateUser(String username, String password) {
+        return executor.submit(() -> repository.authenticateUser(username, password));
+    }
+
+    public CompletableFuture<Integer> registerUser(User user) {
+        return executor.submit(() -> repository.registerUser(user));
+    }
+
+    public CompletableFuture<Boolean> usernameExists(String username) {
+        return executor.submit(() -> repository.usernameExists(username));
+    }
+
+    public CompletableFuture<Boolean> updatePassword(int userId, String newPassword) {
+        return executor.submit(() -> repository.updatePassword(userId, newPassword));
+    }
+}
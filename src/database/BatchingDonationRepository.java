@@ -0,0 +1,218 @@
+package database;
+
+import models.Donation;
+import models.DonationTotal;
+import models.DonationWindow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DonationRepository decorator that group-commits concurrent donations
+ * Every donation to a request updates the same charity_request row, so
+ * donations written one transaction each queue up behind that row lock.
+ * Here they are queued instead and one writer thread flushes them with
+ * addDonations: one transaction, multi-row INSERTs and one UPDATE per
+ * request. After the first donation of a batch arrives, the writer waits
+ * up to donation.batch.maxDelayMs for more (the most a donation is
+ * delayed beyond the write itself), or until donation.batch.maxSize have
+ * queued. Donations arriving while a batch is written join the next one.
+ *
+ * If the database rejects a batch's data, its donations are retried one
+ * at a time, so one bad donation (an unknown request) fails alone. If the
+ * database fails or cannot be reached, the whole batch fails at once:
+ * retrying each donation would only wait on it again, once per donation.
+ */
+public class BatchingDonationRepository implements DonationRepository {
+    private final DonationRepository delegate;
+    private final long maxDelayMs;
+    private final int maxBatchSize;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    // Guarded by this
+    private Thread writer;
+
+    /**
+     * A queued donation and the future its caller waits on
+     */
+    private static class Pending {
+        final Donation donation;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        Pending(Donation donation) {
+            this.donation = donation;
+        }
+    }
+
+    public BatchingDonationRepository(DonationRepository delegate) {
+        this.delegate = delegate;
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        this.maxDelayMs = Math.max(0L, config.getLong("donation.batch.maxDelayMs", 5L));
+        this.maxBatchSize = Math.max(1, config.getInt("donation.batch.maxSize", 500));
+    }
+
+    /**
+     * Queue a donation for the next batch
+     * @return Future completed with true once the donation is committed, false if it was not recorded
+     */
+    public CompletableFuture<Boolean> submit(Donation donation) {
+        Pending pending = new Pending(donation);
+        synchronized (this) {
+            if (writer == null) {
+                writer = new Thread(this::writeBatches, "donation-writer");
+                writer.setDaemon(true);
+                writer.start();
+            }
+            queue.add(pending);
+        }
+        return pending.result;
+    }
+
+    /**
+     * Queue a donation and wait for its batch to commit
+     */
+    @Override
+    public boolean addDonation(Donation donation) {
+        try {
+            return submit(donation).join();
+        } catch (CompletionException e) {
+            System.err.println("Error adding donation: " + e.getCause());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean addDonations(List<Donation> donations) {
+        return delegate.addDonations(donations);
+    }
+
+    @Override
+    public BatchResult addDonationBatch(List<Donation> donations) {
+        return delegate.addDonationBatch(donations);
+    }
+
+    @Override
+    public boolean addJournaledDonations(String journalId, long position, List<Donation> donations) {
+        return delegate.addJournaledDonations(journalId, position, donations);
+    }
+
+    @Override
+    public long getJournalPosition(String journalId) {
+        return delegate.getJournalPosition(journalId);
+    }
+
+    @Override
+    public List<Donation> getDonationsByRequestId(int requestId) {
+        return delegate.getDonationsByRequestId(requestId);
+    }
+
+    @Override
+    public Page<Donation> getDonationsPage(int requestId, String pageToken, int pageSize) {
+        return delegate.getDonationsPage(requestId, pageToken, pageSize);
+    }
+
+    @Override
+    public DonationWindow getDonationWindow(int requestId, String windowToken, int offset, int limit) {
+        return delegate.getDonationWindow(requestId, windowToken, offset, limit);
+    }
+
+    @Override
+    public double getTotalDonationsAmount() {
+        return delegate.getTotalDonationsAmount();
+    }
+
+    @Override
+    public List<DonationTotal> getDonationTotals(String dimension) {
+        return delegate.getDonationTotals(dimension);
+    }
+
+    @Override
+    public int rebuildDonationTotals() {
+        return delegate.rebuildDonationTotals();
+    }
+
+    /**
+     * Write what is queued, then stop the writer thread
+     */
+    public void stop() {
+        Thread stopping;
+        synchronized (this) {
+            stopping = writer;
+            writer = null;
+        }
+        if (stopping != null) {
+            stopping.interrupt();
+            try {
+                stopping.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void writeBatches() {
+        List<Pending> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long waitNs = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || waitNs <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(waitNs, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // stop(): flush whatever is left and exit
+                queue.drainTo(batch);
+                flush(batch);
+                return;
+            }
+            flush(batch);
+            batch = new ArrayList<>();
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Donation> donations = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            donations.add(pending.donation);
+        }
+        BatchResult result;
+        try {
+            result = delegate.addDonationBatch(donations);
+        } catch (RuntimeException e) {
+            System.err.println("Error adding " + batch.size() + " donations: " + e);
+            result = BatchResult.FAILED;
+        }
+        if (result != BatchResult.REJECTED) {
+            for (Pending pending : batch) {
+                pending.result.complete(result == BatchResult.ADDED);
+            }
+            return;
+        }
+
+        // Isolate the donation(s) whose data made the batch fail
+        for (Pending pending : batch) {
+            try {
+                pending.result.complete(delegate.addDonation(pending.donation));
+            } catch (RuntimeException e) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package database;
+
+import models.Donor;
+import models.Recipient;
+import models.User;
+import utils.Gazetteer;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Data Access Object for bulk registration imports
+ * A chunk is written in one transaction with one multi-row INSERT into
+ * user and one into donor/recipient, so it costs a handful of round trips
+ * instead of two per row. If the chunk fails it is retried row by row so
+ * the error report can name the offending rows.
+ */
+public class BulkImportDAO implements BulkImportRepository {
+
+    private static final String[] DONOR_COLUMNS = {
+        "user_id", "name", "age", "gender", "blood_group", "organ", "contact", "location",
+        "latitude", "longitude"
+    };
+
+    private static final String[] RECIPIENT_COLUMNS = {
+        "user_id", "name", "age", "gender", "blood_group_needed", "organ_needed",
+        "contact", "location", "urgency_level", "medical_condition", "latitude", "longitude"
+    };
+
+    /**
+     * Binds one row's columns (after user_id) starting at the given parameter index
+     */
+    private interface RowBinder<T> {
+        int bind(PreparedStatement pstmt, int index, T row) throws SQLException;
+    }
+
+    @Override
+    public String[] importDonors(List<Donor> donors) {
+        return importChunk(donors, "DONOR", "donor", DONOR_COLUMNS, (pstmt, index, donor) -> {
+            pstmt.setString(index++, donor.getName());
+            pstmt.setInt(index++, donor.getAge());
+            pstmt.setString(index++, donor.getGender());
+            pstmt.setString(index++, donor.getBloodGroup());
+            pstmt.setString(index++, donor.getOrgan());
+            pstmt.setString(index++, donor.getContact());
+            pstmt.setString(index++, donor.getLocation());
+            Gazetteer.getInstance().resolve(donor);
+            pstmt.setObject(index++, donor.getLatitude(), Types.DOUBLE);
+            pstmt.setObject(index++, donor.getLongitude(), Types.DOUBLE);
+            return index;
+        });
+    }
+
+    @Override
+    public String[] importRecipients(List<Recipient> recipients) {
+        return importChunk(recipients, "RECIPIENT", "recipient", RECIPIENT_COLUMNS, (pstmt, index, recipient) -> {
+            pstmt.setString(index++, recipient.getName());
+            pstmt.setInt(index++, recipient.getAge());
+            pstmt.setString(index++, recipient.getGender());
+            pstmt.setString(index++, recipient.getBloodGroupNeeded());
+            pstmt.setString(index++, recipient.getOrganNeeded());
+            pstmt.setString(index++, recipient.getContact());
+            pstmt.setString(index++, recipient.getLocation());
+            pstmt.setString(index++, recipient.getUrgencyLevel());
+            pstmt.setString(index++, recipient.getMedicalCondition());
+            Gazetteer.getInstance().resolve(recipient);
+            pstmt.setObject(index++, recipient.getLatitude(), Types.DOUBLE);
+            pstmt.setObject(index++, recipient.getLongitude(), Types.DOUBLE);
+            return index;
+        });
+    }
+
+    private <T extends User> String[] importChunk(List<T> rows, String role, String table,
+                                                  String[] columns, RowBinder<T> binder) {
+        String[] errors = new String[rows.size()];
+        if (rows.isEmpty()) {
+            return errors;
+        }
+
+        Connection conn = null;
+        List<Integer> accepted = new ArrayList<>();
+
+        try {
+            conn = openWriteConnection();
+            conn.setAutoCommit(false); // One transaction per chunk
+
+            // Reject usernames that are already taken with a single lookup
+            Set<String> existing = findExistingUsernames(conn, rows);
+            for (int i = 0; i < rows.size(); i++) {
+                if (existing.contains(rows.get(i).getUsername())) {
+                    errors[i] = "Username already exists";
+                } else {
+                    accepted.add(i);
+                }
+            }
+            if (accepted.isEmpty()) {
+                return errors;
+            }
+
+            insertRows(conn, rows, accepted, role, table, columns, binder);
+            conn.commit();
+            return errors;
+
+        } catch (SQLException e) {
+            rollback(conn);
+            if (accepted.size() <= 1) {
+                for (int i : accepted) {
+                    errors[i] = e.getMessage();
+                }
+                return errors;
+            }
+        } finally {
+            close(conn);
+        }
+
+        // The chunk failed as a whole: retry each row alone to find the bad ones
+        for (int i : accepted) {
+            errors[i] = importSingle(rows, i, role, table, columns, binder);
+        }
+        return errors;
+    }
+
+    private <T extends User> String importSingle(List<T> rows, int index, String role, String table,
+                                                 String[] columns, RowBinder<T> binder) {
+        Connection conn = null;
+        try {
+            conn = openWriteConnection();
+            conn.setAutoCommit(false);
+            insertRows(conn, rows, Arrays.asList(index), role, table, columns, binder);
+            conn.commit();
+            return null;
+        } catch (SQLException e) {
+            rollback(conn);
+            return e.getMessage();
+        } finally {
+            close(conn);
+        }
+    }
+
+    /**
+     * Insert user accounts and the matching detail rows with one statement each
+     */
+    private <T extends User> void insertRows(Connection conn, List<T> rows, List<Integer> indexes, String role,
+                                             String table, String[] columns, RowBinder<T> binder)
+            throws SQLException {
+        int count = indexes.size();
+        int[] userIds = new int[count];
+
+        String userQuery = "INSERT INTO user (username, password, role) VALUES " + MultiRowSql.placeholders(3, count);
+        try (PreparedStatement pstmt = conn.prepareStatement(userQuery, Statement.RETURN_GENERATED_KEYS)) {
+            int param = 1;
+            for (int i : indexes) {
+                T row = rows.get(i);
+                pstmt.setString(param++, row.getUsername());
+                pstmt.setString(param++, row.getPassword());
+                pstmt.setString(param++, role);
+            }
+            pstmt.executeUpdate();
+
+            // Keys come back in VALUES order
+            ResultSet keys = pstmt.getGeneratedKeys();
+            int k = 0;
+            while (keys.next() && k < count) {
+                userIds[k++] = keys.getInt(1);
+            }
+            if (k != count) {
+                throw new SQLException("Expected " + count + " generated user IDs but got " + k);
+            }
+        }
+
+        String detailQuery = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES " +
+                             MultiRowSql.placeholders(columns.length, count);
+        try (PreparedStatement pstmt = conn.prepareStatement(detailQuery)) {
+            int param = 1;
+            for (int k = 0; k < count; k++) {
+                T row = rows.get(indexes.get(k));
+                row.setUserId(userIds[k]);
+                pstmt.setInt(param++, userIds[k]);
+                param = binder.bind(pstmt, param, row);
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    private <T extends User> Set<String> findExistingUsernames(Connection conn, List<T> rows) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        String query = "SELECT username FROM user WHERE username IN " + MultiRowSql.placeholders(rows.size(), 1);
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            for (int i = 0; i < rows.size(); i++) {
+                pstmt.setString(i + 1, rows.get(i).getUsername());
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                existing.add(rs.getString(1));
+            }
+        }
+        return existing;
+    }
+
+    private static Connection openWriteConnection() throws SQLException {
+        Connection conn = DatabaseConnection.getWriteConnection();
+        if (conn == null) {
+            throw new SQLException("No database connection available");
+        }
+        return conn;
+    }
+
+    private static void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    private static void close(Connection conn) {
+        // Reset auto-commit and return the connection to the pool
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+                conn.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package database;
+
+import models.Donor;
+import models.Recipient;
+
+import java.util.List;
+
+/**
+ * Repository interface for bulk registration imports
+ * Each call inserts the user account and the donor/recipient row for
+ * every entry. The returned array has one slot per input row: null if
+ * the row was stored, otherwise the reason it was rejected.
+ */
+public interface BulkImportRepository {
+    /**
+     * Import a chunk of donors
+     * @param donors Donors with username and password set
+     * @return Per-row error messages (null for rows that were imported)
+     */
+    String[] importDonors(List<Donor> donors);
+
+    /**
+     * Import a chunk of recipients
+     * @param recipients Recipients with username and password set
+     * @return Per-row error messages (null for rows that were imported)
+     */
+    String[] importRecipients(List<Recipient> recipients);
+}
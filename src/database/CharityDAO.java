@@ -2,27 +2,133 @@ package database;
 
 import models.CharityRequest;
 import models.Donation;
+import models.DonationTotal;
+import models.DonationWindow;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Data Access Object for Charity operations
  * Handles CRUD operations for charity requests and donations
+ *
+ * With charity.raisedSlots > 0, donations add to one of that many
+ * charity_raised_slot rows per request instead of to raised_amount, so
+ * concurrent donations to a popular request do not all wait for its row
+ * lock. Reads add the slots to raised_amount; compactRaisedAmounts folds
+ * them back in.
+ *
+ * Each donation transaction also adds to the donation_rollup rows of its
+ * request, day, payment method and requester type (see DonationRollup),
+ * which dashboards read instead of summing the donation table. Striping
+ * applies to those rows too: a transaction writes its rollup rows in one
+ * randomly picked slot.
+ *
+ * Donations from a DonationJournal are written with the journal's
+ * position in donation_journal, in the same transaction.
+ *
+ * Donations carrying a payment gateway transaction ID are recorded at most
+ * once: the unique index on (payment_method, transaction_id) rejects a
+ * repeated donation, which is then skipped rather than added to
+ * raised_amount again. Transaction IDs are scoped by the gateway (the
+ * payment method), as two gateways may issue the same ID.
  */
-public class CharityDAO {
+public class CharityDAO implements CharityRequestRepository, DonationRepository {
+    
+    // One group of donations per request, day, payment method and requester type
+    private static final String ROLLUP_SOURCE_QUERY =
+        "SELECT d.request_id, DATE(d.donation_date) AS day, d.payment_method, c.type, " +
+        "COUNT(*) AS donations, SUM(d.amount) AS total " +
+        "FROM donation d LEFT JOIN charity_request c ON c.request_id = d.request_id " +
+        "WHERE d.donation_id BETWEEN ? AND ? " +
+        "GROUP BY d.request_id, day, d.payment_method, c.type";
+    
+    // raised_amount plus any slot amounts not yet folded in (one primary key range read)
+    private static final String REQUEST_COLUMNS =
+        "c.request_id, c.title, c.description, c.requester_name, c.type, c.goal_amount, " +
+        "c.raised_amount + COALESCE((SELECT SUM(s.amount) FROM charity_raised_slot s " +
+        "WHERE s.request_id = c.request_id), 0) AS raised_amount, c.created_date, c.status";
+    
+    // A request's count and total over its rollup slots, with the number of slots found
+    private static final String REQUEST_ROLLUP_QUERY =
+        "SELECT COUNT(*), COALESCE(SUM(donation_count), 0), COALESCE(SUM(total_amount), 0) " +
+        "FROM donation_rollup WHERE dimension = ? AND dim_key = ?";
+    
+    // The same from the donations, read from idx_donation_request_amount alone
+    private static final String REQUEST_DONATION_TOTAL_QUERY =
+        "SELECT COUNT(*), COALESCE(SUM(amount), 0) FROM donation WHERE request_id = ?";
+    
+    // Newer donations skipped to reach a window, summed from idx_donation_request_amount without reading
+    // their rows; the _AFTER variants start past a window cursor's boundary row
+    private static final String NEWER_AMOUNT_QUERY =
+        "SELECT COALESCE(SUM(amount), 0) FROM (" + newestFirst("amount", false) + " LIMIT ?) newer";
+    private static final String NEWER_AMOUNT_AFTER_QUERY =
+        "SELECT COALESCE(SUM(amount), 0) FROM (" + newestFirst("amount", true) + " LIMIT ?) newer";
+    
+    // The skipped rows are passed over on the index; only the window's rows are read in full
+    private static final String DONATION_WINDOW_QUERY =
+        "SELECT d.* FROM donation d JOIN (" + newestFirst("donation_id", false) + " LIMIT ?, ?) w " +
+        "ON w.donation_id = d.donation_id ORDER BY d.donation_date DESC, d.donation_id DESC";
+    private static final String DONATION_WINDOW_AFTER_QUERY =
+        "SELECT d.* FROM donation d JOIN (" + newestFirst("donation_id", true) + " LIMIT ?, ?) w " +
+        "ON w.donation_id = d.donation_id ORDER BY d.donation_date DESC, d.donation_id DESC";
+    
+    // The same from the oldest donation up, for windows nearer the end
+    private static final String OLDER_AMOUNT_QUERY =
+        "SELECT COALESCE(SUM(amount), 0) FROM (SELECT amount FROM donation WHERE request_id = ? " +
+        "ORDER BY donation_date, donation_id LIMIT ?) older";
+    private static final String OLDEST_WINDOW_QUERY =
+        "SELECT d.* FROM donation d JOIN (SELECT donation_id FROM donation WHERE request_id = ? " +
+        "ORDER BY donation_date, donation_id LIMIT ?, ?) w ON w.donation_id = d.donation_id " +
+        "ORDER BY d.donation_date, d.donation_id";
+    
+    // MySQL error 1062 (ER_DUP_ENTRY): a unique key value is already recorded
+    private static final int ER_DUP_ENTRY = 1062;
+    // Inserts of a batch retried after another transaction recorded one of its transaction IDs
+    private static final int DUPLICATE_ATTEMPTS = 3;
+    
+    private final int raisedSlots;
+    
+    private final KeysetQuery<Donation> donationsPageQuery =
+        new KeysetQuery<>("donation", "request_id = ?", "donation_date", "donation_id",
+                          this::extractDonationFromResultSet, Donation::getDonationDate, Donation::getDonationId);
+    
+    public CharityDAO() {
+        this(DatabaseConfig.getInstance().getInt("charity.raisedSlots", 0));
+    }
+    
+    /**
+     * @param raisedSlots Striped counter slots per request, or 0 to update raised_amount directly
+     */
+    public CharityDAO(int raisedSlots) {
+        this.raisedSlots = Math.max(0, raisedSlots);
+    }
     
     /**
      * Create a new charity request
      * @param request CharityRequest object
      * @return Generated request ID if successful, -1 otherwise
      */
+    @Override
     public int createCharityRequest(CharityRequest request) {
         String query = "INSERT INTO charity_request (title, description, requester_name, type, goal_amount) " +
                       "VALUES (?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection();
              PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setString(1, request.getTitle());
@@ -51,13 +157,15 @@ public class CharityDAO {
      * Get all active charity requests
      * @return List of active charity requests
      */
+    @Override
     public List<CharityRequest> getActiveCharityRequests() {
         List<CharityRequest> requests = new ArrayList<>();
-        String query = "SELECT * FROM charity_request WHERE status = 'ACTIVE' ORDER BY created_date DESC";
+        String query = "SELECT " + REQUEST_COLUMNS + " FROM charity_request c WHERE c.status = 'ACTIVE' " +
+                      "ORDER BY c.created_date DESC";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
             
             while (rs.next()) {
                 requests.add(extractCharityRequestFromResultSet(rs));
@@ -74,13 +182,14 @@ public class CharityDAO {
      * Get all charity requests
      * @return List of all charity requests
      */
+    @Override
     public List<CharityRequest> getAllCharityRequests() {
         List<CharityRequest> requests = new ArrayList<>();
-        String query = "SELECT * FROM charity_request ORDER BY created_date DESC";
+        String query = "SELECT " + REQUEST_COLUMNS + " FROM charity_request c ORDER BY c.created_date DESC";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
             
             while (rs.next()) {
                 requests.add(extractCharityRequestFromResultSet(rs));
@@ -98,10 +207,11 @@ public class CharityDAO {
      * @param requestId Request ID
      * @return CharityRequest object if found, null otherwise
      */
+    @Override
     public CharityRequest getCharityRequestById(int requestId) {
-        String query = "SELECT * FROM charity_request WHERE request_id = ?";
+        String query = "SELECT " + REQUEST_COLUMNS + " FROM charity_request c WHERE c.request_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
             
             pstmt.setInt(1, requestId);
@@ -120,46 +230,263 @@ public class CharityDAO {
     
     /**
      * Add a donation to a charity request
+     * Idempotent by transaction ID: a donation whose transaction ID is
+     * already recorded is not added again (and counts as added).
      * @param donation Donation object
      * @return true if successful, false otherwise
      */
+    @Override
     public boolean addDonation(Donation donation) {
-        Connection conn = null;
+        return insertDonations(Collections.singletonList(donation), null, 0) == BatchResult.ADDED;
+    }
+    
+    /**
+     * Add to a request's raised amount in the caller's transaction
+     * With striped counters a random slot row is incremented instead of the
+     * request row; the slot insert only takes a shared lock on the request.
+     */
+    private void addRaised(Connection conn, int requestId, double amount) throws SQLException {
+        if (raisedSlots == 0) {
+            String updateQuery = "UPDATE charity_request SET raised_amount = raised_amount + ? " +
+                               "WHERE request_id = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
+                pstmt.setDouble(1, amount);
+                pstmt.setInt(2, requestId);
+                pstmt.executeUpdate();
+            }
+            return;
+        }
+        String slotQuery = "INSERT INTO charity_raised_slot (request_id, slot, amount) VALUES (?, ?, ?) " +
+                         "ON DUPLICATE KEY UPDATE amount = amount + ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(slotQuery)) {
+            pstmt.setInt(1, requestId);
+            pstmt.setInt(2, ThreadLocalRandom.current().nextInt(raisedSlots));
+            pstmt.setDouble(3, amount);
+            pstmt.setDouble(4, amount);
+            pstmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Add donations to the donation rollups in the caller's transaction
+     * The day key is the day of each donation's donation_date, as inserted,
+     * so it matches DATE(donation_date) when the rollups are rebuilt. Rows
+     * are upserted in (dimension, key) order, all in the same slot, so
+     * concurrent transactions lock shared rows in the same order.
+     */
+    private void addRollups(Connection conn, List<Donation> donations) throws SQLException {
+        TreeSet<Integer> requestIds = new TreeSet<>();
+        for (Donation donation : donations) {
+            requestIds.add(donation.getRequestId());
+        }
+        Map<Integer, String> types = new HashMap<>();
+        int listSize = MultiRowSql.paddedSize(requestIds.size());
+        String typeQuery = "SELECT request_id, type FROM charity_request " +
+                         "WHERE request_id IN " + MultiRowSql.placeholders(listSize, 1);
+        try (PreparedStatement pstmt = conn.prepareStatement(typeQuery)) {
+            int param = 1;
+            for (int requestId : requestIds) {
+                pstmt.setInt(param++, requestId);
+            }
+            while (param <= listSize) {
+                pstmt.setInt(param++, requestIds.last());
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                types.put(rs.getInt("request_id"), rs.getString("type"));
+            }
+        }
+        
+        DonationRollup rollup = new DonationRollup();
+        for (Donation donation : donations) {
+            rollup.add(donation, types.get(donation.getRequestId()),
+                       donation.getDonationDate().toLocalDateTime().toLocalDate().toString());
+        }
+        upsertRollups(conn, rollup, raisedSlots == 0 ? 0 : ThreadLocalRandom.current().nextInt(raisedSlots));
+    }
+    
+    /**
+     * Add a rollup's totals to donation_rollup rows in one slot, creating missing rows
+     */
+    private static void upsertRollups(Connection conn, DonationRollup rollup, int slot) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<String, Map<String, DonationTotal>> dimension : rollup.totals().entrySet()) {
+            for (DonationTotal total : dimension.getValue().values()) {
+                rows.add(new Object[] {dimension.getKey(), total});
+            }
+        }
+        int from = 0;
+        for (int size : MultiRowSql.chunkSizes(rows.size())) {
+            List<Object[]> chunk = rows.subList(from, from + size);
+            from += size;
+            String upsertQuery = "INSERT INTO donation_rollup (dimension, dim_key, slot, donation_count, " +
+                               "total_amount) VALUES " + MultiRowSql.placeholders(5, chunk.size()) + " " +
+                               "ON DUPLICATE KEY UPDATE donation_count = donation_count + VALUES(donation_count), " +
+                               "total_amount = total_amount + VALUES(total_amount)";
+            try (PreparedStatement pstmt = conn.prepareStatement(upsertQuery)) {
+                int param = 1;
+                for (Object[] row : chunk) {
+                    DonationTotal total = (DonationTotal) row[1];
+                    pstmt.setString(param++, (String) row[0]);
+                    pstmt.setString(param++, total.getKey());
+                    pstmt.setInt(param++, slot);
+                    pstmt.setInt(param++, total.getDonationCount());
+                    pstmt.setDouble(param++, total.getTotalAmount());
+                }
+                pstmt.executeUpdate();
+            }
+        }
+    }
+    
+    /**
+     * Add several donations in one transaction
+     * The donations go in with multi-row INSERTs and each charity request is
+     * updated once with the sum of its donations, so a batch holds each hot
+     * request row lock for one UPDATE instead of one per donation. Requests
+     * are updated in ID order so concurrent batches lock them in the same order.
+     * The rollups likewise get one upsert per key for the whole batch.
+     * Each donation is stored under its own donation date (when its payment
+     * was confirmed), or the time of the insert if it has none.
+     * Donations whose transaction ID is already recorded, or repeated in the
+     * batch, are skipped. A batch without repeats is inserted with no read
+     * first; if the unique index rejects a row (ER_DUP_ENTRY), the batch is
+     * redone after a locking read of its transaction IDs. Any other error
+     * (a foreign key, an out-of-range value) fails the batch.
+     * @param donations Donation objects
+     * @return true if all were added, false if none was
+     */
+    @Override
+    public boolean addDonations(List<Donation> donations) {
+        return insertDonations(donations, null, 0) == BatchResult.ADDED;
+    }
+    
+    /**
+     * Add several donations in one transaction, as addDonations
+     * A failure with SQLState class 22 (data exception) or 23 (integrity
+     * constraint violation) is REJECTED; any other, such as a lost
+     * connection or a lock wait timeout, is FAILED.
+     * @param donations Donation objects
+     * @return ADDED if all were added, otherwise why none was
+     */
+    @Override
+    public BatchResult addDonationBatch(List<Donation> donations) {
+        return insertDonations(donations, null, 0);
+    }
+    
+    /**
+     * Add journaled donations and the journal position in one transaction
+     * @param journalId Journal ID
+     * @param position Sequence number of the last of the donations
+     * @param donations Donation objects
+     * @return true if all were added, false if none was
+     */
+    @Override
+    public boolean addJournaledDonations(String journalId, long position, List<Donation> donations) {
+        return insertDonations(donations, journalId, position) == BatchResult.ADDED;
+    }
+    
+    /**
+     * Get the position a donation journal was recorded up to
+     * Read from the primary, which a replica may lag behind, without pinning
+     * the session's other reads to it (the applier polls this continually).
+     * @param journalId Journal ID
+     * @return Position, 0 for a new journal, or -1 if the query failed
+     */
+    @Override
+    public long getJournalPosition(String journalId) {
+        String query = "SELECT applied_seq FROM donation_journal WHERE journal_id = ?";
+        
+        try (Connection conn = DatabaseConnection.getPrimaryReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            
+            pstmt.setString(1, journalId);
+            ResultSet rs = pstmt.executeQuery();
+            
+            return rs.next() ? rs.getLong(1) : 0L;
+        } catch (SQLException e) {
+            System.err.println("Error reading donation journal position: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return -1L;
+    }
+    
+    /**
+     * Insert donations in one transaction, with the journal position when journalId is set
+     * With a journal ID and no donations, only the position is stored (a set-aside record).
+     */
+    private BatchResult insertDonations(List<Donation> donations, String journalId, long position) {
+        if (donations.isEmpty() && journalId == null) {
+            return BatchResult.ADDED;
+        }
+        // A donation submitted twice in the same batch
+        List<Donation> unique = new ArrayList<>(donations.size());
+        Set<String> transactionKeys = new HashSet<>();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (Donation donation : donations) {
+            String key = transactionKey(donation);
+            if (key == null || transactionKeys.add(key)) {
+                unique.add(donation.getDonationDate() != null ? donation : new Donation(
+                    0, donation.getDonorName(), donation.getRequestId(), donation.getAmount(), now,
+                    donation.getPaymentMethod(), donation.getTransactionId()));
+            }
+        }
         
+        Connection conn = null;
+        BatchResult failure = BatchResult.FAILED;
         try {
-            conn = DatabaseConnection.getConnection();
+            conn = DatabaseConnection.getWriteConnection();
+            if (conn == null) {
+                throw new SQLException("No database connection available");
+            }
             conn.setAutoCommit(false); // Start transaction
             
-            // Insert donation
-            String insertQuery = "INSERT INTO donation (donor_name, request_id, amount, payment_method) " +
-                               "VALUES (?, ?, ?, ?)";
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(insertQuery)) {
-                pstmt.setString(1, donation.getDonorName());
-                pstmt.setInt(2, donation.getRequestId());
-                pstmt.setDouble(3, donation.getAmount());
-                pstmt.setString(4, donation.getPaymentMethod());
-                
-                pstmt.executeUpdate();
+            // The unique (payment_method, transaction_id) index rejects a donation already recorded
+            List<Donation> inserted = unique;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    insertDonationRows(conn, inserted);
+                    break;
+                } catch (SQLException e) {
+                    if (e.getErrorCode() != ER_DUP_ENTRY || attempt == DUPLICATE_ATTEMPTS) {
+                        throw e;
+                    }
+                    // Start over without the donations already recorded
+                    conn.rollback();
+                    inserted = withoutRecordedTransactions(conn, unique);
+                }
             }
             
-            // Update raised amount in charity request
-            String updateQuery = "UPDATE charity_request SET raised_amount = raised_amount + ? " +
-                               "WHERE request_id = ?";
+            Map<Integer, Double> raisedByRequest = new TreeMap<>();
+            for (Donation donation : inserted) {
+                raisedByRequest.merge(donation.getRequestId(), donation.getAmount(), Double::sum);
+            }
+            for (Map.Entry<Integer, Double> entry : raisedByRequest.entrySet()) {
+                addRaised(conn, entry.getKey(), entry.getValue());
+            }
+            if (!inserted.isEmpty()) {
+                addRollups(conn, inserted);
+            }
             
-            try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
-                pstmt.setDouble(1, donation.getAmount());
-                pstmt.setInt(2, donation.getRequestId());
-                
-                pstmt.executeUpdate();
+            if (journalId != null) {
+                String journalQuery = "INSERT INTO donation_journal (journal_id, applied_seq) VALUES (?, ?) " +
+                                    "ON DUPLICATE KEY UPDATE applied_seq = VALUES(applied_seq)";
+                try (PreparedStatement pstmt = conn.prepareStatement(journalQuery)) {
+                    pstmt.setString(1, journalId);
+                    pstmt.setLong(2, position);
+                    pstmt.executeUpdate();
+                }
             }
             
             conn.commit(); // Commit transaction
-            return true;
+            return BatchResult.ADDED;
             
         } catch (SQLException e) {
-            System.err.println("Error adding donation: " + e.getMessage());
+            System.err.println("Error adding " + donations.size() + " donations: " + e.getMessage());
             e.printStackTrace();
+            if (isDataError(e)) {
+                failure = BatchResult.REJECTED;
+            }
             
             // Rollback transaction on error
             if (conn != null) {
@@ -170,17 +497,111 @@ public class CharityDAO {
                 }
             }
         } finally {
-            // Reset auto-commit
+            // Reset auto-commit and return the connection to the pool
             if (conn != null) {
                 try {
                     conn.setAutoCommit(true);
+                    conn.close();
                 } catch (SQLException e) {
                     e.printStackTrace();
                 }
             }
         }
         
-        return false;
+        return failure;
+    }
+    
+    /**
+     * Whether the database refused the data itself rather than failing
+     * SQLState class 22 is a data exception (a value out of range, too
+     * long), 23 an integrity constraint violation (an unknown request).
+     */
+    private static boolean isDataError(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("22") || state.startsWith("23"));
+    }
+    
+    /**
+     * Insert donation rows with multi-row INSERTs in the caller's transaction
+     * @throws SQLException with error code ER_DUP_ENTRY if a transaction ID is already recorded
+     */
+    private static void insertDonationRows(Connection conn, List<Donation> donations) throws SQLException {
+        int from = 0;
+        for (int size : MultiRowSql.chunkSizes(donations.size())) {
+            List<Donation> chunk = donations.subList(from, from + size);
+            from += size;
+            String insertQuery = "INSERT INTO donation (donor_name, request_id, amount, donation_date, " +
+                               "payment_method, transaction_id) " +
+                               "VALUES " + MultiRowSql.placeholders(6, chunk.size());
+            try (PreparedStatement pstmt = conn.prepareStatement(insertQuery)) {
+                int param = 1;
+                for (Donation donation : chunk) {
+                    pstmt.setString(param++, donation.getDonorName());
+                    pstmt.setInt(param++, donation.getRequestId());
+                    pstmt.setDouble(param++, donation.getAmount());
+                    pstmt.setTimestamp(param++, donation.getDonationDate());
+                    pstmt.setString(param++, donation.getPaymentMethod());
+                    pstmt.setString(param++, donation.getTransactionId());
+                }
+                pstmt.executeUpdate();
+            }
+        }
+    }
+    
+    /**
+     * Key of a donation's payment in the unique (payment_method, transaction_id) index
+     * @return Key, or null if either is missing (NULLs never conflict in a unique index)
+     */
+    static String transactionKey(Donation donation) {
+        if (donation.getPaymentMethod() == null || donation.getTransactionId() == null) {
+            return null;
+        }
+        return donation.getPaymentMethod() + "\n" + donation.getTransactionId();
+    }
+    
+    /**
+     * Drop the donations whose gateway transaction is already recorded
+     * The share locks keep the remaining transactions from being recorded by
+     * another transaction before the caller inserts them.
+     */
+    private static List<Donation> withoutRecordedTransactions(Connection conn, List<Donation> donations)
+            throws SQLException {
+        List<Donation> keyed = new ArrayList<>();
+        for (Donation donation : donations) {
+            if (transactionKey(donation) != null) {
+                keyed.add(donation);
+            }
+        }
+        if (keyed.isEmpty()) {
+            return donations;
+        }
+        
+        Set<String> recorded = new HashSet<>();
+        int listSize = MultiRowSql.paddedSize(keyed.size());
+        String recordedQuery = "SELECT payment_method, transaction_id FROM donation " +
+                             "WHERE (payment_method, transaction_id) IN (" +
+                             MultiRowSql.placeholders(2, listSize) + ") LOCK IN SHARE MODE";
+        try (PreparedStatement pstmt = conn.prepareStatement(recordedQuery)) {
+            int param = 1;
+            for (int i = 0; i < listSize; i++) {
+                Donation donation = keyed.get(Math.min(i, keyed.size() - 1));
+                pstmt.setString(param++, donation.getPaymentMethod());
+                pstmt.setString(param++, donation.getTransactionId());
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                recorded.add(rs.getString(1) + "\n" + rs.getString(2));
+            }
+        }
+        
+        List<Donation> remaining = new ArrayList<>(donations.size());
+        for (Donation donation : donations) {
+            String key = transactionKey(donation);
+            if (key == null || !recorded.contains(key)) {
+                remaining.add(donation);
+            }
+        }
+        return remaining;
     }
     
     /**
@@ -188,11 +609,12 @@ public class CharityDAO {
      * @param requestId Request ID
      * @return List of donations
      */
+    @Override
     public List<Donation> getDonationsByRequestId(int requestId) {
         List<Donation> donations = new ArrayList<>();
         String query = "SELECT * FROM donation WHERE request_id = ? ORDER BY donation_date DESC";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
             
             pstmt.setInt(1, requestId);
@@ -209,16 +631,238 @@ public class CharityDAO {
         return donations;
     }
     
+    /**
+     * Get one page of donations for a charity request, newest first
+     * @param requestId Request ID
+     * @param pageToken Token from a previous page, or null for the first page
+     * @param pageSize Donations per page
+     * @return Page of donations (empty if the query failed)
+     */
+    @Override
+    public Page<Donation> getDonationsPage(int requestId, String pageToken, int pageSize) {
+        try {
+            return donationsPageQuery.fetch(pageToken, pageSize, requestId);
+        } catch (SQLException e) {
+            System.err.println("Error fetching donations page: " + e.getMessage());
+            e.printStackTrace();
+            return new Page<>(new ArrayList<>(), null, null);
+        }
+    }
+    
+    /**
+     * Get the donations of a charity request at a row offset, newest first
+     * The request's rollup rows (or, when it has none, a count of its
+     * donations), the amounts of the rows skipped and the window are read
+     * in one transaction, so they agree with each other. With a usable
+     * window token the rows are read on from its boundary row with a seek;
+     * otherwise from whichever end of the request's donations is nearer,
+     * so only the rows between that start and the window are skipped.
+     * Running totals are computed in DECIMAL: down from the token's running
+     * total or the request total, or up from the sum of the older rows.
+     * @param requestId Request ID
+     * @param windowToken Next token of a window at or above the offset, or null
+     * @param offset Number of newer donations to skip
+     * @param limit Donations to return
+     * @return Window of donations, or null if the query failed
+     */
+    @Override
+    public DonationWindow getDonationWindow(int requestId, String windowToken, int offset, int limit) {
+        WindowCursor seek = WindowCursor.parse(windowToken);
+        int skip = Math.max(0, offset);
+        int size = KeysetQuery.clampPageSize(limit);
+        Connection conn = null;
+        
+        try {
+            conn = DatabaseConnection.getReadConnection();
+            conn.setAutoCommit(false); // Start transaction: one snapshot for all the reads
+            
+            int donationCount = 0;
+            BigDecimal total = BigDecimal.ZERO;
+            boolean rolledUp = false;
+            try (PreparedStatement pstmt = conn.prepareStatement(REQUEST_ROLLUP_QUERY)) {
+                pstmt.setString(1, DonationRollup.REQUEST);
+                pstmt.setString(2, String.valueOf(requestId));
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next() && rs.getInt(1) > 0) {
+                    rolledUp = true;
+                    donationCount = rs.getInt(2);
+                    total = rs.getBigDecimal(3);
+                }
+            }
+            if (!rolledUp) {
+                // No rollup row (not yet rebuilt after an upgrade): count the donations themselves
+                try (PreparedStatement pstmt = conn.prepareStatement(REQUEST_DONATION_TOTAL_QUERY)) {
+                    pstmt.setInt(1, requestId);
+                    ResultSet rs = pstmt.executeQuery();
+                    if (rs.next()) {
+                        donationCount = rs.getInt(1);
+                        total = rs.getBigDecimal(2);
+                    }
+                }
+            }
+            
+            if (seek != null && !seek.reaches(skip, donationCount)) {
+                seek = null;
+            }
+            int newerSkip = seek != null ? skip - seek.offset : skip;
+            int olderSkip = Math.max(0, donationCount - skip - size);
+            
+            List<Donation> donations = new ArrayList<>(size);
+            List<BigDecimal> runningTotals = new ArrayList<>(size);
+            BigDecimal remaining;
+            if (olderSkip < newerSkip) {
+                remaining = readOldestFirst(conn, requestId, olderSkip, Math.min(size, donationCount - skip),
+                                            donations, runningTotals);
+            } else {
+                remaining = readNewestFirst(conn, requestId, seek, newerSkip, size,
+                                            seek != null ? seek.runningTotal : total, donations, runningTotals);
+            }
+            
+            conn.commit(); // End the read transaction
+            
+            double[] running = new double[runningTotals.size()];
+            for (int i = 0; i < running.length; i++) {
+                running[i] = runningTotals.get(i).doubleValue();
+            }
+            Donation last = donations.isEmpty() ? null : donations.get(donations.size() - 1);
+            return new DonationWindow(skip, donations, running, donationCount, total.doubleValue(),
+                                      WindowCursor.next(skip + donations.size(), donationCount, last, remaining));
+            
+        } catch (SQLException e) {
+            System.err.println("Error fetching donation window: " + e.getMessage());
+            e.printStackTrace();
+            
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            return null;
+        } finally {
+            // Reset auto-commit and return the connection to the pool
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Read a window newest first, skipping newer rows from the top or from a cursor's boundary row
+     * @param remaining Running total of the first row read
+     * @return Running total of the row after the window
+     */
+    private BigDecimal readNewestFirst(Connection conn, int requestId, WindowCursor seek, int skip, int size,
+                                       BigDecimal remaining, List<Donation> donations,
+                                       List<BigDecimal> runningTotals) throws SQLException {
+        if (skip > 0) {
+            try (PreparedStatement pstmt = conn.prepareStatement(seek != null ? NEWER_AMOUNT_AFTER_QUERY
+                                                                              : NEWER_AMOUNT_QUERY)) {
+                int param = setWindowStart(pstmt, requestId, seek);
+                pstmt.setInt(param, skip);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    remaining = remaining.subtract(rs.getBigDecimal(1));
+                }
+            }
+        }
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(seek != null ? DONATION_WINDOW_AFTER_QUERY
+                                                                          : DONATION_WINDOW_QUERY)) {
+            int param = setWindowStart(pstmt, requestId, seek);
+            pstmt.setInt(param++, skip);
+            pstmt.setInt(param, size);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                donations.add(extractDonationFromResultSet(rs));
+                runningTotals.add(remaining);
+                remaining = remaining.subtract(rs.getBigDecimal("amount"));
+            }
+        }
+        return remaining;
+    }
+    
+    /**
+     * Read a window from the oldest row up, skipping the rows older than it
+     * The rows are returned newest first, like those of readNewestFirst.
+     * @return Running total of the row after the window: the sum of the rows skipped
+     */
+    private BigDecimal readOldestFirst(Connection conn, int requestId, int skip, int size,
+                                       List<Donation> donations, List<BigDecimal> runningTotals)
+            throws SQLException {
+        BigDecimal older = BigDecimal.ZERO;
+        if (skip > 0) {
+            try (PreparedStatement pstmt = conn.prepareStatement(OLDER_AMOUNT_QUERY)) {
+                pstmt.setInt(1, requestId);
+                pstmt.setInt(2, skip);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    older = rs.getBigDecimal(1);
+                }
+            }
+        }
+        
+        if (size > 0) {
+            BigDecimal running = older;
+            try (PreparedStatement pstmt = conn.prepareStatement(OLDEST_WINDOW_QUERY)) {
+                pstmt.setInt(1, requestId);
+                pstmt.setInt(2, skip);
+                pstmt.setInt(3, size);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    running = running.add(rs.getBigDecimal("amount"));
+                    donations.add(extractDonationFromResultSet(rs));
+                    runningTotals.add(running);
+                }
+            }
+            Collections.reverse(donations);
+            Collections.reverse(runningTotals);
+        }
+        return older;
+    }
+    
+    /**
+     * Bind the request ID, and the boundary row's key when reading on from a window cursor
+     * @return Index of the next parameter
+     */
+    private static int setWindowStart(PreparedStatement pstmt, int requestId, WindowCursor seek)
+            throws SQLException {
+        int param = 1;
+        pstmt.setInt(param++, requestId);
+        if (seek != null) {
+            pstmt.setTimestamp(param++, seek.cursor.date);
+            pstmt.setTimestamp(param++, seek.cursor.date);
+            pstmt.setInt(param++, seek.cursor.id);
+        }
+        return param;
+    }
+    
+    /**
+     * A request's donations newest first, past a window cursor's boundary row when seeking
+     */
+    private static String newestFirst(String columns, boolean seek) {
+        return "SELECT " + columns + " FROM donation WHERE request_id = ? " +
+               (seek ? "AND " + KeysetQuery.after("donation_date", "donation_id") + " " : "") +
+               "ORDER BY donation_date DESC, donation_id DESC";
+    }
+    
     /**
      * Update charity request status
      * @param requestId Request ID
      * @param status New status
      * @return true if successful, false otherwise
      */
+    @Override
     public boolean updateCharityRequestStatus(int requestId, String status) {
         String query = "UPDATE charity_request SET status = ? WHERE request_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
             
             pstmt.setString(1, status);
@@ -233,16 +877,115 @@ public class CharityDAO {
         return false;
     }
     
+    /**
+     * Fold the striped counter slots into raised_amount
+     * Each request is folded in its own short transaction that locks the
+     * request row before its slots, so slot inserts waiting on the request's
+     * shared lock cannot deadlock with it. Slots left over after striping is
+     * switched off are folded too.
+     * @return Number of requests folded, or -1 if it failed
+     */
+    @Override
+    public int compactRaisedAmounts() {
+        List<Integer> requestIds = new ArrayList<>();
+        String pendingQuery = "SELECT DISTINCT request_id FROM charity_raised_slot WHERE amount <> 0 " +
+                            "ORDER BY request_id";
+        
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(pendingQuery);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                requestIds.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding raised amount slots: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+        
+        int folded = 0;
+        for (int requestId : requestIds) {
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getWriteConnection();
+                conn.setAutoCommit(false); // Start transaction
+                
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT raised_amount FROM charity_request WHERE request_id = ? FOR UPDATE")) {
+                    pstmt.setInt(1, requestId);
+                    pstmt.executeQuery().close();
+                }
+                
+                BigDecimal pending = BigDecimal.ZERO;
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT SUM(amount) FROM charity_raised_slot WHERE request_id = ? FOR UPDATE")) {
+                    pstmt.setInt(1, requestId);
+                    ResultSet rs = pstmt.executeQuery();
+                    if (rs.next() && rs.getBigDecimal(1) != null) {
+                        pending = rs.getBigDecimal(1);
+                    }
+                }
+                
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE charity_request SET raised_amount = raised_amount + ? WHERE request_id = ?")) {
+                    pstmt.setBigDecimal(1, pending);
+                    pstmt.setInt(2, requestId);
+                    pstmt.executeUpdate();
+                }
+                
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE charity_raised_slot SET amount = 0 WHERE request_id = ?")) {
+                    pstmt.setInt(1, requestId);
+                    pstmt.executeUpdate();
+                }
+                
+                conn.commit(); // Commit transaction
+                folded++;
+                
+            } catch (SQLException e) {
+                System.err.println("Error folding raised amount slots: " + e.getMessage());
+                e.printStackTrace();
+                
+                // Rollback transaction on error
+                if (conn != null) {
+                    try {
+                        conn.rollback();
+                    } catch (SQLException ex) {
+                        ex.printStackTrace();
+                    }
+                }
+                return -1;
+            } finally {
+                // Reset auto-commit and return the connection to the pool
+                if (conn != null) {
+                    try {
+                        conn.setAutoCommit(true);
+                        conn.close();
+                    } catch (SQLException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+        
+        return folded;
+    }
+    
     /**
      * Get total donations amount
+     * Every donation is counted once per rollup dimension, so the payment
+     * method rows (a few per method) add up to all donations.
      * @return Total donations amount
      */
+    @Override
     public double getTotalDonationsAmount() {
-        String query = "SELECT SUM(amount) FROM donation";
+        String query = "SELECT SUM(total_amount) FROM donation_rollup WHERE dimension = '" +
+                      DonationRollup.PAYMENT_METHOD + "'";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
             
             if (rs.next()) {
                 return rs.getDouble(1);
@@ -255,6 +998,162 @@ public class CharityDAO {
         return 0.0;
     }
     
+    /**
+     * Get donation totals by one rollup dimension
+     * Slots of the same key are added up.
+     * @param dimension One of DonationRollup.DIMENSIONS
+     * @return Totals in display order (empty if the query failed)
+     */
+    @Override
+    public List<DonationTotal> getDonationTotals(String dimension) {
+        List<DonationTotal> totals = new ArrayList<>();
+        String query = "SELECT dim_key, SUM(donation_count) AS donations, SUM(total_amount) AS total " +
+                      "FROM donation_rollup WHERE dimension = ? GROUP BY dim_key";
+        
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            
+            pstmt.setString(1, DonationRollup.checked(dimension));
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                if (rs.getInt("donations") != 0) {
+                    totals.add(new DonationTotal(rs.getString("dim_key"), rs.getInt("donations"),
+                                                 rs.getDouble("total")));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching donation totals: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return DonationRollup.sorted(dimension, totals);
+    }
+    
+    /**
+     * Recompute donation_rollup from the donation table
+     * The donation ID range is split into rollup.rebuildChunk IDs per chunk
+     * and the chunks are aggregated by rollup.rebuildThreads connections at
+     * once. The rows are then replaced in one transaction, which also counts
+     * donations added since the range was read: their own rollup increments
+     * are among the rows replaced. Donations still uncommitted when their
+     * chunk was read, yet committed before the replacement, are missed; run
+     * it when donations are quiet, or run it again.
+     * @return Number of donations counted, or -1 if it failed
+     */
+    @Override
+    public int rebuildDonationTotals() {
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        int threads = Math.max(1, config.getInt("rollup.rebuildThreads", 4));
+        int chunkSize = Math.max(1, config.getInt("rollup.rebuildChunk", 50000));
+        
+        long minId = 0;
+        long maxId = 0;
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "SELECT COALESCE(MIN(donation_id), 1), COALESCE(MAX(donation_id), 0) FROM donation");
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            if (rs.next()) {
+                minId = rs.getLong(1);
+                maxId = rs.getLong(2);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading donation ID range: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+        
+        DonationRollup rollup = new DonationRollup();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "rollup-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<DonationRollup>> chunks = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                long first = from;
+                long last = Math.min(from + chunkSize - 1, maxId);
+                chunks.add(pool.submit(() -> {
+                    try (Connection conn = DatabaseConnection.getWriteConnection()) {
+                        return aggregateDonations(conn, first, last);
+                    }
+                }));
+            }
+            for (Future<DonationRollup> chunk : chunks) {
+                rollup.addAll(chunk.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (ExecutionException e) {
+            System.err.println("Error aggregating donations: " + e.getCause().getMessage());
+            e.getCause().printStackTrace();
+            return -1;
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getWriteConnection();
+            conn.setAutoCommit(false); // Start transaction
+            
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM donation_rollup")) {
+                pstmt.executeUpdate();
+            }
+            // Donations added while the chunks were read
+            rollup.addAll(aggregateDonations(conn, maxId + 1, Long.MAX_VALUE));
+            upsertRollups(conn, rollup, 0);
+            
+            conn.commit(); // Commit transaction
+            return rollup.donationCount();
+            
+        } catch (SQLException e) {
+            System.err.println("Error replacing donation rollups: " + e.getMessage());
+            e.printStackTrace();
+            
+            // Rollback transaction on error
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        } finally {
+            // Reset auto-commit and return the connection to the pool
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Aggregate the donations in a donation ID range
+     */
+    private static DonationRollup aggregateDonations(Connection conn, long firstId, long lastId) throws SQLException {
+        DonationRollup rollup = new DonationRollup();
+        try (PreparedStatement pstmt = conn.prepareStatement(ROLLUP_SOURCE_QUERY)) {
+            pstmt.setLong(1, firstId);
+            pstmt.setLong(2, lastId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                rollup.add(rs.getString("request_id"), rs.getString("day"), rs.getString("payment_method"),
+                           rs.getString("type"), rs.getInt("donations"), rs.getDouble("total"));
+            }
+        }
+        return rollup;
+    }
+    
     /**
      * Extract CharityRequest object from ResultSet
      */
@@ -282,7 +1181,8 @@ public class CharityDAO {
             rs.getInt("request_id"),
             rs.getDouble("amount"),
             rs.getTimestamp("donation_date"),
-            rs.getString("payment_method")
+            rs.getString("payment_method"),
+            rs.getString("transaction_id")
         );
     }
 }
@@ -0,0 +1,54 @@
+package database;
+
+import models.CharityRequest;
+
+import java.util.List;
+
+/**
+ * Repository interface for charity requests
+ * Implemented by CharityDAO (MySQL) and InMemoryCharityRepository
+ */
+public interface CharityRequestRepository {
+    /**
+     * Create a new charity request
+     * @param request CharityRequest object
+     * @return Generated request ID if successful, -1 otherwise
+     */
+    int createCharityRequest(CharityRequest request);
+
+    /**
+     * Get all active charity requests, newest first
+     * @return List of active charity requests
+     */
+    List<CharityRequest> getActiveCharityRequests();
+
+    /**
+     * Get all charity requests, newest first
+     * @return List of all charity requests
+     */
+    List<CharityRequest> getAllCharityRequests();
+
+    /**
+     * Get charity request by ID
+     * @param requestId Request ID
+     * @return CharityRequest object if found, null otherwise
+     */
+    CharityRequest getCharityRequestById(int requestId);
+
+    /**
+     * Update charity request status
+     * @param requestId Request ID
+     * @param status New status
+     * @return true if successful, false otherwise
+     */
+    boolean updateCharityRequestStatus(int requestId, String status);
+
+    /**
+     * Fold raised amounts held in striped counters (charity.raisedSlots)
+     * back into each request's raised amount
+     * Reads include unfolded amounts, so this only bounds how many slots a
+     * read adds up.
+     * @return Number of requests folded, or -1 if it failed
+     */
+    int compactRaisedAmounts();
+}
@@ -0,0 +1,468 @@
+package database;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints (donor IDs) with fast boolean algebra
+ * The ID space is cut into chunks of 65536 by the high 16 bits. A chunk
+ * with up to 4096 members stores them as a sorted char array (2 bytes per
+ * member); a denser chunk switches to a 65536-bit bitset (8 KB), the
+ * layout used by Roaring bitmaps. AND, OR and AND NOT work chunk by chunk,
+ * on whole 64-bit words for dense chunks, and andCardinality counts an
+ * intersection without building it.
+ *
+ * Not thread-safe; DonorBitmapIndex is guarded by DonorSearchIndex's lock.
+ */
+class CompressedBitmap {
+    // Largest chunk kept as a sorted array; beyond it the bitset is smaller
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int chunks;
+
+    /**
+     * One chunk: the low 16 bits of its members
+     */
+    private abstract static class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(char low);
+
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        abstract void forEach(int high, IntConsumer action);
+
+        abstract BitsetContainer toBitset();
+    }
+
+    private static final class ArrayContainer extends Container {
+        char[] values;
+        int size;
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        @Override
+        Container add(char low) {
+            int slot = Arrays.binarySearch(values, 0, size, low);
+            if (slot >= 0) {
+                return this;
+            }
+            if (size == ARRAY_MAX) {
+                return toBitset().add(low);
+            }
+            slot = -slot - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, size * 2)));
+            }
+            System.arraycopy(values, slot, values, slot + 1, size - slot);
+            values[slot] = low;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int slot = Arrays.binarySearch(values, 0, size, low);
+            if (slot >= 0) {
+                System.arraycopy(values, slot + 1, values, slot, size - slot - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        @Override
+        BitsetContainer toBitset() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < size; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitsetContainer(words, size);
+        }
+    }
+
+    private static final class BitsetContainer extends Container {
+        final long[] words;
+        int cardinality;
+
+        BitsetContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(char low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before | (1L << low);
+            if (before != words[low >>> 6]) {
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before & ~(1L << low);
+            if (before != words[low >>> 6]) {
+                cardinality--;
+            }
+            return cardinality <= ARRAY_MAX ? shrink(words, cardinality) : this;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        BitsetContainer toBitset() {
+            return this;
+        }
+    }
+
+    boolean contains(int id) {
+        int slot = find((char) (id >>> 16));
+        return slot >= 0 && containers[slot].contains((char) id);
+    }
+
+    void add(int id) {
+        char high = (char) (id >>> 16);
+        int slot = find(high);
+        if (slot >= 0) {
+            containers[slot] = containers[slot].add((char) id);
+            return;
+        }
+        slot = -slot - 1;
+        if (chunks == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(4, chunks * 2));
+            containers = Arrays.copyOf(containers, keys.length);
+        }
+        System.arraycopy(keys, slot, keys, slot + 1, chunks - slot);
+        System.arraycopy(containers, slot, containers, slot + 1, chunks - slot);
+        keys[slot] = high;
+        containers[slot] = new ArrayContainer(new char[] {(char) id}, 1);
+        chunks++;
+    }
+
+    void remove(int id) {
+        int slot = find((char) (id >>> 16));
+        if (slot < 0) {
+            return;
+        }
+        containers[slot] = containers[slot].remove((char) id);
+        if (containers[slot].cardinality() == 0) {
+            System.arraycopy(keys, slot + 1, keys, slot, chunks - slot - 1);
+            System.arraycopy(containers, slot + 1, containers, slot, chunks - slot - 1);
+            chunks--;
+            containers[chunks] = null;
+        }
+    }
+
+    boolean isEmpty() {
+        return chunks == 0;
+    }
+
+    int cardinality() {
+        int total = 0;
+        for (int i = 0; i < chunks; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    /**
+     * Visit the members in ascending order
+     */
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < chunks; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    CompressedBitmap copy() {
+        CompressedBitmap copy = new CompressedBitmap();
+        copy.keys = Arrays.copyOf(keys, chunks);
+        copy.containers = new Container[chunks];
+        for (int i = 0; i < chunks; i++) {
+            copy.containers[i] = copyOf(containers[i]);
+        }
+        copy.chunks = chunks;
+        return copy;
+    }
+
+    /**
+     * Members of both bitmaps
+     */
+    static CompressedBitmap and(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks && j < b.chunks) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container c = and(a.containers[i], b.containers[j]);
+                if (c.cardinality() > 0) {
+                    result.append(a.keys[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Members of either bitmap
+     */
+    static CompressedBitmap or(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks || j < b.chunks) {
+            if (j == b.chunks || (i < a.chunks && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], copyOf(a.containers[i]));
+                i++;
+            } else if (i == a.chunks || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], copyOf(b.containers[j]));
+                j++;
+            } else {
+                result.append(a.keys[i], or(a.containers[i], b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Members of a that are not in b
+     */
+    static CompressedBitmap andNot(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < a.chunks; i++) {
+            while (j < b.chunks && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            Container c = j < b.chunks && b.keys[j] == a.keys[i]
+                ? andNot(a.containers[i], b.containers[j]) : copyOf(a.containers[i]);
+            if (c.cardinality() > 0) {
+                result.append(a.keys[i], c);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Size of the intersection, without building it
+     */
+    static int andCardinality(CompressedBitmap a, CompressedBitmap b) {
+        int total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks && j < b.chunks) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                total += andCardinality(a.containers[i], b.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+
+    private int find(char high) {
+        return Arrays.binarySearch(keys, 0, chunks, high);
+    }
+
+    // Chunks are appended in key order by the set operations
+    private void append(char high, Container container) {
+        if (chunks == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(4, chunks * 2));
+            containers = Arrays.copyOf(containers, keys.length);
+        }
+        keys[chunks] = high;
+        containers[chunks] = container;
+        chunks++;
+    }
+
+    private static Container copyOf(Container c) {
+        if (c instanceof ArrayContainer) {
+            ArrayContainer array = (ArrayContainer) c;
+            return new ArrayContainer(Arrays.copyOf(array.values, array.size), array.size);
+        }
+        BitsetContainer bitset = (BitsetContainer) c;
+        return new BitsetContainer(bitset.words.clone(), bitset.cardinality);
+    }
+
+    private static Container shrink(long[] words, int cardinality) {
+        char[] values = new char[cardinality];
+        int size = 0;
+        for (int w = 0; w < WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                values[size++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return new ArrayContainer(values, size);
+    }
+
+    private static Container fromWords(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality <= ARRAY_MAX ? shrink(words, cardinality) : new BitsetContainer(words, cardinality);
+    }
+
+    private static Container and(Container a, Container b) {
+        if (a instanceof BitsetContainer && b instanceof BitsetContainer) {
+            long[] x = ((BitsetContainer) a).words;
+            long[] y = ((BitsetContainer) b).words;
+            long[] words = new long[WORDS];
+            for (int w = 0; w < WORDS; w++) {
+                words[w] = x[w] & y[w];
+            }
+            return fromWords(words);
+        }
+        // At least one side is an array: keep its members found in the other
+        ArrayContainer array = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+        Container other = array == a ? b : a;
+        char[] values = new char[array.size];
+        int size = 0;
+        for (int i = 0; i < array.size; i++) {
+            if (other.contains(array.values[i])) {
+                values[size++] = array.values[i];
+            }
+        }
+        return new ArrayContainer(values, size);
+    }
+
+    private static Container or(Container a, Container b) {
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+            ArrayContainer x = (ArrayContainer) a;
+            ArrayContainer y = (ArrayContainer) b;
+            char[] values = new char[x.size + y.size];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < x.size || j < y.size) {
+                if (j == y.size || (i < x.size && x.values[i] < y.values[j])) {
+                    values[size++] = x.values[i++];
+                } else if (i == x.size || x.values[i] > y.values[j]) {
+                    values[size++] = y.values[j++];
+                } else {
+                    values[size++] = x.values[i++];
+                    j++;
+                }
+            }
+            return size <= ARRAY_MAX ? new ArrayContainer(values, size) : new ArrayContainer(values, size).toBitset();
+        }
+        long[] x = a.toBitset().words;
+        long[] y = b.toBitset().words;
+        long[] words = new long[WORDS];
+        int cardinality = 0;
+        for (int w = 0; w < WORDS; w++) {
+            words[w] = x[w] | y[w];
+            cardinality += Long.bitCount(words[w]);
+        }
+        return new BitsetContainer(words, cardinality);
+    }
+
+    private static Container andNot(Container a, Container b) {
+        if (a instanceof ArrayContainer) {
+            ArrayContainer array = (ArrayContainer) a;
+            char[] values = new char[array.size];
+            int size = 0;
+            for (int i = 0; i < array.size; i++) {
+                if (!b.contains(array.values[i])) {
+                    values[size++] = array.values[i];
+                }
+            }
+            return new ArrayContainer(values, size);
+        }
+        long[] x = ((BitsetContainer) a).words;
+        long[] words = x.clone();
+        if (b instanceof BitsetContainer) {
+            long[] y = ((BitsetContainer) b).words;
+            for (int w = 0; w < WORDS; w++) {
+                words[w] &= ~y[w];
+            }
+        } else {
+            ArrayContainer array = (ArrayContainer) b;
+            for (int i = 0; i < array.size; i++) {
+                words[array.values[i] >>> 6] &= ~(1L << array.values[i]);
+            }
+        }
+        return fromWords(words);
+    }
+
+    private static int andCardinality(Container a, Container b) {
+        if (a instanceof BitsetContainer && b instanceof BitsetContainer) {
+            long[] x = ((BitsetContainer) a).words;
+            long[] y = ((BitsetContainer) b).words;
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                count += Long.bitCount(x[w] & y[w]);
+            }
+            return count;
+        }
+        ArrayContainer array = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+        Container other = array == a ? b : a;
+        int count = 0;
+        for (int i = 0; i < array.size; i++) {
+            if (other.contains(array.values[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
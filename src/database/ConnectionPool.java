@@ -0,0 +1,427 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool
+ * Connections handed out are proxies: calling close() returns the
+ * physical connection to the pool instead of closing it, so DAO code
+ * can keep using try-with-resources. Each physical connection keeps a
+ * StatementCache so repeated prepareStatement calls reuse statements.
+ */
+public class ConnectionPool {
+    private final String name;
+    private final String url;
+    private final Properties connectionProperties;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long borrowTimeoutMs;
+    private final int validationTimeoutSeconds;
+    private final long validationIntervalMs;
+    private final int statementCacheSize;
+
+    // Idle connections, most recently returned first
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    // One permit per connection that may be checked out
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed = false;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    /**
+     * Create a pool and open the minimum number of connections
+     * @param name Pool name used in log messages
+     * @param config Configuration supplying pool sizes and timeouts
+     * @param url JDBC URL
+     * @param user Database user
+     * @param password Database password
+     */
+    public ConnectionPool(String name, DatabaseConfig config, String url, String user, String password) {
+        this.name = name;
+        this.url = url;
+        this.connectionProperties = config.getDriverProperties(url);
+        this.connectionProperties.setProperty("user", user);
+        this.connectionProperties.setProperty("password", password);
+        this.maxSize = Math.max(1, config.getPoolMaxSize());
+        this.minSize = Math.max(0, Math.min(config.getPoolMinSize(), maxSize));
+        this.idleTimeoutMs = config.getPoolIdleTimeoutMs();
+        this.borrowTimeoutMs = config.getPoolBorrowTimeoutMs();
+        this.validationTimeoutSeconds = config.getPoolValidationTimeoutSeconds();
+        this.validationIntervalMs = config.getPoolValidationIntervalMs();
+        this.statementCacheSize = config.getStatementCacheSize();
+        this.permits = new Semaphore(maxSize, true);
+
+        long evictionInterval = config.getPoolEvictionIntervalMs();
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-evictor-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, evictionInterval, evictionInterval,
+                                            TimeUnit.MILLISECONDS);
+
+        fillToMinimum();
+    }
+
+    /**
+     * Borrow a connection, waiting up to the borrow timeout for one to free up
+     * @return Connection proxy; close() hands it back to the pool
+     * @throws SQLException if the pool is exhausted or a new connection cannot be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLTimeoutException("Timed out after " + borrowTimeoutMs +
+                                              " ms waiting for a connection from pool '" + name + "'");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    break;
+                }
+                validationFailures.incrementAndGet();
+                discard(pooled);
+            }
+            if (pooled == null) {
+                pooled = openConnection();
+            }
+
+            recordWait(System.nanoTime() - start);
+            borrowCount.incrementAndGet();
+            return pooled.checkout();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Close all idle connections and stop accepting borrows
+     * Connections still checked out are closed when they are returned.
+     */
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            // Skip the round trip for connections that were in use moments ago
+            if (System.currentTimeMillis() - pooled.lastReturned < validationIntervalMs) {
+                return true;
+            }
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        totalConnections.incrementAndGet();
+        try {
+            Connection physical = DriverManager.getConnection(url, connectionProperties);
+            createdCount.incrementAndGet();
+            return new PooledConnection(physical);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            boolean healthy = !closed && !pooled.physical.isClosed();
+            if (healthy && !pooled.physical.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (healthy) {
+                pooled.lastReturned = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } else {
+                discard(pooled);
+            }
+        } catch (SQLException e) {
+            System.err.println("Discarding broken connection: " + e.getMessage());
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        if (pooled.statementCache != null) {
+            pooled.statementCache.clear();
+        }
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Connection is being thrown away anyway
+        }
+    }
+
+    private void evictIdle() {
+        try {
+            long now = System.currentTimeMillis();
+            List<PooledConnection> expired = new ArrayList<>();
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && totalConnections.get() - expired.size() > minSize) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastReturned > idleTimeoutMs && idle.remove(pooled)) {
+                    expired.add(pooled);
+                }
+            }
+            for (PooledConnection pooled : expired) {
+                evictedCount.incrementAndGet();
+                discard(pooled);
+            }
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            System.err.println("Error evicting idle connections: " + e.getMessage());
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < minSize) {
+            try {
+                PooledConnection pooled = openConnection();
+                pooled.lastReturned = System.currentTimeMillis();
+                idle.offerLast(pooled);
+            } catch (SQLException e) {
+                System.err.println("Failed to pre-open connection for pool '" + name + "': " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        long max;
+        while (waitNanos > (max = maxWaitNanos.get())) {
+            if (maxWaitNanos.compareAndSet(max, waitNanos)) {
+                break;
+            }
+        }
+    }
+
+    // Metrics getters
+    public String getName() {
+        return name;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getActiveConnections() {
+        return maxSize - permits.availablePermits();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.get();
+    }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrows;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    public long getValidationFailures() {
+        return validationFailures.get();
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool{" +
+                "name='" + name + '\'' +
+                ", total=" + getTotalConnections() +
+                ", active=" + getActiveConnections() +
+                ", idle=" + getIdleConnections() +
+                ", borrows=" + getBorrowCount() +
+                ", timeouts=" + getBorrowTimeouts() +
+                ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis()) +
+                ", maxWaitMs=" + String.format("%.3f", getMaxWaitMillis()) +
+                ", created=" + getCreatedCount() +
+                ", evicted=" + getEvictedCount() +
+                ", validationFailures=" + getValidationFailures() +
+                ", stmtCacheHits=" + getStatementCacheHits() +
+                ", stmtCacheMisses=" + getStatementCacheMisses() +
+                '}';
+    }
+
+    /**
+     * Physical connection owned by the pool
+     */
+    private class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private volatile long lastReturned;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = statementCacheSize > 0
+                ? new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses)
+                : null;
+        }
+
+        /**
+         * Wrap the physical connection in a fresh proxy for one borrower
+         */
+        Connection checkout() {
+            Connection lease = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new LeaseHandler(this));
+            ActiveStatements.leased(lease);
+            return lease;
+        }
+    }
+
+    /**
+     * Proxy handler for a single borrow of a pooled connection
+     */
+    private class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned = false;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+
+            if ("close".equals(methodName)) {
+                synchronized (this) {
+                    if (!returned) {
+                        returned = true;
+                        // Its statements can no longer be cancelled through the borrowing thread
+                        ActiveStatements.returned((Connection) proxy);
+                        release(pooled);
+                    }
+                }
+                return null;
+            }
+            if ("isClosed".equals(methodName)) {
+                return returned || pooled.physical.isClosed();
+            }
+            if ("equals".equals(methodName)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(methodName)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(methodName)) {
+                return "Pooled[" + name + "] " + pooled.physical;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if ("prepareStatement".equals(methodName) && pooled.statementCache != null) {
+                Class<?>[] types = method.getParameterTypes();
+                if (types.length == 1) {
+                    return pooled.statementCache.prepare((Connection) proxy, (String) args[0],
+                                                         Statement.NO_GENERATED_KEYS);
+                }
+                if (types.length == 2 && types[1] == int.class) {
+                    return pooled.statementCache.prepare((Connection) proxy, (String) args[0],
+                                                         (Integer) args[1]);
+                }
+            }
+
+            Object result;
+            try {
+                result = method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            if (result instanceof Statement) {
+                // Uncached statements are still tracked so async callers can cancel them
+                return ActiveStatements.track((Statement) result, (Connection) proxy);
+            }
+            return result;
+        }
+    }
+}
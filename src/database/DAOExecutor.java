@@ -0,0 +1,136 @@
+package database;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs repository calls off the Swing event dispatch thread
+ * Uses one virtual thread per task when the JVM supports it (Java 21+)
+ * and a cached pool of daemon threads otherwise. A semaphore caps how
+ * many calls run against the backend at once, so async callers queue
+ * here instead of timing out on the connection pool.
+ */
+public class DAOExecutor {
+    private final String name;
+    private final ExecutorService executor;
+    private final Semaphore limiter;
+    private final int maxConcurrency;
+
+    /**
+     * @param name Backend name used for thread names
+     * @param maxConcurrency Maximum number of calls running at once
+     */
+    public DAOExecutor(String name, int maxConcurrency) {
+        this.name = name;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.limiter = new Semaphore(this.maxConcurrency, true);
+        this.executor = createExecutor(name);
+    }
+
+    /**
+     * Run a task asynchronously
+     * Cancelling the returned future skips the task if it has not started;
+     * if it is running, its open JDBC statement is cancelled and the thread
+     * interrupted so the pooled connection is released promptly.
+     * @param task Repository call
+     * @return Future completed with the task's result
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        DAOFuture<T> future = new DAOFuture<>();
+        executor.execute(() -> future.run(task));
+        return future;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Number of calls currently running against the backend
+     */
+    public int getActiveCount() {
+        return maxConcurrency - limiter.availablePermits();
+    }
+
+    /**
+     * Stop accepting new tasks
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService createExecutor(String name) {
+        try {
+            // Executors.newVirtualThreadPerTaskExecutor() exists from Java 21
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "dao-" + name + "-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Future that knows which thread is running its task
+     */
+    private class DAOFuture<T> extends CompletableFuture<T> {
+        private Thread runner;
+
+        void run(Callable<T> task) {
+            synchronized (this) {
+                if (isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+
+            boolean acquired = false;
+            try {
+                limiter.acquire();
+                acquired = true;
+                if (!isDone()) {
+                    complete(task.call());
+                }
+            } catch (Throwable t) {
+                // No effect if the future was already cancelled
+                completeExceptionally(t);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // Clear an interrupt left by cancel() before the thread is reused
+                    Thread.interrupted();
+                }
+                if (acquired) {
+                    limiter.release();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                synchronized (this) {
+                    if (runner != null) {
+                        ActiveStatements.cancel(runner);
+                        runner.interrupt();
+                    }
+                }
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package database;
+
+import java.io.IOException;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory for the repository implementations used by the application
+ * The backend is chosen by "storage.backend" in db.properties:
+ *   mysql  - DAO classes over the pooled MySQL connection (default)
+ *   memory - in-process InMemoryDatabase, no MySQL server needed
+ */
+public class DAOFactory {
+    public static final String BACKEND_MYSQL = "mysql";
+    public static final String BACKEND_MEMORY = "memory";
+
+    private static String backend;
+    private static DonorRepository donorRepository;
+    private static RecipientRepository recipientRepository;
+    private static UserRepository userRepository;
+    private static CharityRequestRepository charityRequestRepository;
+    private static DonationRepository donationRepository;
+    private static BulkImportRepository bulkImportRepository;
+    private static MatchRepository matchRepository;
+    private static AllocationService allocationService;
+    private static DAOExecutor executor;
+    private static ScheduledExecutorService matchScheduler;
+    private static ScheduledExecutorService raisedCompactor;
+    private static DonationJournal donationJournal;
+    private static DonationJournalApplier journalApplier;
+
+    // Private constructor to prevent instantiation
+    private DAOFactory() {
+    }
+
+    /**
+     * Get the configured storage backend name
+     * @return "mysql" or "memory"
+     */
+    public static synchronized String getBackend() {
+        if (backend == null) {
+            useBackend(DatabaseConfig.getInstance().getString("storage.backend", BACKEND_MYSQL));
+        }
+        return backend;
+    }
+
+    /**
+     * Check whether the application needs a MySQL server
+     */
+    public static boolean isMySqlBackend() {
+        return BACKEND_MYSQL.equals(getBackend());
+    }
+
+    /**
+     * Switch all repositories to a backend
+     * @param name "mysql" or "memory"
+     */
+    public static synchronized void useBackend(String name) {
+        if (BACKEND_MEMORY.equalsIgnoreCase(name)) {
+            useInMemory(InMemoryDatabase.createSeeded());
+            return;
+        }
+        if (!BACKEND_MYSQL.equalsIgnoreCase(name)) {
+            System.err.println("Unknown storage.backend '" + name + "', using " + BACKEND_MYSQL);
+        }
+
+        CharityDAO charityDAO = new CharityDAO();
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        setBackend(BACKEND_MYSQL, config.getInt("async.maxConcurrency", config.getPoolMaxSize()));
+        allocationService = new AllocationService();
+        donorRepository = indexed(allocating(new DonorDAO()));
+        recipientRepository = allocating(new RecipientDAO());
+        userRepository = new UserDAO();
+        charityRequestRepository = charityDAO;
+        donationRepository = batching(charityDAO);
+        bulkImportRepository = new BulkImportDAO();
+        matchRepository = new MatchDAO();
+    }
+
+    /**
+     * Switch all repositories to the given in-memory database
+     * @param db In-memory database (for example one pre-filled by a benchmark)
+     */
+    public static synchronized void useInMemory(InMemoryDatabase db) {
+        InMemoryCharityRepository charity = new InMemoryCharityRepository(db);
+        int cores = Runtime.getRuntime().availableProcessors();
+        setBackend(BACKEND_MEMORY, DatabaseConfig.getInstance().getInt("async.maxConcurrency", cores * 4));
+        allocationService = new AllocationService();
+        donorRepository = indexed(allocating(new InMemoryDonorRepository(db)));
+        recipientRepository = allocating(new InMemoryRecipientRepository(db));
+        userRepository = new InMemoryUserRepository(db);
+        charityRequestRepository = charity;
+        donationRepository = batching(charity);
+        bulkImportRepository = new InMemoryBulkImportRepository(db);
+        matchRepository = new InMemoryMatchRepository(db);
+    }
+
+    /**
+     * Put the donor search index in front of a repository unless search.index.enabled=false
+     * The index stays empty (searches use the repository) until startSearchIndex() is called.
+     */
+    private static DonorRepository indexed(DonorRepository repository) {
+        if (!DatabaseConfig.getInstance().getBoolean("search.index.enabled", true)) {
+            return repository;
+        }
+        return new IndexedDonorRepository(repository);
+    }
+
+    /**
+     * Offer new donors to waiting recipients unless allocation.enabled=false
+     */
+    private static DonorRepository allocating(DonorRepository repository) {
+        if (!DatabaseConfig.getInstance().getBoolean("allocation.enabled", true)) {
+            return repository;
+        }
+        return new AllocatingDonorRepository(repository, allocationService);
+    }
+
+    /**
+     * Keep the allocation heaps current unless allocation.enabled=false
+     */
+    private static RecipientRepository allocating(RecipientRepository repository) {
+        if (!DatabaseConfig.getInstance().getBoolean("allocation.enabled", true)) {
+            return repository;
+        }
+        return new AllocatingRecipientRepository(repository, allocationService);
+    }
+
+    /**
+     * Group-commit concurrent donations unless donation.batch.enabled=false
+     */
+    private static DonationRepository batching(DonationRepository repository) {
+        if (!DatabaseConfig.getInstance().getBoolean("donation.batch.enabled", true)) {
+            return repository;
+        }
+        return new BatchingDonationRepository(repository);
+    }
+
+    /**
+     * Build the allocation heaps from the recipients in the background (called once the schema is ready)
+     */
+    public static synchronized void startAllocation() {
+        if (!(getRecipientRepository() instanceof AllocatingRecipientRepository)) {
+            return;
+        }
+        AllocationService service = allocationService;
+        RecipientRepository recipients = recipientRepository;
+        Thread builder = new Thread(() -> service.rebuild(recipients), "allocation-heaps");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Build the donor search index in the background (called once the schema is ready)
+     */
+    public static synchronized void startSearchIndex() {
+        if (getDonorRepository() instanceof IndexedDonorRepository) {
+            long refreshMs = DatabaseConfig.getInstance().getLong("search.index.refreshMs", 0L);
+            ((IndexedDonorRepository) donorRepository).start(refreshMs);
+        }
+    }
+
+    /**
+     * Schedule the nightly matchmaking run at match.dailyAt (HH:mm, empty to disable)
+     */
+    public static synchronized void startMatchSchedule() {
+        String dailyAt = DatabaseConfig.getInstance().getString("match.dailyAt", "02:00");
+        if (matchScheduler != null || dailyAt.trim().isEmpty()) {
+            return;
+        }
+        try {
+            matchScheduler = MatchmakingJob.scheduleDaily(dailyAt);
+        } catch (DateTimeParseException e) {
+            System.err.println("Invalid match.dailyAt '" + dailyAt + "', nightly matching disabled");
+        }
+    }
+
+    /**
+     * Fold striped raised amounts into their requests every charity.compactMs
+     * With charity.raisedSlots=0 any slots left from a striped period are folded once.
+     */
+    public static synchronized void startRaisedCompactor() {
+        if (raisedCompactor != null) {
+            return;
+        }
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        long periodMs = config.getInt("charity.raisedSlots", 0) > 0 ? config.getLong("charity.compactMs", 10_000L) : 0L;
+        CharityRequestRepository requests = getCharityRequestRepository();
+        Runnable compact = () -> {
+            try {
+                requests.compactRaisedAmounts();
+            } catch (RuntimeException e) {
+                // Keep the schedule alive; the slots are still read correctly
+                System.err.println("Raised amount compaction failed: " + e.getMessage());
+            }
+        };
+        raisedCompactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "raised-amount-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        if (periodMs > 0) {
+            raisedCompactor.scheduleWithFixedDelay(compact, 0, periodMs, TimeUnit.MILLISECONDS);
+        } else {
+            raisedCompactor.execute(compact);
+        }
+    }
+
+    /**
+     * Open the donation journal and start recording its donations unless
+     * journal.enabled=false (MySQL backend only; called once the schema is ready)
+     * Donations journaled before a crash are recorded first.
+     */
+    public static synchronized void startDonationJournal() {
+        if (donationJournal != null || !isMySqlBackend() ||
+            !DatabaseConfig.getInstance().getBoolean("journal.enabled", true)) {
+            return;
+        }
+        try {
+            donationJournal = DonationJournal.openConfigured();
+        } catch (IOException e) {
+            System.err.println("Donation journal unavailable, donations are written directly: " + e.getMessage());
+            return;
+        }
+        journalApplier = new DonationJournalApplier(donationJournal, getDonationRepository());
+        journalApplier.start();
+    }
+
+    private static void setBackend(String name, int maxConcurrency) {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        if (donorRepository instanceof IndexedDonorRepository) {
+            ((IndexedDonorRepository) donorRepository).stop();
+        }
+        if (donationRepository instanceof BatchingDonationRepository) {
+            ((BatchingDonationRepository) donationRepository).stop();
+        }
+        if (raisedCompactor != null) {
+            raisedCompactor.shutdownNow();
+            raisedCompactor = null;
+        }
+        if (journalApplier != null) {
+            journalApplier.stop();
+            journalApplier = null;
+        }
+        if (donationJournal != null) {
+            donationJournal.close();
+            donationJournal = null;
+        }
+        backend = name;
+        executor = new DAOExecutor(name, maxConcurrency);
+    }
+
+    /**
+     * Get the executor that runs async repository calls for the current backend
+     */
+    public static synchronized DAOExecutor getExecutor() {
+        getBackend();
+        return executor;
+    }
+
+    public static AsyncDonorRepository getAsyncDonorRepository() {
+        return new AsyncDonorRepository(getDonorRepository(), getExecutor());
+    }
+
+    public static AsyncRecipientRepository getAsyncRecipientRepository() {
+        return new AsyncRecipientRepository(getRecipientRepository(), getExecutor());
+    }
+
+    public static AsyncUserRepository getAsyncUserRepository() {
+        return new AsyncUserRepository(getUserRepository(), getExecutor());
+    }
+
+    public static AsyncCharityRepository getAsyncCharityRepository() {
+        return new AsyncCharityRepository(getCharityRequestRepository(), getDonationRepository(), getExecutor());
+    }
+
+    public static synchronized DonorRepository getDonorRepository() {
+        getBackend();
+        return donorRepository;
+    }
+
+    public static synchronized RecipientRepository getRecipientRepository() {
+        getBackend();
+        return recipientRepository;
+    }
+
+    public static synchronized UserRepository getUserRepository() {
+        getBackend();
+        return userRepository;
+    }
+
+    public static synchronized CharityRequestRepository getCharityRequestRepository() {
+        getBackend();
+        return charityRequestRepository;
+    }
+
+    public static synchronized DonationRepository getDonationRepository() {
+        getBackend();
+        return donationRepository;
+    }
+
+    public static synchronized BulkImportRepository getBulkImportRepository() {
+        getBackend();
+        return bulkImportRepository;
+    }
+
+    /**
+     * Get the donation journal, or null when donations are written directly
+     */
+    public static synchronized DonationJournal getDonationJournal() {
+        return donationJournal;
+    }
+
+    public static synchronized AllocationService getAllocationService() {
+        getBackend();
+        return allocationService;
+    }
+
+    public static synchronized MatchRepository getMatchRepository() {
+        getBackend();
+        return matchRepository;
+    }
+}
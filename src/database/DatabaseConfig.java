@@ -0,0 +1,205 @@
+package database;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Database configuration loaded from db.properties
+ * Looks for the file named by the "db.config" system property, then
+ * ./db.properties, then db.properties on the classpath.
+ * Missing keys fall back to the defaults below.
+ */
+public class DatabaseConfig {
+    private static final String DEFAULT_FILE = "db.properties";
+
+    private static DatabaseConfig instance;
+
+    private final Properties properties;
+
+    private DatabaseConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Get the configuration (Singleton pattern)
+     * @return DatabaseConfig loaded on first use
+     */
+    public static synchronized DatabaseConfig getInstance() {
+        if (instance == null) {
+            instance = new DatabaseConfig(load());
+        }
+        return instance;
+    }
+
+    private static Properties load() {
+        Properties props = new Properties();
+        String path = System.getProperty("db.config", DEFAULT_FILE);
+        File file = new File(path);
+
+        try {
+            if (file.isFile()) {
+                try (InputStream in = new FileInputStream(file)) {
+                    props.load(in);
+                }
+                System.out.println("Loaded database configuration from " + file.getPath());
+            } else {
+                try (InputStream in = DatabaseConfig.class.getClassLoader().getResourceAsStream(DEFAULT_FILE)) {
+                    if (in != null) {
+                        props.load(in);
+                        System.out.println("Loaded database configuration from classpath");
+                    } else {
+                        System.out.println("No " + DEFAULT_FILE + " found, using default database settings");
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading database configuration: " + e.getMessage());
+        }
+
+        return props;
+    }
+
+    // Connection settings
+    public String getDriver() {
+        return getString("db.driver", "com.mysql.cj.jdbc.Driver");
+    }
+
+    public String getUrl() {
+        return getString("db.url", "jdbc:mysql://localhost:3306/blood_organ_donation");
+    }
+
+    public String getUser() {
+        return getString("db.user", "root");
+    }
+
+    public String getPassword() {
+        return getString("db.password", "");
+    }
+
+    // Read replica settings (optional)
+    public String getReplicaUrl() {
+        return getString("db.replica.url", null);
+    }
+
+    public String getReplicaUser() {
+        return getString("db.replica.user", getUser());
+    }
+
+    public String getReplicaPassword() {
+        return getString("db.replica.password", getPassword());
+    }
+
+    /**
+     * How long reads stay on the primary after this session writes
+     * Should exceed the worst replication lag you expect.
+     */
+    public long getReplicaStickyMs() {
+        return getLong("db.replica.stickyMs", 10000L);
+    }
+
+    // Pool settings
+    public int getPoolMinSize() {
+        return getInt("pool.minSize", 2);
+    }
+
+    public int getPoolMaxSize() {
+        return getInt("pool.maxSize", 10);
+    }
+
+    public long getPoolIdleTimeoutMs() {
+        return getLong("pool.idleTimeoutMs", 300000L);
+    }
+
+    public long getPoolEvictionIntervalMs() {
+        return getLong("pool.evictionIntervalMs", 30000L);
+    }
+
+    public long getPoolBorrowTimeoutMs() {
+        return getLong("pool.borrowTimeoutMs", 5000L);
+    }
+
+    public int getPoolValidationTimeoutSeconds() {
+        return getInt("pool.validationTimeoutSeconds", 2);
+    }
+
+    public long getPoolValidationIntervalMs() {
+        return getLong("pool.validationIntervalMs", 500L);
+    }
+
+    public int getStatementCacheSize() {
+        return getInt("pool.statementCacheSize", 64);
+    }
+
+    /**
+     * Rows fetched per round trip by streaming (full-table) reads
+     * Zero or less selects MySQL's row-by-row streaming mode instead of a cursor.
+     */
+    public int getStreamFetchSize() {
+        int fetchSize = getInt("db.streamFetchSize", 1000);
+        return fetchSize > 0 ? fetchSize : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Get extra JDBC driver properties (keys prefixed with "db.prop.")
+     * MySQL connections default to server-side prepared statements so
+     * cached statements skip re-parsing on the server, and to cursor
+     * fetch so streaming reads honour db.streamFetchSize.
+     * @param url JDBC URL the properties are for
+     * @return Driver properties without the prefix
+     */
+    public Properties getDriverProperties(String url) {
+        Properties driverProps = new Properties();
+        String prefix = "db.prop.";
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(prefix)) {
+                driverProps.setProperty(key.substring(prefix.length()), getString(key, ""));
+            }
+        }
+        if (url != null && url.startsWith("jdbc:mysql:") && !driverProps.containsKey("useServerPrepStmts")) {
+            driverProps.setProperty("useServerPrepStmts", "true");
+        }
+        if (url != null && url.startsWith("jdbc:mysql:") && !driverProps.containsKey("useCursorFetch")) {
+            driverProps.setProperty("useCursorFetch", "true");
+        }
+        return driverProps;
+    }
+
+    /**
+     * Get a raw property value
+     * @param key Property key
+     * @param defaultValue Value used when the key is missing or blank
+     * @return Trimmed property value
+     */
+    public String getString(String key, String defaultValue) {
+        String value = System.getProperty(key, properties.getProperty(key));
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return value.trim();
+    }
+
+    public int getInt(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(getString(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid integer for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        try {
+            return Long.parseLong(getString(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(getString(key, String.valueOf(defaultValue)));
+    }
+}
@@ -1,72 +1,150 @@
 package database;
 
+import utils.SessionManager;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
  * DatabaseConnection class for managing MySQL database connections
- * Singleton pattern implementation
+ * Singleton pattern implementation backed by a bounded ConnectionPool.
+ * Settings are read from db.properties (see DatabaseConfig).
+ *
+ * When db.replica.url is set, reads borrowed through getReadConnection()
+ * go to a separate replica pool, except for db.replica.stickyMs after this
+ * session wrote through getWriteConnection(), so users see their own changes.
  */
 public class DatabaseConnection {
-    // Database credentials - UPDATE THESE WITH YOUR MYSQL CREDENTIALS
-    private static final String URL = "jdbc:mysql://localhost:3306/blood_organ_donation";
-    private static final String USER = "root";
-    private static final String PASSWORD = "5891"; // Update with your MySQL password
-    
-    private static Connection connection = null;
-    
+    private static ConnectionPool pool = null;
+    private static ConnectionPool replicaPool = null;
+    private static boolean replicaInitialized = false;
+
     // Private constructor to prevent instantiation
     private DatabaseConnection() {
     }
-    
+
     /**
-     * Get database connection (Singleton pattern)
-     * @return Connection object
+     * Get the shared connection pool, creating it on first use
+     * @return ConnectionPool, or null if the JDBC driver is missing
      */
-    public static Connection getConnection() {
-        try {
-            if (connection == null || connection.isClosed()) {
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            DatabaseConfig config = DatabaseConfig.getInstance();
+            try {
                 // Load MySQL JDBC Driver
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                
-                // Establish connection
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-                System.out.println("Database connection established successfully!");
+                Class.forName(config.getDriver());
+            } catch (ClassNotFoundException e) {
+                System.err.println("MySQL JDBC Driver not found!");
+                e.printStackTrace();
+                return null;
             }
-        } catch (ClassNotFoundException e) {
-            System.err.println("MySQL JDBC Driver not found!");
-            e.printStackTrace();
-        } catch (SQLException e) {
-            System.err.println("Failed to establish database connection!");
-            e.printStackTrace();
+
+            pool = new ConnectionPool("primary", config, config.getUrl(), config.getUser(), config.getPassword());
+            System.out.println("Database connection pool initialized (" + pool.getTotalConnections() + " open)");
         }
-        
-        return connection;
+        return pool;
     }
-    
+
     /**
-     * Close database connection
+     * Get the read replica pool, creating it on first use
+     * @return Replica ConnectionPool, or null if no replica is configured
      */
-    public static void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed.");
+    public static synchronized ConnectionPool getReplicaPool() {
+        if (!replicaInitialized) {
+            replicaInitialized = true;
+            DatabaseConfig config = DatabaseConfig.getInstance();
+            if (config.getReplicaUrl() != null && getPool() != null) {
+                replicaPool = new ConnectionPool("replica", config, config.getReplicaUrl(),
+                                                 config.getReplicaUser(), config.getReplicaPassword());
+                System.out.println("Read replica pool initialized (" + replicaPool.getTotalConnections() + " open)");
             }
+        }
+        return replicaPool;
+    }
+
+    /**
+     * Borrow a connection to the primary database
+     * Closing the returned connection hands it back to the pool.
+     * @return Connection object, or null if no connection could be obtained
+     */
+    public static Connection getConnection() {
+        return borrow(getPool());
+    }
+
+    /**
+     * Borrow a primary connection for a write and pin this session's reads to the primary
+     * @return Connection object, or null if no connection could be obtained
+     */
+    public static Connection getWriteConnection() {
+        SessionManager.getInstance().recordWrite();
+        return getConnection();
+    }
+
+    /**
+     * Borrow a primary connection for a read that must not lag behind a replica
+     * Unlike getWriteConnection, later reads of this session are not pinned to the primary.
+     * @return Connection object, or null if no connection could be obtained
+     */
+    public static Connection getPrimaryReadConnection() {
+        return getConnection();
+    }
+
+    /**
+     * Borrow a connection for a read-only query
+     * Uses the replica unless none is configured or this session wrote recently.
+     * @return Connection object, or null if no connection could be obtained
+     */
+    public static Connection getReadConnection() {
+        ConnectionPool replica = getReplicaPool();
+        long stickyMs = DatabaseConfig.getInstance().getReplicaStickyMs();
+        if (replica == null || SessionManager.getInstance().hasWrittenWithin(stickyMs)) {
+            return getConnection();
+        }
+
+        Connection conn = borrow(replica);
+        // Fall back to the primary if the replica is unavailable
+        return conn != null ? conn : getConnection();
+    }
+
+    private static Connection borrow(ConnectionPool connectionPool) {
+        if (connectionPool == null) {
+            return null;
+        }
+
+        try {
+            return connectionPool.getConnection();
         } catch (SQLException e) {
-            System.err.println("Error closing database connection!");
+            System.err.println("Failed to obtain database connection from pool '" + connectionPool.getName() + "'!");
             e.printStackTrace();
         }
+
+        return null;
     }
-    
+
+    /**
+     * Close all pooled database connections
+     */
+    public static synchronized void closeConnection() {
+        if (replicaPool != null) {
+            System.out.println("Closing replica pool: " + replicaPool);
+            replicaPool.close();
+            replicaPool = null;
+        }
+        replicaInitialized = false;
+        if (pool != null) {
+            System.out.println("Closing database pool: " + pool);
+            pool.close();
+            pool = null;
+            System.out.println("Database connection closed.");
+        }
+    }
+
     /**
      * Test database connection
      * @return true if connection is successful, false otherwise
      */
     public static boolean testConnection() {
-        try {
-            Connection conn = getConnection();
+        try (Connection conn = getConnection()) {
             return conn != null && !conn.isClosed();
         } catch (SQLException e) {
             return false;
@@ -0,0 +1,623 @@
+package database;
+
+import models.Donation;
+import utils.CsvExporter;
+import utils.ValidationUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of payment-confirmed donations in memory-mapped segment files
+ * A donation is appended here as soon as its payment succeeds, which takes
+ * microseconds and does not need the database; DonationJournalApplier then
+ * records the journaled donations in the database in batches.
+ *
+ * Each segment file (donations-<first sequence number>.log) is mapped
+ * whole and holds records of
+ *   int payload length, int CRC-32 of sequence and payload, long sequence, payload
+ * Sequence numbers count up from 1 across segments. A zero length ends a
+ * segment's records; when a record does not fit, a new segment is started.
+ * With journal.force=true (the default) every append forces the pages it
+ * wrote to disk before it returns, so journaled donations survive a power
+ * failure, not only a crash of the application. Only donations that pass
+ * ValidationUtils.isValidDonation are accepted.
+ *
+ * When the journal is opened, each segment is read up to the first record
+ * whose checksum or sequence is wrong. That is where a write torn by a
+ * crash ends the journal, and the rest of the last segment is zeroed so
+ * new records can follow. The journal ID (a UUID in journal.id, created
+ * with the directory) names this journal in the database, where the
+ * applied position is stored. The directory is locked (journal.lock)
+ * while the journal is open, so a second process cannot map the same
+ * segments.
+ *
+ * Records that can never be recorded are set aside in dead-letter.csv
+ * (see deadLetter) for manual repair.
+ */
+public class DonationJournal implements Closeable {
+    private static final String SEGMENT_PREFIX = "donations-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String ID_FILE = "journal.id";
+    private static final String LOCK_FILE = "journal.lock";
+    private static final String DEAD_LETTER_FILE = "dead-letter.csv";
+
+    // MappedByteBuffer.force(int, int) exists from Java 13; null before
+    private static final Method FORCE_RANGE = forceRangeMethod();
+
+    // Payload length, checksum and sequence number
+    private static final int RECORD_HEADER = 16;
+    // Record payload format, checked when a record is read
+    private static final byte FORMAT = 1;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean force;
+    private final String journalId;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    // Oldest first; the last one is appended to
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    // Guarded by this
+    private long lastSequence;
+    private boolean closed;
+
+    /**
+     * One mapped segment file
+     */
+    private static class Segment {
+        final long firstSequence;
+        final Path path;
+        final MappedByteBuffer buffer;
+        // End of the records written so far; final once sealed
+        volatile int limit;
+        // Set when the next segment is started
+        volatile boolean sealed;
+
+        Segment(long firstSequence, Path path, MappedByteBuffer buffer) {
+            this.firstSequence = firstSequence;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * A journaled donation
+     */
+    public static class Entry {
+        private final long sequence;
+        private final Donation donation;
+        private final byte[] payload;
+
+        Entry(long sequence, Donation donation, byte[] payload) {
+            this.sequence = sequence;
+            this.donation = donation;
+            this.payload = payload;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return The donation, or null if the record could not be decoded
+         */
+        public Donation getDonation() {
+            return donation;
+        }
+    }
+
+    /**
+     * Read position of one reader: the next record to read
+     */
+    public static class Cursor {
+        private Segment segment;
+        private int offset;
+        private long nextSequence;
+
+        Cursor(Segment segment, int offset, long nextSequence) {
+            this.segment = segment;
+            this.offset = offset;
+            this.nextSequence = nextSequence;
+        }
+
+        /**
+         * Sequence number of the last record read (or skipped)
+         */
+        public long getPosition() {
+            return nextSequence - 1;
+        }
+    }
+
+    /**
+     * Open the journal in a directory, creating it if needed
+     * @param segmentBytes Size of new segment files
+     * @param force Force every append to disk before returning
+     * @throws IOException if the directory is in use by another process, or it or a segment cannot be opened
+     */
+    public DonationJournal(Path directory, int segmentBytes, boolean force) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.force = force;
+        Files.createDirectories(directory);
+
+        this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                                            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Already open in this JVM
+            acquired = null;
+        }
+        if (acquired == null) {
+            lockChannel.close();
+            throw new IOException("Donation journal " + directory + " is in use by another process");
+        }
+        this.lock = acquired;
+
+        try {
+            this.journalId = readOrCreateId(directory.resolve(ID_FILE));
+            this.lastSequence = openSegments();
+        } catch (IOException | RuntimeException e) {
+            releaseLock();
+            throw e;
+        }
+    }
+
+    /**
+     * Map and recover the segment files, creating the first one if there are none
+     * @return Sequence number of the last good record, 0 if none
+     */
+    private long openSegments() throws IOException {
+        List<Long> firstSequences = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                                                                    SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    firstSequences.add(Long.parseLong(
+                        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    System.err.println("Ignoring unexpected journal file " + file);
+                }
+            }
+        }
+        firstSequences.sort(null);
+
+        long expected = firstSequences.isEmpty() ? 1 : firstSequences.get(0);
+        for (long firstSequence : firstSequences) {
+            Segment segment = map(firstSequence, Files.size(segmentPath(firstSequence)));
+            if (firstSequence != expected) {
+                System.err.println("Journal records " + expected + " to " + (firstSequence - 1) + " are missing");
+            }
+            expected = recover(segment);
+            segments.add(segment);
+        }
+        for (int i = 0; i < segments.size() - 1; i++) {
+            segments.get(i).sealed = true;
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(map(1, segmentBytes));
+        } else {
+            // Clear whatever a torn write left after the last good record
+            Segment last = segments.get(segments.size() - 1);
+            for (int i = last.limit; i < last.buffer.capacity(); i++) {
+                if (last.buffer.get(i) != 0) {
+                    last.buffer.put(i, (byte) 0);
+                }
+            }
+            last.buffer.force();
+        }
+        return expected - 1;
+    }
+
+    /**
+     * Open the journal configured by journal.dir, journal.segmentBytes and journal.force
+     */
+    public static DonationJournal openConfigured() throws IOException {
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        return new DonationJournal(Paths.get(config.getString("journal.dir", "journal")),
+                                   Math.max(4096, config.getInt("journal.segmentBytes", 16 * 1024 * 1024)),
+                                   config.getBoolean("journal.force", true));
+    }
+
+    /**
+     * ID naming this journal where its applied position is stored
+     */
+    public String getId() {
+        return journalId;
+    }
+
+    /**
+     * Sequence number of the last record appended, 0 if none
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Append a donation
+     * Its donation date, when the payment was confirmed, is journaled with
+     * it, so it is recorded under that date however late it is applied.
+     * A donation without one is dated now.
+     * @return Its sequence number
+     * @throws IOException if the journal is closed or a new segment cannot be created
+     */
+    public long append(Donation donation) throws IOException {
+        if (!ValidationUtils.isValidDonation(donation)) {
+            throw new IllegalArgumentException("Invalid donation not journaled: " + donation);
+        }
+        byte[] payload = encode(donation);
+        int recordBytes = RECORD_HEADER + payload.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Donation too large for the journal: " + recordBytes + " bytes");
+        }
+
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Donation journal is closed");
+            }
+            Segment segment = segments.get(segments.size() - 1);
+            if (segment.limit + recordBytes > segment.buffer.capacity()) {
+                segment = startSegment(segment);
+            }
+
+            long sequence = lastSequence + 1;
+            ByteBuffer record = segment.buffer.duplicate();
+            record.position(segment.limit);
+            record.putInt(payload.length);
+            record.putInt(checksum(sequence, payload));
+            record.putLong(sequence);
+            record.put(payload);
+            if (force) {
+                forceRange(segment.buffer, segment.limit, recordBytes);
+            }
+
+            segment.limit += recordBytes;
+            lastSequence = sequence;
+            notifyAll();
+            return sequence;
+        }
+    }
+
+    /**
+     * Wait until a record after a sequence number is appended
+     * @return true if there is one, false if the time ran out or the journal is closed
+     */
+    public synchronized boolean awaitAfter(long sequence, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (lastSequence <= sequence && !closed) {
+            long waitMs = deadline - System.currentTimeMillis();
+            if (waitMs <= 0) {
+                return false;
+            }
+            wait(waitMs);
+        }
+        return lastSequence > sequence;
+    }
+
+    /**
+     * Get a cursor reading the records after a sequence number
+     */
+    public Cursor cursor(long afterSequence) {
+        List<Segment> current = new ArrayList<>(segments);
+        Segment segment = current.get(0);
+        for (Segment candidate : current) {
+            if (candidate.firstSequence <= afterSequence + 1) {
+                segment = candidate;
+            }
+        }
+        if (segment.firstSequence > afterSequence + 1) {
+            System.err.println("Journal records " + (afterSequence + 1) + " to " + (segment.firstSequence - 1) +
+                               " are no longer in the journal");
+        }
+
+        Cursor cursor = new Cursor(segment, 0, segment.firstSequence);
+        while (cursor.nextSequence <= afterSequence && cursor.offset < segment.limit) {
+            cursor.offset += RECORD_HEADER + segment.buffer.getInt(cursor.offset);
+            cursor.nextSequence++;
+        }
+        if (cursor.nextSequence <= afterSequence) {
+            // The database is ahead of this journal; new records continue from the journal's end
+            System.err.println("Journal ends at " + (cursor.nextSequence - 1) + ", before the applied position " +
+                               afterSequence);
+        }
+        return cursor;
+    }
+
+    /**
+     * Read up to max records at a cursor and move it past them
+     * @return Records in sequence order; empty if there are no more yet
+     */
+    public List<Entry> read(Cursor cursor, int max) {
+        List<Entry> entries = new ArrayList<>();
+        while (entries.size() < max) {
+            Segment segment = cursor.segment;
+            boolean sealed = segment.sealed;
+            if (cursor.offset >= segment.limit) {
+                Segment next = sealed ? nextSegment(segment) : null;
+                if (next == null) {
+                    break;
+                }
+                cursor.segment = next;
+                cursor.offset = 0;
+                cursor.nextSequence = next.firstSequence;
+                continue;
+            }
+
+            int length = segment.buffer.getInt(cursor.offset);
+            long sequence = segment.buffer.getLong(cursor.offset + 8);
+            byte[] payload = new byte[length];
+            ByteBuffer record = segment.buffer.duplicate();
+            record.position(cursor.offset + RECORD_HEADER);
+            record.get(payload);
+            Donation donation;
+            try {
+                donation = decode(payload);
+            } catch (IOException e) {
+                System.err.println("Unreadable journal record " + sequence + ": " + e.getMessage());
+                donation = null;
+            }
+            entries.add(new Entry(sequence, donation, payload));
+            cursor.offset += RECORD_HEADER + length;
+            cursor.nextSequence = sequence + 1;
+        }
+        return entries;
+    }
+
+    /**
+     * Delete the segments whose records are all applied (never the one being appended to)
+     * @return Number of segment files deleted
+     */
+    public synchronized int deleteApplied(long appliedSequence) {
+        int deleted = 0;
+        while (segments.size() > 1 && segments.get(1).firstSequence <= appliedSequence + 1) {
+            Segment segment = segments.remove(0);
+            try {
+                Files.deleteIfExists(segment.path);
+                deleted++;
+            } catch (IOException e) {
+                // Still mapped on some platforms; its records are skipped as applied when reopened
+                System.err.println("Could not delete journal segment " + segment.path + ": " + e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Set a record aside in dead-letter.csv in the journal directory
+     * For a record the database keeps rejecting, or one that cannot be
+     * decoded, so it does not hold up every donation journaled after it.
+     * The file is forced to disk before returning. A record whose position
+     * could not be stored afterwards is set aside again on the next try,
+     * so the file may list it twice.
+     * @param reason Why the record is set aside
+     */
+    public synchronized void deadLetter(Entry entry, String reason) throws IOException {
+        Donation donation = entry.getDonation();
+        String line = String.join(",",
+            String.valueOf(entry.getSequence()),
+            LocalDateTime.now().toString(),
+            donation != null ? String.valueOf(donation.getRequestId()) : "",
+            donation != null ? String.valueOf(donation.getAmount()) : "",
+            CsvExporter.quote(donation != null ? donation.getDonorName() : null),
+            CsvExporter.quote(donation != null ? donation.getPaymentMethod() : null),
+            CsvExporter.quote(donation != null ? donation.getTransactionId() : null),
+            donation != null && donation.getDonationDate() != null ? donation.getDonationDate().toString() : "",
+            CsvExporter.quote(reason),
+            Base64.getEncoder().encodeToString(entry.payload)) + System.lineSeparator();
+
+        try (FileChannel file = FileChannel.open(directory.resolve(DEAD_LETTER_FILE), StandardOpenOption.CREATE,
+                                                 StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            if (file.size() == 0) {
+                line = "sequence,set_aside_at,request_id,amount,donor_name,payment_method,transaction_id," +
+                       "donation_date,reason,record" + System.lineSeparator() + line;
+            }
+            file.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+            file.force(true);
+        }
+    }
+
+    /**
+     * Force the last segment to disk, stop accepting donations and unlock the directory
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            segments.get(segments.size() - 1).buffer.force();
+            releaseLock();
+            notifyAll();
+        }
+    }
+
+    private void releaseLock() {
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            System.err.println("Could not unlock donation journal " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private Segment startSegment(Segment full) throws IOException {
+        if (!force) {
+            full.buffer.force();
+        }
+        Segment next = map(lastSequence + 1, segmentBytes);
+        full.sealed = true;
+        segments.add(next);
+        return next;
+    }
+
+    private Segment nextSegment(Segment segment) {
+        // The segment itself may have been deleted as applied meanwhile
+        for (Segment candidate : segments) {
+            if (candidate.firstSequence > segment.firstSequence) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Segment map(long firstSequence, long bytes) throws IOException {
+        Path path = segmentPath(firstSequence);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            if (file.length() < bytes) {
+                file.setLength(bytes);
+            }
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            return new Segment(firstSequence, path, buffer);
+        }
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Find the end of a segment's good records
+     * @return Sequence number the next record should have
+     */
+    private static long recover(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        long expected = segment.firstSequence;
+        while (offset + RECORD_HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > buffer.capacity() - offset - RECORD_HEADER) {
+                break;
+            }
+            long sequence = buffer.getLong(offset + 8);
+            byte[] payload = new byte[length];
+            ByteBuffer record = buffer.duplicate();
+            record.position(offset + RECORD_HEADER);
+            record.get(payload);
+            if (sequence != expected || buffer.getInt(offset + 4) != checksum(sequence, payload)) {
+                break;
+            }
+            offset += RECORD_HEADER + length;
+            expected++;
+        }
+        segment.limit = offset;
+        return expected;
+    }
+
+    private static Method forceRangeMethod() {
+        try {
+            return MappedByteBuffer.class.getMethod("force", int.class, int.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Force the pages holding a range of a mapping to disk, or the whole mapping before Java 13
+     */
+    private static void forceRange(MappedByteBuffer buffer, int index, int length) {
+        if (FORCE_RANGE != null) {
+            try {
+                FORCE_RANGE.invoke(buffer, index, length);
+                return;
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (IllegalAccessException e) {
+                // Fall back to forcing the whole mapping
+            }
+        }
+        buffer.force();
+    }
+
+    private static int checksum(long sequence, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(0, sequence).array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(Donation donation) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeInt(donation.getRequestId());
+            out.writeDouble(donation.getAmount());
+            writeNullable(out, donation.getDonorName());
+            writeNullable(out, donation.getPaymentMethod());
+            writeNullable(out, donation.getTransactionId());
+            out.writeLong(donation.getDonationDate() != null ? donation.getDonationDate().getTime()
+                                                             : System.currentTimeMillis());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Donation decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte format = in.readByte();
+            if (format != FORMAT) {
+                throw new IOException("Unknown journal record format " + format);
+            }
+            int requestId = in.readInt();
+            double amount = in.readDouble();
+            String donorName = readNullable(in);
+            String paymentMethod = readNullable(in);
+            String transactionId = readNullable(in);
+            Timestamp donationDate = new Timestamp(in.readLong());
+            return new Donation(0, donorName, requestId, amount, donationDate, paymentMethod, transactionId);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static String readOrCreateId(Path file) throws IOException {
+        if (Files.exists(file)) {
+            String id = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+            if (!id.isEmpty()) {
+                return id;
+            }
+        }
+        String id = UUID.randomUUID().toString();
+        Files.write(file, id.getBytes(StandardCharsets.UTF_8));
+        return id;
+    }
+}
@@ -0,0 +1,204 @@
+package database;
+
+import models.Donation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records journaled donations in the database in the background
+ * One daemon thread reads up to journal.batchSize donations at a time from
+ * the DonationJournal and writes them with addJournaledDonations, which
+ * stores the journal position in the same transaction. On startup it
+ * resumes after the stored position, so donations journaled before a
+ * crash are recorded exactly once. If a batch fails (the database is
+ * down), it is retried every journal.retryMs; journaled donations are
+ * never dropped. Segments whose donations are all recorded are deleted.
+ *
+ * A batch that fails journal.maxAttempts times in a row is retried one
+ * donation at a time. A single donation that fails that often while the
+ * database is reachable (its journal position can be read), or a record
+ * that cannot be decoded, is set aside with DonationJournal.deadLetter and
+ * its position stored, so the donations after it are recorded. An
+ * unexpected error restarts the loop from the stored position.
+ */
+public class DonationJournalApplier {
+    private final DonationJournal journal;
+    private final DonationRepository donations;
+    private final int batchSize;
+    private final long retryMs;
+    private final int maxAttempts;
+
+    private volatile long appliedPosition = -1;
+    // Guarded by this
+    private Thread applier;
+
+    public DonationJournalApplier(DonationJournal journal, DonationRepository donations) {
+        this.journal = journal;
+        this.donations = donations;
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        this.batchSize = Math.max(1, config.getInt("journal.batchSize", 500));
+        this.retryMs = Math.max(10L, config.getLong("journal.retryMs", 1000L));
+        this.maxAttempts = Math.max(1, config.getInt("journal.maxAttempts", 5));
+    }
+
+    /**
+     * Start the applier thread
+     */
+    public synchronized void start() {
+        if (applier == null) {
+            applier = new Thread(this::applyJournal, "donation-journal-applier");
+            applier.setDaemon(true);
+            applier.start();
+        }
+    }
+
+    /**
+     * Stop the applier thread after the batch it is writing
+     * Donations not yet recorded stay in the journal for the next start.
+     */
+    public void stop() {
+        Thread stopping;
+        synchronized (this) {
+            stopping = applier;
+            applier = null;
+        }
+        if (stopping != null) {
+            stopping.interrupt();
+            try {
+                stopping.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Number of journaled donations not yet recorded in the database (0 until the position is known)
+     */
+    public long getPendingCount() {
+        long applied = appliedPosition;
+        return applied < 0 ? 0 : Math.max(0, journal.getLastSequence() - applied);
+    }
+
+    private void applyJournal() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    applyFromStoredPosition();
+                } catch (RuntimeException e) {
+                    System.err.println("Donation journal applier failed, restarting: " + e);
+                    e.printStackTrace();
+                    Thread.sleep(retryMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            // stop()
+        }
+    }
+
+    private void applyFromStoredPosition() throws InterruptedException {
+        long applied = readPosition();
+        appliedPosition = applied;
+        if (journal.getLastSequence() > applied) {
+            System.out.println("Recording " + (journal.getLastSequence() - applied) + " journaled donation(s)");
+        }
+
+        DonationJournal.Cursor cursor = journal.cursor(applied);
+        // Failures of the batch at the applied position, and the end of the batch being isolated
+        int failures = 0;
+        long isolateUntil = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<DonationJournal.Entry> entries = journal.read(cursor, applied < isolateUntil ? 1 : batchSize);
+            if (entries.isEmpty()) {
+                journal.awaitAfter(cursor.getPosition(), retryMs);
+                continue;
+            }
+
+            DonationJournal.Entry first = entries.get(0);
+            if (first.getDonation() == null) {
+                applied = setAside(first, "Unreadable journal record");
+                cursor = journal.cursor(applied);
+                continue;
+            }
+            List<Donation> batch = new ArrayList<>(entries.size());
+            long position = applied;
+            for (DonationJournal.Entry entry : entries) {
+                if (entry.getDonation() == null) {
+                    // Recorded up to here; the unreadable record starts the next batch
+                    cursor = journal.cursor(position);
+                    break;
+                }
+                batch.add(entry.getDonation());
+                position = entry.getSequence();
+            }
+
+            boolean recorded;
+            try {
+                recorded = donations.addJournaledDonations(journal.getId(), position, batch);
+            } catch (RuntimeException e) {
+                System.err.println("Error recording journaled donations: " + e);
+                recorded = false;
+            }
+
+            if (recorded) {
+                applied = position;
+                appliedPosition = applied;
+                failures = 0;
+                journal.deleteApplied(applied);
+                continue;
+            }
+
+            failures++;
+            if (failures >= maxAttempts && batch.size() > 1) {
+                // Find the donation(s) failing the batch
+                isolateUntil = position;
+                failures = 0;
+            } else if (failures >= maxAttempts && donations.getJournalPosition(journal.getId()) >= 0) {
+                // The database answers, yet keeps rejecting this one donation
+                applied = setAside(first, "Rejected by the database " + failures + " times");
+                failures = 0;
+            } else {
+                // Read the same donations again once the database is back
+                Thread.sleep(retryMs);
+            }
+            cursor = journal.cursor(applied);
+        }
+    }
+
+    /**
+     * Read the stored journal position, waiting until the database answers
+     */
+    private long readPosition() throws InterruptedException {
+        long applied = donations.getJournalPosition(journal.getId());
+        while (applied < 0) {
+            Thread.sleep(retryMs);
+            applied = donations.getJournalPosition(journal.getId());
+        }
+        return applied;
+    }
+
+    /**
+     * Dead-letter a record and store its position, retrying until both succeed
+     * @return The record's sequence number, the new applied position
+     */
+    private long setAside(DonationJournal.Entry entry, String reason) throws InterruptedException {
+        System.err.println("Setting journaled donation " + entry.getSequence() + " aside: " + reason);
+        while (true) {
+            try {
+                journal.deadLetter(entry, reason);
+                if (donations.addJournaledDonations(journal.getId(), entry.getSequence(),
+                                                    Collections.<Donation>emptyList())) {
+                    appliedPosition = entry.getSequence();
+                    journal.deleteApplied(entry.getSequence());
+                    return entry.getSequence();
+                }
+            } catch (IOException e) {
+                System.err.println("Could not write the journal dead-letter file: " + e.getMessage());
+            }
+            Thread.sleep(retryMs);
+        }
+    }
+}
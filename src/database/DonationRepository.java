@@ -0,0 +1,123 @@
+package database;
+
+import models.Donation;
+import models.DonationTotal;
+import models.DonationWindow;
+
+import java.util.List;
+
+/**
+ * Repository interface for donations
+ * Implemented by CharityDAO (MySQL) and InMemoryCharityRepository
+ */
+public interface DonationRepository {
+    /**
+     * Outcome of addDonationBatch
+     * REJECTED: the database refused the data (a constraint or value
+     * error), so one donation may be at fault and the others can be
+     * recorded alone. FAILED: the database failed or could not be reached,
+     * so recording the donations one at a time would fail the same way.
+     */
+    enum BatchResult { ADDED, REJECTED, FAILED }
+
+    /**
+     * Record a donation, add it to the request's raised amount and to the donation rollups
+     * Idempotent by transaction ID: a donation whose transaction ID is
+     * already recorded is not recorded again, and true is returned.
+     * @param donation Donation object
+     * @return true if successful (or already recorded), false otherwise
+     */
+    boolean addDonation(Donation donation);
+
+    /**
+     * Record several donations in one transaction, all or none
+     * Each request's raised amount is updated once, by the sum of its donations.
+     * Donations whose transaction ID is already recorded are skipped.
+     * @param donations Donations to record
+     * @return true if all were recorded, false if none was
+     */
+    boolean addDonations(List<Donation> donations);
+
+    /**
+     * Record several donations as addDonations does, telling why they were not recorded
+     * @param donations Donations to record
+     * @return ADDED if all were recorded, otherwise why none was
+     */
+    BatchResult addDonationBatch(List<Donation> donations);
+
+    /**
+     * Record donations read from a DonationJournal, all or none, together
+     * with the journal position they end at
+     * Both are committed in one transaction, so a journal resumed from
+     * getJournalPosition never records a donation twice.
+     * @param journalId Journal ID
+     * @param position Sequence number of the last of the donations
+     * @param donations Donations to record; empty to only move the position past a set-aside record
+     * @return true if all were recorded, false if none was
+     */
+    boolean addJournaledDonations(String journalId, long position, List<Donation> donations);
+
+    /**
+     * Get the sequence number of the last journaled donation recorded
+     * @param journalId Journal ID
+     * @return Position, 0 for a new journal, or -1 if it could not be read
+     */
+    long getJournalPosition(String journalId);
+
+    /**
+     * Get donations for a specific charity request, newest first
+     * @param requestId Request ID
+     * @return List of donations
+     */
+    List<Donation> getDonationsByRequestId(int requestId);
+
+    /**
+     * Get one page of donations for a charity request, newest first
+     * @param requestId Request ID
+     * @param pageToken Token from a previous page, or null for the first page
+     * @param pageSize Donations per page
+     * @return Page with next/previous tokens
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    Page<Donation> getDonationsPage(int requestId, String pageToken, int pageSize);
+
+    /**
+     * Get the donations of a charity request at a row offset, newest first
+     * For scrolling views: the request's count and total come from its
+     * rollup row. Given the next token of a window above the offset, the
+     * window is read on from that window's last row, so scrolling down costs
+     * the same however far down it is; without one (or with a token from
+     * before donations were added) it is read from the nearer end.
+     * @param requestId Request ID
+     * @param windowToken Next token of a window at or above the offset, or null
+     * @param offset Number of newer donations to skip
+     * @param limit Donations to return
+     * @return Window of donations with running totals, or null if it could not be read
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    DonationWindow getDonationWindow(int requestId, String windowToken, int offset, int limit);
+
+    /**
+     * Get total donations amount, read from the donation rollups
+     * @return Total donations amount
+     */
+    double getTotalDonationsAmount();
+
+    /**
+     * Get donation totals by one rollup dimension
+     * The rollups are updated with every donation, so this reads a few
+     * rows per key however many donations there are.
+     * @param dimension One of DonationRollup.DIMENSIONS
+     * @return Totals, days newest first and other keys largest amount first
+     * @throws IllegalArgumentException if the dimension is unknown
+     */
+    List<DonationTotal> getDonationTotals(String dimension);
+
+    /**
+     * Recompute the donation rollups from the donations themselves
+     * A maintenance command, for after donations were changed outside the
+     * application; donations keep being accepted meanwhile.
+     * @return Number of donations counted, or -1 if it failed
+     */
+    int rebuildDonationTotals();
+}
@@ -0,0 +1,126 @@
+package database;
+
+import models.Donation;
+import models.DonationTotal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Donation totals per request, day, payment method and requester type
+ * Every donation counts once in each dimension, so the totals of any one
+ * dimension add up to all donations. Keys are the request ID, the
+ * donation day (yyyy-MM-dd), the payment method and the request's type,
+ * empty when a donation has none. The repositories keep these rollups up
+ * to date as donations are added; an instance of this class accumulates
+ * the increments of one batch, or one chunk of a rebuild, before they are
+ * applied.
+ */
+public final class DonationRollup {
+    public static final String REQUEST = "request";
+    public static final String DAY = "day";
+    public static final String PAYMENT_METHOD = "method";
+    public static final String REQUESTER_TYPE = "type";
+
+    /** Rollup dimensions in display order */
+    public static final List<String> DIMENSIONS =
+        Collections.unmodifiableList(Arrays.asList(REQUEST, DAY, PAYMENT_METHOD, REQUESTER_TYPE));
+
+    // dimension -> key -> total, keys sorted so rows are always written (and locked) in the same order
+    private final Map<String, Map<String, DonationTotal>> totals = new TreeMap<>();
+
+    /**
+     * Count donations under one key of one dimension
+     */
+    void add(String dimension, String key, int donationCount, double amount) {
+        DonationTotal total = totals.computeIfAbsent(dimension, d -> new TreeMap<>())
+                                    .computeIfAbsent(key, k -> new DonationTotal(k, 0, 0.0));
+        total.setDonationCount(total.getDonationCount() + donationCount);
+        total.setTotalAmount(total.getTotalAmount() + amount);
+    }
+
+    /**
+     * Count a donation in every dimension
+     * @param requesterType Type of the donation's request, null if unknown
+     * @param day Day the donation was made, yyyy-MM-dd
+     */
+    void add(Donation donation, String requesterType, String day) {
+        add(donation.getRequestId() > 0 ? String.valueOf(donation.getRequestId()) : null,
+            day, donation.getPaymentMethod(), requesterType, 1, donation.getAmount());
+    }
+
+    /**
+     * Count donations sharing a request, day, payment method and requester
+     * type in every dimension; null values count under the empty key
+     */
+    void add(String requestId, String day, String paymentMethod, String requesterType,
+             int donationCount, double amount) {
+        add(REQUEST, key(requestId), donationCount, amount);
+        add(DAY, key(day), donationCount, amount);
+        add(PAYMENT_METHOD, key(paymentMethod), donationCount, amount);
+        add(REQUESTER_TYPE, key(requesterType), donationCount, amount);
+    }
+
+    /**
+     * Add another rollup's totals to this one
+     * @return This rollup
+     */
+    DonationRollup addAll(DonationRollup other) {
+        for (Map.Entry<String, Map<String, DonationTotal>> dimension : other.totals.entrySet()) {
+            for (DonationTotal total : dimension.getValue().values()) {
+                add(dimension.getKey(), total.getKey(), total.getDonationCount(), total.getTotalAmount());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Totals by dimension, each keyed and ordered by key
+     */
+    Map<String, Map<String, DonationTotal>> totals() {
+        return totals;
+    }
+
+    /**
+     * Number of donations counted (each is in every dimension once)
+     */
+    int donationCount() {
+        int count = 0;
+        for (DonationTotal total : totals.getOrDefault(REQUEST, Collections.emptyMap()).values()) {
+            count += total.getDonationCount();
+        }
+        return count;
+    }
+
+    /**
+     * Order totals for display: days newest first, other keys by amount
+     * (largest first), then key
+     */
+    static List<DonationTotal> sorted(String dimension, Collection<DonationTotal> totals) {
+        List<DonationTotal> sorted = new ArrayList<>(totals);
+        if (DAY.equals(dimension)) {
+            sorted.sort(Comparator.comparing(DonationTotal::getKey).reversed());
+        } else {
+            sorted.sort(Comparator.comparingDouble((DonationTotal t) -> -t.getTotalAmount())
+                                  .thenComparing(DonationTotal::getKey));
+        }
+        return sorted;
+    }
+
+    static String checked(String dimension) {
+        if (!DIMENSIONS.contains(dimension)) {
+            throw new IllegalArgumentException("Unknown donation rollup: " + dimension);
+        }
+        return dimension;
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.trim();
+    }
+}
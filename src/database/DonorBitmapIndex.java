@@ -0,0 +1,143 @@
+package database;
+
+import models.Donor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * One CompressedBitmap of donor IDs per facet value (see DonorFilter)
+ * A filter is answered by combining bitmaps: AND and OR chunk by chunk,
+ * NOT as the set of all donors minus the operand. Facet counts intersect
+ * the filter's bitmap with each value's bitmap without materialising the
+ * intersections, so counting never touches the donors themselves.
+ *
+ * Not thread-safe; DonorSearchIndex updates it under its write lock and
+ * reads it under its read lock.
+ */
+class DonorBitmapIndex {
+    // Facet attribute -> canonical value -> donor IDs
+    private final Map<String, Map<String, CompressedBitmap>> bitmaps = new HashMap<>();
+    private final CompressedBitmap universe = new CompressedBitmap();
+
+    DonorBitmapIndex() {
+        for (String attribute : DonorFilter.ATTRIBUTES) {
+            bitmaps.put(attribute, new HashMap<>());
+        }
+    }
+
+    void add(Donor donor) {
+        universe.add(donor.getDonorId());
+        for (String attribute : DonorFilter.ATTRIBUTES) {
+            Map<String, CompressedBitmap> byValue = bitmaps.get(attribute);
+            for (String value : DonorFilter.valuesOf(attribute, donor)) {
+                byValue.computeIfAbsent(value, v -> new CompressedBitmap()).add(donor.getDonorId());
+            }
+        }
+    }
+
+    /**
+     * Remove a donor as it was indexed
+     */
+    void remove(Donor donor) {
+        universe.remove(donor.getDonorId());
+        for (String attribute : DonorFilter.ATTRIBUTES) {
+            Map<String, CompressedBitmap> byValue = bitmaps.get(attribute);
+            for (String value : DonorFilter.valuesOf(attribute, donor)) {
+                CompressedBitmap bitmap = byValue.get(value);
+                if (bitmap != null) {
+                    bitmap.remove(donor.getDonorId());
+                    if (bitmap.isEmpty()) {
+                        byValue.remove(value);
+                    }
+                }
+            }
+        }
+    }
+
+    int count(DonorFilter filter) {
+        switch (filter.op()) {
+            case ALL:
+                return universe.cardinality();
+            case EQ:
+                CompressedBitmap bitmap = lookup(filter);
+                return bitmap != null ? bitmap.cardinality() : 0;
+            case AND:
+                // The common two-condition drill-down needs no intermediate bitmap
+                List<DonorFilter> operands = filter.operands();
+                if (operands.size() == 2) {
+                    return CompressedBitmap.andCardinality(evaluate(operands.get(0)), evaluate(operands.get(1)));
+                }
+                return evaluate(filter).cardinality();
+            default:
+                return evaluate(filter).cardinality();
+        }
+    }
+
+    /**
+     * Count the donors matching a filter under each value of an attribute
+     * @return Value -> count, zero counts omitted, unordered
+     */
+    Map<String, Integer> countByFacet(DonorFilter filter, String attribute) {
+        Map<String, CompressedBitmap> byValue = bitmaps.get(attribute);
+        if (byValue == null) {
+            throw new IllegalArgumentException("Unknown donor facet: " + attribute);
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        CompressedBitmap matching = filter.op() == DonorFilter.Op.ALL ? null : evaluate(filter);
+        for (Map.Entry<String, CompressedBitmap> entry : byValue.entrySet()) {
+            int count = matching == null ? entry.getValue().cardinality()
+                                         : CompressedBitmap.andCardinality(matching, entry.getValue());
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Visit the IDs of the donors matching a filter, in ascending order
+     */
+    void forEachId(DonorFilter filter, IntConsumer action) {
+        evaluate(filter).forEach(action);
+    }
+
+    private CompressedBitmap evaluate(DonorFilter filter) {
+        switch (filter.op()) {
+            case EQ:
+                CompressedBitmap bitmap = lookup(filter);
+                return bitmap != null ? bitmap : new CompressedBitmap();
+            case AND:
+                CompressedBitmap result = null;
+                for (DonorFilter operand : filter.operands()) {
+                    if (operand.op() == DonorFilter.Op.NOT && result != null) {
+                        // x AND NOT y without building NOT y
+                        result = CompressedBitmap.andNot(result, evaluate(operand.operands().get(0)));
+                    } else {
+                        result = result == null ? evaluate(operand)
+                                                : CompressedBitmap.and(result, evaluate(operand));
+                    }
+                    if (result.isEmpty()) {
+                        break;
+                    }
+                }
+                return result;
+            case OR:
+                CompressedBitmap union = new CompressedBitmap();
+                for (DonorFilter operand : filter.operands()) {
+                    union = CompressedBitmap.or(union, evaluate(operand));
+                }
+                return union;
+            case NOT:
+                return CompressedBitmap.andNot(universe, evaluate(filter.operands().get(0)));
+            default:
+                return universe;
+        }
+    }
+
+    private CompressedBitmap lookup(DonorFilter filter) {
+        return bitmaps.get(filter.attribute()).get(filter.value());
+    }
+}
@@ -0,0 +1,196 @@
+package database;
+
+import models.Donor;
+import utils.Gazetteer;
+
+import java.util.Locale;
+
+/**
+ * Any combination of donor search conditions, all of which must hold
+ * Unset conditions (null) match every donor. Text conditions keep the
+ * LIKE '%text%' semantics of searchByOrgan/searchByLocation; blood group
+ * and gender are exact, case-insensitive matches. With a point and radius
+ * set, only donors within the radius match and results are nearest first.
+ */
+public class DonorCriteria {
+    private String bloodGroup;
+    private String organ;
+    private String location;
+    private Integer minAge;
+    private Integer maxAge;
+    private String gender;
+    private Double latitude;
+    private Double longitude;
+    private Double radiusKm;
+
+    public String getBloodGroup() {
+        return bloodGroup;
+    }
+
+    public void setBloodGroup(String bloodGroup) {
+        this.bloodGroup = blankToNull(bloodGroup);
+    }
+
+    public String getOrgan() {
+        return organ;
+    }
+
+    public void setOrgan(String organ) {
+        this.organ = blankToNull(organ);
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = blankToNull(location);
+    }
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Integer maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public void setGender(String gender) {
+        this.gender = blankToNull(gender);
+    }
+
+    /**
+     * Only match donors within a radius of a point
+     */
+    public void setNear(double latitude, double longitude, double radiusKm) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radiusKm = radiusKm;
+    }
+
+    public boolean hasNear() {
+        return radiusKm != null;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public Double getRadiusKm() {
+        return radiusKm;
+    }
+
+    /**
+     * Whether no condition is set
+     */
+    public boolean isEmpty() {
+        return bloodGroup == null && organ == null && location == null && minAge == null &&
+               maxAge == null && gender == null && !hasNear();
+    }
+
+    /**
+     * Whether a donor meets every condition
+     */
+    public boolean matches(Donor donor) {
+        if (bloodGroup != null && !bloodGroup.equalsIgnoreCase(donor.getBloodGroup())) {
+            return false;
+        }
+        if (gender != null && !gender.equalsIgnoreCase(donor.getGender())) {
+            return false;
+        }
+        if ((minAge != null && donor.getAge() < minAge) || (maxAge != null && donor.getAge() > maxAge)) {
+            return false;
+        }
+        if (organ != null && !InMemoryDatabase.containsIgnoreCase(donor.getOrgan(), organ)) {
+            return false;
+        }
+        if (location != null && !InMemoryDatabase.containsIgnoreCase(donor.getLocation(), location)) {
+            return false;
+        }
+        return !hasNear() || distanceKm(donor) <= radiusKm;
+    }
+
+    /**
+     * Whether every donor matching these criteria also matches broader ones
+     * Text conditions narrow when they contain the broader text (LIKE
+     * '%kidn%' within '%kid%'). A radius search only narrows another around
+     * the same point, since the two are ordered by distance from it.
+     */
+    public boolean isNarrowerThan(DonorCriteria broader) {
+        if (broader.bloodGroup != null && !broader.bloodGroup.equalsIgnoreCase(bloodGroup)) {
+            return false;
+        }
+        if (broader.gender != null && !broader.gender.equalsIgnoreCase(gender)) {
+            return false;
+        }
+        if (broader.minAge != null && (minAge == null || minAge < broader.minAge)) {
+            return false;
+        }
+        if (broader.maxAge != null && (maxAge == null || maxAge > broader.maxAge)) {
+            return false;
+        }
+        if (broader.organ != null && !InMemoryDatabase.containsIgnoreCase(organ, broader.organ)) {
+            return false;
+        }
+        if (broader.location != null && !InMemoryDatabase.containsIgnoreCase(location, broader.location)) {
+            return false;
+        }
+        if (hasNear() != broader.hasNear()) {
+            return false;
+        }
+        return !hasNear() || (latitude.equals(broader.latitude) && longitude.equals(broader.longitude) &&
+                              radiusKm <= broader.radiusKm);
+    }
+
+    /**
+     * Distance of a donor from the search point
+     * @return Kilometres, or Double.MAX_VALUE if either has no coordinates
+     */
+    public double distanceKm(Donor donor) {
+        if (!hasNear() || donor.getLatitude() == null || donor.getLongitude() == null) {
+            return Double.MAX_VALUE;
+        }
+        return Gazetteer.distanceKm(latitude, longitude, donor.getLatitude(), donor.getLongitude());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        append(text, "bloodGroup", bloodGroup);
+        append(text, "organ", organ);
+        append(text, "location", location);
+        append(text, "minAge", minAge);
+        append(text, "maxAge", maxAge);
+        append(text, "gender", gender);
+        if (hasNear()) {
+            append(text, "near", String.format(Locale.ROOT, "%.4f,%.4f within %.0f km", latitude, longitude, radiusKm));
+        }
+        return "DonorCriteria{" + text + "}";
+    }
+
+    private static void append(StringBuilder text, String name, Object value) {
+        if (value != null) {
+            text.append(text.length() > 0 ? ", " : "").append(name).append('=').append(value);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+}
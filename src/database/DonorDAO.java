@@ -1,29 +1,48 @@
 package database;
 
 import models.Donor;
+import utils.BloodCompatibility;
+import utils.Gazetteer;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Donor operations
  * Handles CRUD operations for donor management
  */
-public class DonorDAO {
+public class DonorDAO implements DonorRepository {
+    
+    private final StreamingQuery<Donor> allDonorsQuery =
+        new StreamingQuery<>("SELECT * FROM donor ORDER BY registration_date DESC", DonorDAO::extractDonorFromResultSet);
+    
+    private final KeysetQuery<Donor> donorsPageQuery =
+        new KeysetQuery<>("donor", null, "registration_date", "donor_id", DonorDAO::extractDonorFromResultSet,
+                          Donor::getRegistrationDate, Donor::getDonorId);
     
     /**
      * Register a new donor
+     * On success the generated donor ID, the user ID and the registration
+     * date are set on the donor, so it need not be read back.
      * @param donor Donor object
      * @param userId Associated user ID
      * @return true if successful, false otherwise
      */
+    @Override
     public boolean registerDonor(Donor donor, int userId) {
-        String query = "INSERT INTO donor (user_id, name, age, gender, blood_group, organ, contact, location) " +
-                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        String query = "INSERT INTO donor (user_id, name, age, gender, blood_group, organ, contact, location, " +
+                      "latitude, longitude, registration_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Gazetteer.getInstance().resolve(donor);
+        Timestamp registrationDate = new Timestamp(System.currentTimeMillis());
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setInt(1, userId);
             pstmt.setString(2, donor.getName());
@@ -33,8 +52,21 @@ public class DonorDAO {
             pstmt.setString(6, donor.getOrgan());
             pstmt.setString(7, donor.getContact());
             pstmt.setString(8, donor.getLocation());
+            pstmt.setObject(9, donor.getLatitude(), Types.DOUBLE);
+            pstmt.setObject(10, donor.getLongitude(), Types.DOUBLE);
+            pstmt.setTimestamp(11, registrationDate);
             
-            return pstmt.executeUpdate() > 0;
+            int affectedRows = pstmt.executeUpdate();
+            
+            if (affectedRows > 0) {
+                ResultSet rs = pstmt.getGeneratedKeys();
+                if (rs.next()) {
+                    donor.setDonorId(rs.getInt(1));
+                    donor.setUserId(userId);
+                    donor.setRegistrationDate(registrationDate);
+                    return true;
+                }
+            }
         } catch (SQLException e) {
             System.err.println("Error registering donor: " + e.getMessage());
             e.printStackTrace();
@@ -48,10 +80,11 @@ public class DonorDAO {
      * @param userId User ID
      * @return Donor object if found, null otherwise
      */
+    @Override
     public Donor getDonorByUserId(int userId) {
         String query = "SELECT * FROM donor WHERE user_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
             
             pstmt.setInt(1, userId);
@@ -72,13 +105,14 @@ public class DonorDAO {
      * Get all donors
      * @return List of all donors
      */
+    @Override
     public List<Donor> getAllDonors() {
         List<Donor> donors = new ArrayList<>();
         String query = "SELECT * FROM donor ORDER BY registration_date DESC";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
             
             while (rs.next()) {
                 donors.add(extractDonorFromResultSet(rs));
@@ -91,16 +125,64 @@ public class DonorDAO {
         return donors;
     }
     
+    /**
+     * Pass every donor to an action through a forward-only cursor
+     * @param action Called once per donor, newest registration first
+     * @return Number of donors passed to the action, or -1 if the read failed
+     */
+    @Override
+    public int forEachDonor(Consumer<? super Donor> action) {
+        try {
+            return allDonorsQuery.forEach(action);
+        } catch (SQLException e) {
+            System.err.println("Error streaming donors: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    /**
+     * Stream every donor through a forward-only cursor
+     * @return Lazy stream of donors; close it to release the connection
+     */
+    @Override
+    public Stream<Donor> streamAllDonors() {
+        try {
+            return allDonorsQuery.stream();
+        } catch (SQLException e) {
+            System.err.println("Error streaming donors: " + e.getMessage());
+            e.printStackTrace();
+            return Stream.empty();
+        }
+    }
+    
+    /**
+     * Get one page of donors, newest registration first
+     * @param pageToken Token from a previous page, or null for the first page
+     * @param pageSize Donors per page
+     * @return Page of donors (empty if the query failed)
+     */
+    @Override
+    public Page<Donor> getDonorsPage(String pageToken, int pageSize) {
+        try {
+            return donorsPageQuery.fetch(pageToken, pageSize);
+        } catch (SQLException e) {
+            System.err.println("Error fetching donors page: " + e.getMessage());
+            e.printStackTrace();
+            return new Page<>(new ArrayList<>(), null, null);
+        }
+    }
+    
     /**
      * Search donors by blood group
      * @param bloodGroup Blood group to search
      * @return List of matching donors
      */
+    @Override
     public List<Donor> searchByBloodGroup(String bloodGroup) {
         List<Donor> donors = new ArrayList<>();
         String query = "SELECT * FROM donor WHERE blood_group = ? ORDER BY registration_date DESC";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
             
             pstmt.setString(1, bloodGroup);
@@ -117,16 +199,201 @@ public class DonorDAO {
         return donors;
     }
     
+    /**
+     * Search donors whose blood group is compatible with a recipient's
+     * @param recipientBloodGroup Blood group the recipient needs
+     * @return List of matching donors, preferred group first
+     */
+    @Override
+    public List<Donor> searchCompatibleDonors(String recipientBloodGroup) {
+        return searchMatchingDonors(recipientBloodGroup, null);
+    }
+    
+    /**
+     * Search compatible donors who also offer an organ, in one query
+     * All compatible groups are fetched on idx_donor_blood_group with the
+     * organ filter applied by the server, then ordered by clinical
+     * preference here.
+     * @param recipientBloodGroup Blood group the recipient needs
+     * @param organ Organ to search, or null/empty for any
+     * @return List of matching donors, preferred group first
+     */
+    @Override
+    public List<Donor> searchMatchingDonors(String recipientBloodGroup, String organ) {
+        List<Donor> donors = new ArrayList<>();
+        List<String> groups = BloodCompatibility.compatibleDonorGroups(recipientBloodGroup);
+        if (groups.isEmpty()) {
+            return donors;
+        }
+        boolean anyOrgan = organ == null || organ.isEmpty();
+        String query = "SELECT * FROM donor WHERE blood_group IN " + MultiRowSql.placeholders(groups.size(), 1) +
+                       (anyOrgan ? "" : " AND organ LIKE ?");
+        
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            
+            int param = 1;
+            for (String group : groups) {
+                pstmt.setString(param++, group);
+            }
+            if (!anyOrgan) {
+                pstmt.setString(param, "%" + organ + "%");
+            }
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                donors.add(extractDonorFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error searching matching donors: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        donors.sort(DonorSearchIndex.byPreference(recipientBloodGroup));
+        return donors;
+    }
+    
+    /**
+     * Search the donors nearest to a point, within a radius
+     * The radius is turned into a latitude/longitude box that the server
+     * answers from idx_donor_coordinates; exact distances, the radius cut
+     * and the ordering are applied here.
+     * @return List of matching donors, nearest first
+     */
+    @Override
+    public List<Donor> searchNearestDonors(String recipientBloodGroup, String organ, double latitude, double longitude,
+                                           double radiusKm, int limit) {
+        List<Donor> donors = new ArrayList<>();
+        if (limit <= 0) {
+            return donors;
+        }
+        double[] box = Gazetteer.boundingBox(latitude, longitude, radiusKm);
+        List<String> groups = recipientBloodGroup != null
+            ? BloodCompatibility.compatibleDonorGroups(recipientBloodGroup) : new ArrayList<>();
+        boolean anyOrgan = organ == null || organ.isEmpty();
+        String query = "SELECT * FROM donor WHERE latitude BETWEEN ? AND ? AND longitude BETWEEN ? AND ?" +
+                       (groups.isEmpty() ? "" : " AND blood_group IN " + MultiRowSql.placeholders(groups.size(), 1)) +
+                       (anyOrgan ? "" : " AND organ LIKE ?");
+        
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            
+            int param = 1;
+            for (double bound : box) {
+                pstmt.setDouble(param++, bound);
+            }
+            for (String group : groups) {
+                pstmt.setString(param++, group);
+            }
+            if (!anyOrgan) {
+                pstmt.setString(param, "%" + organ + "%");
+            }
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                Donor donor = extractDonorFromResultSet(rs);
+                if (InMemoryDonorRepository.distanceKm(donor, latitude, longitude) <= radiusKm) {
+                    donors.add(donor);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error searching nearest donors: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        donors.sort(Comparator.comparingDouble(
+                        (Donor donor) -> InMemoryDonorRepository.distanceKm(donor, latitude, longitude))
+                    .thenComparing(DonorSearchIndex.NEWEST_FIRST));
+        return donors.size() > limit ? new ArrayList<>(donors.subList(0, limit)) : donors;
+    }
+    
+    /**
+     * Search donors meeting every condition set in the criteria, in one query
+     * MySQL chooses the index for the most selective condition from its
+     * index statistics and filters the rest.
+     * @param criteria Conditions to apply
+     * @return List of matching donors, newest first (nearest first with a radius)
+     */
+    @Override
+    public List<Donor> searchDonors(DonorCriteria criteria) {
+        List<Donor> donors = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        
+        if (criteria.getBloodGroup() != null) {
+            conditions.add("blood_group = ?");
+            params.add(criteria.getBloodGroup());
+        }
+        if (criteria.getGender() != null) {
+            conditions.add("gender = ?");
+            params.add(criteria.getGender());
+        }
+        if (criteria.getMinAge() != null) {
+            conditions.add("age >= ?");
+            params.add(criteria.getMinAge());
+        }
+        if (criteria.getMaxAge() != null) {
+            conditions.add("age <= ?");
+            params.add(criteria.getMaxAge());
+        }
+        if (criteria.getOrgan() != null) {
+            conditions.add("organ LIKE ?");
+            params.add("%" + criteria.getOrgan() + "%");
+        }
+        if (criteria.getLocation() != null) {
+            conditions.add("location LIKE ?");
+            params.add("%" + criteria.getLocation() + "%");
+        }
+        if (criteria.hasNear()) {
+            double[] box = Gazetteer.boundingBox(criteria.getLatitude(), criteria.getLongitude(),
+                                                 criteria.getRadiusKm());
+            conditions.add("latitude BETWEEN ? AND ? AND longitude BETWEEN ? AND ?");
+            for (double bound : box) {
+                params.add(bound);
+            }
+        }
+        
+        String query = "SELECT * FROM donor" +
+                       (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) +
+                       " ORDER BY registration_date DESC, donor_id DESC";
+        
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                Donor donor = extractDonorFromResultSet(rs);
+                // Exact radius check behind the bounding box
+                if (!criteria.hasNear() || criteria.matches(donor)) {
+                    donors.add(donor);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error searching donors: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        if (criteria.hasNear()) {
+            donors.sort(Comparator.comparingDouble(criteria::distanceKm).thenComparing(DonorSearchIndex.NEWEST_FIRST));
+        }
+        return donors;
+    }
+    
     /**
      * Search donors by organ
      * @param organ Organ to search
      * @return List of matching donors
      */
+    @Override
     public List<Donor> searchByOrgan(String organ) {
         List<Donor> donors = new ArrayList<>();
         String query = "SELECT * FROM donor WHERE organ LIKE ? ORDER BY registration_date DESC";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
             
             pstmt.setString(1, "%" + organ + "%");
@@ -148,11 +415,12 @@ public class DonorDAO {
      * @param location Location to search
      * @return List of matching donors
      */
+    @Override
     public List<Donor> searchByLocation(String location) {
         List<Donor> donors = new ArrayList<>();
         String query = "SELECT * FROM donor WHERE location LIKE ? ORDER BY registration_date DESC";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
             
             pstmt.setString(1, "%" + location + "%");
@@ -174,11 +442,13 @@ public class DonorDAO {
      * @param donor Donor object with updated information
      * @return true if successful, false otherwise
      */
+    @Override
     public boolean updateDonor(Donor donor) {
         String query = "UPDATE donor SET name = ?, age = ?, gender = ?, blood_group = ?, " +
-                      "organ = ?, contact = ?, location = ? WHERE donor_id = ?";
+                      "organ = ?, contact = ?, location = ?, latitude = ?, longitude = ? WHERE donor_id = ?";
+        Gazetteer.getInstance().resolve(donor);
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
             
             pstmt.setString(1, donor.getName());
@@ -188,7 +458,9 @@ public class DonorDAO {
             pstmt.setString(5, donor.getOrgan());
             pstmt.setString(6, donor.getContact());
             pstmt.setString(7, donor.getLocation());
-            pstmt.setInt(8, donor.getDonorId());
+            pstmt.setObject(8, donor.getLatitude(), Types.DOUBLE);
+            pstmt.setObject(9, donor.getLongitude(), Types.DOUBLE);
+            pstmt.setInt(10, donor.getDonorId());
             
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -199,16 +471,71 @@ public class DonorDAO {
         return false;
     }
     
+    /**
+     * Count donors matching a facet filter
+     * Facet values (age buckets, organ list items, location words) are
+     * derived from the columns, so the filter is tested on a streamed scan;
+     * IndexedDonorRepository answers from its bitmaps instead.
+     * @param filter Facet filter
+     * @return Number of matching donors
+     */
+    @Override
+    public int countDonors(DonorFilter filter) {
+        int[] count = {0};
+        forEachDonor(donor -> {
+            if (filter.matches(donor)) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+    
+    /**
+     * Count donors matching a facet filter under each value of one attribute, in one scan
+     * @param filter Facet filter
+     * @param attribute One of DonorFilter.ATTRIBUTES
+     * @return Value -> count in display order
+     */
+    @Override
+    public Map<String, Integer> countDonorsByFacet(DonorFilter filter, String attribute) {
+        Map<String, Integer> counts = new HashMap<>();
+        forEachDonor(donor -> {
+            if (filter.matches(donor)) {
+                for (String value : DonorFilter.valuesOf(attribute, donor)) {
+                    counts.merge(value, 1, Integer::sum);
+                }
+            }
+        });
+        return DonorFilter.sortFacet(attribute, counts);
+    }
+    
+    /**
+     * Get the donors matching a facet filter, in one scan
+     * @param filter Facet filter
+     * @return List of matching donors, newest first
+     */
+    @Override
+    public List<Donor> filterDonors(DonorFilter filter) {
+        List<Donor> donors = new ArrayList<>();
+        forEachDonor(donor -> {
+            if (filter.matches(donor)) {
+                donors.add(donor);
+            }
+        });
+        return donors;
+    }
+    
     /**
      * Get donor count statistics
      * @return Total number of donors
      */
+    @Override
     public int getDonorCount() {
         String query = "SELECT COUNT(*) FROM donor";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
             
             if (rs.next()) {
                 return rs.getInt(1);
@@ -222,13 +549,13 @@ public class DonorDAO {
     }
     
     /**
-     * Extract Donor object from ResultSet
+     * Extract Donor object from ResultSet (also used by MatchDAO)
      * @param rs ResultSet
      * @return Donor object
      * @throws SQLException
      */
-    private Donor extractDonorFromResultSet(ResultSet rs) throws SQLException {
-        return new Donor(
+    static Donor extractDonorFromResultSet(ResultSet rs) throws SQLException {
+        Donor donor = new Donor(
             rs.getInt("donor_id"),
             rs.getInt("user_id"),
             rs.getString("name"),
@@ -239,5 +566,9 @@ public class DonorDAO {
             rs.getString("contact"),
             rs.getString("location")
         );
+        donor.setRegistrationDate(rs.getTimestamp("registration_date"));
+        donor.setLatitude(rs.getObject("latitude", Double.class));
+        donor.setLongitude(rs.getObject("longitude", Double.class));
+        return donor;
     }
 }
@@ -0,0 +1,313 @@
+package database;
+
+import models.Donor;
+import utils.BloodCompatibility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Boolean filter over donor facets for counting and drilling down
+ * A facet is one attribute of a donor reduced to a small set of values:
+ * the blood group, gender, age bucket, each organ listed (comma
+ * separated, "None" when none is offered) and each word of the location
+ * that has a letter and is longer than one character.
+ * eq() selects the donors with a facet value; and/or/not combine filters.
+ * Values compare in their canonical form (see canonical), so "male" and
+ * "Male" select the same donors.
+ *
+ * Unlike DonorCriteria, whose organ and location conditions are substring
+ * searches, facet values match whole values, which is what lets
+ * DonorBitmapIndex keep one bitmap per value.
+ */
+public final class DonorFilter {
+    public static final String BLOOD_GROUP = "Blood Group";
+    public static final String GENDER = "Gender";
+    public static final String AGE = "Age";
+    public static final String ORGAN = "Organ";
+    public static final String LOCATION = "Location";
+
+    /** Facet attributes in display order */
+    public static final List<String> ATTRIBUTES =
+        Collections.unmodifiableList(Arrays.asList(BLOOD_GROUP, GENDER, AGE, ORGAN, LOCATION));
+
+    /** Age facet values, youngest first */
+    public static final List<String> AGE_BUCKETS =
+        Collections.unmodifiableList(Arrays.asList("Under 18", "18-30", "31-40", "41-50", "51-60", "61+"));
+
+    private static final String NO_ORGAN = "None";
+    private static final Pattern ORGAN_SEPARATOR = Pattern.compile("\\s*[,;/]\\s*");
+    private static final Pattern LETTER = Pattern.compile(".*\\p{L}.*");
+
+    private static final DonorFilter ALL = new DonorFilter(Op.ALL, null, null, Collections.emptyList());
+
+    enum Op { ALL, EQ, AND, OR, NOT }
+
+    private final Op op;
+    private final String attribute;
+    private final String value;
+    private final List<DonorFilter> operands;
+
+    private DonorFilter(Op op, String attribute, String value, List<DonorFilter> operands) {
+        this.op = op;
+        this.attribute = attribute;
+        this.value = value;
+        this.operands = operands;
+    }
+
+    /**
+     * Filter matching every donor
+     */
+    public static DonorFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Donors with a facet value
+     * @throws IllegalArgumentException if the attribute is not one of ATTRIBUTES
+     */
+    public static DonorFilter eq(String attribute, String value) {
+        return new DonorFilter(Op.EQ, attribute, canonical(attribute, value), Collections.emptyList());
+    }
+
+    /**
+     * Donors matching every filter; all() when none is given
+     */
+    public static DonorFilter and(List<DonorFilter> filters) {
+        List<DonorFilter> operands = new ArrayList<>();
+        for (DonorFilter filter : filters) {
+            if (filter.op != Op.ALL) {
+                operands.add(filter);
+            }
+        }
+        if (operands.isEmpty()) {
+            return ALL;
+        }
+        return operands.size() == 1 ? operands.get(0)
+                                    : new DonorFilter(Op.AND, null, null, Collections.unmodifiableList(operands));
+    }
+
+    public static DonorFilter and(DonorFilter... filters) {
+        return and(Arrays.asList(filters));
+    }
+
+    /**
+     * Donors matching any of the filters
+     * @throws IllegalArgumentException if no filter is given
+     */
+    public static DonorFilter or(List<DonorFilter> filters) {
+        if (filters.isEmpty()) {
+            throw new IllegalArgumentException("or() needs at least one filter");
+        }
+        for (DonorFilter filter : filters) {
+            if (filter.op == Op.ALL) {
+                return ALL;
+            }
+        }
+        return filters.size() == 1 ? filters.get(0)
+                                   : new DonorFilter(Op.OR, null, null,
+                                                     Collections.unmodifiableList(new ArrayList<>(filters)));
+    }
+
+    public static DonorFilter or(DonorFilter... filters) {
+        return or(Arrays.asList(filters));
+    }
+
+    /**
+     * Donors not matching a filter
+     */
+    public static DonorFilter not(DonorFilter filter) {
+        return filter.op == Op.NOT ? filter.operands.get(0)
+                                   : new DonorFilter(Op.NOT, null, null, Collections.singletonList(filter));
+    }
+
+    /**
+     * Whether a donor matches, tested on the donor itself
+     */
+    public boolean matches(Donor donor) {
+        switch (op) {
+            case EQ:
+                return valuesOf(attribute, donor).contains(value);
+            case AND:
+                for (DonorFilter operand : operands) {
+                    if (!operand.matches(donor)) {
+                        return false;
+                    }
+                }
+                return true;
+            case OR:
+                for (DonorFilter operand : operands) {
+                    if (operand.matches(donor)) {
+                        return true;
+                    }
+                }
+                return false;
+            case NOT:
+                return !operands.get(0).matches(donor);
+            default:
+                return true;
+        }
+    }
+
+    Op op() {
+        return op;
+    }
+
+    String attribute() {
+        return attribute;
+    }
+
+    String value() {
+        return value;
+    }
+
+    List<DonorFilter> operands() {
+        return operands;
+    }
+
+    /**
+     * Facet values of a donor for one attribute, in canonical form
+     * @return Values without repeats; empty if the donor has none (no blood group, no location)
+     * @throws IllegalArgumentException if the attribute is not one of ATTRIBUTES
+     */
+    public static List<String> valuesOf(String attribute, Donor donor) {
+        List<String> values = new ArrayList<>();
+        switch (checked(attribute)) {
+            case BLOOD_GROUP:
+                addCanonical(values, attribute, donor.getBloodGroup());
+                break;
+            case GENDER:
+                addCanonical(values, attribute, donor.getGender());
+                break;
+            case AGE:
+                values.add(ageBucket(donor.getAge()));
+                break;
+            case ORGAN:
+                String organ = donor.getOrgan() == null ? "" : donor.getOrgan().trim();
+                for (String item : ORGAN_SEPARATOR.split(organ)) {
+                    addCanonical(values, attribute, item);
+                }
+                if (values.isEmpty()) {
+                    values.add(NO_ORGAN);
+                }
+                break;
+            default:
+                if (donor.getLocation() != null) {
+                    // Words with a letter: house numbers, PIN codes and initials would swamp the facet
+                    for (String word : DonorSearchIndex.words(DonorSearchIndex.normalize(donor.getLocation()))) {
+                        if (word.length() > 1 && LETTER.matcher(word).matches()) {
+                            addCanonical(values, attribute, word);
+                        }
+                    }
+                }
+                break;
+        }
+        return values;
+    }
+
+    /**
+     * Age facet value of an age
+     */
+    public static String ageBucket(int age) {
+        if (age < 18) {
+            return AGE_BUCKETS.get(0);
+        }
+        return age > 60 ? AGE_BUCKETS.get(AGE_BUCKETS.size() - 1) : AGE_BUCKETS.get(1 + Math.max(0, (age - 21) / 10));
+    }
+
+    /**
+     * Canonical form of a facet value: blood groups upper case, age buckets
+     * as listed, other values trimmed with each word capitalised
+     */
+    public static String canonical(String attribute, String value) {
+        checked(attribute);
+        if (value == null) {
+            return "";
+        }
+        String trimmed = value.trim();
+        if (BLOOD_GROUP.equals(attribute)) {
+            return trimmed.toUpperCase(Locale.ROOT);
+        }
+        if (AGE.equals(attribute)) {
+            return trimmed;
+        }
+        StringBuilder text = new StringBuilder(trimmed.length());
+        boolean wordStart = true;
+        for (char c : trimmed.toLowerCase(Locale.ROOT).toCharArray()) {
+            text.append(wordStart ? Character.toUpperCase(c) : c);
+            wordStart = Character.isWhitespace(c) || c == '-';
+        }
+        return text.toString();
+    }
+
+    /**
+     * Order facet counts for display: blood groups and age buckets in their
+     * natural order, other values by count (largest first), then name
+     */
+    static Map<String, Integer> sortFacet(String attribute, Map<String, Integer> counts) {
+        Comparator<Map.Entry<String, Integer>> order;
+        if (BLOOD_GROUP.equals(attribute)) {
+            order = Comparator.comparingInt(
+                (Map.Entry<String, Integer> e) -> rank(BloodCompatibility.indexOf(e.getKey())));
+        } else if (AGE.equals(attribute)) {
+            order = Comparator.comparingInt((Map.Entry<String, Integer> e) -> rank(AGE_BUCKETS.indexOf(e.getKey())));
+        } else {
+            order = Comparator.comparingInt((Map.Entry<String, Integer> e) -> -e.getValue());
+        }
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+        entries.removeIf(e -> e.getValue() == 0);
+        entries.sort(order.thenComparing(Map.Entry::getKey));
+
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            sorted.put(entry.getKey(), entry.getValue());
+        }
+        return sorted;
+    }
+
+    @Override
+    public String toString() {
+        switch (op) {
+            case EQ:
+                return attribute + "=" + value;
+            case NOT:
+                return "NOT " + operands.get(0);
+            case AND:
+            case OR:
+                StringBuilder text = new StringBuilder("(");
+                for (DonorFilter operand : operands) {
+                    text.append(text.length() > 1 ? " " + op + " " : "").append(operand);
+                }
+                return text.append(')').toString();
+            default:
+                return "ALL";
+        }
+    }
+
+    private static int rank(int index) {
+        return index < 0 ? Integer.MAX_VALUE : index;
+    }
+
+    private static void addCanonical(List<String> values, String attribute, String value) {
+        if (value != null && !value.trim().isEmpty()) {
+            String canonical = canonical(attribute, value);
+            if (!values.contains(canonical)) {
+                values.add(canonical);
+            }
+        }
+    }
+
+    private static String checked(String attribute) {
+        if (!ATTRIBUTES.contains(attribute)) {
+            throw new IllegalArgumentException("Unknown donor facet: " + attribute);
+        }
+        return attribute;
+    }
+}
@@ -0,0 +1,156 @@
+package database;
+
+import models.Donor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Repository interface for donor storage
+ * Implemented by DonorDAO (MySQL) and InMemoryDonorRepository
+ */
+public interface DonorRepository {
+    /**
+     * Register a new donor
+     * On success the donor's ID, user ID and registration date are set to the stored values.
+     * @param donor Donor object
+     * @param userId Associated user ID
+     * @return true if successful, false otherwise
+     */
+    boolean registerDonor(Donor donor, int userId);
+
+    /**
+     * Get donor by user ID
+     * @param userId User ID
+     * @return Donor object if found, null otherwise
+     */
+    Donor getDonorByUserId(int userId);
+
+    /**
+     * Get all donors, newest registration first
+     * @return List of all donors
+     */
+    List<Donor> getAllDonors();
+
+    /**
+     * Pass every donor to an action without loading the whole table
+     * @param action Called once per donor, newest registration first
+     * @return Number of donors passed to the action, or -1 if the read failed
+     */
+    int forEachDonor(Consumer<? super Donor> action);
+
+    /**
+     * Stream every donor, newest registration first
+     * The stream holds a database connection until it is closed, so use
+     * try-with-resources.
+     * @return Lazy stream of donors (empty if the read failed)
+     */
+    Stream<Donor> streamAllDonors();
+
+    /**
+     * Get one page of donors, newest registration first
+     * @param pageToken Token from a previous page, or null for the first page
+     * @param pageSize Donors per page
+     * @return Page with next/previous tokens
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    Page<Donor> getDonorsPage(String pageToken, int pageSize);
+
+    /**
+     * Search donors by exact blood group
+     * @param bloodGroup Blood group to search
+     * @return List of matching donors, newest registration first
+     */
+    List<Donor> searchByBloodGroup(String bloodGroup);
+
+    /**
+     * Search donors whose blood group is compatible with a recipient's
+     * @param recipientBloodGroup Blood group the recipient needs
+     * @return Matching donors, exact group first and O- last (see BloodCompatibility),
+     *         newest registration first within a group
+     */
+    List<Donor> searchCompatibleDonors(String recipientBloodGroup);
+
+    /**
+     * Search donors compatible with a recipient's blood group who also offer an organ
+     * Both conditions are applied in a single pass over the data.
+     * @param recipientBloodGroup Blood group the recipient needs
+     * @param organ Organ text to match (as searchByOrgan), or null/empty for blood group only
+     * @return Matching donors in the same order as searchCompatibleDonors
+     */
+    List<Donor> searchMatchingDonors(String recipientBloodGroup, String organ);
+
+    /**
+     * Search the donors nearest to a point, within a radius
+     * Only donors whose location resolved to coordinates are considered.
+     * @param recipientBloodGroup Blood group the donors must be compatible with, or null for any
+     * @param organ Organ text to match (as searchByOrgan), or null/empty for any
+     * @param latitude Latitude of the point
+     * @param longitude Longitude of the point
+     * @param radiusKm Maximum great-circle distance
+     * @param limit Maximum number of donors
+     * @return Matching donors, nearest first
+     */
+    List<Donor> searchNearestDonors(String recipientBloodGroup, String organ, double latitude, double longitude,
+                                    double radiusKm, int limit);
+
+    /**
+     * Search donors meeting every condition set in the criteria
+     * @param criteria Conditions; an empty criteria matches every donor
+     * @return Matching donors, newest registration first, or nearest first
+     *         when the criteria has a point and radius
+     */
+    List<Donor> searchDonors(DonorCriteria criteria);
+
+    /**
+     * Search donors whose organ contains the given text
+     * @param organ Organ to search
+     * @return List of matching donors, newest registration first
+     */
+    List<Donor> searchByOrgan(String organ);
+
+    /**
+     * Search donors whose location contains the given text
+     * @param location Location to search
+     * @return List of matching donors, newest registration first
+     */
+    List<Donor> searchByLocation(String location);
+
+    /**
+     * Count donors matching a facet filter
+     * @param filter Facet filter; DonorFilter.all() counts every donor
+     * @return Number of matching donors
+     */
+    int countDonors(DonorFilter filter);
+
+    /**
+     * Count donors matching a facet filter under each value of one attribute
+     * @param filter Facet filter
+     * @param attribute One of DonorFilter.ATTRIBUTES
+     * @return Value -> count, zero counts omitted; blood groups and age
+     *         buckets in their natural order, other values largest first
+     */
+    Map<String, Integer> countDonorsByFacet(DonorFilter filter, String attribute);
+
+    /**
+     * Get the donors matching a facet filter
+     * @param filter Facet filter
+     * @return List of matching donors, newest registration first
+     */
+    List<Donor> filterDonors(DonorFilter filter);
+
+    /**
+     * Update donor information
+     * @param donor Donor object with updated information
+     * @return true if successful, false otherwise
+     */
+    boolean updateDonor(Donor donor);
+
+    /**
+     * Get donor count statistics
+     * @return Total number of donors
+     */
+    int getDonorCount();
+}
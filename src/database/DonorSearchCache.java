@@ -0,0 +1,110 @@
+package database;
+
+import models.Donor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small LRU cache of recent donor search results for search-as-you-type
+ * A search that narrows a cached one (for example organ "kidn" after
+ * "kid") is answered by filtering the cached results with
+ * DonorCriteria.matches instead of querying the repository again; the
+ * filter keeps the cached order, which is the order the repository would
+ * return. Entries expire after a fixed time so new registrations show up.
+ *
+ * Not thread-safe; SearchDonorsPanel only uses it on the event dispatch thread.
+ */
+public class DonorSearchCache {
+    private final int capacity;
+    private final long ttlMs;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static class Entry {
+        final DonorCriteria criteria;
+        final List<Donor> results;
+        final long storedAt;
+
+        Entry(DonorCriteria criteria, List<Donor> results, long storedAt) {
+            this.criteria = criteria;
+            this.results = results;
+            this.storedAt = storedAt;
+        }
+    }
+
+    /**
+     * @param capacity Maximum number of cached searches
+     * @param ttlMs How long results stay usable
+     */
+    public DonorSearchCache(int capacity, long ttlMs) {
+        this.capacity = capacity;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Results for criteria from the cache
+     * @return Results in repository order, or null if no cached search covers the criteria
+     */
+    public List<Donor> find(DonorCriteria criteria) {
+        evictExpired();
+        Entry exact = entries.get(criteria.toString());
+        if (exact != null) {
+            return new ArrayList<>(exact.results);
+        }
+
+        // Refine the smallest cached superset
+        Entry best = null;
+        for (Entry entry : entries.values()) {
+            if (criteria.isNarrowerThan(entry.criteria) &&
+                (best == null || entry.results.size() < best.results.size())) {
+                best = entry;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        entries.get(best.criteria.toString()); // Mark as recently used
+
+        List<Donor> refined = new ArrayList<>();
+        for (Donor donor : best.results) {
+            if (criteria.matches(donor)) {
+                refined.add(donor);
+            }
+        }
+        // Refined results are only as fresh as the search they came from
+        store(criteria, refined, best.storedAt);
+        return new ArrayList<>(refined);
+    }
+
+    /**
+     * Remember the complete results of a search
+     */
+    public void put(DonorCriteria criteria, List<Donor> results) {
+        store(criteria, results, System.currentTimeMillis());
+    }
+
+    private void store(DonorCriteria criteria, List<Donor> results, long storedAt) {
+        entries.put(criteria.toString(), new Entry(criteria, new ArrayList<>(results), storedAt));
+        if (entries.size() > capacity) {
+            Iterator<String> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private void evictExpired() {
+        long oldest = System.currentTimeMillis() - ttlMs;
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getValue().storedAt < oldest) {
+                it.remove();
+            }
+        }
+    }
+}
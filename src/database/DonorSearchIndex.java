@@ -0,0 +1,552 @@
+package database;
+
+import models.Donor;
+import utils.BloodCompatibility;
+import utils.Gazetteer;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over donors for the blood group, organ and location searches
+ * Each posting list is kept sorted newest registration first (ties broken by
+ * donor ID, newest first), so a search walks its posting lists instead of the
+ * donor table and returns rows in the same order as the DAO queries.
+ *
+ * Organ and location searches keep the DAO's LIKE '%text%' semantics. A search
+ * text made only of letters and digits cannot span a word boundary, so it is
+ * matched against the (small) dictionary of distinct words and the posting
+ * lists of the matching words are merged. Any other text is matched against
+ * the dictionary of distinct whole values instead. Both dictionaries are
+ * TrigramIndexes, so finding the matching entries does not test every one.
+ *
+ * Compound searches (DonorCriteria) also use gender and age postings. A
+ * small planner reads the size of the posting lists each condition would
+ * use, walks only the smallest and tests the remaining conditions on each
+ * donor in it.
+ *
+ * Donors with coordinates are also kept in a GeoGrid for nearest-donor
+ * searches. Donors loaded without coordinates (rows written before they
+ * were stored) are resolved through the Gazetteer as they are indexed.
+ *
+ * Facet counts (DonorFilter) are answered from a DonorBitmapIndex kept
+ * alongside the posting lists.
+ */
+public class DonorSearchIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern SINGLE_WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    // About 28 km north-south; a few rings cover a typical search radius
+    private static final double GRID_CELL_DEGREES = 0.25;
+
+    /**
+     * Newest registration first, then highest donor ID first
+     */
+    static final Comparator<Donor> NEWEST_FIRST = (a, b) -> {
+        int cmp = Long.compare(time(b.getRegistrationDate()), time(a.getRegistrationDate()));
+        return cmp != 0 ? cmp : Integer.compare(b.getDonorId(), a.getDonorId());
+    };
+
+    /**
+     * Preferred donor blood group first (see BloodCompatibility), then newest first
+     */
+    static Comparator<Donor> byPreference(String recipientGroup) {
+        return Comparator.<Donor>comparingInt(
+            donor -> BloodCompatibility.preferenceRank(donor.getBloodGroup(), recipientGroup))
+            .thenComparing(NEWEST_FIRST);
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Donor> donors = new HashMap<>();
+    private final Map<String, NavigableSet<Donor>> byBloodGroup = new HashMap<>();
+    private final TrigramIndex<NavigableSet<Donor>> byOrganWord = new TrigramIndex<>();
+    private final TrigramIndex<NavigableSet<Donor>> byOrganValue = new TrigramIndex<>();
+    private final TrigramIndex<NavigableSet<Donor>> byLocationWord = new TrigramIndex<>();
+    private final TrigramIndex<NavigableSet<Donor>> byLocationValue = new TrigramIndex<>();
+    private final Map<String, NavigableSet<Donor>> byGender = new HashMap<>();
+    private final NavigableMap<Integer, NavigableSet<Donor>> byAge = new TreeMap<>();
+    private final GeoGrid grid = new GeoGrid(GRID_CELL_DEGREES, NEWEST_FIRST);
+    private final DonorBitmapIndex bitmaps = new DonorBitmapIndex();
+
+    /**
+     * Add a donor or replace the indexed copy with the same donor ID
+     * Fields missing from an update (user ID, registration date) are kept
+     * from the indexed copy.
+     */
+    public void put(Donor donor) {
+        Donor stored = InMemoryDonorRepository.copy(donor);
+        if (stored.getLatitude() == null) {
+            Gazetteer.getInstance().resolve(stored);
+        }
+        lock.writeLock().lock();
+        try {
+            Donor previous = donors.get(stored.getDonorId());
+            if (previous != null) {
+                if (stored.getRegistrationDate() == null) {
+                    stored.setRegistrationDate(previous.getRegistrationDate());
+                }
+                if (stored.getUserId() == 0) {
+                    stored.setUserId(previous.getUserId());
+                }
+                unlink(previous);
+            }
+            donors.put(stored.getDonorId(), stored);
+            link(stored);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a donor from the index
+     */
+    public void remove(int donorId) {
+        lock.writeLock().lock();
+        try {
+            Donor previous = donors.remove(donorId);
+            if (previous != null) {
+                unlink(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return donors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Donors with exactly this blood group (case-insensitive), newest first
+     */
+    public List<Donor> searchByBloodGroup(String bloodGroup) {
+        if (bloodGroup == null) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            return copyAll(byBloodGroup.get(normalize(bloodGroup)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Donors whose blood group can be given to a recipient
+     * Concatenates the posting lists of the compatible groups in preference
+     * order, so no sorting is needed.
+     */
+    public List<Donor> searchCompatible(String recipientGroup) {
+        lock.readLock().lock();
+        try {
+            List<Donor> result = new ArrayList<>();
+            for (String group : BloodCompatibility.compatibleDonorGroups(recipientGroup)) {
+                result.addAll(copyAll(byBloodGroup.get(normalize(group))));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Donors whose blood group can be given to a recipient and whose organ
+     * contains the text
+     * The organ matches are put in a hash set and the compatible blood group
+     * posting lists are filtered against it, so the cost is linear in the
+     * two result sizes rather than their product.
+     */
+    public List<Donor> searchMatching(String recipientGroup, String organ) {
+        if (organ == null || organ.isEmpty()) {
+            return searchCompatible(recipientGroup);
+        }
+        lock.readLock().lock();
+        try {
+            Set<Donor> organMatches = new HashSet<>();
+            for (NavigableSet<Donor> posting : textPostings(organ, byOrganWord, byOrganValue)) {
+                organMatches.addAll(posting);
+            }
+
+            List<Donor> result = new ArrayList<>();
+            if (organMatches.isEmpty()) {
+                return result;
+            }
+            for (String group : BloodCompatibility.compatibleDonorGroups(recipientGroup)) {
+                NavigableSet<Donor> posting = byBloodGroup.get(normalize(group));
+                if (posting == null) {
+                    continue;
+                }
+                for (Donor donor : posting) {
+                    if (organMatches.contains(donor)) {
+                        result.add(InMemoryDonorRepository.copy(donor));
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nearest donors within a radius, optionally filtered as searchMatching
+     * @param recipientGroup Blood group the donors must be compatible with, or null for any
+     * @param organ Organ text the donors must offer, or null/empty for any
+     * @return Up to limit donors, nearest first
+     */
+    public List<Donor> searchNearest(String recipientGroup, String organ, double latitude, double longitude,
+                                     double radiusKm, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        Predicate<Donor> filter = nearestFilter(recipientGroup, organ);
+        lock.readLock().lock();
+        try {
+            List<Donor> result = new ArrayList<>();
+            for (GeoGrid.Hit hit : grid.nearest(latitude, longitude, radiusKm, limit, filter)) {
+                result.add(InMemoryDonorRepository.copy(hit.donor));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Blood group and organ test shared by the nearest-donor searches
+     */
+    static Predicate<Donor> nearestFilter(String recipientGroup, String organ) {
+        int mask = recipientGroup != null ? BloodCompatibility.compatibleDonorMask(recipientGroup) : -1;
+        boolean anyOrgan = organ == null || organ.isEmpty();
+        return donor -> {
+            if (recipientGroup != null) {
+                int group = BloodCompatibility.indexOf(donor.getBloodGroup());
+                if (group < 0 ? !recipientGroup.equalsIgnoreCase(donor.getBloodGroup())
+                              : (mask & (1 << group)) == 0) {
+                    return false;
+                }
+            }
+            return anyOrgan || InMemoryDatabase.containsIgnoreCase(donor.getOrgan(), organ);
+        };
+    }
+
+    /**
+     * Donors meeting every condition of a compound search
+     * Each set condition offers a candidate list: the blood group or gender
+     * posting, the age postings in range, or the organ/location postings
+     * matching the text. Their sizes are the cardinality statistics; the
+     * smallest list is walked and the other conditions are tested per donor.
+     * @return Matching donors, newest first (nearest first with a radius)
+     */
+    public List<Donor> search(DonorCriteria criteria) {
+        lock.readLock().lock();
+        try {
+            if (criteria.hasNear()) {
+                List<Donor> result = new ArrayList<>();
+                for (GeoGrid.Hit hit : grid.nearest(criteria.getLatitude(), criteria.getLongitude(),
+                                                    criteria.getRadiusKm(), Integer.MAX_VALUE, criteria::matches)) {
+                    result.add(InMemoryDonorRepository.copy(hit.donor));
+                }
+                return result;
+            }
+
+            List<? extends Collection<Donor>> best = null;
+            long bestSize = Long.MAX_VALUE;
+            for (List<? extends Collection<Donor>> candidate : candidates(criteria)) {
+                long size = 0;
+                for (Collection<Donor> posting : candidate) {
+                    size += posting.size();
+                }
+                if (size < bestSize) {
+                    best = candidate;
+                    bestSize = size;
+                }
+            }
+            if (best == null) {
+                // No indexed condition: every donor is a candidate
+                best = Collections.singletonList(donors.values());
+            }
+            return merge(best, criteria::matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Posting lists each set condition would be answered from; caller holds the read lock
+     */
+    private List<List<? extends Collection<Donor>>> candidates(DonorCriteria criteria) {
+        List<List<? extends Collection<Donor>>> candidates = new ArrayList<>();
+        if (criteria.getBloodGroup() != null) {
+            candidates.add(postingOrEmpty(byBloodGroup.get(normalize(criteria.getBloodGroup()))));
+        }
+        if (criteria.getGender() != null) {
+            candidates.add(postingOrEmpty(byGender.get(normalize(criteria.getGender()))));
+        }
+        if (criteria.getMinAge() != null || criteria.getMaxAge() != null) {
+            int min = criteria.getMinAge() != null ? criteria.getMinAge() : Integer.MIN_VALUE;
+            int max = criteria.getMaxAge() != null ? criteria.getMaxAge() : Integer.MAX_VALUE;
+            candidates.add(min <= max ? new ArrayList<>(byAge.subMap(min, true, max, true).values())
+                                      : new ArrayList<NavigableSet<Donor>>());
+        }
+        if (criteria.getOrgan() != null) {
+            candidates.add(textPostings(criteria.getOrgan(), byOrganWord, byOrganValue));
+        }
+        if (criteria.getLocation() != null) {
+            candidates.add(textPostings(criteria.getLocation(), byLocationWord, byLocationValue));
+        }
+        return candidates;
+    }
+
+    private static List<NavigableSet<Donor>> postingOrEmpty(NavigableSet<Donor> posting) {
+        List<NavigableSet<Donor>> postings = new ArrayList<>();
+        if (posting != null) {
+            postings.add(posting);
+        }
+        return postings;
+    }
+
+    /**
+     * Number of donors matching a facet filter
+     */
+    public int count(DonorFilter filter) {
+        lock.readLock().lock();
+        try {
+            return bitmaps.count(filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of donors matching a facet filter under each value of an attribute
+     * @return Value -> count in DonorFilter display order, zero counts omitted
+     */
+    public Map<String, Integer> countByFacet(DonorFilter filter, String attribute) {
+        Map<String, Integer> counts;
+        lock.readLock().lock();
+        try {
+            counts = bitmaps.countByFacet(filter, attribute);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return DonorFilter.sortFacet(attribute, counts);
+    }
+
+    /**
+     * Donors matching a facet filter, newest first
+     */
+    public List<Donor> filter(DonorFilter filter) {
+        lock.readLock().lock();
+        try {
+            List<Donor> matches = new ArrayList<>();
+            bitmaps.forEachId(filter, id -> matches.add(donors.get(id)));
+            matches.sort(NEWEST_FIRST);
+            return copyAll(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Donors whose organ contains the text (case-insensitive), newest first
+     */
+    public List<Donor> searchByOrgan(String organ) {
+        return searchText(organ, byOrganWord, byOrganValue);
+    }
+
+    /**
+     * Donors whose location contains the text (case-insensitive), newest first
+     */
+    public List<Donor> searchByLocation(String location) {
+        return searchText(location, byLocationWord, byLocationValue);
+    }
+
+    private List<Donor> searchText(String text, TrigramIndex<NavigableSet<Donor>> byWord,
+                                   TrigramIndex<NavigableSet<Donor>> byValue) {
+        if (text == null) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            return merge(textPostings(text, byWord, byValue), donor -> true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Posting lists of the dictionary entries containing the text; caller holds the read lock
+     */
+    private static List<NavigableSet<Donor>> textPostings(String text, TrigramIndex<NavigableSet<Donor>> byWord,
+                                                          TrigramIndex<NavigableSet<Donor>> byValue) {
+        String query = normalize(text);
+        TrigramIndex<NavigableSet<Donor>> dictionary =
+            SINGLE_WORD.matcher(query).matches() ? byWord : byValue;
+        return dictionary.findContaining(query);
+    }
+
+    /**
+     * Union posting lists, keeping the donors that pass the filter, newest first
+     */
+    private static List<Donor> merge(List<? extends Collection<Donor>> postings, Predicate<Donor> filter) {
+        List<Donor> result = new ArrayList<>();
+        if (postings.size() == 1 && postings.get(0) instanceof NavigableSet) {
+            // Already in order
+            for (Donor donor : postings.get(0)) {
+                if (filter.test(donor)) {
+                    result.add(InMemoryDonorRepository.copy(donor));
+                }
+            }
+            return result;
+        }
+        // Concatenate, sort and drop repeats; a donor can be under several matching words
+        List<Donor> all = new ArrayList<>();
+        for (Collection<Donor> posting : postings) {
+            for (Donor donor : posting) {
+                if (filter.test(donor)) {
+                    all.add(donor);
+                }
+            }
+        }
+        all.sort(NEWEST_FIRST);
+        Donor previous = null;
+        for (Donor donor : all) {
+            if (donor != previous) {
+                result.add(InMemoryDonorRepository.copy(donor));
+            }
+            previous = donor;
+        }
+        return result;
+    }
+
+    private static List<Donor> copyAll(Collection<Donor> posting) {
+        List<Donor> result = new ArrayList<>(posting != null ? posting.size() : 0);
+        if (posting != null) {
+            for (Donor donor : posting) {
+                result.add(InMemoryDonorRepository.copy(donor));
+            }
+        }
+        return result;
+    }
+
+    private void link(Donor donor) {
+        if (donor.getBloodGroup() != null) {
+            add(byBloodGroup, normalize(donor.getBloodGroup()), donor);
+        }
+        linkText(donor.getOrgan(), donor, byOrganWord, byOrganValue);
+        linkText(donor.getLocation(), donor, byLocationWord, byLocationValue);
+        if (donor.getGender() != null) {
+            add(byGender, normalize(donor.getGender()), donor);
+        }
+        add(byAge, donor.getAge(), donor);
+        grid.add(donor);
+        bitmaps.add(donor);
+    }
+
+    private void unlink(Donor donor) {
+        if (donor.getBloodGroup() != null) {
+            remove(byBloodGroup, normalize(donor.getBloodGroup()), donor);
+        }
+        unlinkText(donor.getOrgan(), donor, byOrganWord, byOrganValue);
+        unlinkText(donor.getLocation(), donor, byLocationWord, byLocationValue);
+        if (donor.getGender() != null) {
+            remove(byGender, normalize(donor.getGender()), donor);
+        }
+        remove(byAge, donor.getAge(), donor);
+        grid.remove(donor);
+        bitmaps.remove(donor);
+    }
+
+    private static void linkText(String text, Donor donor, TrigramIndex<NavigableSet<Donor>> byWord,
+                                 TrigramIndex<NavigableSet<Donor>> byValue) {
+        if (text == null) {
+            return;
+        }
+        String value = normalize(text);
+        add(byValue, value, donor);
+        for (String word : words(value)) {
+            add(byWord, word, donor);
+        }
+    }
+
+    private static void unlinkText(String text, Donor donor, TrigramIndex<NavigableSet<Donor>> byWord,
+                                   TrigramIndex<NavigableSet<Donor>> byValue) {
+        if (text == null) {
+            return;
+        }
+        String value = normalize(text);
+        remove(byValue, value, donor);
+        for (String word : words(value)) {
+            remove(byWord, word, donor);
+        }
+    }
+
+    private static <K> void add(Map<K, NavigableSet<Donor>> postings, K key, Donor donor) {
+        postings.computeIfAbsent(key, k -> new TreeSet<>(NEWEST_FIRST)).add(donor);
+    }
+
+    private static void add(TrigramIndex<NavigableSet<Donor>> postings, String key, Donor donor) {
+        postings.computeIfAbsent(key, k -> new TreeSet<>(NEWEST_FIRST)).add(donor);
+    }
+
+    private static <K> void remove(Map<K, NavigableSet<Donor>> postings, K key, Donor donor) {
+        NavigableSet<Donor> posting = postings.get(key);
+        if (posting != null) {
+            posting.remove(donor);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static void remove(TrigramIndex<NavigableSet<Donor>> postings, String key, Donor donor) {
+        NavigableSet<Donor> posting = postings.get(key);
+        if (posting != null) {
+            posting.remove(donor);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    static List<String> words(String value) {
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(value)) {
+            if (!word.isEmpty() && !words.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static long time(Timestamp timestamp) {
+        return timestamp != null ? timestamp.getTime() : 0L;
+    }
+}
@@ -0,0 +1,181 @@
+package database;
+
+import models.Donor;
+import utils.Gazetteer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Uniform latitude/longitude grid over donors with coordinates
+ * Within a cell, donors at the same point (locations resolved to the same
+ * gazetteer place) share one entry kept in the grid's tie-break order, so a
+ * query measures each point once. A nearest-neighbour query visits cells in
+ * square rings around the query point and stops as soon as the next ring
+ * cannot hold anything closer than the k-th donor found so far, or lies
+ * outside the search radius.
+ *
+ * Not thread-safe for writes; DonorSearchIndex guards it with its read/write
+ * lock, and MatchmakingJob only queries a grid once it is built.
+ */
+class GeoGrid {
+    private final double cellDegrees;
+    private final Comparator<Donor> tieBreak;
+    // Nearest first, then tieBreak
+    private final Comparator<Hit> nearestFirst;
+    private final Map<Long, Map<String, Point>> cells = new HashMap<>();
+
+    /**
+     * Donors at one coordinate pair
+     */
+    private static class Point {
+        final double latitude;
+        final double longitude;
+        final NavigableSet<Donor> donors;
+
+        Point(double latitude, double longitude, Comparator<Donor> order) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.donors = new TreeSet<>(order);
+        }
+    }
+
+    /**
+     * A donor and its distance from the query point
+     */
+    static class Hit {
+        final Donor donor;
+        final double distanceKm;
+
+        Hit(Donor donor, double distanceKm) {
+            this.donor = donor;
+            this.distanceKm = distanceKm;
+        }
+    }
+
+    /**
+     * @param cellDegrees Cell size in degrees of latitude and longitude
+     * @param tieBreak Order of donors at the same distance; must be a total order
+     */
+    GeoGrid(double cellDegrees, Comparator<Donor> tieBreak) {
+        this.cellDegrees = cellDegrees;
+        this.tieBreak = tieBreak;
+        this.nearestFirst = Comparator.comparingDouble((Hit h) -> h.distanceKm).thenComparing(h -> h.donor, tieBreak);
+    }
+
+    void add(Donor donor) {
+        if (donor.getLatitude() == null || donor.getLongitude() == null) {
+            return;
+        }
+        double lat = donor.getLatitude();
+        double lon = donor.getLongitude();
+        cells.computeIfAbsent(cellOf(lat, lon), k -> new HashMap<>())
+             .computeIfAbsent(lat + "," + lon, k -> new Point(lat, lon, tieBreak))
+             .donors.add(donor);
+    }
+
+    void remove(Donor donor) {
+        if (donor.getLatitude() == null || donor.getLongitude() == null) {
+            return;
+        }
+        long key = cellOf(donor.getLatitude(), donor.getLongitude());
+        Map<String, Point> cell = cells.get(key);
+        if (cell == null) {
+            return;
+        }
+        String pointKey = donor.getLatitude() + "," + donor.getLongitude();
+        Point point = cell.get(pointKey);
+        if (point != null) {
+            point.donors.remove(donor);
+            if (point.donors.isEmpty()) {
+                cell.remove(pointKey);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Up to limit donors accepted by the filter within radiusKm, nearest first
+     */
+    List<Hit> nearest(double lat, double lon, double radiusKm, int limit, Predicate<Donor> filter) {
+        // Worst hit at the head, so it can be compared and evicted
+        PriorityQueue<Hit> best = new PriorityQueue<>(nearestFirst.reversed());
+        double[] box = Gazetteer.boundingBox(lat, lon, radiusKm);
+        int row = index(lat);
+        int col = index(lon);
+        int maxRing = Math.max(Math.max(row - index(box[0]), index(box[1]) - row),
+                               Math.max(col - index(box[2]), index(box[3]) - col));
+
+        // Smallest width of a cell inside the search box, for the ring distance bound
+        double cellKm = cellDegrees * Gazetteer.kmPerDegree() *
+                        Math.cos(Math.toRadians(Math.max(Math.abs(box[0]), Math.abs(box[1]))));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            double ringMinKm = (ring - 1) * cellKm;
+            if (ringMinKm > radiusKm || (best.size() == limit && ringMinKm > best.peek().distanceKm)) {
+                break;
+            }
+            for (int r = row - ring; r <= row + ring; r++) {
+                boolean edgeRow = r == row - ring || r == row + ring;
+                for (int c = col - ring; c <= col + ring; c += edgeRow ? 1 : 2 * ring) {
+                    visit(cells.get(key(r, c)), lat, lon, radiusKm, limit, filter, best);
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        List<Hit> result = new ArrayList<>(best);
+        result.sort(nearestFirst);
+        return result;
+    }
+
+    private void visit(Map<String, Point> cell, double lat, double lon, double radiusKm, int limit,
+                              Predicate<Donor> filter, PriorityQueue<Hit> best) {
+        if (cell == null) {
+            return;
+        }
+        for (Point point : cell.values()) {
+            double distance = Gazetteer.distanceKm(lat, lon, point.latitude, point.longitude);
+            if (distance > radiusKm || (best.size() == limit && distance > best.peek().distanceKm)) {
+                continue;
+            }
+            // In tie-break order: once one donor here loses to the current worst, the rest do too
+            for (Donor donor : point.donors) {
+                if (!filter.test(donor)) {
+                    continue;
+                }
+                Hit hit = new Hit(donor, distance);
+                if (best.size() == limit && nearestFirst.compare(hit, best.peek()) >= 0) {
+                    break;
+                }
+                best.add(hit);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+    }
+
+    private int index(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private long cellOf(double lat, double lon) {
+        return key(index(lat), index(lon));
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
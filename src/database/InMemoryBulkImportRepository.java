@@ -0,0 +1,53 @@
+package database;
+
+import models.Donor;
+import models.Recipient;
+import models.User;
+
+import java.util.List;
+
+/**
+ * In-memory BulkImportRepository built on the in-memory repositories
+ */
+public class InMemoryBulkImportRepository implements BulkImportRepository {
+    private final InMemoryUserRepository users;
+    private final InMemoryDonorRepository donors;
+    private final InMemoryRecipientRepository recipients;
+
+    public InMemoryBulkImportRepository(InMemoryDatabase db) {
+        this.users = new InMemoryUserRepository(db);
+        this.donors = new InMemoryDonorRepository(db);
+        this.recipients = new InMemoryRecipientRepository(db);
+    }
+
+    @Override
+    public String[] importDonors(List<Donor> rows) {
+        String[] errors = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Donor donor = rows.get(i);
+            int userId = users.registerUser(new User(donor.getUsername(), donor.getPassword(), "DONOR"));
+            if (userId < 0) {
+                errors[i] = "Username already exists";
+            } else {
+                donors.registerDonor(donor, userId);
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public String[] importRecipients(List<Recipient> rows) {
+        String[] errors = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Recipient recipient = rows.get(i);
+            int userId = users.registerUser(new User(recipient.getUsername(), recipient.getPassword(), "RECIPIENT"));
+            if (userId < 0) {
+                errors[i] = "Username already exists";
+            } else {
+                recipient.setUserId(userId);
+                recipients.registerRecipient(recipient);
+            }
+        }
+        return errors;
+    }
+}
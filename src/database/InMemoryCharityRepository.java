@@ -0,0 +1,413 @@
+package database;
+
+import models.CharityRequest;
+import models.Donation;
+import models.DonationTotal;
+import models.DonationWindow;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * In-memory charity request and donation storage for load testing without MySQL
+ * With charity.raisedSlots > 0, raised amounts are striped like the DAO's
+ * slot rows: donations add to a per-request DoubleAdder (which sizes its
+ * own cells by contention) instead of locking the request.
+ * Donation rollups are kept in concurrent maps and merged into per key.
+ */
+public class InMemoryCharityRepository implements CharityRequestRepository, DonationRepository {
+    private final InMemoryDatabase db;
+    private final boolean striped;
+
+    public InMemoryCharityRepository(InMemoryDatabase db) {
+        this(db, DatabaseConfig.getInstance().getInt("charity.raisedSlots", 0));
+    }
+
+    /**
+     * @param raisedSlots Above 0 to stripe raised amounts, 0 to update the request directly
+     */
+    public InMemoryCharityRepository(InMemoryDatabase db, int raisedSlots) {
+        this.db = db;
+        this.striped = raisedSlots > 0;
+    }
+
+    @Override
+    public int createCharityRequest(CharityRequest request) {
+        int requestId = db.requestIds.incrementAndGet();
+        CharityRequest stored = new CharityRequest(
+            requestId,
+            request.getTitle(),
+            request.getDescription(),
+            request.getRequesterName(),
+            request.getType(),
+            request.getGoalAmount(),
+            0.0,
+            InMemoryDatabase.now(),
+            "ACTIVE"
+        );
+        db.charityRequests.put(requestId, stored);
+        return requestId;
+    }
+
+    @Override
+    public List<CharityRequest> getActiveCharityRequests() {
+        List<CharityRequest> result = new ArrayList<>();
+        for (CharityRequest request : db.charityRequests.descendingMap().values()) {
+            if ("ACTIVE".equals(request.getStatus())) {
+                result.add(copyWithSlots(request));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<CharityRequest> getAllCharityRequests() {
+        List<CharityRequest> result = new ArrayList<>();
+        for (CharityRequest request : db.charityRequests.descendingMap().values()) {
+            result.add(copyWithSlots(request));
+        }
+        return result;
+    }
+
+    @Override
+    public CharityRequest getCharityRequestById(int requestId) {
+        CharityRequest request = db.charityRequests.get(requestId);
+        return request != null ? copyWithSlots(request) : null;
+    }
+
+    @Override
+    public boolean updateCharityRequestStatus(int requestId, String status) {
+        CharityRequest request = db.charityRequests.get(requestId);
+        if (request == null) {
+            return false;
+        }
+        synchronized (request) {
+            request.setStatus(status);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addDonations(List<Donation> donations) {
+        for (Donation donation : donations) {
+            if (!db.charityRequests.containsKey(donation.getRequestId())) {
+                // Foreign key violation in MySQL rolls back the whole batch
+                return false;
+            }
+        }
+
+        Map<CharityRequest, Double> raisedByRequest = new LinkedHashMap<>();
+        List<Donation> stored = new ArrayList<>(donations.size());
+        db.donationTotalsLock.readLock().lock();
+        try {
+            for (Donation donation : donations) {
+                int donationId = db.donationIds.incrementAndGet();
+                String transactionKey = CharityDAO.transactionKey(donation);
+                if (transactionKey != null &&
+                    db.donationIdsByTransaction.putIfAbsent(transactionKey, donationId) != null) {
+                    // Already recorded: skipped, as by the DAO's unique (payment_method, transaction_id) index
+                    continue;
+                }
+                Donation row = new Donation(
+                    donationId,
+                    donation.getDonorName(),
+                    donation.getRequestId(),
+                    donation.getAmount(),
+                    donation.getDonationDate() != null ? donation.getDonationDate() : InMemoryDatabase.now(),
+                    donation.getPaymentMethod(),
+                    donation.getTransactionId()
+                );
+                db.donations.put(donationId, row);
+                db.donationsByRequest.computeIfAbsent(row.getRequestId(), id -> new ConcurrentSkipListMap<>())
+                                     .put(donationId, row);
+                stored.add(row);
+                raisedByRequest.merge(db.charityRequests.get(donation.getRequestId()), donation.getAmount(),
+                                      Double::sum);
+            }
+            addRollups(stored);
+        } finally {
+            db.donationTotalsLock.readLock().unlock();
+        }
+
+        // One update per request, as the DAO's one UPDATE per request_id
+        for (Map.Entry<CharityRequest, Double> entry : raisedByRequest.entrySet()) {
+            addRaised(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    @Override
+    public BatchResult addDonationBatch(List<Donation> donations) {
+        // Only an unknown request (the DAO's foreign key violation) fails a batch here
+        return addDonations(donations) ? BatchResult.ADDED : BatchResult.REJECTED;
+    }
+
+    @Override
+    public synchronized boolean addJournaledDonations(String journalId, long position, List<Donation> donations) {
+        // Synchronized so the position moves with its donations, as in the DAO's transaction
+        if (!addDonations(donations)) {
+            return false;
+        }
+        db.journalPositions.put(journalId, position);
+        return true;
+    }
+
+    @Override
+    public synchronized long getJournalPosition(String journalId) {
+        return db.journalPositions.getOrDefault(journalId, 0L);
+    }
+
+    @Override
+    public boolean addDonation(Donation donation) {
+        return addDonations(Collections.singletonList(donation));
+    }
+
+    /**
+     * Merge stored donations into the rollups; the caller holds the read lock
+     */
+    private void addRollups(List<Donation> donations) {
+        DonationRollup rollup = new DonationRollup();
+        for (Donation donation : donations) {
+            rollup.add(donation, requesterType(donation), day(donation));
+        }
+        for (Map.Entry<String, Map<String, DonationTotal>> dimension : rollup.totals().entrySet()) {
+            Map<String, DonationTotal> totals =
+                db.donationTotals.computeIfAbsent(dimension.getKey(), d -> new ConcurrentHashMap<>());
+            for (DonationTotal total : dimension.getValue().values()) {
+                totals.merge(total.getKey(), total, (a, b) -> new DonationTotal(
+                    a.getKey(), a.getDonationCount() + b.getDonationCount(), a.getTotalAmount() + b.getTotalAmount()));
+            }
+        }
+    }
+
+    private void addRaised(CharityRequest request, double amount) {
+        if (striped) {
+            db.raisedSlots.computeIfAbsent(request.getRequestId(), id -> new DoubleAdder()).add(amount);
+            return;
+        }
+        // Same row-level serialization as UPDATE ... raised_amount = raised_amount + ?
+        synchronized (request) {
+            request.setRaisedAmount(request.getRaisedAmount() + amount);
+        }
+    }
+
+    @Override
+    public int compactRaisedAmounts() {
+        int folded = 0;
+        for (Map.Entry<Integer, DoubleAdder> entry : db.raisedSlots.entrySet()) {
+            CharityRequest request = db.charityRequests.get(entry.getKey());
+            if (request == null) {
+                continue;
+            }
+            // Readers sum under the same lock; adds arriving meanwhile stay in the adder
+            synchronized (request) {
+                double pending = entry.getValue().sum();
+                if (pending != 0) {
+                    entry.getValue().add(-pending);
+                    request.setRaisedAmount(request.getRaisedAmount() + pending);
+                    folded++;
+                }
+            }
+        }
+        return folded;
+    }
+
+    @Override
+    public List<Donation> getDonationsByRequestId(int requestId) {
+        List<Donation> result = new ArrayList<>();
+        for (Donation donation : donationsOf(requestId).descendingMap().values()) {
+            result.add(copy(donation));
+        }
+        return result;
+    }
+
+    @Override
+    public Page<Donation> getDonationsPage(int requestId, String pageToken, int pageSize) {
+        return InMemoryDatabase.page(donationsOf(requestId), donation -> true,
+                                     InMemoryCharityRepository::copy, pageToken, pageSize,
+                                     Donation::getDonationDate, Donation::getDonationId);
+    }
+
+    @Override
+    public DonationWindow getDonationWindow(int requestId, String windowToken, int offset, int limit) {
+        WindowCursor seek = WindowCursor.parse(windowToken);
+        int skip = Math.max(0, offset);
+        int size = KeysetQuery.clampPageSize(limit);
+        DonationTotal total = db.donationTotals.getOrDefault(DonationRollup.REQUEST, new ConcurrentHashMap<>())
+                                               .get(String.valueOf(requestId));
+        int donationCount = total != null ? total.getDonationCount() : 0;
+        double totalAmount = total != null ? total.getTotalAmount() : 0.0;
+        ConcurrentSkipListMap<Integer, Donation> requestDonations = donationsOf(requestId);
+
+        // As the DAO: on from the token's boundary row, or from the nearer end
+        if (seek != null && !seek.reaches(skip, donationCount)) {
+            seek = null;
+        }
+        int newerSkip = seek != null ? skip - seek.offset : skip;
+        int olderSkip = Math.max(0, donationCount - skip - size);
+
+        List<Donation> donations = new ArrayList<>(size);
+        List<Double> runningTotals = new ArrayList<>(size);
+        double remaining;
+        int position = 0;
+        if (olderSkip < newerSkip) {
+            remaining = 0.0;
+            double running = 0.0;
+            int take = Math.min(size, donationCount - skip);
+            for (Donation donation : requestDonations.values()) {
+                if (donations.size() >= take) {
+                    break;
+                }
+                running += donation.getAmount();
+                if (position++ < olderSkip) {
+                    remaining = running;
+                } else {
+                    donations.add(copy(donation));
+                    runningTotals.add(running);
+                }
+            }
+            Collections.reverse(donations);
+            Collections.reverse(runningTotals);
+        } else {
+            remaining = seek != null ? seek.runningTotal.doubleValue() : totalAmount;
+            NavigableMap<Integer, Donation> newer = seek != null ? requestDonations.headMap(seek.cursor.id, false)
+                                                                 : requestDonations;
+            for (Donation donation : newer.descendingMap().values()) {
+                if (donations.size() == size) {
+                    break;
+                }
+                if (position++ >= newerSkip) {
+                    donations.add(copy(donation));
+                    runningTotals.add(remaining);
+                }
+                remaining -= donation.getAmount();
+            }
+        }
+
+        double[] running = new double[runningTotals.size()];
+        for (int i = 0; i < running.length; i++) {
+            running[i] = runningTotals.get(i);
+        }
+        Donation last = donations.isEmpty() ? null : donations.get(donations.size() - 1);
+        return new DonationWindow(skip, donations, running, donationCount, totalAmount,
+                                  WindowCursor.next(skip + donations.size(), donationCount, last,
+                                                    BigDecimal.valueOf(remaining)));
+    }
+
+    /**
+     * A request's donations, keyed by donation ID
+     */
+    private ConcurrentSkipListMap<Integer, Donation> donationsOf(int requestId) {
+        ConcurrentSkipListMap<Integer, Donation> donations = db.donationsByRequest.get(requestId);
+        return donations != null ? donations : new ConcurrentSkipListMap<>();
+    }
+
+    @Override
+    public double getTotalDonationsAmount() {
+        double total = 0.0;
+        for (DonationTotal byMethod : db.donationTotals.getOrDefault(DonationRollup.PAYMENT_METHOD,
+                                                                     new ConcurrentHashMap<>()).values()) {
+            total += byMethod.getTotalAmount();
+        }
+        return total;
+    }
+
+    @Override
+    public List<DonationTotal> getDonationTotals(String dimension) {
+        List<DonationTotal> totals = new ArrayList<>();
+        for (DonationTotal total : db.donationTotals.getOrDefault(DonationRollup.checked(dimension),
+                                                                  new ConcurrentHashMap<>()).values()) {
+            totals.add(new DonationTotal(total.getKey(), total.getDonationCount(), total.getTotalAmount()));
+        }
+        return DonationRollup.sorted(dimension, totals);
+    }
+
+    /**
+     * Recompute the rollups with a parallel stream over the donations
+     * Donation writes wait meanwhile, as every donation and its rollup
+     * increments are written under the shared lock.
+     */
+    @Override
+    public int rebuildDonationTotals() {
+        db.donationTotalsLock.writeLock().lock();
+        try {
+            DonationRollup rollup = db.donations.values().parallelStream().collect(
+                DonationRollup::new,
+                (r, donation) -> r.add(donation, requesterType(donation), day(donation)),
+                DonationRollup::addAll);
+            db.donationTotals.clear();
+            for (Map.Entry<String, Map<String, DonationTotal>> dimension : rollup.totals().entrySet()) {
+                db.donationTotals.put(dimension.getKey(), new ConcurrentHashMap<>(dimension.getValue()));
+            }
+            return rollup.donationCount();
+        } finally {
+            db.donationTotalsLock.writeLock().unlock();
+        }
+    }
+
+    private String requesterType(Donation donation) {
+        CharityRequest request = db.charityRequests.get(donation.getRequestId());
+        return request != null ? request.getType() : null;
+    }
+
+    private static String day(Donation donation) {
+        return donation.getDonationDate().toLocalDateTime().toLocalDate().toString();
+    }
+
+    /**
+     * Get the stored (mutable) request row, used for seeding
+     */
+    CharityRequest getStoredRequest(int requestId) {
+        return db.charityRequests.get(requestId);
+    }
+
+    /**
+     * Copy a request with its unfolded striped amount added
+     */
+    private CharityRequest copyWithSlots(CharityRequest request) {
+        synchronized (request) {
+            CharityRequest copy = copy(request);
+            DoubleAdder slots = db.raisedSlots.get(request.getRequestId());
+            if (slots != null) {
+                copy.setRaisedAmount(copy.getRaisedAmount() + slots.sum());
+            }
+            return copy;
+        }
+    }
+
+    private static CharityRequest copy(CharityRequest request) {
+        synchronized (request) {
+            return new CharityRequest(
+                request.getRequestId(),
+                request.getTitle(),
+                request.getDescription(),
+                request.getRequesterName(),
+                request.getType(),
+                request.getGoalAmount(),
+                request.getRaisedAmount(),
+                request.getCreatedDate(),
+                request.getStatus()
+            );
+        }
+    }
+
+    private static Donation copy(Donation donation) {
+        return new Donation(
+            donation.getDonationId(),
+            donation.getDonorName(),
+            donation.getRequestId(),
+            donation.getAmount(),
+            donation.getDonationDate(),
+            donation.getPaymentMethod(),
+            donation.getTransactionId()
+        );
+    }
+}
@@ -0,0 +1,146 @@
+package database;
+
+import models.CharityRequest;
+import models.Donation;
+import models.DonationTotal;
+import models.Donor;
+import models.DonorMatch;
+import models.Recipient;
+import models.User;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-process storage used by the in-memory repositories
+ * Each table is a concurrent map keyed by its auto-increment ID, so
+ * iterating in descending key order gives the same newest-first
+ * ordering as the MySQL queries. Rows are stored as private copies.
+ */
+public class InMemoryDatabase {
+    final ConcurrentSkipListMap<Integer, User> users = new ConcurrentSkipListMap<>();
+    final ConcurrentHashMap<String, Integer> userIdsByUsername = new ConcurrentHashMap<>();
+    final ConcurrentSkipListMap<Integer, Donor> donors = new ConcurrentSkipListMap<>();
+    final ConcurrentSkipListMap<Integer, Recipient> recipients = new ConcurrentSkipListMap<>();
+    final ConcurrentSkipListMap<Integer, CharityRequest> charityRequests = new ConcurrentSkipListMap<>();
+    final ConcurrentSkipListMap<Integer, Donation> donations = new ConcurrentSkipListMap<>();
+    // The same donations by request ID, then donation ID (idx_donation_request_amount)
+    final ConcurrentHashMap<Integer, ConcurrentSkipListMap<Integer, Donation>> donationsByRequest =
+        new ConcurrentHashMap<>();
+    // Donation ID by payment method and transaction ID (the unique uq_donation_gateway_transaction index)
+    final ConcurrentHashMap<String, Integer> donationIdsByTransaction = new ConcurrentHashMap<>();
+    // Striped raised amounts not yet folded into their request (charity_raised_slot)
+    final ConcurrentHashMap<Integer, DoubleAdder> raisedSlots = new ConcurrentHashMap<>();
+    // Donation rollups (donation_rollup) by dimension, then key; totals are replaced, never changed
+    final ConcurrentHashMap<String, ConcurrentHashMap<String, DonationTotal>> donationTotals =
+        new ConcurrentHashMap<>();
+    // Shared by donation writes (a donation and its rollup increments), exclusive for a rollup rebuild
+    final ReadWriteLock donationTotalsLock = new ReentrantReadWriteLock();
+    // Recorded position by donation journal ID (donation_journal)
+    final ConcurrentHashMap<String, Long> journalPositions = new ConcurrentHashMap<>();
+
+    // Last matchmaking run by recipient ID, each list in match_rank order; replaced as a whole
+    volatile Map<Integer, List<DonorMatch>> matchesByRecipient = Collections.emptyMap();
+    volatile Timestamp lastMatchTime;
+
+    final AtomicInteger userIds = new AtomicInteger();
+    final AtomicInteger donorIds = new AtomicInteger();
+    final AtomicInteger recipientIds = new AtomicInteger();
+    final AtomicInteger requestIds = new AtomicInteger();
+    final AtomicInteger donationIds = new AtomicInteger();
+
+    /**
+     * Create an empty database
+     */
+    public InMemoryDatabase() {
+    }
+
+    /**
+     * Create a database holding the same seed rows as database_schema.sql
+     * @return Seeded database
+     */
+    public static InMemoryDatabase createSeeded() {
+        InMemoryDatabase db = new InMemoryDatabase();
+        new InMemoryUserRepository(db).registerUser(new User("admin", "admin123", "RECEPTIONIST"));
+
+        InMemoryCharityRepository charity = new InMemoryCharityRepository(db);
+        seedRequest(charity, "Children Vaccine Drive",
+                    "Help provide vaccines to underprivileged children in rural areas",
+                    "Hope Foundation", "Medical", 50000.00, 15000.00);
+        seedRequest(charity, "Emergency Medical Fund",
+                    "Support for patients requiring urgent medical treatment",
+                    "City Hospital", "Medical", 100000.00, 25000.00);
+        seedRequest(charity, "Blood Donation Camp",
+                    "Organize blood donation camps across the city",
+                    "Red Cross Society", "Event", 30000.00, 10000.00);
+        return db;
+    }
+
+    private static void seedRequest(InMemoryCharityRepository charity, String title, String description,
+                                    String requesterName, String type, double goal, double raised) {
+        int requestId = charity.createCharityRequest(
+            new CharityRequest(title, description, requesterName, type, goal));
+        charity.getStoredRequest(requestId).setRaisedAmount(raised);
+    }
+
+    /**
+     * Read one newest-first page of a table
+     * Rows are inserted in ID order with the current time, so ID order is
+     * the same as (date, id) order and the page token's ID alone locates
+     * the page boundary in the map.
+     */
+    static <T> Page<T> page(ConcurrentSkipListMap<Integer, T> table, Predicate<T> filter, UnaryOperator<T> copy,
+                            String token, int pageSize, Function<T, Timestamp> date, ToIntFunction<T> id) {
+        Page.Cursor cursor = Page.Cursor.parse(token);
+        int size = KeysetQuery.clampPageSize(pageSize);
+        NavigableMap<Integer, T> range = cursor == null ? table.descendingMap()
+                                       : cursor.forward ? table.headMap(cursor.id, false).descendingMap()
+                                       : table.tailMap(cursor.id, false);
+
+        List<T> rows = new ArrayList<>(size + 1);
+        for (T row : range.values()) {
+            if (filter.test(row)) {
+                rows.add(copy.apply(row));
+                if (rows.size() > size) {
+                    break;
+                }
+            }
+        }
+        return Page.of(rows, cursor, size, date, id);
+    }
+
+    static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+
+    /**
+     * Case-insensitive equality, matching MySQL's default collation
+     */
+    static boolean equalsIgnoreCase(String value, String search) {
+        return value != null && search != null && value.equalsIgnoreCase(search);
+    }
+
+    /**
+     * Case-insensitive substring test, matching LIKE '%search%'
+     */
+    static boolean containsIgnoreCase(String value, String search) {
+        if (value == null || search == null) {
+            return false;
+        }
+        return value.toLowerCase().contains(search.toLowerCase());
+    }
+}
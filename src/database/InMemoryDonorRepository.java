@@ -0,0 +1,217 @@
+package database;
+
+import models.Donor;
+import utils.BloodCompatibility;
+import utils.Gazetteer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory DonorRepository for load and latency testing without MySQL
+ */
+public class InMemoryDonorRepository implements DonorRepository {
+    private final InMemoryDatabase db;
+
+    public InMemoryDonorRepository(InMemoryDatabase db) {
+        this.db = db;
+    }
+
+    @Override
+    public boolean registerDonor(Donor donor, int userId) {
+        int donorId = db.donorIds.incrementAndGet();
+        Gazetteer.getInstance().resolve(donor);
+        donor.setDonorId(donorId);
+        donor.setUserId(userId);
+        donor.setRegistrationDate(InMemoryDatabase.now());
+        db.donors.put(donorId, copy(donor));
+        return true;
+    }
+
+    @Override
+    public Donor getDonorByUserId(int userId) {
+        for (Donor donor : db.donors.values()) {
+            if (donor.getUserId() == userId) {
+                return copy(donor);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Donor> getAllDonors() {
+        return select(donor -> true);
+    }
+
+    @Override
+    public int forEachDonor(Consumer<? super Donor> action) {
+        int count = 0;
+        for (Donor donor : db.donors.descendingMap().values()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return -1; // Cancelled
+            }
+            action.accept(copy(donor));
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public Stream<Donor> streamAllDonors() {
+        return db.donors.descendingMap().values().stream().map(InMemoryDonorRepository::copy);
+    }
+
+    @Override
+    public List<Donor> searchByBloodGroup(String bloodGroup) {
+        return select(donor -> InMemoryDatabase.equalsIgnoreCase(donor.getBloodGroup(), bloodGroup));
+    }
+
+    @Override
+    public List<Donor> searchCompatibleDonors(String recipientBloodGroup) {
+        return searchMatchingDonors(recipientBloodGroup, null);
+    }
+
+    @Override
+    public List<Donor> searchMatchingDonors(String recipientBloodGroup, String organ) {
+        List<String> groups = BloodCompatibility.compatibleDonorGroups(recipientBloodGroup);
+        boolean anyOrgan = organ == null || organ.isEmpty();
+        List<Donor> result = select(donor -> {
+            if (!anyOrgan && !InMemoryDatabase.containsIgnoreCase(donor.getOrgan(), organ)) {
+                return false;
+            }
+            for (String group : groups) {
+                if (InMemoryDatabase.equalsIgnoreCase(donor.getBloodGroup(), group)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+        result.sort(DonorSearchIndex.byPreference(recipientBloodGroup));
+        return result;
+    }
+
+    @Override
+    public List<Donor> searchNearestDonors(String recipientBloodGroup, String organ, double latitude, double longitude,
+                                           double radiusKm, int limit) {
+        Predicate<Donor> filter = DonorSearchIndex.nearestFilter(recipientBloodGroup, organ);
+        List<Donor> result = select(donor -> donor.getLatitude() != null && donor.getLongitude() != null &&
+                                             distanceKm(donor, latitude, longitude) <= radiusKm &&
+                                             filter.test(donor));
+        result.sort(Comparator.comparingDouble((Donor donor) -> distanceKm(donor, latitude, longitude))
+                              .thenComparing(DonorSearchIndex.NEWEST_FIRST));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, Math.max(0, limit))) : result;
+    }
+
+    static double distanceKm(Donor donor, double latitude, double longitude) {
+        return Gazetteer.distanceKm(latitude, longitude, donor.getLatitude(), donor.getLongitude());
+    }
+
+    @Override
+    public List<Donor> searchDonors(DonorCriteria criteria) {
+        List<Donor> result = select(criteria::matches);
+        if (criteria.hasNear()) {
+            result.sort(Comparator.comparingDouble(criteria::distanceKm).thenComparing(DonorSearchIndex.NEWEST_FIRST));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Donor> searchByOrgan(String organ) {
+        return select(donor -> InMemoryDatabase.containsIgnoreCase(donor.getOrgan(), organ));
+    }
+
+    @Override
+    public List<Donor> searchByLocation(String location) {
+        return select(donor -> InMemoryDatabase.containsIgnoreCase(donor.getLocation(), location));
+    }
+
+    @Override
+    public boolean updateDonor(Donor donor) {
+        Donor existing = db.donors.get(donor.getDonorId());
+        if (existing == null) {
+            return false;
+        }
+        Gazetteer.getInstance().resolve(donor);
+        Donor updated = copy(donor);
+        updated.setUserId(existing.getUserId());
+        updated.setRegistrationDate(existing.getRegistrationDate());
+        return db.donors.replace(donor.getDonorId(), existing, updated);
+    }
+
+    @Override
+    public int countDonors(DonorFilter filter) {
+        int count = 0;
+        for (Donor donor : db.donors.values()) {
+            if (filter.matches(donor)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Map<String, Integer> countDonorsByFacet(DonorFilter filter, String attribute) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Donor donor : db.donors.values()) {
+            if (filter.matches(donor)) {
+                for (String value : DonorFilter.valuesOf(attribute, donor)) {
+                    counts.merge(value, 1, Integer::sum);
+                }
+            }
+        }
+        return DonorFilter.sortFacet(attribute, counts);
+    }
+
+    @Override
+    public List<Donor> filterDonors(DonorFilter filter) {
+        return select(filter::matches);
+    }
+
+    @Override
+    public int getDonorCount() {
+        return db.donors.size();
+    }
+
+    /**
+     * Scan donors newest first, copying the ones that match
+     */
+    private List<Donor> select(Predicate<Donor> filter) {
+        List<Donor> result = new ArrayList<>();
+        for (Donor donor : db.donors.descendingMap().values()) {
+            if (filter.test(donor)) {
+                result.add(copy(donor));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Page<Donor> getDonorsPage(String pageToken, int pageSize) {
+        return InMemoryDatabase.page(db.donors, donor -> true, InMemoryDonorRepository::copy,
+                                     pageToken, pageSize, Donor::getRegistrationDate, Donor::getDonorId);
+    }
+
+    static Donor copy(Donor donor) {
+        Donor copy = new Donor(
+            donor.getDonorId(),
+            donor.getUserId(),
+            donor.getName(),
+            donor.getAge(),
+            donor.getGender(),
+            donor.getBloodGroup(),
+            donor.getOrgan(),
+            donor.getContact(),
+            donor.getLocation()
+        );
+        copy.setRegistrationDate(donor.getRegistrationDate());
+        copy.setLatitude(donor.getLatitude());
+        copy.setLongitude(donor.getLongitude());
+        return copy;
+    }
+}
@@ -0,0 +1,102 @@
+package database;
+
+import models.Donor;
+import models.DonorMatch;
+import models.Recipient;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory MatchRepository for load and latency testing without MySQL
+ * Matches of deleted donors or recipients are skipped when read, as the
+ * foreign keys of donor_match would have removed them.
+ */
+public class InMemoryMatchRepository implements MatchRepository {
+    private final InMemoryDatabase db;
+
+    public InMemoryMatchRepository(InMemoryDatabase db) {
+        this.db = db;
+    }
+
+    @Override
+    public boolean replaceAllMatches(List<DonorMatch> matches, Timestamp matchedAt) {
+        Map<Integer, List<DonorMatch>> byRecipient = new HashMap<>();
+        for (DonorMatch match : matches) {
+            DonorMatch stored = new DonorMatch(match.getRecipientId(), match.getMatchRank(), match.getDonorId(),
+                                               match.getPriority(), match.getDistanceKm());
+            stored.setMatchedAt(matchedAt);
+            byRecipient.computeIfAbsent(match.getRecipientId(), k -> new ArrayList<>()).add(stored);
+        }
+        for (List<DonorMatch> list : byRecipient.values()) {
+            list.sort(Comparator.comparingInt(DonorMatch::getMatchRank));
+        }
+        synchronized (db) {
+            db.matchesByRecipient = byRecipient;
+            db.lastMatchTime = matches.isEmpty() ? null : matchedAt;
+        }
+        return true;
+    }
+
+    @Override
+    public List<Donor> getMatchedDonors(int recipientId) {
+        List<Donor> donors = new ArrayList<>();
+        for (DonorMatch match : db.matchesByRecipient.getOrDefault(recipientId, Collections.emptyList())) {
+            Donor donor = db.donors.get(match.getDonorId());
+            if (donor != null) {
+                donors.add(InMemoryDonorRepository.copy(donor));
+            }
+        }
+        return donors;
+    }
+
+    @Override
+    public List<DonorMatch> getTopMatches(int limit) {
+        List<DonorMatch> matches = new ArrayList<>();
+        for (List<DonorMatch> list : db.matchesByRecipient.values()) {
+            for (DonorMatch stored : list) {
+                Recipient recipient = db.recipients.get(stored.getRecipientId());
+                Donor donor = db.donors.get(stored.getDonorId());
+                if (recipient == null || donor == null) {
+                    continue;
+                }
+                DonorMatch match = new DonorMatch(stored.getRecipientId(), stored.getMatchRank(),
+                                                  stored.getDonorId(), stored.getPriority(), stored.getDistanceKm());
+                match.setMatchedAt(stored.getMatchedAt());
+                match.setRecipientName(recipient.getName());
+                match.setUrgencyLevel(recipient.getUrgencyLevel());
+                match.setDonorName(donor.getName());
+                match.setDonorBloodGroup(donor.getBloodGroup());
+                match.setDonorAge(donor.getAge());
+                matches.add(match);
+            }
+        }
+
+        // Same order as MatchDAO: priority, distance (unknown last), donor age
+        matches.sort(Comparator.comparingInt(DonorMatch::getPriority)
+            .thenComparing(DonorMatch::getDistanceKm, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingInt(DonorMatch::getDonorAge)
+            .thenComparingInt(DonorMatch::getRecipientId)
+            .thenComparingInt(DonorMatch::getMatchRank));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    @Override
+    public Timestamp getLastMatchTime() {
+        return db.lastMatchTime;
+    }
+
+    @Override
+    public int getMatchCount() {
+        int count = 0;
+        for (List<DonorMatch> list : db.matchesByRecipient.values()) {
+            count += list.size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,115 @@
+package database;
+
+import models.Recipient;
+import utils.Gazetteer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory RecipientRepository for load and latency testing without MySQL
+ */
+public class InMemoryRecipientRepository implements RecipientRepository {
+    private final InMemoryDatabase db;
+
+    public InMemoryRecipientRepository(InMemoryDatabase db) {
+        this.db = db;
+    }
+
+    @Override
+    public boolean registerRecipient(Recipient recipient) {
+        int recipientId = db.recipientIds.incrementAndGet();
+        Gazetteer.getInstance().resolve(recipient);
+        recipient.setRecipientId(recipientId);
+        recipient.setRegistrationDate(InMemoryDatabase.now());
+        if (recipient.getUrgencyLevel() == null) {
+            recipient.setUrgencyLevel("NORMAL");
+        }
+        db.recipients.put(recipientId, copy(recipient));
+        return true;
+    }
+
+    @Override
+    public Recipient getRecipientByUserId(int userId) {
+        for (Recipient recipient : db.recipients.values()) {
+            if (recipient.getUserId() == userId) {
+                return copy(recipient);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Recipient getRecipientById(int recipientId) {
+        Recipient recipient = db.recipients.get(recipientId);
+        return recipient != null ? copy(recipient) : null;
+    }
+
+    @Override
+    public boolean updateRecipient(Recipient recipient) {
+        Recipient existing = db.recipients.get(recipient.getRecipientId());
+        if (existing == null) {
+            return false;
+        }
+        Gazetteer.getInstance().resolve(recipient);
+        Recipient updated = copy(recipient);
+        updated.setUserId(existing.getUserId());
+        updated.setRegistrationDate(existing.getRegistrationDate());
+        return db.recipients.replace(recipient.getRecipientId(), existing, updated);
+    }
+
+    @Override
+    public List<Recipient> getAllRecipients() {
+        List<Recipient> result = new ArrayList<>();
+        for (Recipient recipient : db.recipients.descendingMap().values()) {
+            result.add(copy(recipient));
+        }
+        return result;
+    }
+
+    @Override
+    public int forEachRecipient(Consumer<? super Recipient> action) {
+        int count = 0;
+        for (Recipient recipient : db.recipients.descendingMap().values()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return -1; // Cancelled
+            }
+            action.accept(copy(recipient));
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public Stream<Recipient> streamAllRecipients() {
+        return db.recipients.descendingMap().values().stream().map(InMemoryRecipientRepository::copy);
+    }
+
+    @Override
+    public Page<Recipient> getRecipientsPage(String pageToken, int pageSize) {
+        return InMemoryDatabase.page(db.recipients, recipient -> true, InMemoryRecipientRepository::copy,
+                                     pageToken, pageSize, Recipient::getRegistrationDate,
+                                     Recipient::getRecipientId);
+    }
+
+    static Recipient copy(Recipient source) {
+        Recipient recipient = new Recipient();
+        recipient.setRecipientId(source.getRecipientId());
+        recipient.setUserId(source.getUserId());
+        recipient.setName(source.getName());
+        recipient.setAge(source.getAge());
+        recipient.setGender(source.getGender());
+        recipient.setBloodGroupNeeded(source.getBloodGroupNeeded());
+        recipient.setOrganNeeded(source.getOrganNeeded());
+        recipient.setContact(source.getContact());
+        recipient.setLocation(source.getLocation());
+        recipient.setUrgencyLevel(source.getUrgencyLevel());
+        recipient.setMedicalCondition(source.getMedicalCondition());
+        recipient.setRegistrationDate(source.getRegistrationDate());
+        recipient.setLatitude(source.getLatitude());
+        recipient.setLongitude(source.getLongitude());
+        return recipient;
+    }
+}
@@ -0,0 +1,67 @@
+package database;
+
+import models.Donor;
+import models.Receptionist;
+import models.User;
+
+/**
+ * In-memory UserRepository for load and latency testing without MySQL
+ */
+public class InMemoryUserRepository implements UserRepository {
+    private final InMemoryDatabase db;
+
+    public InMemoryUserRepository(InMemoryDatabase db) {
+        this.db = db;
+    }
+
+    @Override
+    public User authenticateUser(String username, String password) {
+        Integer userId = username != null ? db.userIdsByUsername.get(username) : null;
+        if (userId == null) {
+            return null;
+        }
+        User stored = db.users.get(userId);
+        if (stored == null || !stored.getPassword().equals(password)) {
+            return null;
+        }
+
+        // Return appropriate user object based on role
+        if ("DONOR".equals(stored.getRole())) {
+            Donor donor = new Donor(username, password);
+            donor.setUserId(userId);
+            return donor;
+        } else if ("RECEPTIONIST".equals(stored.getRole())) {
+            Receptionist receptionist = new Receptionist(username, password);
+            receptionist.setUserId(userId);
+            return receptionist;
+        } else {
+            return new User(userId, username, password, stored.getRole());
+        }
+    }
+
+    @Override
+    public int registerUser(User user) {
+        int userId = db.userIds.incrementAndGet();
+        // Username is UNIQUE in the schema
+        if (db.userIdsByUsername.putIfAbsent(user.getUsername(), userId) != null) {
+            return -1;
+        }
+        db.users.put(userId, new User(userId, user.getUsername(), user.getPassword(), user.getRole()));
+        return userId;
+    }
+
+    @Override
+    public boolean usernameExists(String username) {
+        return db.userIdsByUsername.containsKey(username);
+    }
+
+    @Override
+    public boolean updatePassword(int userId, String newPassword) {
+        User user = db.users.get(userId);
+        if (user == null) {
+            return false;
+        }
+        db.users.put(userId, new User(userId, user.getUsername(), newPassword, user.getRole()));
+        return true;
+    }
+}
@@ -0,0 +1,223 @@
+package database;
+
+import models.Donor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * DonorRepository decorator that answers searches from a DonorSearchIndex
+ * The index is built from the underlying repository in the background at
+ * startup and updated after each successful registerDonor/updateDonor.
+ * Until the first build finishes, searches go to the underlying repository.
+ * With search.index.refreshMs set, the index is rebuilt periodically to
+ * pick up rows written by other application instances or bulk imports.
+ */
+public class IndexedDonorRepository implements DonorRepository {
+    private final DonorRepository delegate;
+    private volatile DonorSearchIndex index;
+
+    // Updates made while a rebuild is running, replayed onto the new index; guarded by this
+    private List<Donor> pendingUpdates;
+    private ScheduledExecutorService refresher;
+
+    public IndexedDonorRepository(DonorRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Build the index in the background and schedule refreshes
+     * @param refreshMs Rebuild interval, or 0 to build only once
+     */
+    public synchronized void start(long refreshMs) {
+        if (refresher != null) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "donor-search-index");
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.execute(this::rebuild);
+        if (refreshMs > 0) {
+            refresher.scheduleWithFixedDelay(this::rebuild, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop background refreshes
+     */
+    public synchronized void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    /**
+     * Whether searches are currently answered from the index
+     */
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Rebuild the index from the underlying repository
+     * @return true if the new index was installed
+     */
+    public boolean rebuild() {
+        synchronized (this) {
+            pendingUpdates = new ArrayList<>();
+        }
+
+        long start = System.currentTimeMillis();
+        DonorSearchIndex fresh = new DonorSearchIndex();
+        int count = delegate.forEachDonor(fresh::put);
+
+        synchronized (this) {
+            List<Donor> updates = pendingUpdates;
+            pendingUpdates = null;
+            if (count < 0) {
+                System.err.println("Donor search index rebuild failed; keeping the previous index");
+                return false;
+            }
+            for (Donor donor : updates) {
+                fresh.put(donor);
+            }
+            index = fresh;
+        }
+        System.out.println("Donor search index built: " + count + " donors in " +
+                           (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    private synchronized void indexUpdate(Donor donor) {
+        if (index != null) {
+            index.put(donor);
+        }
+        if (pendingUpdates != null) {
+            pendingUpdates.add(donor);
+        }
+    }
+
+    @Override
+    public boolean registerDonor(Donor donor, int userId) {
+        if (!delegate.registerDonor(donor, userId)) {
+            return false;
+        }
+        // The delegate set the generated ID and registration date
+        indexUpdate(donor);
+        return true;
+    }
+
+    @Override
+    public boolean updateDonor(Donor donor) {
+        if (!delegate.updateDonor(donor)) {
+            return false;
+        }
+        indexUpdate(donor);
+        return true;
+    }
+
+    @Override
+    public List<Donor> searchByBloodGroup(String bloodGroup) {
+        DonorSearchIndex current = index;
+        return current != null ? current.searchByBloodGroup(bloodGroup) : delegate.searchByBloodGroup(bloodGroup);
+    }
+
+    @Override
+    public List<Donor> searchCompatibleDonors(String recipientBloodGroup) {
+        DonorSearchIndex current = index;
+        return current != null ? current.searchCompatible(recipientBloodGroup)
+                               : delegate.searchCompatibleDonors(recipientBloodGroup);
+    }
+
+    @Override
+    public List<Donor> searchMatchingDonors(String recipientBloodGroup, String organ) {
+        DonorSearchIndex current = index;
+        return current != null ? current.searchMatching(recipientBloodGroup, organ)
+                               : delegate.searchMatchingDonors(recipientBloodGroup, organ);
+    }
+
+    @Override
+    public List<Donor> searchNearestDonors(String recipientBloodGroup, String organ, double latitude, double longitude,
+                                           double radiusKm, int limit) {
+        DonorSearchIndex current = index;
+        return current != null
+            ? current.searchNearest(recipientBloodGroup, organ, latitude, longitude, radiusKm, limit)
+            : delegate.searchNearestDonors(recipientBloodGroup, organ, latitude, longitude, radiusKm, limit);
+    }
+
+    @Override
+    public List<Donor> searchDonors(DonorCriteria criteria) {
+        DonorSearchIndex current = index;
+        return current != null ? current.search(criteria) : delegate.searchDonors(criteria);
+    }
+
+    @Override
+    public List<Donor> searchByOrgan(String organ) {
+        DonorSearchIndex current = index;
+        return current != null ? current.searchByOrgan(organ) : delegate.searchByOrgan(organ);
+    }
+
+    @Override
+    public List<Donor> searchByLocation(String location) {
+        DonorSearchIndex current = index;
+        return current != null ? current.searchByLocation(location) : delegate.searchByLocation(location);
+    }
+
+    @Override
+    public int countDonors(DonorFilter filter) {
+        DonorSearchIndex current = index;
+        return current != null ? current.count(filter) : delegate.countDonors(filter);
+    }
+
+    @Override
+    public Map<String, Integer> countDonorsByFacet(DonorFilter filter, String attribute) {
+        DonorSearchIndex current = index;
+        return current != null ? current.countByFacet(filter, attribute)
+                               : delegate.countDonorsByFacet(filter, attribute);
+    }
+
+    @Override
+    public List<Donor> filterDonors(DonorFilter filter) {
+        DonorSearchIndex current = index;
+        return current != null ? current.filter(filter) : delegate.filterDonors(filter);
+    }
+
+    @Override
+    public Donor getDonorByUserId(int userId) {
+        return delegate.getDonorByUserId(userId);
+    }
+
+    @Override
+    public List<Donor> getAllDonors() {
+        return delegate.getAllDonors();
+    }
+
+    @Override
+    public int forEachDonor(Consumer<? super Donor> action) {
+        return delegate.forEachDonor(action);
+    }
+
+    @Override
+    public Stream<Donor> streamAllDonors() {
+        return delegate.streamAllDonors();
+    }
+
+    @Override
+    public Page<Donor> getDonorsPage(String pageToken, int pageSize) {
+        return delegate.getDonorsPage(pageToken, pageSize);
+    }
+
+    @Override
+    public int getDonorCount() {
+        return delegate.getDonorCount();
+    }
+}
@@ -0,0 +1,144 @@
+package database;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+
+/**
+ * Binary min-heap that also maps each element's ID to its slot
+ * Besides O(log n) insertion, the position map lets an element be replaced
+ * or removed by ID in O(log n) instead of a linear search. top(k) reads the
+ * k smallest elements in O(k log k) without removing anything.
+ *
+ * Not thread-safe; AllocationService guards it with its lock.
+ */
+class IndexedHeap<T> {
+    private final Comparator<? super T> order;
+    private final ToIntFunction<? super T> idOf;
+    private final List<T> heap = new ArrayList<>();
+    private final Map<Integer, Integer> positions = new HashMap<>();
+
+    IndexedHeap(Comparator<? super T> order, ToIntFunction<? super T> idOf) {
+        this.order = order;
+        this.idOf = idOf;
+    }
+
+    int size() {
+        return heap.size();
+    }
+
+    boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    T peek() {
+        return heap.isEmpty() ? null : heap.get(0);
+    }
+
+    T get(int id) {
+        Integer slot = positions.get(id);
+        return slot == null ? null : heap.get(slot);
+    }
+
+    /**
+     * Insert an element, replacing any element with the same ID
+     */
+    void put(T element) {
+        int id = idOf.applyAsInt(element);
+        Integer slot = positions.get(id);
+        if (slot == null) {
+            heap.add(element);
+            positions.put(id, heap.size() - 1);
+            siftUp(heap.size() - 1);
+        } else {
+            heap.set(slot, element);
+            siftDown(siftUp(slot));
+        }
+    }
+
+    /**
+     * Remove the element with an ID
+     * @return Removed element, or null if there was none
+     */
+    T remove(int id) {
+        Integer slot = positions.remove(id);
+        if (slot == null) {
+            return null;
+        }
+        T removed = heap.get(slot);
+        T last = heap.remove(heap.size() - 1);
+        if (slot < heap.size()) {
+            heap.set(slot, last);
+            positions.put(idOf.applyAsInt(last), slot);
+            siftDown(siftUp(slot));
+        }
+        return removed;
+    }
+
+    /**
+     * The k smallest elements, smallest first
+     */
+    List<T> top(int k) {
+        List<T> result = new ArrayList<>(Math.min(k, heap.size()));
+        if (heap.isEmpty() || k <= 0) {
+            return result;
+        }
+        // Frontier of slots whose parents have been taken; each child is at least its parent
+        PriorityQueue<Integer> frontier = new PriorityQueue<>((a, b) -> order.compare(heap.get(a), heap.get(b)));
+        frontier.add(0);
+        while (!frontier.isEmpty() && result.size() < k) {
+            int slot = frontier.poll();
+            result.add(heap.get(slot));
+            for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < heap.size(); child++) {
+                frontier.add(child);
+            }
+        }
+        return result;
+    }
+
+    private int siftUp(int slot) {
+        T element = heap.get(slot);
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (order.compare(element, heap.get(parent)) >= 0) {
+                break;
+            }
+            move(parent, slot);
+            slot = parent;
+        }
+        place(element, slot);
+        return slot;
+    }
+
+    private void siftDown(int slot) {
+        T element = heap.get(slot);
+        int half = heap.size() / 2;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < heap.size() && order.compare(heap.get(child + 1), heap.get(child)) < 0) {
+                child++;
+            }
+            if (order.compare(element, heap.get(child)) <= 0) {
+                break;
+            }
+            move(child, slot);
+            slot = child;
+        }
+        place(element, slot);
+    }
+
+    private void move(int from, int to) {
+        T element = heap.get(from);
+        heap.set(to, element);
+        positions.put(idOf.applyAsInt(element), to);
+    }
+
+    private void place(T element, int slot) {
+        heap.set(slot, element);
+        positions.put(idOf.applyAsInt(element), slot);
+    }
+}
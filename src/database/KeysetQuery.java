@@ -0,0 +1,98 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Newest-first listing read one page at a time with keyset (seek) pagination
+ * Rows are ordered by (date column DESC, id column DESC). A page token
+ * becomes a WHERE condition on that key, so with an index on
+ * ([filter columns,] date, id) every page is one index range scan of
+ * pageSize + 1 rows, however deep into the listing it is.
+ */
+class KeysetQuery<T> {
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final String firstPageSql;
+    private final String nextPageSql;
+    private final String previousPageSql;
+    private final StreamingQuery.RowMapper<T> mapper;
+    private final Function<T, Timestamp> date;
+    private final ToIntFunction<T> id;
+
+    /**
+     * @param table Table to list
+     * @param filter Extra WHERE condition with ? placeholders, or null
+     * @param dateColumn Timestamp column ordering the listing
+     * @param idColumn Primary key column breaking ties between equal timestamps
+     */
+    KeysetQuery(String table, String filter, String dateColumn, String idColumn,
+                StreamingQuery.RowMapper<T> mapper, Function<T, Timestamp> date, ToIntFunction<T> id) {
+        String select = "SELECT * FROM " + table + " WHERE " + (filter != null ? filter + " AND " : "");
+        String newestFirst = " ORDER BY " + dateColumn + " DESC, " + idColumn + " DESC LIMIT ?";
+        String oldestFirst = " ORDER BY " + dateColumn + " ASC, " + idColumn + " ASC LIMIT ?";
+
+        this.firstPageSql = "SELECT * FROM " + table + (filter != null ? " WHERE " + filter : "") + newestFirst;
+        this.nextPageSql = select + after(dateColumn, idColumn) + newestFirst;
+        this.previousPageSql = select + "(" + dateColumn + " > ? OR (" + dateColumn + " = ? AND " +
+                               idColumn + " > ?))" + oldestFirst;
+        this.mapper = mapper;
+        this.date = date;
+        this.id = id;
+    }
+
+    /**
+     * Fetch one page
+     * @param token Page token, or null for the first (newest) page
+     * @param pageSize Rows per page
+     * @param filterParams Values for the filter placeholders
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    Page<T> fetch(String token, int pageSize, Object... filterParams) throws SQLException {
+        Page.Cursor cursor = Page.Cursor.parse(token);
+        int size = clampPageSize(pageSize);
+        String sql = cursor == null ? firstPageSql : cursor.forward ? nextPageSql : previousPageSql;
+
+        List<T> rows = new ArrayList<>(size + 1);
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int param = 1;
+            for (Object value : filterParams) {
+                pstmt.setObject(param++, value);
+            }
+            if (cursor != null) {
+                pstmt.setTimestamp(param++, cursor.date);
+                pstmt.setTimestamp(param++, cursor.date);
+                pstmt.setInt(param++, cursor.id);
+            }
+            pstmt.setInt(param, size + 1); // One row of look-ahead tells whether there is another page
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+            }
+        }
+        return Page.of(rows, cursor, size, date, id);
+    }
+
+    /**
+     * Condition for the rows after a forward cursor's key, newest first
+     * Its placeholders take the cursor's date, its date again and its id.
+     */
+    static String after(String dateColumn, String idColumn) {
+        return "(" + dateColumn + " < ? OR (" + dateColumn + " = ? AND " + idColumn + " < ?))";
+    }
+
+    static int clampPageSize(int pageSize) {
+        return Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+}
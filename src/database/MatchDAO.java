@@ -0,0 +1,211 @@
+package database;
+
+import models.Donor;
+import models.DonorMatch;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object for the donor_match table
+ * A run is stored in one transaction: the old matches are deleted and the
+ * new ones inserted with multi-row INSERTs of INSERT_CHUNK rows, so readers
+ * see either the previous run or the new one, never a mix.
+ */
+public class MatchDAO implements MatchRepository {
+
+    private static final String[] COLUMNS = {
+        "recipient_id", "match_rank", "donor_id", "priority", "distance_km", "matched_at"
+    };
+    private static final int INSERT_CHUNK = 1000;
+
+    /**
+     * Replace every stored match with the results of a new run
+     * @param matches Matches of the run
+     * @param matchedAt Time the run started
+     * @return true if successful, false otherwise
+     */
+    @Override
+    public boolean replaceAllMatches(List<DonorMatch> matches, Timestamp matchedAt) {
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getWriteConnection();
+            if (conn == null) {
+                throw new SQLException("No database connection available");
+            }
+            conn.setAutoCommit(false);
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM donor_match");
+            }
+
+            String fullChunk = insertQuery(INSERT_CHUNK);
+            for (int from = 0; from < matches.size(); from += INSERT_CHUNK) {
+                int to = Math.min(from + INSERT_CHUNK, matches.size());
+                String query = to - from == INSERT_CHUNK ? fullChunk : insertQuery(to - from);
+                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                    int param = 1;
+                    for (DonorMatch match : matches.subList(from, to)) {
+                        pstmt.setInt(param++, match.getRecipientId());
+                        pstmt.setInt(param++, match.getMatchRank());
+                        pstmt.setInt(param++, match.getDonorId());
+                        pstmt.setInt(param++, match.getPriority());
+                        pstmt.setObject(param++, match.getDistanceKm(), Types.DOUBLE);
+                        pstmt.setTimestamp(param++, matchedAt);
+                    }
+                    pstmt.executeUpdate();
+                }
+            }
+
+            conn.commit();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error storing matches: " + e.getMessage());
+            e.printStackTrace();
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        } finally {
+            // Reset auto-commit and return the connection to the pool
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the donors matched to a recipient by the last run, best match first
+     * @param recipientId Recipient ID
+     * @return List of donors
+     */
+    @Override
+    public List<Donor> getMatchedDonors(int recipientId) {
+        List<Donor> donors = new ArrayList<>();
+        String query = "SELECT d.* FROM donor_match m JOIN donor d ON d.donor_id = m.donor_id " +
+                      "WHERE m.recipient_id = ? ORDER BY m.match_rank";
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setInt(1, recipientId);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                donors.add(DonorDAO.extractDonorFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting matched donors: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return donors;
+    }
+
+    /**
+     * Get the best matches across all recipients
+     * @param limit Maximum number of matches
+     * @return List of matches with names filled in
+     */
+    @Override
+    public List<DonorMatch> getTopMatches(int limit) {
+        List<DonorMatch> matches = new ArrayList<>();
+        String query = "SELECT m.*, r.name AS recipient_name, r.urgency_level, d.name AS donor_name, " +
+                      "d.blood_group, d.age FROM donor_match m " +
+                      "JOIN recipient r ON r.recipient_id = m.recipient_id " +
+                      "JOIN donor d ON d.donor_id = m.donor_id " +
+                      "ORDER BY m.priority, m.distance_km IS NULL, m.distance_km, d.age, m.recipient_id, " +
+                      "m.match_rank LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setInt(1, limit);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                DonorMatch match = new DonorMatch(
+                    rs.getInt("recipient_id"),
+                    rs.getInt("match_rank"),
+                    rs.getInt("donor_id"),
+                    rs.getInt("priority"),
+                    rs.getObject("distance_km", Double.class)
+                );
+                match.setMatchedAt(rs.getTimestamp("matched_at"));
+                match.setRecipientName(rs.getString("recipient_name"));
+                match.setUrgencyLevel(rs.getString("urgency_level"));
+                match.setDonorName(rs.getString("donor_name"));
+                match.setDonorBloodGroup(rs.getString("blood_group"));
+                match.setDonorAge(rs.getInt("age"));
+                matches.add(match);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting top matches: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return matches;
+    }
+
+    /**
+     * Get the time of the last stored run
+     * @return Timestamp, or null if no run has been stored
+     */
+    @Override
+    public Timestamp getLastMatchTime() {
+        String query = "SELECT MAX(matched_at) FROM donor_match";
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            if (rs.next()) {
+                return rs.getTimestamp(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting last match time: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the number of stored matches
+     * @return Match count
+     */
+    @Override
+    public int getMatchCount() {
+        String query = "SELECT COUNT(*) FROM donor_match";
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting match count: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return 0;
+    }
+
+    private static String insertQuery(int rows) {
+        return "INSERT INTO donor_match (" + String.join(", ", COLUMNS) + ") VALUES " +
+               MultiRowSql.placeholders(COLUMNS.length, rows);
+    }
+}
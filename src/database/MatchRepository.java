@@ -0,0 +1,48 @@
+package database;
+
+import models.Donor;
+import models.DonorMatch;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Repository interface for the stored results of the batch matchmaking job
+ * Implemented by MatchDAO (MySQL) and InMemoryMatchRepository
+ */
+public interface MatchRepository {
+    /**
+     * Replace every stored match with the results of a new run
+     * @param matches Matches of the run
+     * @param matchedAt Time the run started
+     * @return true if successful, false otherwise (the previous matches are kept)
+     */
+    boolean replaceAllMatches(List<DonorMatch> matches, Timestamp matchedAt);
+
+    /**
+     * Get the donors matched to a recipient by the last run, best match first
+     * @param recipientId Recipient ID
+     * @return List of donors (empty if the recipient had no match or no run has finished)
+     */
+    List<Donor> getMatchedDonors(int recipientId);
+
+    /**
+     * Get the best matches across all recipients: most urgent recipient
+     * first, then nearest donor, then younger donor
+     * @param limit Maximum number of matches
+     * @return List of matches with names filled in
+     */
+    List<DonorMatch> getTopMatches(int limit);
+
+    /**
+     * Get the time of the last stored run
+     * @return Timestamp, or null if no run has been stored
+     */
+    Timestamp getLastMatchTime();
+
+    /**
+     * Get the number of stored matches
+     * @return Match count
+     */
+    int getMatchCount();
+}
@@ -0,0 +1,426 @@
+package database;
+
+import models.Donor;
+import models.DonorMatch;
+import models.Recipient;
+import utils.BloodCompatibility;
+import utils.Gazetteer;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Matches every recipient against every compatible donor and stores the
+ * results in the match repository
+ * Donors and recipients are read once. Recipients are partitioned by
+ * (blood group needed, organ needed); each partition finds its candidate
+ * donors once, puts them on a GeoGrid and then ranks donors for its
+ * recipients in parallel on a ForkJoinPool. A recipient gets up to
+ * match.maxPerRecipient donors: the nearest within match.radiusKm first,
+ * then donors whose location is unknown, with the younger donor first at
+ * equal distance. Recipients whose own location is unknown get the
+ * youngest candidates. Each match carries the recipient's urgency as its
+ * priority, so getTopMatches lists CRITICAL recipients first.
+ *
+ * Only one run executes at a time.
+ */
+public class MatchmakingJob {
+    // Urgency levels in priority order; anything else ranks after NORMAL
+    private static final String[] URGENCY_LEVELS = {"CRITICAL", "URGENT", "NORMAL"};
+
+    private static final double GRID_CELL_DEGREES = 0.25;
+    // Recipients a ForkJoin task matches itself instead of splitting further
+    private static final int SPLIT_THRESHOLD = 256;
+
+    private static final AtomicBoolean RUNNING = new AtomicBoolean();
+
+    /**
+     * Younger donor first, then newest registration first
+     */
+    static final Comparator<Donor> YOUNGEST_FIRST =
+        Comparator.comparingInt(Donor::getAge).thenComparing(DonorSearchIndex.NEWEST_FIRST);
+
+    private final DonorRepository donorRepository;
+    private final RecipientRepository recipientRepository;
+    private final MatchRepository matchRepository;
+    private final int maxPerRecipient;
+    private final double radiusKm;
+    private final int parallelism;
+
+    /**
+     * Outcome of a run
+     */
+    public static class Result {
+        private final int recipients;
+        private final int partitions;
+        private final int matches;
+        private final long matchMillis;
+        private final long elapsedMillis;
+        private final boolean stored;
+
+        Result(int recipients, int partitions, int matches, long matchMillis, long elapsedMillis, boolean stored) {
+            this.recipients = recipients;
+            this.partitions = partitions;
+            this.matches = matches;
+            this.matchMillis = matchMillis;
+            this.elapsedMillis = elapsedMillis;
+            this.stored = stored;
+        }
+
+        public int getRecipients() {
+            return recipients;
+        }
+
+        public int getPartitions() {
+            return partitions;
+        }
+
+        public int getMatches() {
+            return matches;
+        }
+
+        /**
+         * @return Time spent ranking donors, excluding reading and storing
+         */
+        public long getMatchMillis() {
+            return matchMillis;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * @return false if the matches could not be stored (the previous run is kept)
+         */
+        public boolean isStored() {
+            return stored;
+        }
+
+        /**
+         * Recipients matched per second over the whole run
+         */
+        public long getRecipientsPerSecond() {
+            return elapsedMillis > 0 ? recipients * 1000L / elapsedMillis : recipients;
+        }
+
+        @Override
+        public String toString() {
+            long matchRate = matchMillis > 0 ? recipients * 1000L / matchMillis : recipients;
+            return matches + " matches for " + recipients + " recipients in " + partitions + " partitions, " +
+                   elapsedMillis + " ms (" + getRecipientsPerSecond() + " recipients/s; ranking " + matchMillis +
+                   " ms, " + matchRate + " recipients/s)" + (stored ? "" : " - NOT STORED");
+        }
+    }
+
+    /**
+     * Recipients with the same blood group and organ need, and their candidate donors
+     */
+    private static class Partition {
+        final int groupIndex;
+        final String organ;
+        final List<Recipient> recipients = new ArrayList<>();
+        final List<double[]> points = new ArrayList<>();
+        GeoGrid grid;
+        List<Donor> unplaced; // Candidates without coordinates, youngest first
+        List<Donor> all;      // Every candidate, youngest first
+
+        Partition(int groupIndex, String organ) {
+            this.groupIndex = groupIndex;
+            this.organ = organ;
+        }
+    }
+
+    public MatchmakingJob(DonorRepository donorRepository, RecipientRepository recipientRepository,
+                          MatchRepository matchRepository) {
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        this.donorRepository = donorRepository;
+        this.recipientRepository = recipientRepository;
+        this.matchRepository = matchRepository;
+        this.maxPerRecipient = Math.max(1, config.getInt("match.maxPerRecipient", 20));
+        this.radiusKm = Math.max(1, config.getInt("match.radiusKm", 500));
+        this.parallelism = Math.max(1, config.getInt("match.parallelism",
+                                                     Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Job over the configured repositories
+     */
+    public static MatchmakingJob create() {
+        return new MatchmakingJob(DAOFactory.getDonorRepository(), DAOFactory.getRecipientRepository(),
+                                  DAOFactory.getMatchRepository());
+    }
+
+    /**
+     * Match all recipients and replace the stored matches
+     * @return Run statistics
+     * @throws IllegalStateException if another run is in progress or the donors
+     *         or recipients could not be read
+     */
+    public Result run() {
+        if (!RUNNING.compareAndSet(false, true)) {
+            throw new IllegalStateException("A matchmaking run is already in progress");
+        }
+        try {
+            return runExclusive();
+        } finally {
+            RUNNING.set(false);
+        }
+    }
+
+    private Result runExclusive() {
+        long start = System.currentTimeMillis();
+        Timestamp matchedAt = new Timestamp(start);
+
+        // Candidate pools by donor blood group
+        List<List<Donor>> donorsByGroup = new ArrayList<>();
+        for (int i = 0; i < BloodCompatibility.GROUPS.length; i++) {
+            donorsByGroup.add(new ArrayList<>());
+        }
+        int donorCount = donorRepository.forEachDonor(donor -> {
+            int group = BloodCompatibility.indexOf(donor.getBloodGroup());
+            if (group >= 0) {
+                donorsByGroup.get(group).add(donor);
+            }
+        });
+        if (donorCount < 0) {
+            throw new IllegalStateException("Could not read donors");
+        }
+
+        Map<String, Partition> partitionsByKey = new LinkedHashMap<>();
+        int[] recipientCount = {0};
+        int read = recipientRepository.forEachRecipient(recipient -> {
+            recipientCount[0]++;
+            int group = BloodCompatibility.indexOf(recipient.getBloodGroupNeeded());
+            if (group < 0) {
+                return; // No donor is known to be compatible
+            }
+            String organ = recipient.getOrganNeeded() == null ? ""
+                         : recipient.getOrganNeeded().trim().toLowerCase(Locale.ROOT);
+            Partition partition = partitionsByKey.computeIfAbsent(group + "|" + organ,
+                                                                  k -> new Partition(group, organ));
+            partition.recipients.add(recipient);
+            partition.points.add(locate(recipient));
+        });
+        if (read < 0) {
+            throw new IllegalStateException("Could not read recipients");
+        }
+
+        List<Partition> partitions = new ArrayList<>(partitionsByKey.values());
+        long matchStart = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<DonorMatch> matches;
+        try {
+            matches = pool.invoke(new RunTask(partitions, donorsByGroup));
+        } finally {
+            pool.shutdown();
+        }
+        long matchMillis = System.currentTimeMillis() - matchStart;
+
+        // Primary key order, so the inserts append to the clustered index
+        matches.sort(Comparator.comparingInt(DonorMatch::getRecipientId).thenComparingInt(DonorMatch::getMatchRank));
+        boolean stored = matchRepository.replaceAllMatches(matches, matchedAt);
+
+        return new Result(recipientCount[0], partitions.size(), matches.size(), matchMillis,
+                          System.currentTimeMillis() - start, stored);
+    }
+
+    /**
+     * Runs every partition in parallel and concatenates their matches
+     */
+    @SuppressWarnings("serial")
+    private class RunTask extends RecursiveTask<List<DonorMatch>> {
+        private final List<Partition> partitions;
+        private final List<List<Donor>> donorsByGroup;
+
+        RunTask(List<Partition> partitions, List<List<Donor>> donorsByGroup) {
+            this.partitions = partitions;
+            this.donorsByGroup = donorsByGroup;
+        }
+
+        @Override
+        protected List<DonorMatch> compute() {
+            List<PartitionTask> tasks = new ArrayList<>();
+            for (Partition partition : partitions) {
+                tasks.add(new PartitionTask(partition, donorsByGroup));
+            }
+            invokeAll(tasks);
+
+            List<DonorMatch> matches = new ArrayList<>();
+            for (PartitionTask task : tasks) {
+                matches.addAll(task.join());
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * Collects one partition's candidates, then matches its recipients
+     */
+    @SuppressWarnings("serial")
+    private class PartitionTask extends RecursiveTask<List<DonorMatch>> {
+        private final Partition partition;
+        private final List<List<Donor>> donorsByGroup;
+
+        PartitionTask(Partition partition, List<List<Donor>> donorsByGroup) {
+            this.partition = partition;
+            this.donorsByGroup = donorsByGroup;
+        }
+
+        @Override
+        protected List<DonorMatch> compute() {
+            String recipientGroup = BloodCompatibility.GROUPS[partition.groupIndex];
+            GeoGrid grid = new GeoGrid(GRID_CELL_DEGREES, YOUNGEST_FIRST);
+            List<Donor> unplaced = new ArrayList<>();
+            List<Donor> all = new ArrayList<>();
+            for (String donorGroup : BloodCompatibility.compatibleDonorGroups(recipientGroup)) {
+                for (Donor donor : donorsByGroup.get(BloodCompatibility.indexOf(donorGroup))) {
+                    if (!partition.organ.isEmpty() &&
+                        !InMemoryDatabase.containsIgnoreCase(donor.getOrgan(), partition.organ)) {
+                        continue;
+                    }
+                    all.add(donor);
+                    if (donor.getLatitude() != null && donor.getLongitude() != null) {
+                        grid.add(donor);
+                    } else {
+                        unplaced.add(donor);
+                    }
+                }
+            }
+            all.sort(YOUNGEST_FIRST);
+            unplaced.sort(YOUNGEST_FIRST);
+            partition.grid = grid;
+            partition.all = all;
+            partition.unplaced = unplaced;
+
+            if (all.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return new MatchTask(partition, 0, partition.recipients.size()).compute();
+        }
+    }
+
+    /**
+     * Matches a range of a partition's recipients, splitting large ranges in two
+     */
+    @SuppressWarnings("serial")
+    private class MatchTask extends RecursiveTask<List<DonorMatch>> {
+        private final Partition partition;
+        private final int from;
+        private final int to;
+
+        MatchTask(Partition partition, int from, int to) {
+            this.partition = partition;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<DonorMatch> compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                MatchTask left = new MatchTask(partition, from, middle);
+                left.fork();
+                List<DonorMatch> matches = new MatchTask(partition, middle, to).compute();
+                matches.addAll(left.join());
+                return matches;
+            }
+
+            List<DonorMatch> matches = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                match(partition, partition.recipients.get(i), partition.points.get(i), matches);
+            }
+            return matches;
+        }
+    }
+
+    private void match(Partition partition, Recipient recipient, double[] point, List<DonorMatch> matches) {
+        int priority = priority(recipient.getUrgencyLevel());
+        int rank = 0;
+        if (point == null) {
+            for (Donor donor : partition.all.subList(0, Math.min(maxPerRecipient, partition.all.size()))) {
+                matches.add(new DonorMatch(recipient.getRecipientId(), ++rank, donor.getDonorId(), priority, null));
+            }
+            return;
+        }
+
+        // The grid is only read here, after its PartitionTask has built it
+        for (GeoGrid.Hit hit : partition.grid.nearest(point[0], point[1], radiusKm, maxPerRecipient, d -> true)) {
+            matches.add(new DonorMatch(recipient.getRecipientId(), ++rank, hit.donor.getDonorId(), priority,
+                                       hit.distanceKm));
+        }
+        for (Donor donor : partition.unplaced) {
+            if (rank == maxPerRecipient) {
+                break;
+            }
+            matches.add(new DonorMatch(recipient.getRecipientId(), ++rank, donor.getDonorId(), priority, null));
+        }
+    }
+
+    /**
+     * Recipient coordinates, looking up rows stored before coordinates were kept
+     */
+    private static double[] locate(Recipient recipient) {
+        if (recipient.getLatitude() != null && recipient.getLongitude() != null) {
+            return new double[] {recipient.getLatitude(), recipient.getLongitude()};
+        }
+        return Gazetteer.getInstance().locate(recipient.getLocation());
+    }
+
+    /**
+     * Priority of an urgency level: 0 for CRITICAL, 1 for URGENT, 2 for NORMAL, 3 otherwise
+     */
+    public static int priority(String urgencyLevel) {
+        for (int i = 0; i < URGENCY_LEVELS.length; i++) {
+            if (URGENCY_LEVELS[i].equalsIgnoreCase(urgencyLevel)) {
+                return i;
+            }
+        }
+        return URGENCY_LEVELS.length;
+    }
+
+    /**
+     * Run the job every day at a local time on a daemon thread
+     * @param dailyAt Time of day as HH:mm
+     * @return Scheduler (shut it down to stop the runs)
+     * @throws java.time.format.DateTimeParseException if the time is malformed
+     */
+    public static ScheduledExecutorService scheduleDaily(String dailyAt) {
+        LocalTime at = LocalTime.parse(dailyAt.trim());
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().atTime(at);
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "matchmaking-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                System.out.println("Nightly matchmaking: " + create().run());
+            } catch (RuntimeException e) {
+                // Keep the schedule alive for tomorrow's run
+                System.err.println("Nightly matchmaking failed: " + e.getMessage());
+            }
+        }, Duration.between(now, next).toMillis(), TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+        return scheduler;
+    }
+}
@@ -0,0 +1,278 @@
+package database;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies numbered SQL migration scripts at startup
+ * Scripts live in db.migrations.dir (default db/migrations) and are named
+ * V<number>__<description>.sql. Each applied script is recorded in the
+ * schema_version table with a SHA-256 checksum; startup fails if an
+ * applied script has since been edited, so every installation runs the
+ * same DDL. Pending scripts are applied in version order.
+ */
+public class MigrationRunner {
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String LOCK_NAME = "blood_organ_donation.migrate";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    // MySQL error 1061 (ER_DUP_KEYNAME): the index already exists
+    private static final int ER_DUP_KEYNAME = 1061;
+    // MySQL error 1060 (ER_DUP_FIELDNAME): the column already exists
+    private static final int ER_DUP_FIELDNAME = 1060;
+    // CREATE INDEX or CREATE UNIQUE INDEX
+    private static final Pattern CREATE_INDEX = Pattern.compile("CREATE\\s+(UNIQUE\\s+)?INDEX\\b",
+                                                                Pattern.CASE_INSENSITIVE);
+
+    private final File directory;
+
+    /**
+     * A migration script on disk
+     */
+    private static class Script {
+        final int version;
+        final String description;
+        final File file;
+        final String checksum;
+        final List<String> statements;
+
+        Script(int version, String description, File file, String checksum, List<String> statements) {
+            this.version = version;
+            this.description = description;
+            this.file = file;
+            this.checksum = checksum;
+            this.statements = statements;
+        }
+    }
+
+    public MigrationRunner(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Migrate the configured database, printing progress and errors
+     * @return true if the schema is up to date (or migrations are disabled)
+     */
+    public static boolean migrate() {
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        if (!config.getBoolean("db.migrate", true)) {
+            return true;
+        }
+
+        MigrationRunner runner = new MigrationRunner(new File(config.getString("db.migrations.dir", "db/migrations")));
+        try {
+            int applied = runner.run();
+            if (applied > 0) {
+                System.out.println("✓ Applied " + applied + " schema migration(s)");
+            }
+            return true;
+        } catch (IOException | SQLException e) {
+            System.err.println("✗ Schema migration failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Verify applied scripts and apply pending ones
+     * @return Number of scripts applied
+     * @throws SQLException if a script fails or an applied script was modified
+     */
+    public int run() throws IOException, SQLException {
+        TreeMap<Integer, Script> scripts = loadScripts();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection available");
+            }
+
+            // Serialize concurrent application instances starting at the same time
+            lock(conn);
+            try {
+                createVersionTable(conn);
+                Map<Integer, String> applied = loadAppliedVersions(conn);
+
+                for (Map.Entry<Integer, String> entry : applied.entrySet()) {
+                    Script script = scripts.get(entry.getKey());
+                    if (script != null && !script.checksum.equals(entry.getValue())) {
+                        throw new SQLException("Migration " + script.file.getName() +
+                                               " was modified after it was applied (checksum mismatch)");
+                    }
+                }
+
+                int count = 0;
+                for (Script script : scripts.values()) {
+                    if (!applied.containsKey(script.version)) {
+                        apply(conn, script);
+                        count++;
+                    }
+                }
+                return count;
+            } finally {
+                unlock(conn);
+            }
+        }
+    }
+
+    private TreeMap<Integer, Script> loadScripts() throws IOException {
+        TreeMap<Integer, Script> scripts = new TreeMap<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            throw new IOException("Migration directory not found: " + directory.getPath());
+        }
+
+        for (File file : files) {
+            Matcher matcher = SCRIPT_NAME.matcher(file.getName());
+            if (!matcher.matches()) {
+                continue;
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            // Line endings are normalized so a checkout on Windows has the same checksum
+            String sql = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).replace("\r\n", "\n");
+            Script previous = scripts.put(version, new Script(version, matcher.group(2).replace('_', ' '),
+                                                              file, sha256(sql), splitStatements(sql)));
+            if (previous != null) {
+                throw new IOException("Duplicate migration version " + version + ": " +
+                                      previous.file.getName() + " and " + file.getName());
+            }
+        }
+        return scripts;
+    }
+
+    private static void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                         "version INT PRIMARY KEY, " +
+                         "description VARCHAR(200) NOT NULL, " +
+                         "script VARCHAR(200) NOT NULL, " +
+                         "checksum CHAR(64) NOT NULL, " +
+                         "execution_ms INT NOT NULL, " +
+                         "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    private static Map<Integer, String> loadAppliedVersions(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT version, checksum FROM schema_version");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Run one script and record it
+     * MySQL commits DDL implicitly, so a script is not atomic; a failed
+     * script is left unrecorded and its error reported for manual repair.
+     */
+    private static void apply(Connection conn, Script script) throws SQLException {
+        System.out.println("Applying migration " + script.file.getName() + " ...");
+        long start = System.currentTimeMillis();
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : script.statements) {
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    // Databases created from database_schema.sql already have the indexes and columns
+                    if (e.getErrorCode() == ER_DUP_KEYNAME && CREATE_INDEX.matcher(sql).lookingAt()) {
+                        continue;
+                    }
+                    if (e.getErrorCode() == ER_DUP_FIELDNAME && sql.regionMatches(true, 0, "ALTER TABLE", 0, 11)) {
+                        continue;
+                    }
+                    throw new SQLException(script.file.getName() + ": " + e.getMessage() +
+                                           "\nStatement: " + sql, e.getSQLState(), e.getErrorCode(), e);
+                }
+            }
+        }
+
+        String insert = "INSERT INTO schema_version (version, description, script, checksum, execution_ms) " +
+                        "VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(insert)) {
+            pstmt.setInt(1, script.version);
+            pstmt.setString(2, script.description);
+            pstmt.setString(3, script.file.getName());
+            pstmt.setString(4, script.checksum);
+            pstmt.setInt(5, (int) (System.currentTimeMillis() - start));
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static void lock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another instance to finish migrating");
+                }
+            }
+        }
+    }
+
+    private static void unlock(Connection conn) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.executeQuery().close();
+        } catch (SQLException e) {
+            System.err.println("Error releasing migration lock: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Split a script into statements on semicolons at the end of a line
+     * Lines starting with "--" are comments.
+     */
+    static List<String> splitStatements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+
+        for (String line : sql.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String statement = current.toString().trim();
+                statements.add(statement.substring(0, statement.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
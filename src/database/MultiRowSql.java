@@ -0,0 +1,70 @@
+package database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Placeholder lists for multi-row INSERTs and IN lists, shared by the DAOs
+ * Statements whose size depends on the data are built in a few fixed
+ * sizes, so they share server-side prepared statements and StatementCache
+ * entries instead of one new statement per size.
+ */
+final class MultiRowSql {
+    // Row counts that variable-size statements are built for, largest first
+    private static final int[] STATEMENT_ROWS = {128, 32, 8, 1};
+
+    // Private constructor to prevent instantiation
+    private MultiRowSql() {
+    }
+
+    /**
+     * Split rows into chunks of 128, 32, 8 or 1 rows, largest first
+     * Statements built per chunk then come in at most four sizes, whatever
+     * the batch size.
+     * @return Chunk sizes adding up to rows
+     */
+    static List<Integer> chunkSizes(int rows) {
+        List<Integer> sizes = new ArrayList<>();
+        int remaining = rows;
+        for (int size : STATEMENT_ROWS) {
+            while (remaining >= size) {
+                sizes.add(size);
+                remaining -= size;
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Round the number of values of an IN list up to 1, 8, 32 or a multiple of 128
+     * The caller fills the list by repeating a value, which does not change the result.
+     */
+    static int paddedSize(int values) {
+        for (int i = STATEMENT_ROWS.length - 1; i > 0; i--) {
+            if (values <= STATEMENT_ROWS[i]) {
+                return STATEMENT_ROWS[i];
+            }
+        }
+        return (values + STATEMENT_ROWS[0] - 1) / STATEMENT_ROWS[0] * STATEMENT_ROWS[0];
+    }
+
+    /**
+     * Build "(?, ?), (?, ?)" style placeholder groups
+     */
+    static String placeholders(int columns, int rows) {
+        StringBuilder group = new StringBuilder("(");
+        for (int c = 0; c < columns; c++) {
+            group.append(c == 0 ? "?" : ", ?");
+        }
+        group.append(")");
+
+        StringBuilder sql = new StringBuilder();
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) {
+                sql.append(", ");
+            }
+            sql.append(group);
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package database;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * One page of a newest-first listing
+ * Pages are addressed by opaque tokens that encode the (date, id) key of
+ * the row at the page boundary, so fetching the next page seeks straight
+ * to that key instead of skipping over all the rows before it.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextToken;
+    private final String previousToken;
+
+    Page(List<T> items, String nextToken, String previousToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextToken = nextToken;
+        this.previousToken = previousToken;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return Token for the following (older) page, or null on the last page
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    /**
+     * @return Token for the preceding (newer) page, or null on the first page
+     */
+    public String getPreviousToken() {
+        return previousToken;
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    public boolean hasPrevious() {
+        return previousToken != null;
+    }
+
+    /**
+     * Build a page from rows fetched with one row of look-ahead
+     * @param rows Up to pageSize + 1 rows, in the order they were read
+     *             (newest first when paging forward, oldest first when paging back)
+     * @param cursor Cursor the rows were fetched after, or null for the first page
+     */
+    static <T> Page<T> of(List<T> rows, Cursor cursor, int pageSize,
+                          Function<T, Timestamp> date, ToIntFunction<T> id) {
+        boolean more = rows.size() > pageSize;
+        List<T> items = new ArrayList<>(more ? rows.subList(0, pageSize) : rows);
+        boolean forward = cursor == null || cursor.forward;
+        if (!forward) {
+            Collections.reverse(items);
+        }
+        if (items.isEmpty()) {
+            return new Page<>(items, null, null);
+        }
+
+        T first = items.get(0);
+        T last = items.get(items.size() - 1);
+        boolean hasNext = forward ? more : true;
+        boolean hasPrevious = forward ? cursor != null : more;
+        return new Page<>(items,
+            hasNext ? new Cursor(true, date.apply(last), id.applyAsInt(last)).toToken() : null,
+            hasPrevious ? new Cursor(false, date.apply(first), id.applyAsInt(first)).toToken() : null);
+    }
+
+    /**
+     * Decoded page token: the boundary row's key and the direction to read from it
+     */
+    static class Cursor {
+        final boolean forward;
+        final Timestamp date;
+        final int id;
+
+        Cursor(boolean forward, Timestamp date, int id) {
+            this.forward = forward;
+            this.date = date != null ? date : new Timestamp(0);
+            this.id = id;
+        }
+
+        /**
+         * @param token Token from getNextToken()/getPreviousToken(), or null for the first page
+         * @return Decoded cursor, or null for the first page
+         * @throws IllegalArgumentException if the token is malformed
+         */
+        static Cursor parse(String token) {
+            if (token == null || token.isEmpty()) {
+                return null;
+            }
+            String[] parts = token.split(":");
+            if (parts.length != 3 || !(parts[0].equals("n") || parts[0].equals("p"))) {
+                throw new IllegalArgumentException("Invalid page token: " + token);
+            }
+            try {
+                return new Cursor(parts[0].equals("n"), new Timestamp(Long.parseLong(parts[1])),
+                                  Integer.parseInt(parts[2]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid page token: " + token, e);
+            }
+        }
+
+        String toToken() {
+            return (forward ? "n" : "p") + ":" + date.getTime() + ":" + id;
+        }
+
+        /**
+         * Whether a row with the given key belongs on the far side of this cursor
+         */
+        boolean admits(Timestamp rowDate, int rowId) {
+            int cmp = compare(rowDate, rowId, date, id);
+            return forward ? cmp < 0 : cmp > 0;
+        }
+
+        static int compare(Timestamp date1, int id1, Timestamp date2, int id2) {
+            long t1 = date1 != null ? date1.getTime() : 0L;
+            long t2 = date2 != null ? date2.getTime() : 0L;
+            int cmp = Long.compare(t1, t2);
+            return cmp != 0 ? cmp : Integer.compare(id1, id2);
+        }
+    }
+}
@@ -1,25 +1,41 @@
 package database;
 
 import models.Recipient;
+import utils.Gazetteer;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Recipient operations
  */
-public class RecipientDAO {
+public class RecipientDAO implements RecipientRepository {
+    
+    private static final StreamingQuery<Recipient> ALL_RECIPIENTS_QUERY =
+        new StreamingQuery<>("SELECT * FROM recipient ORDER BY registration_date DESC",
+                             RecipientDAO::extractRecipientFromResultSet);
+    
+    private static final KeysetQuery<Recipient> RECIPIENTS_PAGE_QUERY =
+        new KeysetQuery<>("recipient", null, "registration_date", "recipient_id",
+                          RecipientDAO::extractRecipientFromResultSet,
+                          Recipient::getRegistrationDate, Recipient::getRecipientId);
     
     /**
      * Register a new recipient
+     * On success the generated recipient ID and the registration date are set on the recipient.
      */
-    public static boolean registerRecipient(Recipient recipient) {
+    @Override
+    public boolean registerRecipient(Recipient recipient) {
         String sql = "INSERT INTO recipient (user_id, name, age, gender, blood_group_needed, " +
-                     "organ_needed, contact, location, urgency_level, medical_condition) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                     "organ_needed, contact, location, urgency_level, medical_condition, latitude, longitude, " +
+                     "registration_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Gazetteer.getInstance().resolve(recipient);
+        Timestamp registrationDate = new Timestamp(System.currentTimeMillis());
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setInt(1, recipient.getUserId());
             pstmt.setString(2, recipient.getName());
@@ -31,9 +47,20 @@ public class RecipientDAO {
             pstmt.setString(8, recipient.getLocation());
             pstmt.setString(9, recipient.getUrgencyLevel());
             pstmt.setString(10, recipient.getMedicalCondition());
+            pstmt.setObject(11, recipient.getLatitude(), Types.DOUBLE);
+            pstmt.setObject(12, recipient.getLongitude(), Types.DOUBLE);
+            pstmt.setTimestamp(13, registrationDate);
             
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            if (rowsAffected > 0) {
+                ResultSet rs = pstmt.getGeneratedKeys();
+                if (rs.next()) {
+                    recipient.setRecipientId(rs.getInt(1));
+                    recipient.setRegistrationDate(registrationDate);
+                    return true;
+                }
+            }
+            return false;
             
         } catch (SQLException e) {
             System.err.println("Error registering recipient: " + e.getMessage());
@@ -45,10 +72,11 @@ public class RecipientDAO {
     /**
      * Get recipient by user ID
      */
-    public static Recipient getRecipientByUserId(int userId) {
+    @Override
+    public Recipient getRecipientByUserId(int userId) {
         String sql = "SELECT * FROM recipient WHERE user_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -69,10 +97,11 @@ public class RecipientDAO {
     /**
      * Get recipient by recipient ID
      */
-    public static Recipient getRecipientById(int recipientId) {
+    @Override
+    public Recipient getRecipientById(int recipientId) {
         String sql = "SELECT * FROM recipient WHERE recipient_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, recipientId);
@@ -93,13 +122,15 @@ public class RecipientDAO {
     /**
      * Update recipient information
      */
-    public static boolean updateRecipient(Recipient recipient) {
+    @Override
+    public boolean updateRecipient(Recipient recipient) {
         String sql = "UPDATE recipient SET name = ?, age = ?, gender = ?, " +
                      "blood_group_needed = ?, organ_needed = ?, contact = ?, " +
-                     "location = ?, urgency_level = ?, medical_condition = ? " +
+                     "location = ?, urgency_level = ?, medical_condition = ?, latitude = ?, longitude = ? " +
                      "WHERE recipient_id = ?";
+        Gazetteer.getInstance().resolve(recipient);
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, recipient.getName());
@@ -111,7 +142,9 @@ public class RecipientDAO {
             pstmt.setString(7, recipient.getLocation());
             pstmt.setString(8, recipient.getUrgencyLevel());
             pstmt.setString(9, recipient.getMedicalCondition());
-            pstmt.setInt(10, recipient.getRecipientId());
+            pstmt.setObject(10, recipient.getLatitude(), Types.DOUBLE);
+            pstmt.setObject(11, recipient.getLongitude(), Types.DOUBLE);
+            pstmt.setInt(12, recipient.getRecipientId());
             
             int rowsAffected = pstmt.executeUpdate();
             return rowsAffected > 0;
@@ -126,13 +159,14 @@ public class RecipientDAO {
     /**
      * Get all recipients
      */
-    public static List<Recipient> getAllRecipients() {
+    @Override
+    public List<Recipient> getAllRecipients() {
         List<Recipient> recipients = new ArrayList<>();
         String sql = "SELECT * FROM recipient ORDER BY registration_date DESC";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             
             while (rs.next()) {
                 recipients.add(extractRecipientFromResultSet(rs));
@@ -146,6 +180,53 @@ public class RecipientDAO {
         return recipients;
     }
     
+    /**
+     * Pass every recipient to an action through a forward-only cursor
+     * @param action Called once per recipient, newest registration first
+     * @return Number of recipients passed to the action, or -1 if the read failed
+     */
+    @Override
+    public int forEachRecipient(Consumer<? super Recipient> action) {
+        try {
+            return ALL_RECIPIENTS_QUERY.forEach(action);
+        } catch (SQLException e) {
+            System.err.println("Error streaming recipients: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    /**
+     * Stream every recipient through a forward-only cursor
+     * @return Lazy stream of recipients; close it to release the connection
+     */
+    @Override
+    public Stream<Recipient> streamAllRecipients() {
+        try {
+            return ALL_RECIPIENTS_QUERY.stream();
+        } catch (SQLException e) {
+            System.err.println("Error streaming recipients: " + e.getMessage());
+            e.printStackTrace();
+            return Stream.empty();
+        }
+    }
+    
+    /**
+     * Get one page of recipients, newest registration first
+     * @param pageToken Token from a previous page, or null for the first page
+     * @param pageSize Recipients per page
+     * @return Page of recipients (empty if the query failed)
+     */
+    @Override
+    public Page<Recipient> getRecipientsPage(String pageToken, int pageSize) {
+        try {
+            return RECIPIENTS_PAGE_QUERY.fetch(pageToken, pageSize);
+        } catch (SQLException e) {
+            System.err.println("Error fetching recipients page: " + e.getMessage());
+            e.printStackTrace();
+            return new Page<>(new ArrayList<>(), null, null);
+        }
+    }
+    
     /**
      * Helper method to extract Recipient object from ResultSet
      */
@@ -162,6 +243,9 @@ public class RecipientDAO {
         recipient.setLocation(rs.getString("location"));
         recipient.setUrgencyLevel(rs.getString("urgency_level"));
         recipient.setMedicalCondition(rs.getString("medical_condition"));
+        recipient.setRegistrationDate(rs.getTimestamp("registration_date"));
+        recipient.setLatitude(rs.getObject("latitude", Double.class));
+        recipient.setLongitude(rs.getObject("longitude", Double.class));
         return recipient;
     }
 }
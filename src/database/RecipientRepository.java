@@ -0,0 +1,72 @@
+package database;
+
+import models.Recipient;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Repository interface for recipient storage
+ * Implemented by RecipientDAO (MySQL) and InMemoryRecipientRepository
+ */
+public interface RecipientRepository {
+    /**
+     * Register a new recipient
+     * On success the recipient's ID and registration date are set to the stored values.
+     * @param recipient Recipient with user ID set
+     * @return true if successful, false otherwise
+     */
+    boolean registerRecipient(Recipient recipient);
+
+    /**
+     * Get recipient by user ID
+     * @param userId User ID
+     * @return Recipient if found, null otherwise
+     */
+    Recipient getRecipientByUserId(int userId);
+
+    /**
+     * Get recipient by recipient ID
+     * @param recipientId Recipient ID
+     * @return Recipient if found, null otherwise
+     */
+    Recipient getRecipientById(int recipientId);
+
+    /**
+     * Update recipient information
+     * @param recipient Recipient with updated information
+     * @return true if successful, false otherwise
+     */
+    boolean updateRecipient(Recipient recipient);
+
+    /**
+     * Get all recipients, newest registration first
+     * @return List of all recipients
+     */
+    List<Recipient> getAllRecipients();
+
+    /**
+     * Pass every recipient to an action without loading the whole table
+     * @param action Called once per recipient, newest registration first
+     * @return Number of recipients passed to the action, or -1 if the read failed
+     */
+    int forEachRecipient(Consumer<? super Recipient> action);
+
+    /**
+     * Stream every recipient, newest registration first
+     * The stream holds a database connection until it is closed, so use
+     * try-with-resources.
+     * @return Lazy stream of recipients (empty if the read failed)
+     */
+    Stream<Recipient> streamAllRecipients();
+
+    /**
+     * Get one page of recipients, newest registration first
+     * @param pageToken Token from a previous page, or null for the first page
+     * @param pageSize Recipients per page
+     * @return Page with next/previous tokens
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    Page<Recipient> getRecipientsPage(String pageToken, int pageSize);
+}
@@ -0,0 +1,197 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for one physical connection
+ * Statements are keyed by SQL text (plus the generated-keys flag).
+ * Closing a statement handed out by the cache clears its parameters
+ * and puts it back instead of deallocating it on the server.
+ */
+public class StatementCache {
+    private final Connection physical;
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    /**
+     * @param physical Connection that owns the statements
+     * @param maxSize Maximum number of idle statements kept
+     * @param hits Shared hit counter (owned by the pool)
+     * @param misses Shared miss counter (owned by the pool)
+     */
+    public StatementCache(Connection physical, int maxSize, AtomicLong hits, AtomicLong misses) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get a prepared statement for the SQL, reusing a cached one when possible
+     * @param owner Connection proxy reported by getConnection() on the statement
+     * @param sql SQL text
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS
+     * @return Statement proxy whose close() returns it to the cache
+     */
+    public PreparedStatement prepare(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys + ":" + sql;
+        PreparedStatement statement;
+
+        // Checked-out statements are removed so a nested prepare of the same SQL gets its own
+        synchronized (statements) {
+            statement = statements.remove(key);
+        }
+
+        if (statement != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        }
+        ActiveStatements.opened(owner, statement);
+
+        return (PreparedStatement) Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class },
+            new CachedStatementHandler(owner, key, statement));
+    }
+
+    /**
+     * Close every cached statement (called when the physical connection is discarded)
+     */
+    public void clear() {
+        synchronized (statements) {
+            for (PreparedStatement statement : statements.values()) {
+                closeQuietly(statement);
+            }
+            statements.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (statements) {
+            return statements.size();
+        }
+    }
+
+    private void giveBack(String key, PreparedStatement statement) {
+        try {
+            statement.clearParameters();
+            statement.clearBatch();
+        } catch (SQLException e) {
+            closeQuietly(statement);
+            return;
+        }
+
+        PreparedStatement displaced;
+        synchronized (statements) {
+            displaced = statements.put(key, statement);
+        }
+        if (displaced != null && displaced != statement) {
+            closeQuietly(displaced);
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // Statement is being dropped anyway
+        }
+    }
+
+    /**
+     * Proxy handler for one use of a cached statement
+     */
+    private class CachedStatementHandler implements InvocationHandler {
+        private final Connection owner;
+        private final String key;
+        private final PreparedStatement statement;
+        private final List<ResultSet> openResults = new ArrayList<>();
+        private boolean returned = false;
+
+        CachedStatementHandler(Connection owner, String key, PreparedStatement statement) {
+            this.owner = owner;
+            this.key = key;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+
+            if ("close".equals(methodName)) {
+                if (!returned) {
+                    returned = true;
+                    for (ResultSet rs : openResults) {
+                        try {
+                            rs.close();
+                        } catch (SQLException e) {
+                            // Result set already unusable
+                        }
+                    }
+                    openResults.clear();
+                    ActiveStatements.closed(owner, statement);
+                    giveBack(key, statement);
+                }
+                return null;
+            }
+            if ("isClosed".equals(methodName)) {
+                return returned || statement.isClosed();
+            }
+            if ("equals".equals(methodName)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(methodName)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(methodName)) {
+                return "Cached " + statement;
+            }
+            if ("getConnection".equals(methodName)) {
+                // Never leak the physical connection past the pool proxy
+                return owner;
+            }
+            if (returned) {
+                throw new SQLException("Statement has already been closed");
+            }
+
+            Object result;
+            try {
+                result = method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            if (result instanceof ResultSet) {
+                openResults.add((ResultSet) result);
+            }
+            return result;
+        }
+    }
+}
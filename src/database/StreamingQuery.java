@@ -0,0 +1,129 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read-only query whose rows are handed over one at a time
+ * The statement is opened forward-only and read-only with the configured
+ * db.streamFetchSize, so the driver holds one fetch batch in memory no
+ * matter how large the table is. Statements opened this way bypass the
+ * StatementCache but are tracked by ActiveStatements, so cancelling an
+ * async call stops the cursor on the server.
+ */
+class StreamingQuery<T> {
+
+    /**
+     * Maps the current row of a result set to an object
+     */
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private final String sql;
+    private final RowMapper<T> mapper;
+
+    StreamingQuery(String sql, RowMapper<T> mapper) {
+        this.sql = sql;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Run the query and pass each row to the action
+     * @return Number of rows passed to the action
+     * @throws SQLException if the query fails or the thread is interrupted
+     */
+    int forEach(Consumer<? super T> action) throws SQLException {
+        try (Connection conn = openConnection();
+             PreparedStatement pstmt = prepare(conn);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            int count = 0;
+            while (rs.next()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new SQLException("Query cancelled");
+                }
+                action.accept(mapper.map(rs));
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Run the query and return its rows as a lazy stream
+     * The stream holds a pooled connection until it is closed, so callers
+     * must use try-with-resources. Read errors surface as IllegalStateException.
+     */
+    Stream<T> stream() throws SQLException {
+        Connection conn = openConnection();
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            pstmt = prepare(conn);
+            rs = pstmt.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(rs, pstmt, conn);
+            throw e;
+        }
+
+        ResultSet cursor = rs;
+        PreparedStatement statement = pstmt;
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error reading query results: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> closeQuietly(cursor, statement, conn));
+    }
+
+    private static Connection openConnection() throws SQLException {
+        Connection conn = DatabaseConnection.getReadConnection();
+        if (conn == null) {
+            throw new SQLException("No database connection available");
+        }
+        return conn;
+    }
+
+    private PreparedStatement prepare(Connection conn) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(DatabaseConfig.getInstance().getStreamFetchSize());
+        return pstmt;
+    }
+
+    private static void closeQuietly(ResultSet rs, PreparedStatement pstmt, Connection conn) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (pstmt != null) {
+                pstmt.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error closing streaming query: " + e.getMessage());
+        } finally {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
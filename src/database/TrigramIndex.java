@@ -0,0 +1,104 @@
+package database;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Map from string keys to values with substring lookup on the keys
+ * Every key is broken into its three-character grams and each gram keeps the
+ * set of keys containing it. A substring query of three or more characters
+ * takes the smallest gram set among its own grams and only checks those
+ * keys, instead of testing every key with contains(). Shorter queries fall
+ * back to checking every key.
+ *
+ * Not thread-safe; DonorSearchIndex guards it with its read/write lock.
+ */
+class TrigramIndex<V> {
+    private static final int GRAM = 3;
+
+    private final Map<String, V> values = new HashMap<>();
+    private final Map<String, Set<String>> keysByGram = new HashMap<>();
+
+    V get(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Value for a key, creating and indexing it if absent
+     */
+    V computeIfAbsent(String key, Function<String, V> factory) {
+        V value = values.get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            values.put(key, value);
+            for (String gram : grams(key)) {
+                keysByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+            }
+        }
+        return value;
+    }
+
+    void remove(String key) {
+        if (values.remove(key) == null) {
+            return;
+        }
+        for (String gram : grams(key)) {
+            Set<String> keys = keysByGram.get(gram);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByGram.remove(gram);
+                }
+            }
+        }
+    }
+
+    int size() {
+        return values.size();
+    }
+
+    /**
+     * Values of all keys containing the text
+     */
+    List<V> findContaining(String text) {
+        List<V> result = new ArrayList<>();
+        if (text.length() < GRAM) {
+            for (Map.Entry<String, V> entry : values.entrySet()) {
+                if (entry.getKey().contains(text)) {
+                    result.add(entry.getValue());
+                }
+            }
+            return result;
+        }
+
+        Set<String> candidates = null;
+        for (String gram : grams(text)) {
+            Set<String> keys = keysByGram.get(gram);
+            if (keys == null) {
+                return result;
+            }
+            if (candidates == null || keys.size() < candidates.size()) {
+                candidates = keys;
+            }
+        }
+        for (String key : candidates) {
+            if (key.contains(text)) {
+                result.add(values.get(key));
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
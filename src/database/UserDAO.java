@@ -10,7 +10,7 @@ import java.sql.*;
  * Data Access Object for User operations
  * Handles CRUD operations for user authentication
  */
-public class UserDAO {
+public class UserDAO implements UserRepository {
     
     /**
      * Authenticate user login
@@ -18,10 +18,11 @@ public class UserDAO {
      * @param password Password
      * @return User object if authentication successful, null otherwise
      */
+    @Override
     public User authenticateUser(String username, String password) {
         String query = "SELECT * FROM user WHERE username = ? AND password = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
             
             pstmt.setString(1, username);
@@ -59,10 +60,11 @@ public class UserDAO {
      * @param user User object to register
      * @return Generated user ID if successful, -1 otherwise
      */
+    @Override
     public int registerUser(User user) {
         String query = "INSERT INTO user (username, password, role) VALUES (?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection();
              PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setString(1, user.getUsername());
@@ -90,10 +92,11 @@ public class UserDAO {
      * @param username Username to check
      * @return true if exists, false otherwise
      */
+    @Override
     public boolean usernameExists(String username) {
         String query = "SELECT COUNT(*) FROM user WHERE username = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
             
             pstmt.setString(1, username);
@@ -116,10 +119,11 @@ public class UserDAO {
      * @param newPassword New password
      * @return true if successful, false otherwise
      */
+    @Override
     public boolean updatePassword(int userId, String newPassword) {
         String query = "UPDATE user SET password = ? WHERE user_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
             
             pstmt.setString(1, newPassword);
@@ -0,0 +1,39 @@
+package database;
+
+import models.User;
+
+/**
+ * Repository interface for user accounts
+ * Implemented by UserDAO (MySQL) and InMemoryUserRepository
+ */
+public interface UserRepository {
+    /**
+     * Authenticate user login
+     * @param username Username
+     * @param password Password
+     * @return User object (Donor/Receptionist/User by role) if successful, null otherwise
+     */
+    User authenticateUser(String username, String password);
+
+    /**
+     * Register a new user
+     * @param user User object to register
+     * @return Generated user ID if successful, -1 otherwise
+     */
+    int registerUser(User user);
+
+    /**
+     * Check if username already exists
+     * @param username Username to check
+     * @return true if exists, false otherwise
+     */
+    boolean usernameExists(String username);
+
+    /**
+     * Update user password
+     * @param userId User ID
+     * @param newPassword New password
+     * @return true if successful, false otherwise
+     */
+    boolean updatePassword(int userId, String newPassword);
+}
@@ -0,0 +1,76 @@
+package database;
+
+import models.Donation;
+
+import java.math.BigDecimal;
+
+/**
+ * Decoded donation window token: where the window after a previous one starts
+ * The last row of the previous window, as a Page.Cursor, lets the next
+ * window be read with a seek on (donation_date, donation_id) instead of
+ * skipping every newer row. The token also carries the row offset and
+ * running total just past that row, and the request's donation count when
+ * it was read: a token only applies while the count is unchanged, as an
+ * added donation may move every row after it.
+ */
+class WindowCursor {
+    final int offset;
+    final int donationCount;
+    final BigDecimal runningTotal;
+    final Page.Cursor cursor;
+
+    WindowCursor(int offset, int donationCount, BigDecimal runningTotal, Page.Cursor cursor) {
+        this.offset = offset;
+        this.donationCount = donationCount;
+        this.runningTotal = runningTotal;
+        this.cursor = cursor;
+    }
+
+    /**
+     * Token for the window after the given one
+     * @param offset Row offset just past the window
+     * @param last Last (oldest) donation of the window
+     * @param runningTotal Running total of the donation after it
+     * @return Token, or null if the window is empty or ends the request's donations
+     */
+    static String next(int offset, int donationCount, Donation last, BigDecimal runningTotal) {
+        if (last == null || offset >= donationCount) {
+            return null;
+        }
+        return new WindowCursor(offset, donationCount, runningTotal,
+                                new Page.Cursor(true, last.getDonationDate(), last.getDonationId())).toToken();
+    }
+
+    /**
+     * @param token Token from DonationWindow.getNextToken(), or null
+     * @return Decoded cursor, or null for no token
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    static WindowCursor parse(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String[] parts = token.split(":", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid window token: " + token);
+        }
+        try {
+            return new WindowCursor(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                                    new BigDecimal(parts[2]), Page.Cursor.parse(parts[3]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid window token: " + token, e);
+        }
+    }
+
+    String toToken() {
+        return offset + ":" + donationCount + ":" + runningTotal.toPlainString() + ":" + cursor.toToken();
+    }
+
+    /**
+     * Whether the window at an offset can be read from this cursor
+     * @param donationCount The request's donation count now
+     */
+    boolean reaches(int offset, int donationCount) {
+        return cursor != null && cursor.forward && offset >= this.offset && donationCount == this.donationCount;
+    }
+}
@@ -1,6 +1,7 @@
 package gui;
 
-import database.CharityDAO;
+import database.CharityRequestRepository;
+import database.DAOFactory;
 import models.CharityRequest;
 import utils.ValidationUtils;
 
@@ -13,7 +14,7 @@ import java.util.List;
  * Charity Management Panel - For receptionists to manage charity requests
  */
 public class CharityManagementPanel extends JPanel {
-    private CharityDAO charityDAO;
+    private CharityRequestRepository charityRepository;
     private JTable charityTable;
     private DefaultTableModel tableModel;
     private JButton createButton, refreshButton, viewDonationsButton;
@@ -24,7 +25,7 @@ public class CharityManagementPanel extends JPanel {
     private static final Color BLACK = Color.BLACK;
     
     public CharityManagementPanel() {
-        charityDAO = new CharityDAO();
+        charityRepository = DAOFactory.getCharityRequestRepository();
         initializeUI();
         loadCharityRequests();
     }
@@ -116,7 +117,7 @@ public class CharityManagementPanel extends JPanel {
     
     private void loadCharityRequests() {
         tableModel.setRowCount(0);
-        List<CharityRequest> requests = charityDAO.getAllCharityRequests();
+        List<CharityRequest> requests = charityRepository.getAllCharityRequests();
         
         for (CharityRequest request : requests) {
             Object[] row = {
@@ -1,6 +1,7 @@
 package gui;
 
-import database.CharityDAO;
+import database.CharityRequestRepository;
+import database.DAOFactory;
 import models.CharityRequest;
 
 import javax.swing.*;
@@ -11,7 +12,7 @@ import java.util.List;
  * Charity Panel - View and donate to charity requests
  */
 public class CharityPanel extends JPanel {
-    private CharityDAO charityDAO;
+    private CharityRequestRepository charityRepository;
     private JPanel requestsPanel;
     
     private static final Color PRIMARY_RED = new Color(220, 20, 60);
@@ -20,7 +21,7 @@ public class CharityPanel extends JPanel {
     private static final Color LIGHT_GRAY = new Color(245, 245, 245);
     
     public CharityPanel() {
-        charityDAO = new CharityDAO();
+        charityRepository = DAOFactory.getCharityRequestRepository();
         initializeUI();
         loadCharityRequests();
     }
@@ -63,7 +64,7 @@ public class CharityPanel extends JPanel {
     
     private void loadCharityRequests() {
         requestsPanel.removeAll();
-        List<CharityRequest> requests = charityDAO.getActiveCharityRequests();
+        List<CharityRequest> requests = charityRepository.getActiveCharityRequests();
         
         if (requests.isEmpty()) {
             JLabel noRequestsLabel = new JLabel("No active charity requests at the moment");
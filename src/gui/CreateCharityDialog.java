@@ -1,6 +1,7 @@
 package gui;
 
-import database.CharityDAO;
+import database.CharityRequestRepository;
+import database.DAOFactory;
 import models.CharityRequest;
 import utils.ValidationUtils;
 
@@ -12,7 +13,7 @@ import java.awt.*;
  */
 public class CreateCharityDialog extends JDialog {
     private CharityManagementPanel parentPanel;
-    private CharityDAO charityDAO;
+    private CharityRequestRepository charityRepository;
     
     private JTextField titleField, requesterField, goalField;
     private JTextArea descriptionArea;
@@ -25,7 +26,7 @@ public class CreateCharityDialog extends JDialog {
     public CreateCharityDialog(CharityManagementPanel parent) {
         super((Frame) SwingUtilities.getWindowAncestor(parent), "Create Charity Request", true);
         this.parentPanel = parent;
-        this.charityDAO = new CharityDAO();
+        this.charityRepository = DAOFactory.getCharityRequestRepository();
         initializeUI();
     }
     
@@ -198,7 +199,7 @@ public class CreateCharityDialog extends JDialog {
             // Create charity request
             CharityRequest request = new CharityRequest(title, description, requester, type, goalAmount);
             
-            int requestId = charityDAO.createCharityRequest(request);
+            int requestId = charityRepository.createCharityRequest(request);
             
             if (requestId > 0) {
                 ValidationUtils.showSuccess("Charity request created successfully!");
@@ -1,6 +1,8 @@
 package gui;
 
-import database.CharityDAO;
+import database.DAOFactory;
+import database.DonationJournal;
+import database.DonationRepository;
 import interfaces.PaymentGateway;
 import interfaces.DemoPaymentGateway;
 import interfaces.UPIPaymentGateway;
@@ -10,6 +12,8 @@ import utils.ValidationUtils;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.sql.Timestamp;
 
 /**
  * Donation Dialog - Mock payment gateway interface
@@ -18,7 +22,7 @@ import java.awt.*;
 public class DonationDialog extends JDialog {
     private CharityRequest request;
     private CharityPanel parentPanel;
-    private CharityDAO charityDAO;
+    private DonationRepository donationRepository;
     
     private JTextField donorNameField, amountField;
     private JComboBox<String> paymentMethodCombo;
@@ -34,7 +38,7 @@ public class DonationDialog extends JDialog {
         super((Frame) SwingUtilities.getWindowAncestor(parent), "Make a Donation", true);
         this.parentPanel = parent;
         this.request = request;
-        this.charityDAO = new CharityDAO();
+        this.donationRepository = DAOFactory.getDonationRepository();
         initializeUI();
     }
     
@@ -164,6 +168,28 @@ public class DonationDialog extends JDialog {
         }
     }
     
+    /**
+     * Record a paid donation: appended to the donation journal when there is
+     * one (recorded in the database shortly after, even if it is down now),
+     * otherwise written to the database directly
+     */
+    private boolean recordDonation(Donation donation) {
+        if (!ValidationUtils.isValidDonation(donation)) {
+            System.err.println("Not recording invalid donation: " + donation);
+            return false;
+        }
+        DonationJournal journal = DAOFactory.getDonationJournal();
+        if (journal != null) {
+            try {
+                journal.append(donation);
+                return true;
+            } catch (IOException e) {
+                System.err.println("Error journaling donation: " + e.getMessage());
+            }
+        }
+        return donationRepository.addDonation(donation);
+    }
+    
     /**
      * Process donation using PaymentGateway interface (Abstraction)
      */
@@ -194,8 +220,16 @@ public class DonationDialog extends JDialog {
                 return;
             }
             
-            if (!ValidationUtils.isValidAmount(amount)) {
-                ValidationUtils.showError("Amount must be greater than 0!");
+            if (!ValidationUtils.isValidDonationAmount(amount)) {
+                ValidationUtils.showError(String.format("Amount must be between ₹%.2f and ₹%,.2f!",
+                                                        ValidationUtils.MIN_DONATION_AMOUNT,
+                                                        ValidationUtils.MAX_DONATION_AMOUNT));
+                return;
+            }
+            
+            if (!ValidationUtils.isWithinLength(donorName, ValidationUtils.MAX_DONOR_NAME_LENGTH)) {
+                ValidationUtils.showError("Name must be at most " + ValidationUtils.MAX_DONOR_NAME_LENGTH +
+                                          " characters!");
                 return;
             }
             
@@ -231,9 +265,12 @@ public class DonationDialog extends JDialog {
                         if (success) {
                             // Save donation to database
                             Donation donation = new Donation(donorName, request.getRequestId(), 
-                                                           amount, paymentGateway.getGatewayName());
+                                                           amount, paymentGateway.getGatewayName(),
+                                                           paymentGateway.getTransactionId());
+                            // Dated when the payment was confirmed, not when it reaches the database
+                            donation.setDonationDate(new Timestamp(System.currentTimeMillis()));
                             
-                            if (charityDAO.addDonation(donation)) {
+                            if (recordDonation(donation)) {
                                 String message = "Donation successful!\n" +
                                                "Transaction ID: " + paymentGateway.getTransactionId() + "\n" +
                                                "Amount: ₹" + String.format("%.2f", amount) + "\n" +
@@ -0,0 +1,191 @@
+package gui;
+
+import database.AsyncCharityRepository;
+import models.Donation;
+import models.DonationWindow;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Table model that loads a request's donations in blocks as they are scrolled into view
+ * The row count is the request's donation count, read with the first block,
+ * so the table is sized without reading the donations. JTable only asks for
+ * the rows it paints; a row whose block is not loaded shows "Loading..." and
+ * its block is fetched off the event dispatch thread. Only the last few
+ * blocks asked for are fetched at once (dragging the scroll bar cancels the
+ * ones scrolled past), and the most recently shown MAX_BLOCKS are kept.
+ * Each block is read on from the next token of the nearest block above it
+ * that was loaded, so scrolling down reads only the rows shown.
+ *
+ * If a block reports a different donation count, donations were added and
+ * every row has moved down, so the loaded blocks are dropped and the table
+ * refreshed. All state is confined to the event dispatch thread.
+ */
+@SuppressWarnings("serial")
+class DonationTableModel extends AbstractTableModel {
+    static final int BLOCK_SIZE = 100;
+    private static final int MAX_BLOCKS = 20;
+    private static final int MAX_LOADING = 3;
+
+    private static final String[] COLUMNS =
+        {"Donation ID", "Donor Name", "Amount (₹)", "Running Total (₹)", "Payment Method", "Date"};
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+    private final AsyncCharityRepository repository;
+    private final int requestId;
+    private final Consumer<DonationWindow> onLoad;
+    private final Consumer<Throwable> onError;
+
+    // Block number -> window, least recently shown first
+    private final Map<Integer, DonationWindow> blocks = new LinkedHashMap<Integer, DonationWindow>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, DonationWindow> eldest) {
+            return size() > MAX_BLOCKS;
+        }
+    };
+    // Row offset -> next token of the block ending there, for the blocks loaded since the count changed
+    private final TreeMap<Integer, String> nextTokens = new TreeMap<>();
+    // Block number -> load in flight, oldest first
+    private final Map<Integer, CompletableFuture<DonationWindow>> loading = new LinkedHashMap<>();
+    private int rowCount;
+    private boolean stopped;
+
+    /**
+     * @param onLoad Called with every block loaded, for the request's count and total
+     * @param onError Called once if a block cannot be loaded; no further blocks are fetched
+     */
+    DonationTableModel(AsyncCharityRepository repository, int requestId,
+                       Consumer<DonationWindow> onLoad, Consumer<Throwable> onError) {
+        this.repository = repository;
+        this.requestId = requestId;
+        this.onLoad = onLoad;
+        this.onError = onError;
+    }
+
+    /**
+     * Load the first block, which sizes the table
+     */
+    void load() {
+        loadBlock(0);
+    }
+
+    /**
+     * Cancel the loads in flight and fetch nothing more
+     */
+    void close() {
+        stopped = true;
+        for (CompletableFuture<DonationWindow> load : loading.values()) {
+            load.cancel(true);
+        }
+        loading.clear();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        DonationWindow window = blocks.get(row / BLOCK_SIZE);
+        if (window == null) {
+            loadBlock(row / BLOCK_SIZE);
+            return column == 1 ? "Loading..." : "";
+        }
+        int index = row - window.getOffset();
+        if (index >= window.getDonations().size()) {
+            // Counted in the request's total but not (yet) readable
+            return "";
+        }
+
+        Donation donation = window.getDonations().get(index);
+        switch (column) {
+            case 0:
+                return donation.getDonationId();
+            case 1:
+                return donation.getDonorName();
+            case 2:
+                return String.format("%.2f", donation.getAmount());
+            case 3:
+                return String.format("%.2f", window.getRunningTotal(index));
+            case 4:
+                return donation.getPaymentMethod();
+            default:
+                return donation.getDonationDate() != null
+                       ? donation.getDonationDate().toLocalDateTime().format(DATE_FORMAT) : "";
+        }
+    }
+
+    private void loadBlock(int block) {
+        if (stopped || loading.containsKey(block)) {
+            return;
+        }
+        if (loading.size() >= MAX_LOADING) {
+            // Scrolled past: its rows are asked for again if they come back into view
+            Iterator<CompletableFuture<DonationWindow>> oldest = loading.values().iterator();
+            oldest.next().cancel(true);
+            oldest.remove();
+        }
+
+        Map.Entry<Integer, String> above = nextTokens.floorEntry(block * BLOCK_SIZE);
+        CompletableFuture<DonationWindow> load = repository.getDonationWindow(
+            requestId, above != null ? above.getValue() : null, block * BLOCK_SIZE, BLOCK_SIZE);
+        loading.put(block, load);
+        load.whenComplete((window, error) -> SwingUtilities.invokeLater(() -> loaded(block, load, window, error)));
+    }
+
+    private void loaded(int block, CompletableFuture<DonationWindow> load, DonationWindow window, Throwable error) {
+        if (stopped || loading.get(block) != load) {
+            return;
+        }
+        loading.remove(block);
+
+        if (error != null || window == null) {
+            close();
+            onError.accept(error);
+            return;
+        }
+
+        if (window.getDonationCount() != rowCount) {
+            // First block, or donations were added: the loaded rows are stale
+            for (CompletableFuture<DonationWindow> stale : loading.values()) {
+                stale.cancel(true);
+            }
+            loading.clear();
+            blocks.clear();
+            nextTokens.clear();
+            blocks.put(block, window);
+            rowCount = window.getDonationCount();
+            fireTableDataChanged();
+        } else {
+            blocks.put(block, window);
+            int first = window.getOffset();
+            int last = Math.min(rowCount, first + BLOCK_SIZE) - 1;
+            if (first <= last) {
+                fireTableRowsUpdated(first, last);
+            }
+        }
+        if (window.getNextToken() != null) {
+            nextTokens.put(window.getOffset() + window.getDonations().size(), window.getNextToken());
+        }
+        onLoad.accept(window);
+    }
+}
@@ -0,0 +1,314 @@
+package gui;
+
+import database.AsyncDonorRepository;
+import database.DAOFactory;
+import database.DonorFilter;
+import models.Donor;
+import utils.ValidationUtils;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Donor Facets Panel - Count donors by blood group, gender, age, organ and location
+ * Each facet lists its values with the number of donors that have them.
+ * Values selected within a facet are ORed, facets are ANDed, and a
+ * facet's Exclude box negates it. Counts shown for a facet apply every
+ * other facet's selection, so they tell how many donors each choice
+ * would leave. Counts refresh on every change; Show Donors lists them.
+ */
+@SuppressWarnings("serial")
+public class DonorFacetsPanel extends JPanel {
+    private AsyncDonorRepository donorRepository;
+    private final Map<String, JList<String>> valueLists = new LinkedHashMap<>();
+    private final Map<String, JCheckBox> excludeBoxes = new HashMap<>();
+    private final Map<String, Map<String, Integer>> facetCounts = new HashMap<>();
+    private JLabel totalLabel;
+    private JButton showButton, clearButton;
+    private JTable resultsTable;
+    private DefaultTableModel tableModel;
+    // Set while lists are refilled, so their selection events are ignored
+    private boolean updating;
+    // Incremented per refresh; late answers to an older refresh are dropped
+    private int refreshGeneration;
+
+    private static final Color PRIMARY_RED = new Color(220, 20, 60);
+    private static final Color WHITE = Color.WHITE;
+
+    // Location words are many; only the most common are listed
+    private static final int LOCATION_LIMIT = 25;
+
+    public DonorFacetsPanel() {
+        donorRepository = DAOFactory.getAsyncDonorRepository();
+        initializeUI();
+        refreshCounts();
+    }
+
+    private void initializeUI() {
+        setLayout(new BorderLayout());
+        setBackground(WHITE);
+
+        // Header
+        JPanel headerPanel = new JPanel();
+        headerPanel.setBackground(PRIMARY_RED);
+        headerPanel.setPreferredSize(new Dimension(950, 60));
+
+        JLabel headerLabel = new JLabel("Donor Facets");
+        headerLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        headerLabel.setForeground(WHITE);
+        headerPanel.add(headerLabel);
+
+        // Facet lists
+        JPanel facetsPanel = new JPanel(new GridLayout(1, DonorFilter.ATTRIBUTES.size(), 10, 0));
+        facetsPanel.setBackground(WHITE);
+        facetsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+
+        for (String attribute : DonorFilter.ATTRIBUTES) {
+            JList<String> list = new JList<>(new DefaultListModel<>());
+            list.setFont(new Font("Arial", Font.PLAIN, 12));
+            list.setVisibleRowCount(8);
+            list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+            list.setCellRenderer(new DefaultListCellRenderer() {
+                @Override
+                public Component getListCellRendererComponent(JList<?> l, Object value, int index,
+                                                              boolean selected, boolean focused) {
+                    Integer count = facetCounts.getOrDefault(attribute, new HashMap<>()).get(value);
+                    String text = value + " (" + (count != null ? count : 0) + ")";
+                    return super.getListCellRendererComponent(l, text, index, selected, focused);
+                }
+            });
+            list.addListSelectionListener(e -> {
+                if (!updating && !e.getValueIsAdjusting()) {
+                    refreshCounts();
+                }
+            });
+
+            JCheckBox exclude = new JCheckBox("Exclude");
+            exclude.setFont(new Font("Arial", Font.PLAIN, 12));
+            exclude.setBackground(WHITE);
+            exclude.addActionListener(e -> refreshCounts());
+
+            JLabel title = new JLabel(attribute);
+            title.setFont(new Font("Arial", Font.BOLD, 14));
+
+            JPanel titleRow = new JPanel(new BorderLayout());
+            titleRow.setBackground(WHITE);
+            titleRow.add(title, BorderLayout.WEST);
+            titleRow.add(exclude, BorderLayout.EAST);
+
+            JPanel facet = new JPanel(new BorderLayout(0, 5));
+            facet.setBackground(WHITE);
+            facet.add(titleRow, BorderLayout.NORTH);
+            JScrollPane listScroll = new JScrollPane(list);
+            listScroll.setBorder(BorderFactory.createLineBorder(PRIMARY_RED, 1));
+            facet.add(listScroll, BorderLayout.CENTER);
+            facetsPanel.add(facet);
+
+            valueLists.put(attribute, list);
+            excludeBoxes.put(attribute, exclude);
+        }
+
+        // Summary row
+        totalLabel = new JLabel(" ");
+        totalLabel.setFont(new Font("Arial", Font.BOLD, 14));
+
+        showButton = new JButton("SHOW DONORS");
+        showButton.setFont(new Font("Arial", Font.BOLD, 12));
+        showButton.setBackground(PRIMARY_RED);
+        showButton.setForeground(WHITE);
+        showButton.setFocusPainted(false);
+        showButton.setBorderPainted(false);
+        showButton.setPreferredSize(new Dimension(130, 30));
+        showButton.addActionListener(e -> showDonors());
+
+        clearButton = new JButton("CLEAR");
+        clearButton.setFont(new Font("Arial", Font.PLAIN, 12));
+        clearButton.setBackground(WHITE);
+        clearButton.setForeground(PRIMARY_RED);
+        clearButton.setBorder(BorderFactory.createLineBorder(PRIMARY_RED, 2));
+        clearButton.setFocusPainted(false);
+        clearButton.setPreferredSize(new Dimension(100, 30));
+        clearButton.addActionListener(e -> clearSelection());
+
+        JPanel summaryRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 8));
+        summaryRow.setBackground(WHITE);
+        summaryRow.add(totalLabel);
+        summaryRow.add(showButton);
+        summaryRow.add(clearButton);
+
+        // Results Table
+        String[] columns = {"ID", "Name", "Age", "Gender", "Blood Group", "Organ", "Contact", "Location"};
+        tableModel = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+
+        resultsTable = new JTable(tableModel);
+        resultsTable.setFont(new Font("Arial", Font.PLAIN, 12));
+        resultsTable.setRowHeight(30);
+        resultsTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+        resultsTable.getTableHeader().setBackground(PRIMARY_RED);
+        resultsTable.getTableHeader().setForeground(WHITE);
+
+        JScrollPane scrollPane = new JScrollPane(resultsTable);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        // Assembly
+        JPanel selectionPanel = new JPanel(new BorderLayout());
+        selectionPanel.setBackground(WHITE);
+        selectionPanel.add(facetsPanel, BorderLayout.CENTER);
+        selectionPanel.add(summaryRow, BorderLayout.SOUTH);
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(headerPanel, BorderLayout.NORTH);
+        topPanel.add(selectionPanel, BorderLayout.CENTER);
+
+        add(topPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+    }
+
+    /**
+     * Filter for one facet's selection: its values ORed, negated if excluded
+     */
+    private DonorFilter facetFilter(String attribute) {
+        List<String> selected = valueLists.get(attribute).getSelectedValuesList();
+        if (selected.isEmpty()) {
+            return DonorFilter.all();
+        }
+        List<DonorFilter> values = new ArrayList<>();
+        for (String value : selected) {
+            values.add(DonorFilter.eq(attribute, value));
+        }
+        DonorFilter filter = DonorFilter.or(values);
+        return excludeBoxes.get(attribute).isSelected() ? DonorFilter.not(filter) : filter;
+    }
+
+    /**
+     * Every facet's selection except one (null for none)
+     */
+    private DonorFilter filterExcept(String skipped) {
+        List<DonorFilter> filters = new ArrayList<>();
+        for (String attribute : DonorFilter.ATTRIBUTES) {
+            if (!attribute.equals(skipped)) {
+                filters.add(facetFilter(attribute));
+            }
+        }
+        return DonorFilter.and(filters);
+    }
+
+    /**
+     * Recount the total and every facet for the current selection, off the event dispatch thread
+     */
+    private void refreshCounts() {
+        int generation = ++refreshGeneration;
+        DonorFilter filter = filterExcept(null);
+
+        CompletableFuture<Integer> total = donorRepository.countDonors(filter);
+        Map<String, CompletableFuture<Map<String, Integer>>> facets = new LinkedHashMap<>();
+        for (String attribute : DonorFilter.ATTRIBUTES) {
+            facets.put(attribute, donorRepository.countDonorsByFacet(filterExcept(attribute), attribute));
+        }
+
+        List<CompletableFuture<?>> all = new ArrayList<>(facets.values());
+        all.add(total);
+        CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) ->
+            SwingUtilities.invokeLater(() -> {
+                if (generation != refreshGeneration) {
+                    return;
+                }
+                if (error != null) {
+                    totalLabel.setText("Counting failed: " + error.getMessage());
+                    return;
+                }
+                totalLabel.setText(total.join() + " matching donor(s)");
+                for (Map.Entry<String, CompletableFuture<Map<String, Integer>>> entry : facets.entrySet()) {
+                    showFacet(entry.getKey(), entry.getValue().join());
+                }
+            }));
+    }
+
+    /**
+     * Refill a facet's list, keeping the selected values listed and selected
+     */
+    private void showFacet(String attribute, Map<String, Integer> counts) {
+        JList<String> list = valueLists.get(attribute);
+        List<String> selected = list.getSelectedValuesList();
+
+        List<String> values = new ArrayList<>(counts.keySet());
+        if (DonorFilter.LOCATION.equals(attribute) && values.size() > LOCATION_LIMIT) {
+            values = new ArrayList<>(values.subList(0, LOCATION_LIMIT));
+        }
+        for (String value : selected) {
+            if (!values.contains(value)) {
+                values.add(value);
+            }
+        }
+
+        updating = true;
+        try {
+            facetCounts.put(attribute, counts);
+            DefaultListModel<String> model = (DefaultListModel<String>) list.getModel();
+            model.clear();
+            for (String value : values) {
+                model.addElement(value);
+            }
+            for (String value : selected) {
+                int index = values.indexOf(value);
+                list.addSelectionInterval(index, index);
+            }
+        } finally {
+            updating = false;
+        }
+    }
+
+    private void showDonors() {
+        showButton.setEnabled(false);
+        tableModel.setRowCount(0);
+
+        donorRepository.filterDonors(filterExcept(null)).whenComplete((donors, error) ->
+            SwingUtilities.invokeLater(() -> {
+                showButton.setEnabled(true);
+                if (error != null) {
+                    ValidationUtils.showError("Failed to load donors: " + error.getMessage());
+                    return;
+                }
+                for (Donor donor : donors) {
+                    Object[] row = {
+                        donor.getDonorId(),
+                        donor.getName(),
+                        donor.getAge(),
+                        donor.getGender(),
+                        donor.getBloodGroup(),
+                        donor.getOrgan(),
+                        donor.getContact(),
+                        donor.getLocation()
+                    };
+                    tableModel.addRow(row);
+                }
+                totalLabel.setText(donors.size() + " matching donor(s)");
+            }));
+    }
+
+    private void clearSelection() {
+        updating = true;
+        try {
+            for (String attribute : DonorFilter.ATTRIBUTES) {
+                valueLists.get(attribute).clearSelection();
+                excludeBoxes.get(attribute).setSelected(false);
+            }
+        } finally {
+            updating = false;
+        }
+        tableModel.setRowCount(0);
+        refreshCounts();
+    }
+}
@@ -1,6 +1,7 @@
 package gui;
 
-import database.DonorDAO;
+import database.DAOFactory;
+import database.DonorRepository;
 import models.Donor;
 import utils.SessionManager;
 
@@ -11,12 +12,12 @@ import java.awt.*;
  * Donor Profile Panel - View donor information
  */
 public class DonorProfilePanel extends JPanel {
-    private DonorDAO donorDAO;
+    private DonorRepository donorRepository;
     private static final Color PRIMARY_RED = new Color(220, 20, 60);
     private static final Color WHITE = Color.WHITE;
     
     public DonorProfilePanel() {
-        donorDAO = new DonorDAO();
+        donorRepository = DAOFactory.getDonorRepository();
         initializeUI();
     }
     
@@ -42,7 +43,7 @@ public class DonorProfilePanel extends JPanel {
         
         // Load donor data
         int userId = SessionManager.getInstance().getCurrentUserId();
-        Donor donor = donorDAO.getDonorByUserId(userId);
+        Donor donor = donorRepository.getDonorByUserId(userId);
         
         if (donor != null) {
             addInfoRow(contentPanel, "Donor ID:", String.valueOf(donor.getDonorId()));
@@ -1,7 +1,8 @@
 package gui;
 
-import database.UserDAO;
-import database.DonorDAO;
+import database.DAOFactory;
+import database.DonorRepository;
+import database.UserRepository;
 import models.User;
 import models.Donor;
 import utils.ValidationUtils;
@@ -20,16 +21,16 @@ public class DonorRegistrationFrame extends JFrame {
     private JTextField organField;
     private JButton registerButton, cancelButton;
     
-    private UserDAO userDAO;
-    private DonorDAO donorDAO;
+    private UserRepository userRepository;
+    private DonorRepository donorRepository;
     
     private static final Color PRIMARY_RED = new Color(220, 20, 60);
     private static final Color DARK_RED = new Color(139, 0, 0);
     private static final Color WHITE = Color.WHITE;
     
     public DonorRegistrationFrame() {
-        userDAO = new UserDAO();
-        donorDAO = new DonorDAO();
+        userRepository = DAOFactory.getUserRepository();
+        donorRepository = DAOFactory.getDonorRepository();
         initializeUI();
     }
     
@@ -174,7 +175,7 @@ public class DonorRegistrationFrame extends JFrame {
                 return;
             }
             
-            if (userDAO.usernameExists(username)) {
+            if (userRepository.usernameExists(username)) {
                 ValidationUtils.showError("Username already exists!");
                 return;
             }
@@ -211,7 +212,7 @@ public class DonorRegistrationFrame extends JFrame {
             
             // Create user
             User user = new User(username, password, "DONOR");
-            int userId = userDAO.registerUser(user);
+            int userId = userRepository.registerUser(user);
             
             if (userId > 0) {
                 // Create donor
@@ -225,7 +226,7 @@ public class DonorRegistrationFrame extends JFrame {
                 donor.setContact(contact);
                 donor.setLocation(location);
                 
-                if (donorDAO.registerDonor(donor, userId)) {
+                if (donorRepository.registerDonor(donor, userId)) {
                     ValidationUtils.showSuccess("Registration successful! You can now login.");
                     dispose();
                 } else {
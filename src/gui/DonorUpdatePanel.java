@@ -1,6 +1,7 @@
 package gui;
 
-import database.DonorDAO;
+import database.DAOFactory;
+import database.DonorRepository;
 import models.Donor;
 import utils.SessionManager;
 import utils.ValidationUtils;
@@ -12,7 +13,7 @@ import java.awt.*;
  * Donor Update Panel - Update donor information
  */
 public class DonorUpdatePanel extends JPanel {
-    private DonorDAO donorDAO;
+    private DonorRepository donorRepository;
     private Donor currentDonor;
     
     private JTextField nameField, contactField, locationField, organField;
@@ -24,7 +25,7 @@ public class DonorUpdatePanel extends JPanel {
     private static final Color WHITE = Color.WHITE;
     
     public DonorUpdatePanel() {
-        donorDAO = new DonorDAO();
+        donorRepository = DAOFactory.getDonorRepository();
         initializeUI();
         loadDonorData();
     }
@@ -127,7 +128,7 @@ public class DonorUpdatePanel extends JPanel {
     
     private void loadDonorData() {
         int userId = SessionManager.getInstance().getCurrentUserId();
-        currentDonor = donorDAO.getDonorByUserId(userId);
+        currentDonor = donorRepository.getDonorByUserId(userId);
         
         if (currentDonor != null) {
             nameField.setText(currentDonor.getName());
@@ -185,7 +186,7 @@ public class DonorUpdatePanel extends JPanel {
             currentDonor.setContact(contact);
             currentDonor.setLocation(location);
             
-            if (donorDAO.updateDonor(currentDonor)) {
+            if (donorRepository.updateDonor(currentDonor)) {
                 ValidationUtils.showSuccess("Information updated successfully!");
             } else {
                 ValidationUtils.showError("Failed to update information!");
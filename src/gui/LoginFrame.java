@@ -1,6 +1,7 @@
 package gui;
 
-import database.UserDAO;
+import database.DAOFactory;
+import database.UserRepository;
 import models.User;
 import utils.SessionManager;
 import utils.ValidationUtils;
@@ -18,7 +19,7 @@ public class LoginFrame extends JFrame {
     private JPasswordField passwordField;
     private JButton loginButton;
     private JButton registerButton;
-    private UserDAO userDAO;
+    private UserRepository userRepository;
     
     // Color theme
     private static final Color PRIMARY_RED = new Color(220, 20, 60);
@@ -26,7 +27,7 @@ public class LoginFrame extends JFrame {
     private static final Color WHITE = Color.WHITE;
     
     public LoginFrame() {
-        userDAO = new UserDAO();
+        userRepository = DAOFactory.getUserRepository();
         initializeUI();
     }
     
@@ -180,7 +181,7 @@ public class LoginFrame extends JFrame {
             }
             
             try {
-                User user = userDAO.authenticateUser(username, password);
+                User user = userRepository.authenticateUser(username, password);
                 
                 if (user != null) {
                     SessionManager.getInstance().setCurrentUser(user);
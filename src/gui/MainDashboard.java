@@ -94,11 +94,13 @@ public class MainDashboard extends JFrame {
             addNavigationButton(sidebar, "Dashboard", "dashboard");
             addNavigationButton(sidebar, "View All Donors", "viewDonors");
             addNavigationButton(sidebar, "Search Donors", "searchDonors");
+            addNavigationButton(sidebar, "Donor Facets", "donorFacets");
             addNavigationButton(sidebar, "Charity Management", "charityManage");
             
             contentPanel.add(new ReceptionDashboardPanel(), "dashboard");
             contentPanel.add(new ViewDonorsPanel(), "viewDonors");
             contentPanel.add(new SearchDonorsPanel(), "searchDonors");
+            contentPanel.add(new DonorFacetsPanel(), "donorFacets");
             contentPanel.add(new CharityManagementPanel(), "charityManage");
             
         } else if ("RECIPIENT".equals(role)) {
@@ -1,17 +1,41 @@
 package gui;
 
-import database.DonorDAO;
-import database.CharityDAO;
+import database.AsyncCharityRepository;
+import database.AllocationService;
+import database.AsyncDonorRepository;
+import database.DAOFactory;
+import database.DonationRollup;
+import database.MatchRepository;
+import database.MatchmakingJob;
+import models.Donor;
+import models.CharityRequest;
+import models.DonationTotal;
+import models.DonorMatch;
+import models.Recipient;
 
 import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Reception Dashboard Panel - Statistics and overview
  */
 public class ReceptionDashboardPanel extends JPanel {
-    private DonorDAO donorDAO;
-    private CharityDAO charityDAO;
+    private AsyncDonorRepository donorRepository;
+    private AsyncCharityRepository charityRepository;
+    private JLabel totalDonorsValue, activeRequestsValue, totalDonationsValue;
+    private JLabel matchStatusLabel;
+    private JButton runMatchingButton;
+    
+    // Rows shown by "View Matches"
+    private static final int TOP_MATCHES_LIMIT = 200;
     
     private static final Color PRIMARY_RED = new Color(220, 20, 60);
     private static final Color DARK_RED = new Color(139, 0, 0);
@@ -19,9 +43,10 @@ public class ReceptionDashboardPanel extends JPanel {
     private static final Color LIGHT_GRAY = new Color(245, 245, 245);
     
     public ReceptionDashboardPanel() {
-        donorDAO = new DonorDAO();
-        charityDAO = new CharityDAO();
+        donorRepository = DAOFactory.getAsyncDonorRepository();
+        charityRepository = DAOFactory.getAsyncCharityRepository();
         initializeUI();
+        loadStatistics();
     }
     
     private void initializeUI() {
@@ -44,21 +69,270 @@ public class ReceptionDashboardPanel extends JPanel {
         contentPanel.setBackground(WHITE);
         contentPanel.setBorder(BorderFactory.createEmptyBorder(40, 40, 40, 40));
         
-        // Statistics cards
-        int totalDonors = donorDAO.getDonorCount();
-        double totalDonations = charityDAO.getTotalDonationsAmount();
-        int activeRequests = charityDAO.getActiveCharityRequests().size();
+        // Statistics cards (values are filled in by loadStatistics)
+        totalDonorsValue = new JLabel("...");
+        activeRequestsValue = new JLabel("...");
+        totalDonationsValue = new JLabel("...");
+        
+        contentPanel.add(createStatCard("Total Donors", totalDonorsValue, PRIMARY_RED));
+        contentPanel.add(createStatCard("Active Charity Requests", activeRequestsValue, DARK_RED));
+        contentPanel.add(createStatCard("Total Donations", totalDonationsValue, PRIMARY_RED));
+        contentPanel.add(createStatCard("System Status", new JLabel("Active"), new Color(34, 139, 34)));
+        
+        // Matchmaking controls
+        JPanel matchPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 10));
+        matchPanel.setBackground(LIGHT_GRAY);
+        
+        matchStatusLabel = new JLabel("Last matching run: ...");
+        matchStatusLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        
+        runMatchingButton = new JButton("Run Matching");
+        runMatchingButton.setForeground(PRIMARY_RED);
+        runMatchingButton.setFont(new Font("Arial", Font.BOLD, 12));
+        runMatchingButton.setFocusPainted(false);
+        runMatchingButton.addActionListener(e -> runMatching());
+        
+        JButton viewMatchesButton = new JButton("View Matches");
+        viewMatchesButton.setForeground(PRIMARY_RED);
+        viewMatchesButton.setFont(new Font("Arial", Font.BOLD, 12));
+        viewMatchesButton.setFocusPainted(false);
+        viewMatchesButton.addActionListener(e -> showTopMatches());
+        
+        JButton offersButton = new JButton("Allocation Offers");
+        offersButton.setForeground(PRIMARY_RED);
+        offersButton.setFont(new Font("Arial", Font.BOLD, 12));
+        offersButton.setFocusPainted(false);
+        offersButton.addActionListener(e -> showAllocationOffers());
+        
+        matchPanel.add(matchStatusLabel);
+        matchPanel.add(runMatchingButton);
+        matchPanel.add(viewMatchesButton);
+        matchPanel.add(offersButton);
         
-        contentPanel.add(createStatCard("Total Donors", String.valueOf(totalDonors), PRIMARY_RED));
-        contentPanel.add(createStatCard("Active Charity Requests", String.valueOf(activeRequests), DARK_RED));
-        contentPanel.add(createStatCard("Total Donations", "₹" + String.format("%.2f", totalDonations), PRIMARY_RED));
-        contentPanel.add(createStatCard("System Status", "Active", new Color(34, 139, 34)));
+        JButton totalsButton = new JButton("Donation Totals");
+        totalsButton.setForeground(PRIMARY_RED);
+        totalsButton.setFont(new Font("Arial", Font.BOLD, 12));
+        totalsButton.setFocusPainted(false);
+        totalsButton.addActionListener(e -> showDonationTotals());
+        matchPanel.add(totalsButton);
         
         add(headerPanel, BorderLayout.NORTH);
         add(contentPanel, BorderLayout.CENTER);
+        add(matchPanel, BorderLayout.SOUTH);
+    }
+    
+    /**
+     * Fetch the statistics concurrently without blocking the event dispatch thread
+     */
+    private void loadStatistics() {
+        donorRepository.getDonorCount().whenComplete((count, error) ->
+            showStatistic(totalDonorsValue, error == null ? String.valueOf(count) : "N/A"));
+        charityRepository.getActiveCharityRequests().whenComplete((requests, error) ->
+            showStatistic(activeRequestsValue, error == null ? String.valueOf(requests.size()) : "N/A"));
+        charityRepository.getTotalDonationsAmount().whenComplete((total, error) ->
+            showStatistic(totalDonationsValue, error == null ? "₹" + String.format("%.2f", total) : "N/A"));
+        loadMatchStatus();
+    }
+    
+    private void loadMatchStatus() {
+        MatchRepository matchRepository = DAOFactory.getMatchRepository();
+        DAOFactory.getExecutor().submit(() -> {
+            Timestamp last = matchRepository.getLastMatchTime();
+            return last == null ? "No matching run yet"
+                                : "Last matching run: " + last + " (" + matchRepository.getMatchCount() + " matches)";
+        }).whenComplete((status, error) -> showStatistic(matchStatusLabel, error == null ? status : "N/A"));
+    }
+    
+    /**
+     * Match every recipient in the background and report the throughput
+     */
+    private void runMatching() {
+        runMatchingButton.setEnabled(false);
+        matchStatusLabel.setText("Matching all recipients...");
+        DAOFactory.getExecutor().submit(() -> MatchmakingJob.create().run()).whenComplete((result, error) ->
+            SwingUtilities.invokeLater(() -> {
+                runMatchingButton.setEnabled(true);
+                loadMatchStatus();
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    JOptionPane.showMessageDialog(this, "Matching failed: " + cause.getMessage(),
+                                                  "Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this,
+                        String.format("Matched %d recipients in %.1f s (%d recipients/s)\n%d matches %s",
+                                      result.getRecipients(), result.getElapsedMillis() / 1000.0,
+                                      result.getRecipientsPerSecond(), result.getMatches(),
+                                      result.isStored() ? "stored" : "could NOT be stored"),
+                        "Matching Complete",
+                        result.isStored() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+                }
+            }));
+    }
+    
+    /**
+     * Show the best stored matches, most urgent recipients first
+     */
+    private void showTopMatches() {
+        MatchRepository matchRepository = DAOFactory.getMatchRepository();
+        DAOFactory.getExecutor().submit(() -> matchRepository.getTopMatches(TOP_MATCHES_LIMIT))
+            .whenComplete((matches, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, "Unable to load matches!", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                showMatchesTable(matches);
+            }));
+    }
+    
+    /**
+     * Show the recipients each recently registered donor was offered to
+     */
+    private void showAllocationOffers() {
+        String[] columns = {"Offered At", "Donor ID", "Donor", "Blood Group", "Organ", "Choice", "Recipient ID",
+                            "Recipient", "Needs", "Urgency", "Waiting Since"};
+        DefaultTableModel model = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (AllocationService.Offer offer : DAOFactory.getAllocationService().getRecentOffers()) {
+            Donor donor = offer.getDonor();
+            int choice = 0;
+            for (Recipient recipient : offer.getRecipients()) {
+                String organ = recipient.getOrganNeeded() != null && !recipient.getOrganNeeded().isEmpty()
+                    ? " " + recipient.getOrganNeeded() : "";
+                model.addRow(new Object[] {
+                    offer.getOfferedAt(),
+                    donor.getDonorId(),
+                    donor.getName(),
+                    donor.getBloodGroup(),
+                    donor.getOrgan() != null ? donor.getOrgan() : "N/A",
+                    ++choice,
+                    recipient.getRecipientId(),
+                    recipient.getName(),
+                    recipient.getBloodGroupNeeded() + organ,
+                    recipient.getUrgencyLevel(),
+                    recipient.getRegistrationDate()
+                });
+            }
+        }
+        
+        JTable table = new JTable(model);
+        table.setFont(new Font("Arial", Font.PLAIN, 12));
+        table.setRowHeight(25);
+        table.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(950, 400));
+        
+        JOptionPane.showMessageDialog(this, scrollPane,
+                                      model.getRowCount() == 0 ? "No Offers Yet" : "Allocation Offers",
+                                      JOptionPane.PLAIN_MESSAGE);
+    }
+    
+    /**
+     * Show the donation rollups, one tab per dimension, with request IDs shown as titles
+     */
+    private void showDonationTotals() {
+        Map<String, CompletableFuture<List<DonationTotal>>> totals = new LinkedHashMap<>();
+        for (String dimension : DonationRollup.DIMENSIONS) {
+            totals.put(dimension, charityRepository.getDonationTotals(dimension));
+        }
+        CompletableFuture<List<CharityRequest>> requests = charityRepository.getAllCharityRequests();
+        
+        CompletableFuture<?>[] all = totals.values().toArray(new CompletableFuture<?>[totals.size() + 1]);
+        all[totals.size()] = requests;
+        CompletableFuture.allOf(all).whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Unable to load donation totals!", "Error",
+                                              JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            Map<String, String> titles = new HashMap<>();
+            for (CharityRequest request : requests.join()) {
+                titles.put(String.valueOf(request.getRequestId()), request.getTitle());
+            }
+            
+            JTabbedPane tabs = new JTabbedPane();
+            tabs.addTab("By Request", totalsTable("Request", totals.get(DonationRollup.REQUEST).join(), titles));
+            tabs.addTab("By Day", totalsTable("Day", totals.get(DonationRollup.DAY).join(), null));
+            tabs.addTab("By Payment Method",
+                        totalsTable("Payment Method", totals.get(DonationRollup.PAYMENT_METHOD).join(), null));
+            tabs.addTab("By Requester Type",
+                        totalsTable("Requester Type", totals.get(DonationRollup.REQUESTER_TYPE).join(), null));
+            tabs.setPreferredSize(new Dimension(650, 400));
+            
+            JOptionPane.showMessageDialog(this, tabs, "Donation Totals", JOptionPane.PLAIN_MESSAGE);
+        }));
+    }
+    
+    private JScrollPane totalsTable(String keyColumn, List<DonationTotal> totals, Map<String, String> titles) {
+        String[] columns = {keyColumn, "Donations", "Amount"};
+        DefaultTableModel model = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (DonationTotal total : totals) {
+            String key = total.getKey().isEmpty() ? "N/A" : total.getKey();
+            if (titles != null && titles.containsKey(total.getKey())) {
+                key = titles.get(total.getKey()) + " (#" + total.getKey() + ")";
+            }
+            model.addRow(new Object[] {
+                key,
+                total.getDonationCount(),
+                "₹" + String.format("%.2f", total.getTotalAmount())
+            });
+        }
+        
+        JTable table = new JTable(model);
+        table.setFont(new Font("Arial", Font.PLAIN, 12));
+        table.setRowHeight(25);
+        table.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+        return new JScrollPane(table);
+    }
+    
+    private void showMatchesTable(List<DonorMatch> matches) {
+        String[] columns = {"Urgency", "Recipient ID", "Recipient", "Rank", "Donor ID", "Donor", "Blood Group",
+                            "Donor Age", "Distance (km)"};
+        DefaultTableModel model = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (DonorMatch match : matches) {
+            model.addRow(new Object[] {
+                match.getUrgencyLevel(),
+                match.getRecipientId(),
+                match.getRecipientName(),
+                match.getMatchRank(),
+                match.getDonorId(),
+                match.getDonorName(),
+                match.getDonorBloodGroup(),
+                match.getDonorAge(),
+                match.getDistanceKm() != null ? String.format("%.1f", match.getDistanceKm()) : "N/A"
+            });
+        }
+        
+        JTable table = new JTable(model);
+        table.setFont(new Font("Arial", Font.PLAIN, 12));
+        table.setRowHeight(25);
+        table.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(850, 400));
+        
+        JOptionPane.showMessageDialog(this, scrollPane,
+                                      matches.isEmpty() ? "No Matches Yet" : "Top " + matches.size() + " Matches",
+                                      JOptionPane.PLAIN_MESSAGE);
+    }
+    
+    private void showStatistic(JLabel label, String value) {
+        SwingUtilities.invokeLater(() -> label.setText(value));
     }
     
-    private JPanel createStatCard(String title, String value, Color color) {
+    private JPanel createStatCard(String title, JLabel valueLabel, Color color) {
         JPanel card = new JPanel();
         card.setLayout(new BorderLayout());
         card.setBackground(WHITE);
@@ -72,7 +346,6 @@ public class ReceptionDashboardPanel extends JPanel {
         titleLabel.setForeground(Color.DARK_GRAY);
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
         
-        JLabel valueLabel = new JLabel(value);
         valueLabel.setFont(new Font("Arial", Font.BOLD, 36));
         valueLabel.setForeground(color);
         valueLabel.setHorizontalAlignment(SwingConstants.CENTER);
@@ -1,9 +1,10 @@
 package gui;
 
-import database.DonorDAO;
-import database.RecipientDAO;
+import database.DAOFactory;
+import database.DonorRepository;
 import models.Donor;
 import models.Recipient;
+import utils.Gazetteer;
 import utils.SessionManager;
 
 import javax.swing.*;
@@ -18,11 +19,20 @@ public class RecipientDashboardPanel extends JPanel {
     private static final Color PRIMARY_RED = new Color(220, 20, 60);
     private static final Color DARK_RED = Color.BLACK;
     
+    // Search radius choices in km; 0 lists every compatible donor regardless of distance and
+    // BEST_MATCHES the donors stored by the last matchmaking run
+    private static final int BEST_MATCHES = -1;
+    private static final int[] RADIUS_KM = {BEST_MATCHES, 0, 25, 50, 100, 250, 500};
+    private static final String[] RADIUS_LABELS = {"Best matches", "Any distance", "25 km", "50 km", "100 km",
+                                                   "250 km", "500 km"};
+    private static final int NEAREST_LIMIT = 50;
+    
     private Recipient recipient;
     private JTable donorTable;
     private DefaultTableModel tableModel;
     private JLabel profileLabel;
     private JLabel matchCountLabel;
+    private JComboBox<String> radiusCombo;
     
     public RecipientDashboardPanel() {
         setLayout(new BorderLayout());
@@ -37,7 +47,7 @@ public class RecipientDashboardPanel extends JPanel {
     
     private void loadRecipientData() {
         int userId = SessionManager.getInstance().getCurrentUserId();
-        recipient = RecipientDAO.getRecipientByUserId(userId);
+        recipient = DAOFactory.getRecipientRepository().getRecipientByUserId(userId);
     }
     
     private void initComponents() {
@@ -85,6 +95,10 @@ public class RecipientDashboardPanel extends JPanel {
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
         buttonPanel.setBackground(Color.WHITE);
         
+        radiusCombo = new JComboBox<>(RADIUS_LABELS);
+        radiusCombo.setFont(new Font("Arial", Font.PLAIN, 12));
+        radiusCombo.addActionListener(e -> loadMatchingDonors());
+        
         JButton refreshButton = new JButton("Refresh");
         refreshButton.setForeground(PRIMARY_RED);
         refreshButton.setFont(new Font("Arial", Font.BOLD, 12));
@@ -97,6 +111,8 @@ public class RecipientDashboardPanel extends JPanel {
         viewProfileButton.setFocusPainted(false);
         viewProfileButton.addActionListener(e -> showRecipientProfile());
         
+        buttonPanel.add(new JLabel("Within:"));
+        buttonPanel.add(radiusCombo);
         buttonPanel.add(refreshButton);
         buttonPanel.add(viewProfileButton);
         
@@ -106,7 +122,8 @@ public class RecipientDashboardPanel extends JPanel {
         topPanel.add(buttonPanel, BorderLayout.EAST);
         
         // Table
-        String[] columns = {"Donor ID", "Name", "Age", "Gender", "Blood Group", "Organ", "Contact", "Location"};
+        String[] columns = {"Donor ID", "Name", "Age", "Gender", "Blood Group", "Organ", "Contact", "Location",
+                            "Distance (km)"};
         tableModel = new DefaultTableModel(columns, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -159,15 +176,36 @@ public class RecipientDashboardPanel extends JPanel {
         // Clear existing data
         tableModel.setRowCount(0);
         
-        // Search for matching donors by blood group
-        DonorDAO donorDAO = new DonorDAO();
-        List<Donor> matchingDonors = donorDAO.searchByBloodGroup(recipient.getBloodGroupNeeded());
+        // Rows written before coordinates were stored only have the location text
+        double[] here = recipient.getLatitude() != null
+            ? new double[] {recipient.getLatitude(), recipient.getLongitude()}
+            : Gazetteer.getInstance().locate(recipient.getLocation());
+        int radiusKm = RADIUS_KM[radiusCombo.getSelectedIndex()];
         
-        // If organ is specified, filter by organ as well
-        if (recipient.getOrganNeeded() != null && !recipient.getOrganNeeded().isEmpty()) {
-            List<Donor> organDonors = donorDAO.searchByOrgan(recipient.getOrganNeeded());
-            // Keep only donors that match both blood group and organ
-            matchingDonors.retainAll(organDonors);
+        // Search for donors with a compatible blood group (and the organ, if one is needed),
+        // nearest first when a radius is chosen
+        DonorRepository donorRepository = DAOFactory.getDonorRepository();
+        List<Donor> matchingDonors;
+        if (radiusKm == BEST_MATCHES) {
+            // Precomputed by MatchmakingJob; empty until a run has included this recipient
+            matchingDonors = DAOFactory.getMatchRepository().getMatchedDonors(recipient.getRecipientId());
+            if (matchingDonors.isEmpty()) {
+                matchingDonors = donorRepository.searchMatchingDonors(recipient.getBloodGroupNeeded(),
+                                                                      recipient.getOrganNeeded());
+            }
+        } else if (radiusKm > 0 && here != null) {
+            matchingDonors = donorRepository.searchNearestDonors(recipient.getBloodGroupNeeded(),
+                                                                 recipient.getOrganNeeded(),
+                                                                 here[0], here[1], radiusKm, NEAREST_LIMIT);
+        } else {
+            if (radiusKm > 0) {
+                JOptionPane.showMessageDialog(this,
+                    "Your location \"" + recipient.getLocation() + "\" could not be placed on the map.\n" +
+                    "Showing compatible donors at any distance.",
+                    "Unknown Location", JOptionPane.WARNING_MESSAGE);
+            }
+            matchingDonors = donorRepository.searchMatchingDonors(recipient.getBloodGroupNeeded(),
+                                                                  recipient.getOrganNeeded());
         }
         
         // Populate table
@@ -180,7 +218,8 @@ public class RecipientDashboardPanel extends JPanel {
                 donor.getBloodGroup(),
                 donor.getOrgan() != null ? donor.getOrgan() : "N/A",
                 donor.getContact(),
-                donor.getLocation()
+                donor.getLocation(),
+                formatDistance(here, donor)
             };
             tableModel.addRow(row);
         }
@@ -195,6 +234,13 @@ public class RecipientDashboardPanel extends JPanel {
         }
     }
     
+    private static String formatDistance(double[] here, Donor donor) {
+        if (here == null || donor.getLatitude() == null || donor.getLongitude() == null) {
+            return "N/A";
+        }
+        return String.format("%.1f", Gazetteer.distanceKm(here[0], here[1], donor.getLatitude(), donor.getLongitude()));
+    }
+    
     private void showRecipientProfile() {
         if (recipient == null) {
             JOptionPane.showMessageDialog(this, "Unable to load recipient data!", 
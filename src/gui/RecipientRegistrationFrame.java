@@ -1,7 +1,7 @@
 package gui;
 
-import database.RecipientDAO;
-import database.UserDAO;
+import database.DAOFactory;
+import database.UserRepository;
 import models.Recipient;
 import models.User;
 import utils.ValidationUtils;
@@ -209,8 +209,8 @@ public class RecipientRegistrationFrame extends JFrame {
         }
         
         // Check if username already exists
-        UserDAO userDAO = new UserDAO();
-        if (userDAO.usernameExists(username)) {
+        UserRepository userRepository = DAOFactory.getUserRepository();
+        if (userRepository.usernameExists(username)) {
             JOptionPane.showMessageDialog(this, "Username already exists! Please choose another.", 
                                         "Registration Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -218,7 +218,7 @@ public class RecipientRegistrationFrame extends JFrame {
         
         // Create User object
         User user = new User(username, password, "RECIPIENT");
-        int userId = userDAO.registerUser(user);
+        int userId = userRepository.registerUser(user);
         
         if (userId > 0) {
             // Create Recipient object
@@ -235,7 +235,7 @@ public class RecipientRegistrationFrame extends JFrame {
             recipient.setMedicalCondition(medicalConditionArea.getText().trim());
             
             // Register recipient
-            if (RecipientDAO.registerRecipient(recipient)) {
+            if (DAOFactory.getRecipientRepository().registerRecipient(recipient)) {
                 JOptionPane.showMessageDialog(this, 
                     "Registration successful!\nYou can now login with your credentials.", 
                     "Success", JOptionPane.INFORMATION_MESSAGE);
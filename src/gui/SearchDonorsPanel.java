@@ -1,31 +1,59 @@
 package gui;
 
-import database.DonorDAO;
+import database.AsyncDonorRepository;
+import database.DAOFactory;
+import database.DonorCriteria;
+import database.DonorSearchCache;
 import models.Donor;
+import utils.Gazetteer;
 import utils.ValidationUtils;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Search Donors Panel - Search and filter donors
- * Demonstrates Polymorphism through different search methods
+ * Any combination of blood group, gender, age range, organ and location
+ * can be given at once; empty fields are ignored. Results update as the
+ * user types: a search starts once typing pauses for DEBOUNCE_MS, and a
+ * search that narrows a recent one is answered from DonorSearchCache.
+ * The SEARCH button always queries the repository.
  */
 public class SearchDonorsPanel extends JPanel {
-    private DonorDAO donorDAO;
-    private JComboBox<String> searchTypeCombo;
-    private JTextField searchField;
+    private AsyncDonorRepository donorRepository;
+    private CompletableFuture<List<Donor>> pendingSearch;
+    private JComboBox<String> bloodGroupCombo, genderCombo, radiusCombo;
+    private JTextField minAgeField, maxAgeField, organField, locationField;
+    // Point of the current radius search, for the distance column
+    private double[] searchPoint;
     private JButton searchButton, clearButton;
+    private JLabel statusLabel;
+    private Timer debounceTimer;
+    private final DonorSearchCache searchCache = new DonorSearchCache(CACHE_SIZE, CACHE_TTL_MS);
     private JTable resultsTable;
     private DefaultTableModel tableModel;
     
     private static final Color PRIMARY_RED = new Color(220, 20, 60);
     private static final Color WHITE = Color.WHITE;
+    private static final String ANY = "Any";
+    
+    // Search-as-you-type: quiet period before searching, and the recent results kept for refining
+    private static final int DEBOUNCE_MS = 300;
+    private static final int CACHE_SIZE = 32;
+    private static final long CACHE_TTL_MS = 30_000;
+    
+    // Location match choices; 0 matches the location text, otherwise it is a place to search around
+    private static final int[] RADIUS_KM = {0, 25, 50, 100, 250, 500};
+    private static final String[] RADIUS_LABELS = {"Contains text", "Within 25 km", "Within 50 km",
+                                                   "Within 100 km", "Within 250 km", "Within 500 km"};
     
     public SearchDonorsPanel() {
-        donorDAO = new DonorDAO();
+        donorRepository = DAOFactory.getAsyncDonorRepository();
         initializeUI();
     }
     
@@ -44,27 +72,53 @@ public class SearchDonorsPanel extends JPanel {
         headerPanel.add(headerLabel);
         
         // Search Panel
-        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 20, 15));
+        JPanel searchPanel = new JPanel(new GridLayout(2, 1));
         searchPanel.setBackground(WHITE);
-        searchPanel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
-        
-        JLabel searchTypeLabel = new JLabel("Search By:");
-        searchTypeLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        searchPanel.setBorder(BorderFactory.createEmptyBorder(5, 20, 5, 20));
         
-        String[] searchTypes = {"Blood Group", "Organ", "Location"};
-        searchTypeCombo = new JComboBox<>(searchTypes);
-        searchTypeCombo.setFont(new Font("Arial", Font.PLAIN, 14));
-        searchTypeCombo.setPreferredSize(new Dimension(150, 30));
+        String[] bloodGroups = {ANY, "A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+        bloodGroupCombo = new JComboBox<>(bloodGroups);
+        String[] genders = {ANY, "Male", "Female", "Other"};
+        genderCombo = new JComboBox<>(genders);
+        minAgeField = new JTextField(3);
+        maxAgeField = new JTextField(3);
+        organField = new JTextField(10);
+        locationField = new JTextField(12);
+        radiusCombo = new JComboBox<>(RADIUS_LABELS);
         
-        JLabel searchLabel = new JLabel("Search Value:");
-        searchLabel.setFont(new Font("Arial", Font.PLAIN, 14));
-        
-        searchField = new JTextField(20);
-        searchField.setFont(new Font("Arial", Font.PLAIN, 14));
-        searchField.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(PRIMARY_RED, 1),
-            BorderFactory.createEmptyBorder(5, 5, 5, 5)
-        ));
+        for (JComponent field : new JComponent[] {bloodGroupCombo, genderCombo, minAgeField, maxAgeField,
+                                                   organField, locationField, radiusCombo}) {
+            field.setFont(new Font("Arial", Font.PLAIN, 14));
+        }
+        for (JTextField field : new JTextField[] {minAgeField, maxAgeField, organField, locationField}) {
+            field.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(PRIMARY_RED, 1),
+                BorderFactory.createEmptyBorder(5, 5, 5, 5)
+            ));
+            // Enter key listener
+            field.addActionListener(e -> performSearch(true));
+            field.getDocument().addDocumentListener(new DocumentListener() {
+                @Override
+                public void insertUpdate(DocumentEvent e) {
+                    scheduleSearch();
+                }
+                
+                @Override
+                public void removeUpdate(DocumentEvent e) {
+                    scheduleSearch();
+                }
+                
+                @Override
+                public void changedUpdate(DocumentEvent e) {
+                    scheduleSearch();
+                }
+            });
+        }
+        for (JComboBox<?> combo : new JComboBox<?>[] {bloodGroupCombo, genderCombo, radiusCombo}) {
+            combo.addActionListener(e -> scheduleSearch());
+        }
+        debounceTimer = new Timer(DEBOUNCE_MS, e -> performSearch(false));
+        debounceTimer.setRepeats(false);
         
         searchButton = new JButton("SEARCH");
         searchButton.setFont(new Font("Arial", Font.BOLD, 12));
@@ -73,7 +127,7 @@ public class SearchDonorsPanel extends JPanel {
         searchButton.setFocusPainted(false);
         searchButton.setBorderPainted(false);
         searchButton.setPreferredSize(new Dimension(100, 30));
-        searchButton.addActionListener(e -> performSearch());
+        searchButton.addActionListener(e -> performSearch(true));
         
         clearButton = new JButton("CLEAR");
         clearButton.setFont(new Font("Arial", Font.PLAIN, 12));
@@ -84,15 +138,38 @@ public class SearchDonorsPanel extends JPanel {
         clearButton.setPreferredSize(new Dimension(100, 30));
         clearButton.addActionListener(e -> clearSearch());
         
-        searchPanel.add(searchTypeLabel);
-        searchPanel.add(searchTypeCombo);
-        searchPanel.add(searchLabel);
-        searchPanel.add(searchField);
-        searchPanel.add(searchButton);
-        searchPanel.add(clearButton);
+        JPanel firstRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 8));
+        firstRow.setBackground(WHITE);
+        firstRow.add(createLabel("Blood Group:"));
+        firstRow.add(bloodGroupCombo);
+        firstRow.add(createLabel("Gender:"));
+        firstRow.add(genderCombo);
+        firstRow.add(createLabel("Age:"));
+        firstRow.add(minAgeField);
+        firstRow.add(createLabel("to"));
+        firstRow.add(maxAgeField);
+        firstRow.add(createLabel("Organ:"));
+        firstRow.add(organField);
+        
+        JPanel secondRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 8));
+        secondRow.setBackground(WHITE);
+        secondRow.add(createLabel("Location:"));
+        secondRow.add(locationField);
+        secondRow.add(radiusCombo);
+        secondRow.add(searchButton);
+        secondRow.add(clearButton);
+        
+        statusLabel = new JLabel(" ");
+        statusLabel.setFont(new Font("Arial", Font.ITALIC, 12));
+        statusLabel.setForeground(Color.GRAY);
+        secondRow.add(statusLabel);
+        
+        searchPanel.add(firstRow);
+        searchPanel.add(secondRow);
         
         // Results Table
-        String[] columns = {"ID", "Name", "Age", "Gender", "Blood Group", "Organ", "Contact", "Location"};
+        String[] columns = {"ID", "Name", "Age", "Gender", "Blood Group", "Organ", "Contact", "Location",
+                            "Distance (km)"};
         tableModel = new DefaultTableModel(columns, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -117,39 +194,125 @@ public class SearchDonorsPanel extends JPanel {
         
         add(topPanel, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
-        
-        // Enter key listener
-        searchField.addActionListener(e -> performSearch());
+    }
+    
+    private static JLabel createLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setFont(new Font("Arial", Font.PLAIN, 14));
+        return label;
+    }
+    
+    /**
+     * Restart the quiet period after an edit; the results on screen are now stale
+     */
+    private void scheduleSearch() {
+        cancelPendingSearch();
+        debounceTimer.restart();
     }
     
     /**
-     * Polymorphic search method - different behavior based on search type
+     * Search with every criterion that has been filled in
+     * Runs the query off the event dispatch thread; starting a new search
+     * cancels one that is still running.
+     * @param explicit true for the SEARCH button or Enter: always query the
+     *        repository and report problems in dialogs; false while typing:
+     *        use the cache and report in the status line
      */
-    private void performSearch() {
-        String searchType = (String) searchTypeCombo.getSelectedItem();
-        String searchValue = searchField.getText().trim();
+    private void performSearch(boolean explicit) {
+        debounceTimer.stop();
+        DonorCriteria criteria = new DonorCriteria();
+        if (!ANY.equals(bloodGroupCombo.getSelectedItem())) {
+            criteria.setBloodGroup((String) bloodGroupCombo.getSelectedItem());
+        }
+        if (!ANY.equals(genderCombo.getSelectedItem())) {
+            criteria.setGender((String) genderCombo.getSelectedItem());
+        }
+        try {
+            criteria.setMinAge(parseAge(minAgeField));
+            criteria.setMaxAge(parseAge(maxAgeField));
+        } catch (NumberFormatException e) {
+            report(explicit, "Age must be a whole number!", true);
+            return;
+        }
+        criteria.setOrgan(organField.getText());
+        
+        String location = locationField.getText().trim();
+        double[] point = null;
+        int radiusKm = RADIUS_KM[radiusCombo.getSelectedIndex()];
+        if (radiusKm > 0) {
+            point = Gazetteer.getInstance().locate(location);
+            if (point == null) {
+                report(explicit, "Unknown place: " + location + "\nTry a city name.", false);
+                return;
+            }
+            criteria.setNear(point[0], point[1], radiusKm);
+        } else {
+            criteria.setLocation(location);
+        }
         
-        if (!ValidationUtils.isNotEmpty(searchValue)) {
-            ValidationUtils.showError("Please enter a search value!");
+        if (criteria.isEmpty()) {
+            if (explicit) {
+                ValidationUtils.showError("Please enter at least one search criterion!");
+            } else {
+                cancelPendingSearch();
+                tableModel.setRowCount(0);
+                statusLabel.setText(" ");
+            }
             return;
         }
         
+        cancelPendingSearch();
         tableModel.setRowCount(0);
-        List<Donor> results = null;
-        
-        // Polymorphic behavior - different search methods
-        switch (searchType) {
-            case "Blood Group":
-                results = donorDAO.searchByBloodGroup(searchValue);
-                break;
-            case "Organ":
-                results = donorDAO.searchByOrgan(searchValue);
-                break;
-            case "Location":
-                results = donorDAO.searchByLocation(searchValue);
-                break;
+        searchPoint = point;
+        
+        if (!explicit) {
+            List<Donor> cached = searchCache.find(criteria);
+            if (cached != null) {
+                showResults(cached, false);
+                return;
+            }
         }
         
+        statusLabel.setText("Searching...");
+        CompletableFuture<List<Donor>> search = donorRepository.searchDonors(criteria);
+        
+        CompletableFuture<List<Donor>> thisSearch = search;
+        pendingSearch = thisSearch;
+        searchButton.setEnabled(false);
+        
+        thisSearch.whenComplete((results, error) -> SwingUtilities.invokeLater(() -> {
+            // Ignore searches that were superseded or cancelled
+            if (pendingSearch != thisSearch || thisSearch.isCancelled()) {
+                return;
+            }
+            pendingSearch = null;
+            searchButton.setEnabled(true);
+            
+            if (error != null) {
+                report(explicit, "Search failed: " + error.getMessage(), true);
+                return;
+            }
+            searchCache.put(criteria, results);
+            showResults(results, explicit);
+        }));
+    }
+    
+    /**
+     * Show a problem in a dialog after an explicit search, or in the status line while typing
+     */
+    private void report(boolean explicit, String message, boolean error) {
+        if (!explicit) {
+            statusLabel.setText(message.replace('\n', ' '));
+        } else if (error) {
+            ValidationUtils.showError(message);
+        } else {
+            ValidationUtils.showWarning(message);
+        }
+    }
+    
+    private void showResults(List<Donor> results, boolean explicit) {
+        int count = results != null ? results.size() : 0;
+        statusLabel.setText(count + " matching donor(s)");
         if (results != null && !results.isEmpty()) {
             for (Donor donor : results) {
                 Object[] row = {
@@ -160,22 +323,51 @@ public class SearchDonorsPanel extends JPanel {
                     donor.getBloodGroup(),
                     donor.getOrgan(),
                     donor.getContact(),
-                    donor.getLocation()
+                    donor.getLocation(),
+                    searchPoint != null && donor.getLatitude() != null
+                        ? String.format("%.1f", Gazetteer.distanceKm(searchPoint[0], searchPoint[1],
+                                                                    donor.getLatitude(), donor.getLongitude()))
+                        : ""
                 };
                 tableModel.addRow(row);
             }
             
-            JOptionPane.showMessageDialog(this, 
-                "Found " + results.size() + " matching donor(s)", 
-                "Search Results", 
-                JOptionPane.INFORMATION_MESSAGE);
-        } else {
+            if (explicit) {
+                JOptionPane.showMessageDialog(this, 
+                    "Found " + results.size() + " matching donor(s)", 
+                    "Search Results", 
+                    JOptionPane.INFORMATION_MESSAGE);
+            }
+        } else if (explicit) {
             ValidationUtils.showWarning("No donors found matching your search criteria!");
         }
     }
     
+    private static Integer parseAge(JTextField field) {
+        String text = field.getText().trim();
+        return text.isEmpty() ? null : Integer.valueOf(text);
+    }
+    
+    private void cancelPendingSearch() {
+        if (pendingSearch != null) {
+            pendingSearch.cancel(true);
+            pendingSearch = null;
+            searchButton.setEnabled(true);
+        }
+    }
+    
     private void clearSearch() {
-        searchField.setText("");
+        bloodGroupCombo.setSelectedIndex(0);
+        genderCombo.setSelectedIndex(0);
+        minAgeField.setText("");
+        maxAgeField.setText("");
+        organField.setText("");
+        locationField.setText("");
+        radiusCombo.setSelectedIndex(0);
+        // Clearing the fields scheduled a search; drop it along with any running one
+        debounceTimer.stop();
+        cancelPendingSearch();
         tableModel.setRowCount(0);
+        statusLabel.setText(" ");
     }
 }
@@ -1,22 +1,27 @@
 package gui;
 
-import database.CharityDAO;
-import models.Donation;
+import database.AsyncCharityRepository;
+import database.DAOFactory;
+import models.DonationWindow;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.text.SimpleDateFormat;
-import java.util.List;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 /**
  * View Donations Dialog - Display donations for a charity request
+ * Rows are loaded in blocks as they are scrolled to (see DonationTableModel),
+ * so the dialog opens as fast for a campaign with hundreds of thousands of
+ * donations as for one with ten.
  */
 public class ViewDonationsDialog extends JDialog {
-    private CharityDAO charityDAO;
+    private AsyncCharityRepository donationRepository;
     private int requestId;
     private JTable donationsTable;
-    private DefaultTableModel tableModel;
+    private DonationTableModel tableModel;
+    private JLabel totalsLabel;
+    private boolean loaded;
     
     private static final Color PRIMARY_RED = new Color(220, 20, 60);
     private static final Color WHITE = Color.WHITE;
@@ -24,14 +29,15 @@ public class ViewDonationsDialog extends JDialog {
     public ViewDonationsDialog(int requestId, String title) {
         super((Frame) null, "Donations for: " + title, true);
         this.requestId = requestId;
-        this.charityDAO = new CharityDAO();
+        this.donationRepository = DAOFactory.getAsyncCharityRepository();
         initializeUI();
-        loadDonations();
+        tableModel.load();
     }
     
     private void initializeUI() {
-        setSize(700, 500);
+        setSize(800, 500);
         setLocationRelativeTo(null);
+        setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
         
         JPanel mainPanel = new JPanel(new BorderLayout());
         mainPanel.setBackground(WHITE);
@@ -39,21 +45,15 @@ public class ViewDonationsDialog extends JDialog {
         // Header
         JPanel headerPanel = new JPanel();
         headerPanel.setBackground(PRIMARY_RED);
-        headerPanel.setPreferredSize(new Dimension(700, 60));
+        headerPanel.setPreferredSize(new Dimension(800, 60));
         
         JLabel headerLabel = new JLabel("Donation History");
         headerLabel.setFont(new Font("Arial", Font.BOLD, 20));
         headerLabel.setForeground(WHITE);
         headerPanel.add(headerLabel);
         
-        // Table
-        String[] columns = {"Donation ID", "Donor Name", "Amount (₹)", "Payment Method", "Date"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Table, filled in as it is scrolled
+        tableModel = new DonationTableModel(donationRepository, requestId, this::showTotals, this::showLoadError);
         
         donationsTable = new JTable(tableModel);
         donationsTable.setFont(new Font("Arial", Font.PLAIN, 12));
@@ -65,10 +65,13 @@ public class ViewDonationsDialog extends JDialog {
         JScrollPane scrollPane = new JScrollPane(donationsTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
-        // Close button
+        // Totals and close button
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 10));
         buttonPanel.setBackground(WHITE);
         
+        totalsLabel = new JLabel("Loading donations...");
+        totalsLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        
         JButton closeButton = new JButton("CLOSE");
         closeButton.setFont(new Font("Arial", Font.PLAIN, 14));
         closeButton.setBackground(PRIMARY_RED);
@@ -78,6 +81,7 @@ public class ViewDonationsDialog extends JDialog {
         closeButton.setPreferredSize(new Dimension(150, 35));
         closeButton.addActionListener(e -> dispose());
         
+        buttonPanel.add(totalsLabel);
         buttonPanel.add(closeButton);
         
         mainPanel.add(headerPanel, BorderLayout.NORTH);
@@ -85,30 +89,35 @@ public class ViewDonationsDialog extends JDialog {
         mainPanel.add(buttonPanel, BorderLayout.SOUTH);
         
         add(mainPanel);
+        
+        // Stop loading blocks once the dialog is gone
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                tableModel.close();
+            }
+        });
     }
     
-    private void loadDonations() {
-        tableModel.setRowCount(0);
-        List<Donation> donations = charityDAO.getDonationsByRequestId(requestId);
-        
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy HH:mm");
+    private void showTotals(DonationWindow window) {
+        totalsLabel.setText(String.format("%,d donations, ₹%,.2f raised",
+                                          window.getDonationCount(), window.getTotalAmount()));
         
-        if (donations.isEmpty()) {
-            JOptionPane.showMessageDialog(this, 
-                "No donations yet for this request", 
-                "Information", 
-                JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            for (Donation donation : donations) {
-                Object[] row = {
-                    donation.getDonationId(),
-                    donation.getDonorName(),
-                    String.format("%.2f", donation.getAmount()),
-                    donation.getPaymentMethod(),
-                    dateFormat.format(donation.getDonationDate())
-                };
-                tableModel.addRow(row);
+        if (!loaded) {
+            loaded = true;
+            if (window.getDonationCount() == 0) {
+                JOptionPane.showMessageDialog(this, 
+                    "No donations yet for this request", 
+                    "Information", 
+                    JOptionPane.INFORMATION_MESSAGE);
             }
         }
     }
+    
+    private void showLoadError(Throwable error) {
+        totalsLabel.setText("");
+        JOptionPane.showMessageDialog(this, "Failed to load donations" +
+                                      (error != null ? ": " + error.getMessage() : ""),
+                                      "Error", JOptionPane.ERROR_MESSAGE);
+    }
 }
@@ -1,29 +1,42 @@
 package gui;
 
-import database.DonorDAO;
+import database.AsyncDonorRepository;
+import database.DAOFactory;
+import database.Page;
 import models.Donor;
+import utils.CsvExporter;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * View Donors Panel - Display all registered donors
  */
 public class ViewDonorsPanel extends JPanel {
-    private DonorDAO donorDAO;
+    private AsyncDonorRepository donorRepository;
+    private CompletableFuture<Page<Donor>> pendingLoad;
+    private Page<Donor> currentPage;
+    private int pageNumber;
     private JTable donorTable;
     private DefaultTableModel tableModel;
     private JButton refreshButton;
+    private JButton exportButton;
+    private JButton previousButton;
+    private JButton nextButton;
+    private JLabel pageLabel;
+    
+    private static final int PAGE_SIZE = 100;
     
     private static final Color PRIMARY_RED = new Color(220, 20, 60);
     private static final Color WHITE = Color.WHITE;
     
     public ViewDonorsPanel() {
-        donorDAO = new DonorDAO();
+        donorRepository = DAOFactory.getAsyncDonorRepository();
         initializeUI();
-        loadDonors();
+        loadPage(null, 1);
     }
     
     private void initializeUI() {
@@ -44,10 +57,21 @@ public class ViewDonorsPanel extends JPanel {
         refreshButton.setBackground(WHITE);
         refreshButton.setForeground(PRIMARY_RED);
         refreshButton.setFocusPainted(false);
-        refreshButton.addActionListener(e -> loadDonors());
+        refreshButton.addActionListener(e -> loadPage(null, 1));
+        
+        exportButton = new JButton("Export CSV");
+        exportButton.setBackground(WHITE);
+        exportButton.setForeground(PRIMARY_RED);
+        exportButton.setFocusPainted(false);
+        exportButton.addActionListener(e -> exportDonors());
+        
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+        buttonPanel.setOpaque(false);
+        buttonPanel.add(exportButton);
+        buttonPanel.add(refreshButton);
         
         headerPanel.add(headerLabel, BorderLayout.WEST);
-        headerPanel.add(refreshButton, BorderLayout.EAST);
+        headerPanel.add(buttonPanel, BorderLayout.EAST);
         
         // Table
         String[] columns = {"ID", "Name", "Age", "Gender", "Blood Group", "Organ", "Contact", "Location"};
@@ -68,26 +92,114 @@ public class ViewDonorsPanel extends JPanel {
         JScrollPane scrollPane = new JScrollPane(donorTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
+        // Paging controls
+        JPanel pagingPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 5));
+        pagingPanel.setBackground(WHITE);
+        
+        previousButton = new JButton("< Previous");
+        previousButton.setFocusPainted(false);
+        previousButton.addActionListener(e -> loadPage(currentPage.getPreviousToken(), pageNumber - 1));
+        
+        nextButton = new JButton("Next >");
+        nextButton.setFocusPainted(false);
+        nextButton.addActionListener(e -> loadPage(currentPage.getNextToken(), pageNumber + 1));
+        
+        pageLabel = new JLabel();
+        pageLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        
+        pagingPanel.add(previousButton);
+        pagingPanel.add(pageLabel);
+        pagingPanel.add(nextButton);
+        
         add(headerPanel, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
+        add(pagingPanel, BorderLayout.SOUTH);
+    }
+    
+    /**
+     * Load one page of donors off the event dispatch thread
+     * Starting another load cancels one in progress.
+     * @param pageToken Token of the page to show, or null for the newest donors
+     * @param number Page number shown to the user
+     */
+    private void loadPage(String pageToken, int number) {
+        if (pendingLoad != null) {
+            pendingLoad.cancel(true);
+        }
+        
+        refreshButton.setEnabled(false);
+        previousButton.setEnabled(false);
+        nextButton.setEnabled(false);
+        
+        CompletableFuture<Page<Donor>> load = donorRepository.getDonorsPage(pageToken, PAGE_SIZE);
+        pendingLoad = load;
+        load.whenComplete((page, error) -> SwingUtilities.invokeLater(() -> {
+            if (pendingLoad != load || load.isCancelled()) {
+                return;
+            }
+            pendingLoad = null;
+            refreshButton.setEnabled(true);
+            
+            if (error != null) {
+                updatePagingControls();
+                JOptionPane.showMessageDialog(this, "Failed to load donors: " + error.getMessage(),
+                                              "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            
+            currentPage = page;
+            pageNumber = number;
+            tableModel.setRowCount(0);
+            for (Donor donor : page.getItems()) {
+                tableModel.addRow(toRow(donor));
+            }
+            updatePagingControls();
+        }));
     }
     
-    private void loadDonors() {
-        tableModel.setRowCount(0);
-        List<Donor> donors = donorDAO.getAllDonors();
-        
-        for (Donor donor : donors) {
-            Object[] row = {
-                donor.getDonorId(),
-                donor.getName(),
-                donor.getAge(),
-                donor.getGender(),
-                donor.getBloodGroup(),
-                donor.getOrgan(),
-                donor.getContact(),
-                donor.getLocation()
-            };
-            tableModel.addRow(row);
+    private void updatePagingControls() {
+        previousButton.setEnabled(currentPage != null && currentPage.hasPrevious());
+        nextButton.setEnabled(currentPage != null && currentPage.hasNext());
+        pageLabel.setText(currentPage != null ? "Page " + pageNumber : "");
+    }
+    
+    private static Object[] toRow(Donor donor) {
+        return new Object[] {
+            donor.getDonorId(),
+            donor.getName(),
+            donor.getAge(),
+            donor.getGender(),
+            donor.getBloodGroup(),
+            donor.getOrgan(),
+            donor.getContact(),
+            donor.getLocation()
+        };
+    }
+    
+    /**
+     * Export all donors to a CSV file chosen by the user
+     * Rows are streamed from the database, not taken from the table.
+     */
+    private void exportDonors() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("donors.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
         }
+        
+        File file = chooser.getSelectedFile();
+        exportButton.setEnabled(false);
+        DAOFactory.getExecutor()
+            .submit(() -> CsvExporter.exportDonors(DAOFactory.getDonorRepository(), file))
+            .whenComplete((count, error) -> SwingUtilities.invokeLater(() -> {
+                exportButton.setEnabled(true);
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, "Export failed: " + error.getMessage(),
+                                                  "Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, count + " donors exported to " + file.getPath(),
+                                                  "Export Complete", JOptionPane.INFORMATION_MESSAGE);
+                }
+            }));
     }
 }
@@ -31,7 +31,8 @@ public class DemoPaymentGateway implements PaymentGateway {
         }
         
         // Generate transaction ID
-        transactionId = "TXN" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        // The whole random UUID (122 random bits), so IDs do not collide across donations
+        transactionId = "TXN" + UUID.randomUUID().toString().replace("-", "").toUpperCase();
         
         // Simulate 95% success rate
         Random random = new Random();
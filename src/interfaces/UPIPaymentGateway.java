@@ -30,7 +30,7 @@ public class UPIPaymentGateway implements PaymentGateway {
         }
         
         // Generate UPI transaction ID
-        transactionId = "UPI" + UUID.randomUUID().toString().substring(0, 10).toUpperCase();
+        transactionId = "UPI" + UUID.randomUUID().toString().replace("-", "").toUpperCase();
         
         // Simulate 98% success rate for UPI
         Random random = new Random();
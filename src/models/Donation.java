@@ -12,6 +12,7 @@ public class Donation {
     private double amount;
     private Timestamp donationDate;
     private String paymentMethod;
+    private String transactionId;
     
     // Constructors
     public Donation() {
@@ -24,6 +25,11 @@ public class Donation {
         this.paymentMethod = paymentMethod;
     }
     
+    public Donation(String donorName, int requestId, double amount, String paymentMethod, String transactionId) {
+        this(donorName, requestId, amount, paymentMethod);
+        this.transactionId = transactionId;
+    }
+    
     public Donation(int donationId, String donorName, int requestId, double amount, 
                    Timestamp donationDate, String paymentMethod) {
         this.donationId = donationId;
@@ -34,6 +40,12 @@ public class Donation {
         this.paymentMethod = paymentMethod;
     }
     
+    public Donation(int donationId, String donorName, int requestId, double amount, 
+                   Timestamp donationDate, String paymentMethod, String transactionId) {
+        this(donationId, donorName, requestId, amount, donationDate, paymentMethod);
+        this.transactionId = transactionId;
+    }
+    
     // Getter and Setter methods
     public int getDonationId() {
         return donationId;
@@ -83,6 +95,14 @@ public class Donation {
         this.paymentMethod = paymentMethod;
     }
     
+    public String getTransactionId() {
+        return transactionId;
+    }
+    
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+    
     @Override
     public String toString() {
         return "Donation{" +
@@ -92,6 +112,7 @@ public class Donation {
                 ", amount=" + amount +
                 ", donationDate=" + donationDate +
                 ", paymentMethod='" + paymentMethod + '\'' +
+                ", transactionId='" + transactionId + '\'' +
                 '}';
     }
 }
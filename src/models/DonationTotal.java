@@ -0,0 +1,52 @@
+package models;
+
+/**
+ * DonationTotal class holding the number and sum of donations for one key
+ * of a donation rollup: a request ID, a day (yyyy-MM-dd), a payment method
+ * or a requester type. The key is empty for donations without one.
+ */
+public class DonationTotal {
+    private String key;
+    private int donationCount;
+    private double totalAmount;
+    
+    // Constructors
+    public DonationTotal() {
+    }
+    
+    public DonationTotal(String key, int donationCount, double totalAmount) {
+        this.key = key;
+        this.donationCount = donationCount;
+        this.totalAmount = totalAmount;
+    }
+    
+    // Getter and Setter methods
+    public String getKey() {
+        return key;
+    }
+    
+    public void setKey(String key) {
+        this.key = key;
+    }
+    
+    public int getDonationCount() {
+        return donationCount;
+    }
+    
+    public void setDonationCount(int donationCount) {
+        this.donationCount = donationCount;
+    }
+    
+    public double getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public void setTotalAmount(double totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+    
+    @Override
+    public String toString() {
+        return key + ": " + donationCount + " donations, " + String.format("%.2f", totalAmount);
+    }
+}
@@ -0,0 +1,78 @@
+package models;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DonationWindow class holding a run of a request's donations, newest
+ * first, starting at a row offset, together with the request's donation
+ * count and total read at the same time. Each donation comes with the
+ * running total: the amount raised by the request up to and including it.
+ * The next token lets the window after this one be read without skipping
+ * the rows before it.
+ */
+public class DonationWindow {
+    private int offset;
+    private List<Donation> donations;
+    private double[] runningTotals;
+    private int donationCount;
+    private double totalAmount;
+    private String nextToken;
+
+    // Constructors
+    public DonationWindow() {
+        this.donations = Collections.emptyList();
+        this.runningTotals = new double[0];
+    }
+
+    public DonationWindow(int offset, List<Donation> donations, double[] runningTotals,
+                          int donationCount, double totalAmount, String nextToken) {
+        this.offset = offset;
+        this.donations = donations;
+        this.runningTotals = runningTotals;
+        this.donationCount = donationCount;
+        this.totalAmount = totalAmount;
+        this.nextToken = nextToken;
+    }
+
+    // Getter methods
+    public int getOffset() {
+        return offset;
+    }
+
+    public List<Donation> getDonations() {
+        return donations;
+    }
+
+    /**
+     * @param index Index into getDonations()
+     */
+    public double getRunningTotal(int index) {
+        return runningTotals[index];
+    }
+
+    public int getDonationCount() {
+        return donationCount;
+    }
+
+    public double getTotalAmount() {
+        return totalAmount;
+    }
+
+    /**
+     * @return Token to read the following donations from, or null after the oldest
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    @Override
+    public String toString() {
+        return "DonationWindow{" +
+                "offset=" + offset +
+                ", donations=" + donations.size() +
+                ", donationCount=" + donationCount +
+                ", totalAmount=" + totalAmount +
+                '}';
+    }
+}
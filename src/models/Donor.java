@@ -1,5 +1,7 @@
 package models;
 
+import java.sql.Timestamp;
+
 /**
  * Donor class demonstrating Inheritance (extends User) and Encapsulation
  */
@@ -13,6 +15,9 @@ public class Donor extends User {
     private String organ;
     private String contact;
     private String location;
+    private Timestamp registrationDate;
+    private Double latitude;
+    private Double longitude;
     
     // Constructors
     public Donor() {
@@ -101,6 +106,30 @@ public class Donor extends User {
         this.location = location;
     }
     
+    public Timestamp getRegistrationDate() {
+        return registrationDate;
+    }
+    
+    public void setRegistrationDate(Timestamp registrationDate) {
+        this.registrationDate = registrationDate;
+    }
+    
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+    
     // Method overriding (Polymorphism)
     @Override
     public String getDisplayInfo() {
@@ -108,6 +137,26 @@ public class Donor extends User {
                " | Contact: " + contact + " | Location: " + location;
     }
     
+    /**
+     * Donors are equal when they are the same stored row (same donor ID)
+     * Unsaved donors (ID 0) are only equal to themselves.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Donor)) {
+            return false;
+        }
+        return donorId != 0 && donorId == ((Donor) o).donorId;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(donorId);
+    }
+    
     @Override
     public String toString() {
         return "Donor{" +
@@ -0,0 +1,140 @@
+package models;
+
+import java.sql.Timestamp;
+
+/**
+ * DonorMatch class representing one donor proposed for a recipient by the
+ * batch matchmaking job
+ * matchRank numbers a recipient's matches from 1 (best). priority is the
+ * recipient's urgency (0 = CRITICAL, 1 = URGENT, 2 = NORMAL). The names,
+ * blood group, urgency and donor age are filled in when matches are read
+ * for display and are not stored with the match.
+ */
+public class DonorMatch {
+    private int recipientId;
+    private int matchRank;
+    private int donorId;
+    private int priority;
+    private Double distanceKm;
+    private Timestamp matchedAt;
+    private String recipientName;
+    private String urgencyLevel;
+    private String donorName;
+    private String donorBloodGroup;
+    private int donorAge;
+    
+    // Constructors
+    public DonorMatch() {
+    }
+    
+    public DonorMatch(int recipientId, int matchRank, int donorId, int priority, Double distanceKm) {
+        this.recipientId = recipientId;
+        this.matchRank = matchRank;
+        this.donorId = donorId;
+        this.priority = priority;
+        this.distanceKm = distanceKm;
+    }
+    
+    // Getter and Setter methods
+    public int getRecipientId() {
+        return recipientId;
+    }
+    
+    public void setRecipientId(int recipientId) {
+        this.recipientId = recipientId;
+    }
+    
+    public int getMatchRank() {
+        return matchRank;
+    }
+    
+    public void setMatchRank(int matchRank) {
+        this.matchRank = matchRank;
+    }
+    
+    public int getDonorId() {
+        return donorId;
+    }
+    
+    public void setDonorId(int donorId) {
+        this.donorId = donorId;
+    }
+    
+    public int getPriority() {
+        return priority;
+    }
+    
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+    
+    /**
+     * @return Distance in km, or null if either location is unknown
+     */
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+    
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+    
+    public Timestamp getMatchedAt() {
+        return matchedAt;
+    }
+    
+    public void setMatchedAt(Timestamp matchedAt) {
+        this.matchedAt = matchedAt;
+    }
+    
+    public String getRecipientName() {
+        return recipientName;
+    }
+    
+    public void setRecipientName(String recipientName) {
+        this.recipientName = recipientName;
+    }
+    
+    public String getUrgencyLevel() {
+        return urgencyLevel;
+    }
+    
+    public void setUrgencyLevel(String urgencyLevel) {
+        this.urgencyLevel = urgencyLevel;
+    }
+    
+    public String getDonorName() {
+        return donorName;
+    }
+    
+    public void setDonorName(String donorName) {
+        this.donorName = donorName;
+    }
+    
+    public String getDonorBloodGroup() {
+        return donorBloodGroup;
+    }
+    
+    public void setDonorBloodGroup(String donorBloodGroup) {
+        this.donorBloodGroup = donorBloodGroup;
+    }
+    
+    public int getDonorAge() {
+        return donorAge;
+    }
+    
+    public void setDonorAge(int donorAge) {
+        this.donorAge = donorAge;
+    }
+    
+    @Override
+    public String toString() {
+        return "DonorMatch{" +
+                "recipientId=" + recipientId +
+                ", matchRank=" + matchRank +
+                ", donorId=" + donorId +
+                ", priority=" + priority +
+                ", distanceKm=" + distanceKm +
+                '}';
+    }
+}
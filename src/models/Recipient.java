@@ -1,5 +1,7 @@
 package models;
 
+import java.sql.Timestamp;
+
 /**
  * Recipient class representing a blood/organ recipient
  * Demonstrates Inheritance (extends User) and Encapsulation
@@ -15,6 +17,9 @@ public class Recipient extends User {
     private String location;
     private String urgencyLevel;
     private String medicalCondition;
+    private Timestamp registrationDate;
+    private Double latitude;
+    private Double longitude;
     
     // Constructors
     public Recipient() {
@@ -106,6 +111,30 @@ public class Recipient extends User {
         this.medicalCondition = medicalCondition;
     }
     
+    public Timestamp getRegistrationDate() {
+        return registrationDate;
+    }
+    
+    public void setRegistrationDate(Timestamp registrationDate) {
+        this.registrationDate = registrationDate;
+    }
+    
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+    
     /**
      * Polymorphism - Override parent method
      */
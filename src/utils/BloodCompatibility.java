@@ -0,0 +1,158 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ABO/Rh red cell compatibility between donor and recipient blood groups
+ * The eight groups accepted by ValidationUtils.isValidBloodGroup are
+ * numbered 0-7 and each compatibility row is stored as a bitset over them,
+ * so "can this donor give to this recipient" is a single bit test.
+ */
+public class BloodCompatibility {
+    /** Blood groups in bit order */
+    public static final String[] GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+
+    // DONORS_FOR[r] has bit d set if donor group d can give to recipient group r
+    private static final int[] DONORS_FOR = new int[GROUPS.length];
+
+    // Compatible donor groups per recipient group, in preference order
+    private static final List<List<String>> PREFERENCE = new ArrayList<>();
+
+    static {
+        for (int r = 0; r < GROUPS.length; r++) {
+            for (int d = 0; d < GROUPS.length; d++) {
+                if (canGive(GROUPS[d], GROUPS[r])) {
+                    DONORS_FOR[r] |= 1 << d;
+                }
+            }
+        }
+        for (int r = 0; r < GROUPS.length; r++) {
+            PREFERENCE.add(Collections.unmodifiableList(rankDonors(r)));
+        }
+    }
+
+    // Private constructor to prevent instantiation
+    private BloodCompatibility() {
+    }
+
+    /**
+     * Bit position of a blood group
+     * @return 0-7, or -1 if the group is not one of GROUPS
+     */
+    public static int indexOf(String bloodGroup) {
+        if (bloodGroup != null) {
+            for (int i = 0; i < GROUPS.length; i++) {
+                if (GROUPS[i].equalsIgnoreCase(bloodGroup.trim())) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Bitset of donor groups that can give to a recipient group
+     * @return Bits indexed as GROUPS, or 0 for an unknown group
+     */
+    public static int compatibleDonorMask(String recipientGroup) {
+        int r = indexOf(recipientGroup);
+        return r < 0 ? 0 : DONORS_FOR[r];
+    }
+
+    /**
+     * Whether a donor can give to a recipient
+     */
+    public static boolean isCompatible(String donorGroup, String recipientGroup) {
+        int d = indexOf(donorGroup);
+        return d >= 0 && (compatibleDonorMask(recipientGroup) & (1 << d)) != 0;
+    }
+
+    /**
+     * Donor groups a recipient can receive from, in clinical preference order
+     * The exact group comes first. The rest are ordered so that donors who
+     * can serve the fewest other patients are used first; O- (universal
+     * donor) is always last. An unknown group only matches itself.
+     */
+    public static List<String> compatibleDonorGroups(String recipientGroup) {
+        int r = indexOf(recipientGroup);
+        if (r < 0) {
+            return recipientGroup == null ? Collections.<String>emptyList()
+                                          : Collections.singletonList(recipientGroup);
+        }
+        return PREFERENCE.get(r);
+    }
+
+    /**
+     * Position of a donor group in a recipient's preference order
+     * @return 0 for the preferred group, Integer.MAX_VALUE if incompatible
+     */
+    public static int preferenceRank(String donorGroup, String recipientGroup) {
+        List<String> groups = compatibleDonorGroups(recipientGroup);
+        for (int i = 0; i < groups.size(); i++) {
+            if (groups.get(i).equalsIgnoreCase(donorGroup)) {
+                return i;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private static List<String> rankDonors(int r) {
+        List<Integer> donors = new ArrayList<>();
+        for (int d = 0; d < GROUPS.length; d++) {
+            if ((DONORS_FOR[r] & (1 << d)) != 0) {
+                donors.add(d);
+            }
+        }
+        String recipientAbo = abo(GROUPS[r]);
+        donors.sort((a, b) -> {
+            if (a == r || b == r) {
+                return a == r ? (b == r ? 0 : -1) : 1;
+            }
+            int cmp = Integer.compare(recipientsServed(a), recipientsServed(b));
+            if (cmp != 0) {
+                return cmp;
+            }
+            // Same ABO type as the recipient before other types
+            boolean sameA = abo(GROUPS[a]).equals(recipientAbo);
+            boolean sameB = abo(GROUPS[b]).equals(recipientAbo);
+            if (sameA != sameB) {
+                return sameA ? -1 : 1;
+            }
+            return Integer.compare(a, b);
+        });
+
+        List<String> groups = new ArrayList<>();
+        for (int d : donors) {
+            groups.add(GROUPS[d]);
+        }
+        return groups;
+    }
+
+    private static int recipientsServed(int d) {
+        int count = 0;
+        for (int mask : DONORS_FOR) {
+            if ((mask & (1 << d)) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * ABO rule: every antigen on the donor's cells must be on the recipient's.
+     * Rh rule: Rh+ blood only goes to Rh+ recipients.
+     */
+    private static boolean canGive(String donor, String recipient) {
+        String donorAbo = abo(donor);
+        String recipientAbo = abo(recipient);
+        boolean aboOk = donorAbo.equals("O") || donorAbo.equals(recipientAbo) || recipientAbo.equals("AB");
+        boolean rhOk = donor.endsWith("-") || recipient.endsWith("+");
+        return aboOk && rhOk;
+    }
+
+    private static String abo(String group) {
+        return group.substring(0, group.length() - 1);
+    }
+}
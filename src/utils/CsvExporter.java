@@ -0,0 +1,106 @@
+package utils;
+
+import database.DonorRepository;
+import database.RecipientRepository;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Exports donors and recipients to CSV files
+ * Rows are streamed from the repository straight to the file, so memory
+ * use does not grow with the size of the registry.
+ */
+public class CsvExporter {
+
+    // Private constructor to prevent instantiation
+    private CsvExporter() {
+    }
+
+    /**
+     * Write all donors to a CSV file, newest registration first
+     * @return Number of donors written
+     */
+    public static int exportDonors(DonorRepository repository, File file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writeLine(out, "donor_id", "name", "age", "gender", "blood_group", "organ", "contact", "location");
+            int count = repository.forEachDonor(donor -> writeLine(out,
+                String.valueOf(donor.getDonorId()),
+                donor.getName(),
+                String.valueOf(donor.getAge()),
+                donor.getGender(),
+                donor.getBloodGroup(),
+                donor.getOrgan(),
+                donor.getContact(),
+                donor.getLocation()));
+            return checkCount(count, "donors");
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Write all recipients to a CSV file, newest registration first
+     * @return Number of recipients written
+     */
+    public static int exportRecipients(RecipientRepository repository, File file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writeLine(out, "recipient_id", "name", "age", "gender", "blood_group_needed", "organ_needed",
+                      "contact", "location", "urgency_level", "medical_condition");
+            int count = repository.forEachRecipient(recipient -> writeLine(out,
+                String.valueOf(recipient.getRecipientId()),
+                recipient.getName(),
+                String.valueOf(recipient.getAge()),
+                recipient.getGender(),
+                recipient.getBloodGroupNeeded(),
+                recipient.getOrganNeeded(),
+                recipient.getContact(),
+                recipient.getLocation(),
+                recipient.getUrgencyLevel(),
+                recipient.getMedicalCondition()));
+            return checkCount(count, "recipients");
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static int checkCount(int count, String what) throws IOException {
+        if (count < 0) {
+            throw new IOException("Failed to read " + what + " from the database");
+        }
+        return count;
+    }
+
+    private static void writeLine(Writer out, String... fields) {
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(quote(fields[i]));
+            }
+            out.write(System.lineSeparator());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Quote a CSV field if it contains a separator, quote or line break
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 &&
+            value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"").replace('\r', ' ').replace('\n', ' ') + "\"";
+    }
+}
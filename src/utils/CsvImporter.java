@@ -0,0 +1,411 @@
+package utils;
+
+import database.BulkImportRepository;
+import database.DatabaseConfig;
+import models.Donor;
+import models.Recipient;
+import models.User;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Imports donor and recipient registrations from CSV files
+ * Rows are parsed and validated in parallel with the same rules as the
+ * registration forms, then written in chunks of import.chunkSize rows by
+ * import.writers threads through a BulkImportRepository. Rejected rows are
+ * listed in "<file>.errors.csv" next to the input file.
+ *
+ * Donor columns:     username,password,name,age,gender,blood_group,organ,contact,location
+ * Recipient columns: username,password,name,age,gender,blood_group_needed,organ_needed,
+ *                    contact,location,urgency_level,medical_condition
+ * The header row is required; columns may appear in any order. Fields may
+ * be quoted with double quotes but must not contain line breaks.
+ */
+public class CsvImporter {
+    private static final String[] DONOR_COLUMNS = {
+        "username", "password", "name", "age", "gender", "blood_group", "organ", "contact", "location"
+    };
+
+    private static final String[] RECIPIENT_COLUMNS = {
+        "username", "password", "name", "age", "gender", "blood_group_needed", "organ_needed",
+        "contact", "location", "urgency_level", "medical_condition"
+    };
+
+    private static final String[] GENDERS = {"Male", "Female", "Other"};
+    private static final String[] URGENCY_LEVELS = {"NORMAL", "URGENT", "CRITICAL"};
+
+    private final BulkImportRepository repository;
+    private final int chunkSize;
+    private final int writers;
+
+    /**
+     * Summary of one import run
+     */
+    public static class Result {
+        private final int total;
+        private final int imported;
+        private final long elapsedMillis;
+        private final File errorReport;
+
+        Result(int total, int imported, long elapsedMillis, File errorReport) {
+            this.total = total;
+            this.imported = imported;
+            this.elapsedMillis = elapsedMillis;
+            this.errorReport = errorReport;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getRejected() {
+            return total - imported;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * @return Error report file, or null if every row was imported
+         */
+        public File getErrorReport() {
+            return errorReport;
+        }
+
+        @Override
+        public String toString() {
+            long rowsPerMinute = elapsedMillis > 0 ? total * 60000L / elapsedMillis : total;
+            return imported + " of " + total + " rows imported, " + getRejected() + " rejected in " +
+                   elapsedMillis + " ms (" + rowsPerMinute + " rows/min)" +
+                   (errorReport != null ? "\nErrors written to " + errorReport.getPath() : "");
+        }
+    }
+
+    /**
+     * Parsed row or the reason it was rejected
+     */
+    private static class Row<T> {
+        final T value;
+        final String username;
+        String error;
+
+        Row(T value, String username, String error) {
+            this.value = value;
+            this.username = username;
+            this.error = error;
+        }
+    }
+
+    public CsvImporter(BulkImportRepository repository) {
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        this.repository = repository;
+        this.chunkSize = Math.max(1, config.getInt("import.chunkSize", 1000));
+        this.writers = Math.max(1, config.getInt("import.writers", 4));
+    }
+
+    /**
+     * Import donors from a CSV file
+     */
+    public Result importDonors(File csv) throws IOException {
+        return importFile(csv, DONOR_COLUMNS, CsvImporter::parseDonor, repository::importDonors);
+    }
+
+    /**
+     * Import recipients from a CSV file
+     */
+    public Result importRecipients(File csv) throws IOException {
+        return importFile(csv, RECIPIENT_COLUMNS, CsvImporter::parseRecipient, repository::importRecipients);
+    }
+
+    private <T extends User> Result importFile(File csv, String[] columns,
+                                               Function<Map<String, String>, T> parser,
+                                               Function<List<T>, String[]> writer) throws IOException {
+        long start = System.currentTimeMillis();
+        List<String> lines = Files.readAllLines(csv.toPath(), StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            throw new IOException("CSV file is empty: " + csv);
+        }
+
+        String[] header = splitLine(stripBom(lines.get(0)));
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            positions.put(header[i].trim().toLowerCase(), i);
+        }
+        for (String column : columns) {
+            if (!positions.containsKey(column)) {
+                throw new IOException("Missing column '" + column + "' in " + csv);
+            }
+        }
+
+        // Parse and validate in parallel; rows.get(i) is line i + 1 (null for a blank line)
+        List<Row<T>> rows = IntStream.range(1, lines.size()).parallel()
+            .mapToObj(i -> parseRow(lines.get(i), columns, positions, parser))
+            .collect(Collectors.toList());
+
+        // Usernames must also be unique within the file
+        Set<String> seen = new HashSet<>();
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Row<T> row = rows.get(i);
+            if (row == null) {
+                continue; // Blank line
+            }
+            if (row.error == null && !seen.add(row.username)) {
+                row.error = "Duplicate username in file";
+            }
+            if (row.error == null) {
+                valid.add(i);
+            }
+        }
+
+        int imported = writeChunks(rows, valid, writer);
+
+        File report = null;
+        if (imported < countRows(rows)) {
+            report = new File(csv.getPath() + ".errors.csv");
+            writeErrorReport(report, rows);
+        }
+        return new Result(countRows(rows), imported, System.currentTimeMillis() - start, report);
+    }
+
+    private <T> int writeChunks(List<Row<T>> rows, List<Integer> valid, Function<List<T>, String[]> writer)
+            throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(writers, r -> {
+            Thread t = new Thread(r, "csv-import");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int from = 0; from < valid.size(); from += chunkSize) {
+                List<Integer> indexes = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+                results.add(pool.submit(() -> writeChunk(rows, indexes, writer)));
+            }
+
+            int imported = 0;
+            for (Future<Integer> result : results) {
+                imported += result.get();
+            }
+            return imported;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <T> int writeChunk(List<Row<T>> rows, List<Integer> indexes, Function<List<T>, String[]> writer) {
+        List<T> chunk = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            chunk.add(rows.get(i).value);
+        }
+
+        String[] errors = writer.apply(chunk);
+        int imported = 0;
+        for (int k = 0; k < indexes.size(); k++) {
+            if (errors[k] == null) {
+                imported++;
+            } else {
+                rows.get(indexes.get(k)).error = errors[k];
+            }
+        }
+        return imported;
+    }
+
+    private static void writeErrorReport(File report, List<? extends Row<?>> rows) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8)) {
+            out.write("line,username,error");
+            out.newLine();
+            for (int i = 0; i < rows.size(); i++) {
+                Row<?> row = rows.get(i);
+                if (row != null && row.error != null) {
+                    out.write((i + 2) + "," + CsvExporter.quote(row.username) + "," + CsvExporter.quote(row.error));
+                    out.newLine();
+                }
+            }
+        }
+    }
+
+    private static int countRows(List<? extends Row<?>> rows) {
+        int count = 0;
+        for (Row<?> row : rows) {
+            if (row != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static <T> Row<T> parseRow(String line, String[] columns, Map<String, Integer> positions,
+                                       Function<Map<String, String>, T> parser) {
+        if (line.trim().isEmpty()) {
+            return null;
+        }
+
+        String[] fields = splitLine(line);
+        Map<String, String> values = new HashMap<>();
+        for (String column : columns) {
+            int position = positions.get(column);
+            values.put(column, position < fields.length ? fields[position].trim() : "");
+        }
+
+        try {
+            return new Row<>(parser.apply(values), values.get("username"), null);
+        } catch (IllegalArgumentException e) {
+            return new Row<>(null, values.get("username"), e.getMessage());
+        }
+    }
+
+    private static Donor parseDonor(Map<String, String> values) {
+        Donor donor = new Donor(values.get("username"), values.get("password"));
+        checkAccount(donor);
+
+        int age = parseAge(values.get("age"));
+        if (!ValidationUtils.isValidDonorAge(age)) {
+            throw new IllegalArgumentException("Donor age must be between 18 and 65");
+        }
+        String bloodGroup = values.get("blood_group");
+        if (!ValidationUtils.isValidBloodGroup(bloodGroup)) {
+            throw new IllegalArgumentException("Invalid blood group: " + bloodGroup);
+        }
+        String organ = values.get("organ");
+
+        donor.setName(require(values, "name"));
+        donor.setAge(age);
+        donor.setGender(parseChoice(values.get("gender"), GENDERS, "gender"));
+        donor.setBloodGroup(bloodGroup);
+        donor.setOrgan(organ.isEmpty() ? "None" : organ);
+        donor.setContact(parseContact(values.get("contact")));
+        donor.setLocation(require(values, "location"));
+        return donor;
+    }
+
+    private static Recipient parseRecipient(Map<String, String> values) {
+        Recipient recipient = new Recipient(values.get("username"), values.get("password"));
+        checkAccount(recipient);
+
+        int age = parseAge(values.get("age"));
+        if (!ValidationUtils.isValidAge(age)) {
+            throw new IllegalArgumentException("Age must be between 1 and 120");
+        }
+        String bloodGroup = values.get("blood_group_needed");
+        if (!ValidationUtils.isValidBloodGroup(bloodGroup)) {
+            throw new IllegalArgumentException("Invalid blood group: " + bloodGroup);
+        }
+        String urgency = values.get("urgency_level");
+
+        recipient.setName(require(values, "name"));
+        recipient.setAge(age);
+        recipient.setGender(parseChoice(values.get("gender"), GENDERS, "gender"));
+        recipient.setBloodGroupNeeded(bloodGroup);
+        recipient.setOrganNeeded(values.get("organ_needed"));
+        recipient.setContact(parseContact(values.get("contact")));
+        recipient.setLocation(require(values, "location"));
+        recipient.setUrgencyLevel(urgency.isEmpty() ? "NORMAL" : parseChoice(urgency, URGENCY_LEVELS, "urgency level"));
+        recipient.setMedicalCondition(values.get("medical_condition"));
+        return recipient;
+    }
+
+    private static void checkAccount(User user) {
+        if (!ValidationUtils.isNotEmpty(user.getUsername())) {
+            throw new IllegalArgumentException("Username is required");
+        }
+        if (!ValidationUtils.isValidPassword(user.getPassword())) {
+            throw new IllegalArgumentException("Password must be at least 6 characters long");
+        }
+    }
+
+    private static String require(Map<String, String> values, String column) {
+        String value = values.get(column);
+        if (!ValidationUtils.isNotEmpty(value)) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        return value;
+    }
+
+    private static int parseAge(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid age: " + value);
+        }
+    }
+
+    private static String parseContact(String value) {
+        if (!ValidationUtils.isValidPhoneNumber(value)) {
+            throw new IllegalArgumentException("Contact must be a 10-digit phone number");
+        }
+        return value;
+    }
+
+    private static String parseChoice(String value, String[] choices, String name) {
+        for (String choice : choices) {
+            if (choice.equalsIgnoreCase(value)) {
+                return choice;
+            }
+        }
+        throw new IllegalArgumentException("Invalid " + name + ": " + value);
+    }
+
+    /**
+     * Split one CSV line, honouring double-quoted fields and "" escapes
+     */
+    static String[] splitLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+}
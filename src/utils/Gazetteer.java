@@ -0,0 +1,151 @@
+package utils;
+
+import database.DatabaseConfig;
+import models.Donor;
+import models.Recipient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Offline place-name lookup that turns free-text locations into coordinates
+ * Places are read once from gazetteer.file (default data/gazetteer.csv, with
+ * columns name,latitude,longitude). A location such as "12 MG Road, Pune"
+ * is resolved by trying the whole text, then each comma-separated part from
+ * the last one, then each word and word pair from the end.
+ * Singleton pattern implementation
+ */
+public class Gazetteer {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private static Gazetteer instance;
+
+    private final Map<String, double[]> places = new HashMap<>();
+
+    Gazetteer(String file) {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            String line = reader.readLine(); // Header
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length < 3) {
+                    continue;
+                }
+                try {
+                    places.put(normalize(fields[0]), new double[] {
+                        Double.parseDouble(fields[1].trim()), Double.parseDouble(fields[2].trim())
+                    });
+                } catch (NumberFormatException e) {
+                    System.err.println("Skipping gazetteer line: " + line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Gazetteer not loaded (" + file + "): " + e.getMessage());
+        }
+    }
+
+    public static synchronized Gazetteer getInstance() {
+        if (instance == null) {
+            instance = new Gazetteer(DatabaseConfig.getInstance().getString("gazetteer.file", "data/gazetteer.csv"));
+        }
+        return instance;
+    }
+
+    /**
+     * Coordinates of a free-text location
+     * @return {latitude, longitude}, or null if no known place is mentioned
+     */
+    public double[] locate(String location) {
+        if (location == null || places.isEmpty()) {
+            return null;
+        }
+        String text = normalize(location);
+        double[] point = places.get(text);
+        if (point != null) {
+            return point;
+        }
+
+        String[] parts = text.split(",");
+        for (int i = parts.length - 1; i >= 0; i--) {
+            point = places.get(parts[i].trim());
+            if (point != null) {
+                return point;
+            }
+        }
+
+        String[] words = text.split("[^\\p{L}]+");
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (i > 0) {
+                point = places.get(words[i - 1] + " " + words[i]);
+                if (point != null) {
+                    return point;
+                }
+            }
+            point = places.get(words[i]);
+            if (point != null) {
+                return point;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Set a donor's coordinates from its location (cleared if unknown)
+     */
+    public void resolve(Donor donor) {
+        double[] point = locate(donor.getLocation());
+        donor.setLatitude(point != null ? point[0] : null);
+        donor.setLongitude(point != null ? point[1] : null);
+    }
+
+    /**
+     * Set a recipient's coordinates from its location (cleared if unknown)
+     */
+    public void resolve(Recipient recipient) {
+        double[] point = locate(recipient.getLocation());
+        recipient.setLatitude(point != null ? point[0] : null);
+        recipient.setLongitude(point != null ? point[1] : null);
+    }
+
+    /**
+     * Great-circle (haversine) distance between two points
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Latitude/longitude box containing every point within a radius
+     * @return {minLat, maxLat, minLon, maxLon}
+     */
+    public static double[] boundingBox(double lat, double lon, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double minLat = Math.max(-90, lat - dLat);
+        double maxLat = Math.min(90, lat + dLat);
+        double cos = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double dLon = cos > 1e-6 ? Math.min(180, radiusKm / (KM_PER_DEGREE * cos)) : 180;
+        return new double[] {minLat, maxLat, lon - dLon, lon + dLon};
+    }
+
+    /**
+     * Length of one degree of latitude
+     */
+    public static double kmPerDegree() {
+        return KM_PER_DEGREE;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+}
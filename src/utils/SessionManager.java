@@ -9,6 +9,9 @@ import models.User;
 public class SessionManager {
     private static SessionManager instance;
     private User currentUser;
+    // Time of this client's last database write, kept across logout so a
+    // freshly registered user still reads their own rows after logging in
+    private volatile long lastWriteMillis = 0;
     
     private SessionManager() {
     }
@@ -43,4 +46,16 @@ public class SessionManager {
     public int getCurrentUserId() {
         return currentUser != null ? currentUser.getUserId() : -1;
     }
+    
+    public void recordWrite() {
+        lastWriteMillis = System.currentTimeMillis();
+    }
+    
+    /**
+     * Check whether this session wrote within the given window
+     * Used to pin reads to the primary database (read-your-own-writes)
+     */
+    public boolean hasWrittenWithin(long windowMillis) {
+        return System.currentTimeMillis() - lastWriteMillis < windowMillis;
+    }
 }
@@ -1,5 +1,7 @@
 package utils;
 
+import models.Donation;
+
 import javax.swing.JOptionPane;
 
 /**
@@ -7,6 +9,13 @@ import javax.swing.JOptionPane;
  */
 public class ValidationUtils {
     
+    // Limits of the donation table's columns
+    public static final double MIN_DONATION_AMOUNT = 0.01;
+    public static final double MAX_DONATION_AMOUNT = 99999999.99;
+    public static final int MAX_DONOR_NAME_LENGTH = 100;
+    public static final int MAX_PAYMENT_METHOD_LENGTH = 50;
+    public static final int MAX_TRANSACTION_ID_LENGTH = 64;
+    
     /**
      * Validate if string is not empty
      */
@@ -81,6 +90,35 @@ public class ValidationUtils {
         return amount > 0;
     }
     
+    /**
+     * Validate donation amount (at least 0.01 and within donation.amount's DECIMAL(10,2))
+     * NaN and Infinity fail both bounds.
+     */
+    public static boolean isValidDonationAmount(double amount) {
+        return amount >= MIN_DONATION_AMOUNT && amount <= MAX_DONATION_AMOUNT;
+    }
+    
+    /**
+     * Validate text length against its column size (null counts as valid)
+     */
+    public static boolean isWithinLength(String value, int maxLength) {
+        return value == null || value.length() <= maxLength;
+    }
+    
+    /**
+     * Validate a donation against the donation table's column limits
+     * Checked before a donation is journaled, so one the database would
+     * reject (or truncate) never reaches the journal.
+     */
+    public static boolean isValidDonation(Donation donation) {
+        return donation.getRequestId() > 0 &&
+               isValidDonationAmount(donation.getAmount()) &&
+               isNotEmpty(donation.getDonorName()) &&
+               isWithinLength(donation.getDonorName(), MAX_DONOR_NAME_LENGTH) &&
+               isWithinLength(donation.getPaymentMethod(), MAX_PAYMENT_METHOD_LENGTH) &&
+               isWithinLength(donation.getTransactionId(), MAX_TRANSACTION_ID_LENGTH);
+    }
+    
     /**
      * Show error message dialog
      */